@@ -0,0 +1,116 @@
+package edit_distance.benchmarks;
+
+import edit_distance.entities.EditCostModel;
+import edit_distance.entities.EditOperation;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Random;
+
+/**
+ * Inputs of the benchmarks: pairs of random words with a given similarity, and the cost models.
+ */
+final class BenchmarkInputs {
+
+    /**
+     * Seed of the random words, so that all runs measure the same pairs.
+     */
+    private static final long SEED = 42;
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private BenchmarkInputs() {
+    }
+
+    /**
+     * Generates a random starting word and a target word obtained by editing it.
+     *
+     * @param length       The length of the starting word.
+     * @param alphabetSize The number of letters of the alphabet (at most 26).
+     * @param similarity   The fraction (between 0 and 1) of letters of the starting word which are copied
+     *                     in the target word: each other letter is replaced, deleted, twiddled with the
+     *                     next one or preceded by an inserted letter.
+     * @return the starting word and the target word.
+     */
+    @NotNull
+    static String[] generatePair(final int length, final int alphabetSize, final double similarity) {
+        return generatePair(new Random(SEED), length, alphabetSize, similarity);
+    }
+
+    /**
+     * Like {@link #generatePair(int, int, double)}, but with the given random generator,
+     * to generate different pairs.
+     *
+     * @param random       The random generator.
+     * @param length       The length of the starting word.
+     * @param alphabetSize The number of letters of the alphabet (at most 26).
+     * @param similarity   The fraction (between 0 and 1) of letters of the starting word which are copied
+     *                     in the target word.
+     * @return the starting word and the target word.
+     */
+    @NotNull
+    static String[] generatePair(@NotNull final Random random, final int length, final int alphabetSize,
+                                 final double similarity) {
+        final StringBuilder startingWord = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            startingWord.append(randomLetter(random, alphabetSize));
+        }
+        final StringBuilder targetWord = new StringBuilder(length + length / 4);
+        for (int i = 0; i < length; i++) {
+            if (random.nextDouble() < similarity) {
+                targetWord.append(startingWord.charAt(i));
+                continue;
+            }
+            switch (random.nextInt(4)) {
+                case 0:     // replace
+                    targetWord.append(randomLetter(random, alphabetSize));
+                    break;
+                case 1:     // delete
+                    break;
+                case 2:     // twiddle
+                    if (i + 1 < length) {
+                        targetWord.append(startingWord.charAt(i + 1));
+                        targetWord.append(startingWord.charAt(i++));
+                    } else {
+                        targetWord.append(startingWord.charAt(i));
+                    }
+                    break;
+                default:    // insert
+                    targetWord.append(randomLetter(random, alphabetSize)).append(startingWord.charAt(i));
+            }
+        }
+        return new String[]{startingWord.toString(), targetWord.toString()};
+    }
+
+    /**
+     * @param random       The random generator.
+     * @param alphabetSize The number of letters of the alphabet.
+     * @return a random letter.
+     */
+    private static char randomLetter(@NotNull final Random random, final int alphabetSize) {
+        return (char) ('a' + random.nextInt(alphabetSize));
+    }
+
+    /**
+     * @param name The name of the costs: <code>DEFAULT</code> (with {@link EditOperation#TWIDDLE} and
+     *             {@link EditOperation#KILL}), <code>LEVENSHTEIN</code> (without them), <code>TWIDDLE</code> or
+     *             <code>KILL</code> (Levenshtein costs plus the named operation).
+     * @return the cost model with the given name.
+     * @throws IllegalArgumentException if the name is unknown.
+     */
+    @NotNull
+    static EditCostModel costModel(@NotNull final String name) {
+        switch (name) {
+            case "DEFAULT":
+                return EditCostModel.DEFAULT;
+            case "LEVENSHTEIN":
+                return EditCostModel.LEVENSHTEIN;
+            case "TWIDDLE":
+                return EditCostModel.LEVENSHTEIN.withTwiddle(true);
+            case "KILL":
+                return EditCostModel.LEVENSHTEIN.withKill(true);
+            default:
+                throw new IllegalArgumentException("Unknown costs: " + name);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package edit_distance.benchmarks;
+
+import edit_distance.entities.EditCostModel;
+import edit_distance.entities.EditDistanceCalculator;
+import edit_distance.entities.EditScript;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of {@link EditDistanceCalculator}, which builds the whole cost matrix and operation matrix
+ * (hence the lengths are limited: memory grows with the product of the lengths).
+ * The {@link EditDistanceCalculator#getEditDistance()} of an instance only reads a field, hence its cost is
+ * the one of the constructor; the distance-only path is measured by {@link LinearMemoryBenchmark}.
+ * <p/>
+ * Both the throughput and the distribution of latencies (with percentiles) are measured; allocations
+ * per operation (<code>gc.alloc.rate.norm</code>) are reported when running with <code>-prof gc</code>.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class EditDistanceCalculatorBenchmark {
+
+    /**
+     * The length of the starting word.
+     */
+    @Param({"5", "100", "1000"})
+    public int length;
+
+    /**
+     * The number of letters of the alphabet.
+     */
+    @Param({"4", "26"})
+    public int alphabetSize;
+
+    /**
+     * The fraction of letters of the starting word copied in the target word.
+     */
+    @Param({"0.5", "0.9"})
+    public double similarity;
+
+    /**
+     * The name of the costs (see {@link BenchmarkInputs#costModel(String)}).
+     */
+    @Param({"DEFAULT", "LEVENSHTEIN", "TWIDDLE", "KILL"})
+    public String costs;
+
+    /**
+     * The starting word.
+     */
+    private String startingWord;
+
+    /**
+     * The target word.
+     */
+    private String targetWord;
+
+    /**
+     * The costs of the operations.
+     */
+    private EditCostModel costModel;
+
+    /**
+     * Generates the pair of words.
+     */
+    @Setup(Level.Trial)
+    public void generatePair() {
+        final String[] pair = BenchmarkInputs.generatePair(length, alphabetSize, similarity);
+        startingWord = pair[0];
+        targetWord = pair[1];
+        costModel = BenchmarkInputs.costModel(costs);
+    }
+
+    /**
+     * @return a new instance (the matrices are filled by the constructor).
+     */
+    @Benchmark
+    public EditDistanceCalculator constructor() {
+        return new EditDistanceCalculator(startingWord, targetWord, costModel);
+    }
+
+    /**
+     * @return the edit distance of a new instance.
+     */
+    @Benchmark
+    public int getEditDistance() {
+        return new EditDistanceCalculator(startingWord, targetWord, costModel).getEditDistance();
+    }
+
+    /**
+     * @return the edit script of a new instance (it is cached by the instance, hence
+     * a new instance is needed to measure the traceback).
+     */
+    @Benchmark
+    public EditScript getEditScript() {
+        return new EditDistanceCalculator(startingWord, targetWord, costModel).getEditScript();
+    }
+
+    /**
+     * @return the textual representation of the cost matrix of a new instance.
+     */
+    @Benchmark
+    public String getCostMatrixToString() {
+        return new EditDistanceCalculator(startingWord, targetWord, costModel).getCostMatrixToString();
+    }
+}
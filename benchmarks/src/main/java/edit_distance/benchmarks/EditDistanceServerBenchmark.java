@@ -0,0 +1,134 @@
+package edit_distance.benchmarks;
+
+import edit_distance.EditDistanceServer;
+import edit_distance.entities.EditCostModel;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the requests to an {@link EditDistanceServer} on the loopback interface, sent by the
+ * HTTP client of the JDK: the latency of a single distance and of a dictionary lookup (run them with
+ * more threads, e.g. <code>-t 8</code>, for concurrent clients) and the throughput of the batches.
+ * The server handles the requests with virtual threads when the benchmarks are run with Java 21 or later,
+ * and without the algorithm of Nagle, as in the server mode of the command line.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 2, jvmArgsAppend = {"-Xms2g", "-Xmx2g", "-Dsun.net.httpserver.nodelay=true"})
+public class EditDistanceServerBenchmark {
+
+    /**
+     * The length of the words.
+     */
+    @Param({"8", "64"})
+    public int length;
+
+    /**
+     * The number of pairs of a batch, which is also the number of words of the dictionary.
+     */
+    @Param({"10000"})
+    public int pairsPerBatch;
+
+    /**
+     * The server.
+     */
+    private EditDistanceServer server;
+
+    /**
+     * The client.
+     */
+    private HttpClient client;
+
+    /**
+     * The request of a single distance.
+     */
+    private HttpRequest distanceRequest;
+
+    /**
+     * The request of a lookup in the dictionary.
+     */
+    private HttpRequest lookupRequest;
+
+    /**
+     * The request of a batch.
+     */
+    private HttpRequest batchRequest;
+
+    /**
+     * Starts the server and prepares the requests.
+     *
+     * @throws IOException if the server cannot be started.
+     */
+    @Setup(Level.Trial)
+    public void startServer() throws IOException {
+        final Random random = new Random(42);
+        final List<String> dictionary = new ArrayList<>();
+        final StringBuilder batch = new StringBuilder();
+        for (int p = 0; p < pairsPerBatch; p++) {
+            final String[] pair = BenchmarkInputs.generatePair(random, length, 26, 0.7);
+            dictionary.add(pair[1]);
+            batch.append(pair[0]).append('\t').append(pair[1]).append('\n');
+        }
+        final String[] pair = BenchmarkInputs.generatePair(random, length, 26, 0.7);
+        server = new EditDistanceServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0),
+                EditCostModel.LEVENSHTEIN, dictionary, Runtime.getRuntime().availableProcessors());
+        server.start();
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        final String base = "http://" + InetAddress.getLoopbackAddress().getHostAddress() + ":" + server.getPort();
+        distanceRequest = HttpRequest.newBuilder(
+                URI.create(base + "/distance?from=" + pair[0] + "&to=" + pair[1])).build();
+        lookupRequest = HttpRequest.newBuilder(URI.create(base + "/lookup?query=" + pair[0] + "&k=5")).build();
+        batchRequest = HttpRequest.newBuilder(URI.create(base + "/batch"))
+                .POST(HttpRequest.BodyPublishers.ofString(batch.toString(), StandardCharsets.UTF_8)).build();
+    }
+
+    /**
+     * Stops the server.
+     */
+    @TearDown(Level.Trial)
+    public void stopServer() {
+        server.close();
+    }
+
+    /**
+     * @return the response with a single edit distance.
+     * @throws Exception if the request fails.
+     */
+    @Benchmark
+    public String distance() throws Exception {
+        return client.send(distanceRequest, HttpResponse.BodyHandlers.ofString()).body();
+    }
+
+    /**
+     * @return the response with the 5 words of the dictionary closest to a query.
+     * @throws Exception if the request fails.
+     */
+    @Benchmark
+    public String lookup() throws Exception {
+        return client.send(lookupRequest, HttpResponse.BodyHandlers.ofString()).body();
+    }
+
+    /**
+     * @return the number of bytes of the response of a batch.
+     * @throws Exception if the request fails.
+     */
+    @Benchmark
+    public int batch() throws Exception {
+        return client.send(batchRequest, HttpResponse.BodyHandlers.ofByteArray()).body().length;
+    }
+}
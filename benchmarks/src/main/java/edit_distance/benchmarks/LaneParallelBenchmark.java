@@ -0,0 +1,118 @@
+package edit_distance.benchmarks;
+
+import edit_distance.entities.EditCostModel;
+import edit_distance.entities.EditDistanceAlgorithm;
+import edit_distance.entities.EditDistanceEngine;
+import edit_distance.entities.LaneParallelEditDistanceCalculator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of a batch of many pairs of short words (5-20 letters, like tokens), computed one pair at a time by
+ * {@link EditDistanceEngine} or in lanes by {@link LaneParallelEditDistanceCalculator}. The lanes are filled with
+ * the Vector API only if the module <code>jdk.incubator.vector</code> is added to the forked JVM (Java 17 or
+ * later), otherwise with the scalar loops, hence both kernels are measured by the same method in different forks.
+ * <p/>
+ * A single operation computes the whole batch: divide by {@link #numberOfPairs} for the time per pair.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class LaneParallelBenchmark {
+
+    /**
+     * The number of pairs of the batch.
+     */
+    @Param({"10000"})
+    public int numberOfPairs;
+
+    /**
+     * The number of letters of the alphabet.
+     */
+    @Param({"4", "26"})
+    public int alphabetSize;
+
+    /**
+     * The name of the costs (see {@link BenchmarkInputs#costModel(String)}): the lanes do not apply the
+     * {@link edit_distance.entities.EditOperation#KILL} to the cells, hence it is not a parameter.
+     */
+    @Param({"DEFAULT", "LEVENSHTEIN", "TWIDDLE"})
+    public String costs;
+
+    /**
+     * The starting words.
+     */
+    private List<String> startingWords;
+
+    /**
+     * The target words.
+     */
+    private List<String> targetWords;
+
+    /**
+     * The costs of the operations.
+     */
+    private EditCostModel costModel;
+
+    /**
+     * The engine computing the pairs one at a time.
+     */
+    private EditDistanceEngine engine;
+
+    /**
+     * Generates the pairs of words, of random lengths between 5 and 20.
+     */
+    @Setup(Level.Trial)
+    public void generatePairs() {
+        final Random random = new Random(numberOfPairs);
+        startingWords = new ArrayList<>(numberOfPairs);
+        targetWords = new ArrayList<>(numberOfPairs);
+        for (int p = 0; p < numberOfPairs; p++) {
+            final String[] pair = BenchmarkInputs.generatePair(random, 5 + random.nextInt(16), alphabetSize, 0.5);
+            startingWords.add(pair[0]);
+            targetWords.add(pair[1]);
+        }
+        costModel = BenchmarkInputs.costModel(costs);
+        engine = new EditDistanceEngine(costModel, EditDistanceAlgorithm.getFastestApplicable(costModel));
+    }
+
+    /**
+     * @return the sum of the edit distances, computed one pair at a time.
+     */
+    @Benchmark
+    public int engine() {
+        int sum = 0;
+        for (int p = 0; p < numberOfPairs; p++) {
+            sum += engine.compute(startingWords.get(p), targetWords.get(p));
+        }
+        return sum;
+    }
+
+    /**
+     * @return the edit distances, computed in lanes filled with the scalar loops.
+     */
+    @Benchmark
+    public int[] scalarLanes() {
+        return LaneParallelEditDistanceCalculator.computeAll(startingWords, targetWords, costModel);
+    }
+
+    /**
+     * @return the edit distances, computed in lanes filled with the Vector API.
+     * @throws IllegalStateException if the Vector API is not available (Java older than 17).
+     */
+    @Benchmark
+    @Fork(value = 2, jvmArgsAppend = {"-Xms2g", "-Xmx2g", "--add-modules", "jdk.incubator.vector"})
+    public int[] vectorLanes() {
+        if (!LaneParallelEditDistanceCalculator.isVectorized()) {
+            throw new IllegalStateException("The module jdk.incubator.vector is not available.");
+        }
+        return LaneParallelEditDistanceCalculator.computeAll(startingWords, targetWords, costModel);
+    }
+}
@@ -0,0 +1,94 @@
+package edit_distance.benchmarks;
+
+import edit_distance.entities.AppliedEditOperation;
+import edit_distance.entities.EditCostModel;
+import edit_distance.entities.EditDistanceCalculator;
+import edit_distance.entities.HirschbergEditDistanceCalculator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the computations whose memory is linear in the lengths of the words, hence
+ * applicable to long words: the edit distance only ({@link EditDistanceCalculator#computeEditDistance})
+ * and the sequence of operations with the algorithm of Hirschberg.
+ * <p/>
+ * With words of 100k letters an operation takes seconds: restrict the parameters
+ * (e.g., <code>-p length=5,100</code>) for quick runs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 2, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class LinearMemoryBenchmark {
+
+    /**
+     * The length of the starting word.
+     */
+    @Param({"5", "100", "10000", "100000"})
+    public int length;
+
+    /**
+     * The number of letters of the alphabet.
+     */
+    @Param({"4", "26"})
+    public int alphabetSize;
+
+    /**
+     * The fraction of letters of the starting word copied in the target word.
+     */
+    @Param({"0.5", "0.9"})
+    public double similarity;
+
+    /**
+     * The name of the costs (see {@link BenchmarkInputs#costModel(String)}).
+     */
+    @Param({"DEFAULT", "LEVENSHTEIN", "TWIDDLE", "KILL"})
+    public String costs;
+
+    /**
+     * The starting word.
+     */
+    private String startingWord;
+
+    /**
+     * The target word.
+     */
+    private String targetWord;
+
+    /**
+     * The costs of the operations.
+     */
+    private EditCostModel costModel;
+
+    /**
+     * Generates the pair of words.
+     */
+    @Setup(Level.Trial)
+    public void generatePair() {
+        final String[] pair = BenchmarkInputs.generatePair(length, alphabetSize, similarity);
+        startingWord = pair[0];
+        targetWord = pair[1];
+        costModel = BenchmarkInputs.costModel(costs);
+    }
+
+    /**
+     * @return the edit distance, computed with rolling rows (or bit-parallelism, if applicable).
+     */
+    @Benchmark
+    public int computeEditDistance() {
+        return EditDistanceCalculator.computeEditDistance(startingWord, targetWord, costModel);
+    }
+
+    /**
+     * @return the sequence of operations, computed with the algorithm of Hirschberg.
+     */
+    @Benchmark
+    public List<AppliedEditOperation> hirschbergSequenceOfOperations() {
+        return HirschbergEditDistanceCalculator.getSequenceOfOperationComputedToTransformStartingWordToTargetWord(
+                startingWord, targetWord, costModel);
+    }
+}
@@ -0,0 +1,536 @@
+package edit_distance;
+
+import edit_distance.entities.EditCostModel;
+import edit_distance.entities.EditDistanceEngine;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * This class computes the edit distances of the pairs of words listed in a (possibly huge) file,
+ * one pair per line with the two words separated by a separator character (e.g., a tab for TSV files,
+ * a comma for CSV files without quoted fields). The file is UTF-8 encoded and lines end with
+ * <code>\n</code> (an optional <code>\r</code> before it is ignored); empty lines are skipped.
+ * <p/>
+ * The input file is memory-mapped in regions of at most {@link #BYTES_PER_MAPPED_REGION} bytes, which are
+ * split in chunks of about {@link #BYTES_PER_CHUNK} bytes ending at the end of a line. Chunks are processed
+ * in parallel by a fixed number of threads, each one decoding the words in reusable buffers (without
+ * creating {@link String}s) and computing the edit distances with its own {@link EditDistanceEngine}.
+ * For each pair, the output file gets the line of the input followed by the separator and the edit distance,
+ * in the same order of the input. At most {@link #CHUNKS_IN_FLIGHT_PER_THREAD} chunks per thread are
+ * waiting to be written, hence the used memory does not depend on the size of the input.
+ */
+final class BulkPairProcessor {
+
+    /**
+     * The default maximum number of bytes of a mapped region of the input.
+     */
+    static final int BYTES_PER_MAPPED_REGION = 1 << 30;
+
+    /**
+     * The default approximate number of bytes of a chunk of the input processed by a task.
+     */
+    static final int BYTES_PER_CHUNK = 1 << 20;
+
+    /**
+     * The maximum number of chunks for each thread being processed or waiting to be written.
+     */
+    private static final int CHUNKS_IN_FLIGHT_PER_THREAD = 2;
+
+    /**
+     * The line feed.
+     */
+    private static final byte LINE_FEED = '\n';
+
+    /**
+     * The carriage return.
+     */
+    private static final byte CARRIAGE_RETURN = '\r';
+
+    /**
+     * The costs of the {@link edit_distance.entities.EditOperation}s.
+     */
+    @NotNull
+    private final EditCostModel costModel;
+
+    /**
+     * The character separating the words of a pair (an ASCII character).
+     */
+    private final byte separator;
+
+    /**
+     * The number of threads.
+     */
+    private final int numberOfThreads;
+
+    /**
+     * The maximum number of bytes of a mapped region of the input.
+     */
+    private final int bytesPerMappedRegion;
+
+    /**
+     * The approximate number of bytes of a chunk of the input processed by a task.
+     */
+    private final int bytesPerChunk;
+
+    /**
+     * The engines of the threads, each one created at the first chunk of its thread and reused by
+     * the following ones (so that its buffers are allocated once per thread instead of once per chunk).
+     */
+    @NotNull
+    private final ThreadLocal<EditDistanceEngine> engines;
+
+    /**
+     * Constructor.
+     *
+     * @param costModel       The costs of the {@link edit_distance.entities.EditOperation}s.
+     * @param separator       The character separating the words of a pair (an ASCII character).
+     * @param numberOfThreads The number of threads computing the edit distances.
+     * @throws IllegalArgumentException if the separator is not an ASCII character or
+     *                                  the number of threads is not positive.
+     */
+    BulkPairProcessor(@NotNull final EditCostModel costModel, final char separator, final int numberOfThreads) {
+        this(costModel, separator, numberOfThreads, BYTES_PER_MAPPED_REGION, BYTES_PER_CHUNK);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param costModel            The costs of the {@link edit_distance.entities.EditOperation}s.
+     * @param separator            The character separating the words of a pair (an ASCII character).
+     * @param numberOfThreads      The number of threads computing the edit distances.
+     * @param bytesPerMappedRegion The maximum number of bytes of a mapped region of the input.
+     * @param bytesPerChunk        The approximate number of bytes of a chunk (positive and not greater than
+     *                             the number of bytes of a mapped region).
+     * @throws IllegalArgumentException if the separator is not an ASCII character, or
+     *                                  the number of threads is not positive, or the sizes are not valid.
+     */
+    BulkPairProcessor(@NotNull final EditCostModel costModel, final char separator, final int numberOfThreads,
+                      final int bytesPerMappedRegion, final int bytesPerChunk) {
+        this.costModel = Objects.requireNonNull(costModel);
+        if (separator >= 0x80 || separator == LINE_FEED || separator == CARRIAGE_RETURN) {
+            throw new IllegalArgumentException("The separator must be an ASCII character different from "
+                    + "line terminators, but '" + separator + "' found.");
+        }
+        if (numberOfThreads <= 0) {
+            throw new IllegalArgumentException(
+                    "The number of threads must be positive, but " + numberOfThreads + " found.");
+        }
+        if (bytesPerChunk <= 0 || bytesPerChunk > bytesPerMappedRegion) {
+            throw new IllegalArgumentException("Invalid sizes of regions (" + bytesPerMappedRegion
+                    + ") and chunks (" + bytesPerChunk + ").");
+        }
+        this.separator = (byte) separator;
+        this.numberOfThreads = numberOfThreads;
+        this.bytesPerMappedRegion = bytesPerMappedRegion;
+        this.bytesPerChunk = bytesPerChunk;
+        this.engines = ThreadLocal.withInitial(() -> new EditDistanceEngine(costModel));
+    }
+
+    /**
+     * Processes the pairs of the input file.
+     *
+     * @param input  The file with the pairs.
+     * @param output The file where the results are written (created or overwritten).
+     * @return the report of the processing.
+     * @throws IOException              if the files cannot be read or written.
+     * @throws IllegalArgumentException if a line does not contain the separator, or it is longer
+     *                                  than a mapped region.
+     */
+    @NotNull
+    Report process(@NotNull final Path input, @NotNull final Path output) throws IOException {
+        final long startTime = System.nanoTime();
+        long numberOfPairs = 0;
+        final ExecutorService executorService = Executors.newFixedThreadPool(numberOfThreads);
+        final ArrayDeque<Future<Chunk>> chunksInFlight = new ArrayDeque<>();
+        try (FileChannel inputChannel = FileChannel.open(Objects.requireNonNull(input), StandardOpenOption.READ);
+             FileChannel outputChannel = FileChannel.open(Objects.requireNonNull(output), StandardOpenOption.CREATE,
+                     StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            final long size = inputChannel.size();
+            long positionOfRegion = 0;
+            while (positionOfRegion < size) {
+                final int bytesOfRegion = (int) Math.min(bytesPerMappedRegion, size - positionOfRegion);
+                final MappedByteBuffer region =
+                        inputChannel.map(FileChannel.MapMode.READ_ONLY, positionOfRegion, bytesOfRegion);
+                final boolean lastRegion = positionOfRegion + bytesOfRegion == size;
+                int startOfChunk = 0;
+                while (startOfChunk < bytesOfRegion) {
+                    int endOfChunk = (int) Math.min((long) startOfChunk + bytesPerChunk, bytesOfRegion);
+                    if (endOfChunk < bytesOfRegion || !lastRegion) {    // to be moved at the end of a line
+                        final int endOfLine = endOfLineAfter(region, endOfChunk - 1);
+                        endOfChunk = endOfLine >= 0 ? endOfLine
+                                : lastRegion ? bytesOfRegion
+                                : endOfLastLine(region, startOfChunk, endOfChunk);
+                    }
+                    if (endOfChunk == startOfChunk) {   // the last line is not terminated in the region
+                        if (startOfChunk == 0) {
+                            throw new IllegalArgumentException("The line at byte " + positionOfRegion
+                                    + " is longer than " + bytesPerMappedRegion + " bytes.");
+                        }
+                        break;  // to be processed in the next region
+                    }
+                    if (chunksInFlight.size() == CHUNKS_IN_FLIGHT_PER_THREAD * numberOfThreads) {
+                        numberOfPairs += write(chunksInFlight.removeFirst(), outputChannel);
+                    }
+                    final ByteBuffer bytesOfChunk = region.duplicate();
+                    bytesOfChunk.position(startOfChunk).limit(endOfChunk);
+                    final long positionOfChunk = positionOfRegion + startOfChunk;
+                    chunksInFlight.addLast(executorService.submit(
+                            () -> processChunk(bytesOfChunk.slice(), positionOfChunk)));
+                    startOfChunk = endOfChunk;
+                }
+                positionOfRegion += startOfChunk;
+            }
+            while (!chunksInFlight.isEmpty()) {
+                numberOfPairs += write(chunksInFlight.removeFirst(), outputChannel);
+            }
+            return new Report(numberOfPairs, size, System.nanoTime() - startTime);
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    /**
+     * @param bytes The bytes.
+     * @param from  The index from which to search.
+     * @return the index after the first line feed at or after the given index, or -1 if there is not.
+     */
+    private static int endOfLineAfter(@NotNull final ByteBuffer bytes, final int from) {
+        for (int i = from, limit = bytes.limit(); i < limit; i++) {
+            if (bytes.get(i) == LINE_FEED) {
+                return i + 1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @param bytes The bytes.
+     * @param from  The index (included) of the first byte to consider.
+     * @param to    The index (excluded) of the last byte to consider.
+     * @return the index after the last line feed in the given range, or the start of the range if there is not.
+     */
+    private static int endOfLastLine(@NotNull final ByteBuffer bytes, final int from, final int to) {
+        for (int i = to - 1; i >= from; i--) {
+            if (bytes.get(i) == LINE_FEED) {
+                return i + 1;
+            }
+        }
+        return from;
+    }
+
+    /**
+     * Waits for a chunk and writes its results.
+     *
+     * @param chunk         The chunk.
+     * @param outputChannel The output channel.
+     * @return the number of pairs of the chunk.
+     * @throws IOException if the results cannot be written.
+     */
+    private static int write(@NotNull final Future<Chunk> chunk, @NotNull final FileChannel outputChannel)
+            throws IOException {
+        final Chunk processedChunk;
+        try {
+            processedChunk = chunk.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for the results.", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        }
+        final ByteBuffer results = ByteBuffer.wrap(processedChunk.results, 0, processedChunk.numberOfBytes);
+        while (results.hasRemaining()) {
+            outputChannel.write(results);
+        }
+        return processedChunk.numberOfPairs;
+    }
+
+    /**
+     * Computes the edit distances of the pairs of a chunk.
+     *
+     * @param bytes    The bytes of the chunk (a sequence of whole lines).
+     * @param position The position of the chunk in the input file, for error messages.
+     * @return the results of the chunk.
+     */
+    @NotNull
+    private Chunk processChunk(@NotNull final ByteBuffer bytes, final long position) {
+        final EditDistanceEngine engine = engines.get();
+        final Chunk chunk = new Chunk(bytes.limit() + bytes.limit() / 4);
+        final Utf8Decoder decoder = new Utf8Decoder();
+        final CharSlice startingWord = new CharSlice();
+        final CharSlice targetWord = new CharSlice();
+        int startOfLine = 0;
+        while (startOfLine < bytes.limit()) {
+            int endOfLine = endOfLineAfter(bytes, startOfLine);
+            final int nextLine = endOfLine < 0 ? bytes.limit() : endOfLine;
+            endOfLine = endOfLine < 0 ? bytes.limit() : endOfLine - 1;
+            if (endOfLine > startOfLine && bytes.get(endOfLine - 1) == CARRIAGE_RETURN) {
+                endOfLine--;
+            }
+            if (endOfLine > startOfLine) {
+                int separatorIndex = startOfLine;
+                while (separatorIndex < endOfLine && bytes.get(separatorIndex) != separator) {
+                    separatorIndex++;
+                }
+                if (separatorIndex == endOfLine) {
+                    throw new IllegalArgumentException(
+                            "The line at byte " + (position + startOfLine) + " does not contain the separator.");
+                }
+                decoder.decode(bytes, startOfLine, separatorIndex, startingWord);
+                decoder.decode(bytes, separatorIndex + 1, endOfLine, targetWord);
+                chunk.append(bytes, startOfLine, endOfLine, separator,
+                        engine.compute(startingWord, targetWord));
+            }
+            startOfLine = nextLine;
+        }
+        return chunk;
+    }
+
+    /**
+     * The results of a chunk: the lines of the input followed by the separator and by the edit distance.
+     */
+    private static final class Chunk {
+
+        /**
+         * The bytes of the results (only the first {@link #numberOfBytes} are meaningful).
+         */
+        private byte[] results;
+        /**
+         * The number of bytes of the results.
+         */
+        private int numberOfBytes;
+        /**
+         * The number of pairs.
+         */
+        private int numberOfPairs;
+
+        /**
+         * @param initialCapacity The initial capacity of the results.
+         */
+        Chunk(final int initialCapacity) {
+            this.results = new byte[Math.max(16, initialCapacity)];
+        }
+
+        /**
+         * Appends the result of a pair.
+         *
+         * @param bytes        The input.
+         * @param startOfLine  The index of the first byte of the line of the pair.
+         * @param endOfLine    The index after the last byte of the line (line terminators excluded).
+         * @param separator    The separator.
+         * @param editDistance The edit distance.
+         */
+        void append(@NotNull final ByteBuffer bytes, final int startOfLine, final int endOfLine,
+                    final byte separator, final int editDistance) {
+            final int length = endOfLine - startOfLine;
+            final int requiredCapacity = numberOfBytes + length + 12;  // separator, 10 digits, line feed
+            if (results.length < requiredCapacity) {
+                results = Arrays.copyOf(results, Math.max(requiredCapacity, 2 * results.length));
+            }
+            for (int i = startOfLine; i < endOfLine; i++) {
+                results[numberOfBytes++] = bytes.get(i);
+            }
+            results[numberOfBytes++] = separator;
+            long remainingDigits = editDistance;    // edit distances are not negative
+            final int firstDigit = numberOfBytes;
+            do {
+                results[numberOfBytes++] = (byte) ('0' + remainingDigits % 10);
+                remainingDigits /= 10;
+            } while (remainingDigits > 0);
+            for (int i = firstDigit, j = numberOfBytes - 1; i < j; i++, j--) {    // digits were reversed
+                final byte digit = results[i];
+                results[i] = results[j];
+                results[j] = digit;
+            }
+            results[numberOfBytes++] = LINE_FEED;
+            numberOfPairs++;
+        }
+    }
+
+    /**
+     * Decoder of UTF-8 bytes into a reusable {@link CharSlice}, with a fast path for ASCII bytes.
+     */
+    private static final class Utf8Decoder {
+
+        /**
+         * The decoder used when non-ASCII bytes are found.
+         */
+        private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+        /**
+         * Decodes the given bytes.
+         *
+         * @param bytes       The bytes.
+         * @param from        The index of the first byte.
+         * @param to          The index after the last byte.
+         * @param destination The slice where the decoded word is saved.
+         */
+        void decode(@NotNull final ByteBuffer bytes, final int from, final int to,
+                    @NotNull final CharSlice destination) {
+            final char[] letters = destination.ensureCapacity(to - from);   // UTF-8 never needs more chars
+            int length = 0;
+            for (int i = from; i < to; i++) {
+                final byte b = bytes.get(i);
+                if (b < 0) {
+                    decodeNonAscii(bytes, from, to, destination);
+                    return;
+                }
+                letters[length++] = (char) b;
+            }
+            destination.length = length;
+        }
+
+        /**
+         * Decodes the given bytes, with the {@link CharsetDecoder}.
+         *
+         * @param bytes       The bytes.
+         * @param from        The index of the first byte.
+         * @param to          The index after the last byte.
+         * @param destination The slice where the decoded word is saved.
+         */
+        private void decodeNonAscii(@NotNull final ByteBuffer bytes, final int from, final int to,
+                                    @NotNull final CharSlice destination) {
+            final ByteBuffer source = bytes.duplicate();
+            source.position(from).limit(to);
+            final CharBuffer target = CharBuffer.wrap(destination.letters);
+            decoder.reset();
+            decoder.decode(source, target, true);   // malformed bytes are replaced, chars cannot overflow
+            decoder.flush(target);
+            destination.length = target.position();
+        }
+    }
+
+    /**
+     * A reusable view of the first letters of a buffer.
+     */
+    private static final class CharSlice implements CharSequence {
+
+        /**
+         * The buffer.
+         */
+        private char[] letters = new char[32];
+        /**
+         * The number of letters.
+         */
+        private int length;
+
+        /**
+         * @param capacity The required capacity.
+         * @return the buffer, grown if needed.
+         */
+        char[] ensureCapacity(final int capacity) {
+            if (letters.length < capacity) {
+                letters = new char[Math.max(capacity, 2 * letters.length)];
+            }
+            return letters;
+        }
+
+        @Override
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public char charAt(final int index) {
+            return letters[Objects.checkIndex(index, length)];
+        }
+
+        @NotNull
+        @Override
+        public CharSequence subSequence(final int start, final int end) {
+            return toString().subSequence(start, end);
+        }
+
+        @NotNull
+        @Override
+        public String toString() {
+            return new String(letters, 0, length);
+        }
+    }
+
+    /**
+     * The report of the processing of a file.
+     */
+    static final class Report {
+
+        /**
+         * The number of processed pairs.
+         */
+        private final long numberOfPairs;
+        /**
+         * The number of bytes of the input.
+         */
+        private final long numberOfBytes;
+        /**
+         * The elapsed time, in nanoseconds.
+         */
+        private final long elapsedNanoseconds;
+
+        /**
+         * @param numberOfPairs      The number of processed pairs.
+         * @param numberOfBytes      The number of bytes of the input.
+         * @param elapsedNanoseconds The elapsed time, in nanoseconds.
+         */
+        Report(final long numberOfPairs, final long numberOfBytes, final long elapsedNanoseconds) {
+            this.numberOfPairs = numberOfPairs;
+            this.numberOfBytes = numberOfBytes;
+            this.elapsedNanoseconds = elapsedNanoseconds;
+        }
+
+        /**
+         * @return the number of processed pairs.
+         */
+        long getNumberOfPairs() {
+            return numberOfPairs;
+        }
+
+        /**
+         * @return the number of bytes of the input.
+         */
+        long getNumberOfBytes() {
+            return numberOfBytes;
+        }
+
+        /**
+         * @return the elapsed time, in nanoseconds.
+         */
+        long getElapsedNanoseconds() {
+            return elapsedNanoseconds;
+        }
+
+        /**
+         * @return the number of pairs processed per second.
+         */
+        double getPairsPerSecond() {
+            return elapsedNanoseconds == 0 ? 0 : numberOfPairs * 1e9 / elapsedNanoseconds;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d pairs (%.1f MB) in %.3f s: %.0f pairs/s, %.1f MB/s",
+                    numberOfPairs, numberOfBytes / 1e6, elapsedNanoseconds / 1e9, getPairsPerSecond(),
+                    elapsedNanoseconds == 0 ? 0 : numberOfBytes * 1e3 / elapsedNanoseconds);
+        }
+    }
+}
@@ -0,0 +1,889 @@
+package edit_distance;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import edit_distance.entities.DictionaryMatch;
+import edit_distance.entities.DictionaryTrie;
+import edit_distance.entities.EditCostModel;
+import edit_distance.entities.EditDistanceCalculator;
+import edit_distance.entities.EditDistanceMetrics;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.lang.reflect.InvocationTargetException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An HTTP server exposing the edit distance, built on the server of the JDK ({@link HttpServer}).
+ * Responses are UTF-8 plain text and the endpoints are:
+ * <ul>
+ *     <li><code>GET /distance?from=&lt;word&gt;&amp;to=&lt;word&gt;</code>: the edit distance;</li>
+ *     <li><code>GET /within?from=&lt;word&gt;&amp;to=&lt;word&gt;&amp;max=&lt;threshold&gt;</code>: the edit
+ *     distance if it does not exceed the threshold, the threshold plus one otherwise
+ *     (see {@link EditDistanceCalculator#distanceWithin(String, String, int, EditCostModel)});</li>
+ *     <li><code>GET /lookup?query=&lt;word&gt;&amp;max=&lt;threshold&gt;</code> or
+ *     <code>GET /lookup?query=&lt;word&gt;&amp;k=&lt;number&gt;</code>: the words of the dictionary within the
+ *     threshold or the k closest ones, one per line followed by a tab and the edit distance (only if the
+ *     server has a dictionary);</li>
+ *     <li><code>POST /batch[?format=csv]</code>: the body has one pair per line as the input of
+ *     {@link BulkPairProcessor}, and the response has each line followed by the separator and the edit
+ *     distance, in the same order;</li>
+ *     <li><code>GET /metrics</code>: the metrics of {@link EditDistanceMetrics#getMetricsAsText()}.</li>
+ * </ul>
+ * Invalid requests get the status 400 with the reason in the body, and so do the requests beyond the limits
+ * which bound the work and the memory of a request: the words of at most {@link #MAX_WORD_LENGTH} characters
+ * (and the lines of a batch of at most {@link #MAX_LINE_LENGTH}), the thresholds of at most
+ * {@link #MAX_THRESHOLD}, and the lookups of at most {@link #MAX_MATCHES} words (<code>k</code> greater than
+ * the number of words of the dictionary answers all of them). The requests which fail for any other reason
+ * get the status 500 without body, since the failure is not caused by the request.
+ * <p/>
+ * Each request is handled by its own virtual thread, if the runtime has them (Java 21 or later),
+ * otherwise by a thread of a cached pool. The computations of the single requests run on the thread of the
+ * request, while the pairs of a batch are split in tasks of {@link #PAIRS_PER_TASK} pairs run by a fixed
+ * pool of worker threads. The body of a batch is decoded while it is received: at most
+ * {@link #TASKS_IN_FLIGHT_PER_THREAD} tasks per worker thread (among all the batches) are being computed
+ * or waiting to be written, since a task holds its slot until its results are written, and the thread of
+ * a request waits for a free slot (writing the results of its own tasks meanwhile) before reading more lines,
+ * so that the clients which send faster than the workers compute are slowed down by TCP flow control
+ * instead of filling the memory. The results of a batch are streamed in chunks as soon as they are ready.
+ * If a line of a batch is malformed after some results have been sent, the response ends with a line
+ * starting with {@link #BATCH_ERROR_PREFIX} and a tab, followed by the reason.
+ * <p/>
+ * The server of the JDK keeps the algorithm of Nagle enabled on its sockets, so that the latency of a small
+ * response is about 40 ms, waiting for the delayed acknowledgment of the client, unless the system property
+ * <code>sun.net.httpserver.nodelay</code> is <code>true</code> when the first server is created
+ * (as the server mode of the command line does).
+ */
+public final class EditDistanceServer implements AutoCloseable {
+
+    /**
+     * The number of pairs of a task of a batch.
+     */
+    static final int PAIRS_PER_TASK = 512;
+
+    /**
+     * The maximum number of tasks for each worker thread being computed or waiting to be written.
+     */
+    static final int TASKS_IN_FLIGHT_PER_THREAD = 2;
+
+    /**
+     * The first field of the line which ends a batch interrupted by a malformed line.
+     */
+    static final String BATCH_ERROR_PREFIX = "ERROR";
+
+    /**
+     * The maximum number of characters of a word of a request.
+     */
+    static final int MAX_WORD_LENGTH = 1000;
+
+    /**
+     * The maximum number of characters of a line of a batch, i.e., two words and the separator.
+     */
+    static final int MAX_LINE_LENGTH = 2 * MAX_WORD_LENGTH + 1;
+
+    /**
+     * The maximum threshold of a request (with unit costs, the edit distance of two words of
+     * {@link #MAX_WORD_LENGTH} characters does not exceed it).
+     */
+    static final int MAX_THRESHOLD = MAX_WORD_LENGTH;
+
+    /**
+     * The maximum number of words of the response of a lookup.
+     */
+    static final int MAX_MATCHES = 1000;
+
+    /**
+     * The status of successful responses.
+     */
+    private static final int OK = 200;
+
+    /**
+     * The status of invalid requests.
+     */
+    private static final int BAD_REQUEST = 400;
+
+    /**
+     * The status of requests for unknown resources.
+     */
+    private static final int NOT_FOUND = 404;
+
+    /**
+     * The status of requests with an unsupported method.
+     */
+    private static final int METHOD_NOT_ALLOWED = 405;
+
+    /**
+     * The status of requests which failed unexpectedly.
+     */
+    private static final int INTERNAL_SERVER_ERROR = 500;
+
+    /**
+     * The response code of {@link HttpExchange#getResponseCode()} before the headers are sent.
+     */
+    private static final int NOT_RESPONDED = -1;
+
+    /**
+     * The length to pass to {@link HttpExchange#sendResponseHeaders(int, long)} for a streamed
+     * (chunked) response.
+     */
+    private static final long CHUNKED = 0;
+
+    /**
+     * The length to pass to {@link HttpExchange#sendResponseHeaders(int, long)} for an empty response.
+     */
+    private static final long NO_BODY = -1;
+
+    /**
+     * The content type of the responses.
+     */
+    private static final String PLAIN_TEXT = "text/plain; charset=utf-8";
+
+    /**
+     * The underlying server.
+     */
+    @NotNull
+    private final HttpServer server;
+
+    /**
+     * The executor of the requests.
+     */
+    @NotNull
+    private final ExecutorService requestExecutor;
+
+    /**
+     * True if {@link #requestExecutor} runs each request on a virtual thread.
+     */
+    private final boolean usingVirtualThreads;
+
+    /**
+     * The worker threads computing the tasks of the batches.
+     */
+    @NotNull
+    private final ExecutorService workerPool;
+
+    /**
+     * The permits for the tasks of the batches being computed or waiting to be written
+     * (released once their results are written).
+     */
+    @NotNull
+    private final Semaphore tasksInFlight;
+
+    /**
+     * The costs of the {@link edit_distance.entities.EditOperation}s.
+     */
+    @NotNull
+    private final EditCostModel costModel;
+
+    /**
+     * The words of the dictionary, in the given order, or null if the server has no dictionary.
+     */
+    @Nullable
+    private final List<String> dictionaryWords;
+
+    /**
+     * The dictionary, or null if the server has no dictionary.
+     */
+    @Nullable
+    private final DictionaryTrie dictionary;
+
+    /**
+     * Creates a server, which must be {@link #start() started}.
+     *
+     * @param address         The address to bind (the port 0 binds an ephemeral port,
+     *                        see {@link #getPort()}).
+     * @param costModel       The costs of the {@link edit_distance.entities.EditOperation}s.
+     * @param dictionary      The words for the lookups, or null if the lookups are not available.
+     * @param numberOfThreads The number of worker threads computing the batches.
+     * @throws IOException              if the address cannot be bound.
+     * @throws IllegalArgumentException if the number of threads is not positive.
+     */
+    public EditDistanceServer(@NotNull final InetSocketAddress address, @NotNull final EditCostModel costModel,
+                              @Nullable final Collection<String> dictionary, final int numberOfThreads)
+            throws IOException {
+        this.costModel = Objects.requireNonNull(costModel);
+        if (numberOfThreads <= 0) {
+            throw new IllegalArgumentException(
+                    "The number of threads must be positive, but " + numberOfThreads + " found.");
+        }
+        this.dictionaryWords = dictionary == null ? null : List.copyOf(dictionary);
+        this.dictionary = dictionary == null ? null : new DictionaryTrie(dictionary, costModel);
+        this.tasksInFlight = new Semaphore(TASKS_IN_FLIGHT_PER_THREAD * numberOfThreads, true);
+        this.workerPool = Executors.newFixedThreadPool(numberOfThreads, daemonThreadFactory("edit-distance-worker-"));
+        final ExecutorService virtualThreadExecutor = newVirtualThreadPerTaskExecutor();
+        this.usingVirtualThreads = virtualThreadExecutor != null;
+        this.requestExecutor = virtualThreadExecutor != null
+                ? virtualThreadExecutor : Executors.newCachedThreadPool(daemonThreadFactory("edit-distance-request-"));
+
+        this.server = HttpServer.create(Objects.requireNonNull(address), 0);
+        this.server.setExecutor(requestExecutor);
+        this.server.createContext("/", exchange -> handle(exchange, EditDistanceServer::respondNotFound));
+        this.server.createContext("/distance", exchange -> handle(exchange, this::respondDistance));
+        this.server.createContext("/within", exchange -> handle(exchange, this::respondDistanceWithin));
+        this.server.createContext("/lookup", exchange -> handle(exchange, this::respondLookup));
+        this.server.createContext("/batch", exchange -> handle(exchange, this::respondBatch));
+        this.server.createContext("/metrics", exchange -> handle(exchange, this::respondMetrics));
+    }
+
+    /**
+     * @return the executor running each task on a new virtual thread, or null if the runtime has not
+     * virtual threads (it is looked up reflectively, since they are not available in Java 11).
+     */
+    @Nullable
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @param prefix The prefix of the names of the threads.
+     * @return a factory of daemon threads, named with the given prefix and a progressive number.
+     */
+    @NotNull
+    private static ThreadFactory daemonThreadFactory(@NotNull final String prefix) {
+        final AtomicInteger numberOfThreads = new AtomicInteger();
+        return runnable -> {
+            final Thread thread = new Thread(runnable, prefix + numberOfThreads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Starts the server in background.
+     */
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * @return the port of the server.
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * @return the number of tasks of the batches which can be submitted before waiting for a slot.
+     */
+    int getNumberOfFreeSlots() {
+        return tasksInFlight.availablePermits();
+    }
+
+    /**
+     * @return true if each request is handled by its own virtual thread.
+     */
+    public boolean isUsingVirtualThreads() {
+        return usingVirtualThreads;
+    }
+
+    /**
+     * Stops the server, waiting at most a second for the exchanges in progress.
+     */
+    @Override
+    public void close() {
+        server.stop(1);
+        requestExecutor.shutdownNow();
+        workerPool.shutdownNow();
+    }
+
+    /**
+     * A handler of the exchanges with a given path.
+     */
+    @FunctionalInterface
+    private interface Responder {
+
+        /**
+         * Sends the response.
+         *
+         * @param exchange The exchange.
+         * @throws IOException if the exchange fails.
+         */
+        void respond(@NotNull HttpExchange exchange) throws IOException;
+    }
+
+    /**
+     * Thrown by the responders for the invalid requests, which get the status {@link #BAD_REQUEST}
+     * with the message of the exception as body. Any other exception is a failure of the server.
+     */
+    private static final class BadRequestException extends RuntimeException {
+
+        /**
+         * The version of the serialized form, required by {@link RuntimeException} (never serialized).
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * @param message The reason why the request is invalid, sent to the client.
+         */
+        BadRequestException(@NotNull final String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * Handles an exchange, responding to invalid requests ({@link BadRequestException}) with their reason
+     * and to the requests which failed unexpectedly with {@link #INTERNAL_SERVER_ERROR} (unless the headers
+     * have already been sent), without exposing the failure to the client.
+     *
+     * @param exchange  The exchange.
+     * @param responder The handler of the path of the exchange.
+     * @throws IOException if the exchange fails.
+     */
+    private static void handle(@NotNull final HttpExchange exchange, @NotNull final Responder responder)
+            throws IOException {
+        try {
+            responder.respond(exchange);
+        } catch (BadRequestException e) {
+            if (exchange.getResponseCode() == NOT_RESPONDED) {
+                respond(exchange, BAD_REQUEST, e.getMessage() + "\n");
+            }
+        } catch (RuntimeException e) {      // logged by the server, which closes the connection
+            if (exchange.getResponseCode() == NOT_RESPONDED) {
+                respond(exchange, INTERNAL_SERVER_ERROR, "");
+            }
+            throw e;
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Sends a response with a body of known length.
+     *
+     * @param exchange The exchange.
+     * @param status   The status of the response.
+     * @param body     The body of the response.
+     * @throws IOException if the response cannot be sent.
+     */
+    private static void respond(@NotNull final HttpExchange exchange, final int status, @NotNull final String body)
+            throws IOException {
+        final byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", PLAIN_TEXT);
+        exchange.sendResponseHeaders(status, bytes.length == 0 ? NO_BODY : bytes.length);
+        if (bytes.length > 0) {
+            exchange.getResponseBody().write(bytes);
+        }
+    }
+
+    /**
+     * @param exchange The exchange.
+     * @param method   The method of the endpoint.
+     * @return true if the exchange has the given method and the path of its context,
+     * otherwise the response is sent and false is returned.
+     * @throws IOException if the response cannot be sent.
+     */
+    private static boolean isRequestFor(@NotNull final HttpExchange exchange, @NotNull final String method)
+            throws IOException {
+        if (!exchange.getRequestURI().getPath().equals(exchange.getHttpContext().getPath())) {
+            respondNotFound(exchange);
+            return false;
+        }
+        if (!exchange.getRequestMethod().equals(method)) {
+            exchange.getResponseHeaders().set("Allow", method);
+            respond(exchange, METHOD_NOT_ALLOWED, "The method must be " + method + ", but "
+                    + exchange.getRequestMethod() + " found.\n");
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * @param exchange The exchange.
+     * @return the parameters of the query of the URI of the exchange (the last value for repeated names).
+     * @throws BadRequestException if a parameter is not correctly URL-encoded.
+     */
+    @NotNull
+    private static Map<String, String> parametersOf(@NotNull final HttpExchange exchange) {
+        final Map<String, String> parameters = new HashMap<>();
+        final String query = exchange.getRequestURI().getRawQuery();
+        if (query != null) {
+            for (String parameter : query.split("&")) {
+                final int equals = parameter.indexOf('=');
+                final String name = equals < 0 ? parameter : parameter.substring(0, equals);
+                final String value = equals < 0 ? "" : parameter.substring(equals + 1);
+                try {
+                    parameters.put(URLDecoder.decode(name, StandardCharsets.UTF_8),
+                            URLDecoder.decode(value, StandardCharsets.UTF_8));
+                } catch (IllegalArgumentException e) {  // invalid escape sequence
+                    throw new BadRequestException("The parameter '" + parameter + "' is not URL-encoded.");
+                }
+            }
+        }
+        return parameters;
+    }
+
+    /**
+     * @param parameters The parameters of a request.
+     * @param name       The name of a parameter.
+     * @return the value of the parameter.
+     * @throws BadRequestException if the parameter is missing.
+     */
+    @NotNull
+    private static String getParameter(@NotNull final Map<String, String> parameters, @NotNull final String name) {
+        final String value = parameters.get(name);
+        if (value == null) {
+            throw new BadRequestException("The parameter '" + name + "' is missing.");
+        }
+        return value;
+    }
+
+    /**
+     * @param parameters The parameters of a request.
+     * @param name       The name of a parameter.
+     * @return the value of the parameter, which is a word.
+     * @throws BadRequestException if the parameter is missing or longer than {@link #MAX_WORD_LENGTH}.
+     */
+    @NotNull
+    private static String getWordParameter(@NotNull final Map<String, String> parameters,
+                                           @NotNull final String name) {
+        final String value = getParameter(parameters, name);
+        if (value.length() > MAX_WORD_LENGTH) {
+            throw new BadRequestException("The parameter '" + name + "' must not be longer than "
+                    + MAX_WORD_LENGTH + " characters, but " + value.length() + " found.");
+        }
+        return value;
+    }
+
+    /**
+     * @param parameters The parameters of a request.
+     * @param name       The name of a parameter.
+     * @param min        The minimum value.
+     * @param max        The maximum value.
+     * @return the value of the parameter, as an integer.
+     * @throws BadRequestException if the parameter is missing, it is not an integer
+     *                             or it is not in the given range.
+     */
+    private static int getIntParameter(@NotNull final Map<String, String> parameters, @NotNull final String name,
+                                       final int min, final int max) {
+        final String value = getParameter(parameters, name);
+        final int number;
+        try {
+            number = Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new BadRequestException(
+                    "The parameter '" + name + "' must be an integer, but '" + value + "' found.");
+        }
+        if (number < min || number > max) {
+            throw new BadRequestException("The parameter '" + name + "' must be between " + min
+                    + " and " + max + ", but " + number + " found.");
+        }
+        return number;
+    }
+
+    /**
+     * Responds to the requests for unknown paths.
+     *
+     * @param exchange The exchange.
+     * @throws IOException if the exchange fails.
+     */
+    private static void respondNotFound(@NotNull final HttpExchange exchange) throws IOException {
+        // with a body, since the server of the JDK closes the connection after the errors without one
+        respond(exchange, NOT_FOUND, "The path '" + exchange.getRequestURI().getPath() + "' is not found.\n");
+    }
+
+    /**
+     * Responds with the edit distance.
+     *
+     * @param exchange The exchange.
+     * @throws IOException if the exchange fails.
+     */
+    private void respondDistance(@NotNull final HttpExchange exchange) throws IOException {
+        if (isRequestFor(exchange, "GET")) {
+            final Map<String, String> parameters = parametersOf(exchange);
+            respond(exchange, OK, EditDistanceCalculator.computeEditDistance(
+                    getWordParameter(parameters, "from"), getWordParameter(parameters, "to"), costModel) + "\n");
+        }
+    }
+
+    /**
+     * Responds with the edit distance within a threshold.
+     *
+     * @param exchange The exchange.
+     * @throws IOException if the exchange fails.
+     */
+    private void respondDistanceWithin(@NotNull final HttpExchange exchange) throws IOException {
+        if (isRequestFor(exchange, "GET")) {
+            final Map<String, String> parameters = parametersOf(exchange);
+            respond(exchange, OK, EditDistanceCalculator.distanceWithin(getWordParameter(parameters, "from"),
+                    getWordParameter(parameters, "to"), getIntParameter(parameters, "max", 0, MAX_THRESHOLD),
+                    costModel) + "\n");
+        }
+    }
+
+    /**
+     * Responds with the words of the dictionary close to a query.
+     *
+     * @param exchange The exchange.
+     * @throws IOException if the exchange fails.
+     */
+    private void respondLookup(@NotNull final HttpExchange exchange) throws IOException {
+        if (!isRequestFor(exchange, "GET")) {
+            return;
+        }
+        if (dictionary == null || dictionaryWords == null) {
+            respond(exchange, NOT_FOUND, "The server has no dictionary.\n");
+            return;
+        }
+        final Map<String, String> parameters = parametersOf(exchange);
+        final String query = getWordParameter(parameters, "query");
+        final List<DictionaryMatch> matches;
+        if (parameters.containsKey("k")) {
+            final int k = Math.min(getIntParameter(parameters, "k", 1, MAX_MATCHES), dictionaryWords.size());
+            matches = EditDistanceCalculator.nearest(query, dictionaryWords, k, costModel);
+        } else {
+            matches = dictionary.search(query, getIntParameter(parameters, "max", 0, MAX_THRESHOLD));
+            if (matches.size() > MAX_MATCHES) {
+                throw new BadRequestException("More than " + MAX_MATCHES + " words are within the threshold "
+                        + "(" + matches.size() + " found): lower the parameter 'max' or use 'k'.");
+            }
+        }
+        final StringBuilder body = new StringBuilder();
+        for (DictionaryMatch match : matches) {
+            body.append(match.getWord()).append('\t').append(match.getEditDistance()).append('\n');
+        }
+        respond(exchange, OK, body.toString());
+    }
+
+    /**
+     * Responds with the metrics.
+     *
+     * @param exchange The exchange.
+     * @throws IOException if the exchange fails.
+     */
+    private void respondMetrics(@NotNull final HttpExchange exchange) throws IOException {
+        if (isRequestFor(exchange, "GET")) {
+            respond(exchange, OK, EditDistanceMetrics.getMetricsAsText());
+        }
+    }
+
+    /**
+     * Responds with the edit distances of the pairs of a batch, decoding the body while it is received
+     * and streaming the results in the order of the pairs.
+     *
+     * @param exchange The exchange.
+     * @throws IOException if the exchange fails.
+     */
+    private void respondBatch(@NotNull final HttpExchange exchange) throws IOException {
+        if (!isRequestFor(exchange, "POST")) {
+            return;
+        }
+        final String format = parametersOf(exchange).getOrDefault("format", "tsv");
+        if (!format.equalsIgnoreCase("tsv") && !format.equalsIgnoreCase("csv")) {
+            throw new BadRequestException("The format must be tsv or csv, but '" + format + "' found.");
+        }
+        final char separator = format.equalsIgnoreCase("csv") ? ',' : '\t';
+        final ArrayDeque<Future<byte[]>> tasks = new ArrayDeque<>();
+        final LazyResponseBody responseBody = new LazyResponseBody(exchange);
+        try (BoundedLineReader lines = new BoundedLineReader(
+                new InputStreamReader(exchange.getRequestBody(), StandardCharsets.UTF_8))) {
+            List<String> pairs = new ArrayList<>(PAIRS_PER_TASK);
+            long numberOfLine = 0;
+            for (String line = lines.readLine(numberOfLine + 1); line != null;
+                 line = lines.readLine(numberOfLine + 1)) {
+                numberOfLine++;
+                if (line.isEmpty()) {
+                    continue;
+                }
+                if (line.indexOf(separator) < 0) {
+                    throw new BadRequestException(
+                            "The line " + numberOfLine + " does not contain the separator.");
+                }
+                pairs.add(line);
+                if (pairs.size() == PAIRS_PER_TASK) {
+                    submit(pairs, separator, tasks, responseBody);
+                    pairs = new ArrayList<>(PAIRS_PER_TASK);
+                }
+            }
+            if (!pairs.isEmpty()) {
+                submit(pairs, separator, tasks, responseBody);
+            }
+            while (!tasks.isEmpty()) {
+                write(tasks.removeFirst(), responseBody);
+            }
+            responseBody.close();
+        } catch (BadRequestException e) {
+            if (!responseBody.isStarted()) {
+                throw e;
+            }
+            responseBody.write((BATCH_ERROR_PREFIX + '\t' + e.getMessage() + '\n').getBytes(StandardCharsets.UTF_8));
+            responseBody.close();
+        } finally {
+            discard(tasks);
+        }
+    }
+
+    /**
+     * Submits a task of a batch when a slot is free. Until then, the results of the oldest task of the batch
+     * are written, which frees its slot, and only a batch without tasks in flight waits: a batch holding slots
+     * never waits for the ones held by the others, which are freed as their batches write their results.
+     *
+     * @param pairs        The lines of the pairs of the task.
+     * @param separator    The separator of the words of a pair.
+     * @param tasks        The tasks of the batch in flight, in the order of the pairs.
+     * @param responseBody The body of the response.
+     * @throws IOException if the results cannot be written or the thread is interrupted.
+     */
+    private void submit(@NotNull final List<String> pairs, final char separator,
+                        @NotNull final ArrayDeque<Future<byte[]>> tasks, @NotNull final OutputStream responseBody)
+            throws IOException {
+        while (!tasksInFlight.tryAcquire()) {
+            if (!tasks.isEmpty()) {
+                write(tasks.removeFirst(), responseBody);
+                continue;
+            }
+            try {
+                tasksInFlight.acquire();
+                break;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while waiting for a worker.", e);
+            }
+        }
+        try {
+            tasks.addLast(workerPool.submit(() -> computeTask(pairs, separator)));
+        } catch (RuntimeException e) {      // rejected on shutdown
+            tasksInFlight.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Computes the edit distances of the pairs of a task.
+     *
+     * @param pairs     The lines of the pairs.
+     * @param separator The separator of the words of a pair.
+     * @return the results, i.e., each line followed by the separator and the edit distance, encoded in UTF-8.
+     */
+    @NotNull
+    private byte[] computeTask(@NotNull final List<String> pairs, final char separator) {
+        final StringBuilder results = new StringBuilder(pairs.size() * 16);
+        for (String line : pairs) {
+            final int separatorIndex = line.indexOf(separator);
+            results.append(line).append(separator).append(EditDistanceCalculator.computeEditDistance(
+                    line.substring(0, separatorIndex), line.substring(separatorIndex + 1), costModel)).append('\n');
+        }
+        return results.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Waits for a task, writes its results and releases its slot.
+     *
+     * @param task         The task, removed from the tasks of its batch.
+     * @param responseBody The body of the response.
+     * @throws IOException if the results cannot be written or the thread is interrupted.
+     */
+    private void write(@NotNull final Future<byte[]> task, @NotNull final OutputStream responseBody)
+            throws IOException {
+        try {
+            final byte[] results;
+            try {
+                results = task.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while waiting for the results.", e);
+            } catch (ExecutionException e) {
+                throw new IOException(e.getCause());
+            }
+            responseBody.write(results);
+            responseBody.flush();   // sent as soon as they are ready
+        } finally {
+            tasksInFlight.release();
+        }
+    }
+
+    /**
+     * Cancels the tasks of a batch whose results will not be written and releases their slots.
+     * The tasks already running complete anyway, but their results are dropped.
+     *
+     * @param tasks The tasks of the batch in flight.
+     */
+    private void discard(@NotNull final ArrayDeque<Future<byte[]>> tasks) {
+        while (!tasks.isEmpty()) {
+            tasks.removeFirst().cancel(false);
+            tasksInFlight.release();
+        }
+    }
+
+    /**
+     * A reader of the lines of a batch, which rejects the lines longer than {@link #MAX_LINE_LENGTH}
+     * instead of buffering them. The lines end with a line feed, optionally preceded by a carriage return.
+     */
+    private static final class BoundedLineReader implements AutoCloseable {
+
+        /**
+         * The underlying reader.
+         */
+        @NotNull
+        private final Reader reader;
+
+        /**
+         * The characters read and not consumed yet.
+         */
+        @NotNull
+        private final char[] buffer = new char[8192];
+
+        /**
+         * The index of the first character of {@link #buffer} not consumed yet.
+         */
+        private int position = 0;
+
+        /**
+         * The number of characters in {@link #buffer}.
+         */
+        private int limit = 0;
+
+        /**
+         * The characters of the line being read.
+         */
+        @NotNull
+        private final StringBuilder line = new StringBuilder();
+
+        /**
+         * @param reader The underlying reader.
+         */
+        BoundedLineReader(@NotNull final Reader reader) {
+            this.reader = reader;
+        }
+
+        /**
+         * @param numberOfLine The number of the line, for the message of the exception.
+         * @return the next line without its terminator, or null at the end of the input.
+         * @throws IOException         if the input cannot be read.
+         * @throws BadRequestException if the line is longer than {@link #MAX_LINE_LENGTH}.
+         */
+        @Nullable
+        String readLine(final long numberOfLine) throws IOException {
+            line.setLength(0);
+            while (true) {
+                if (position == limit) {
+                    limit = reader.read(buffer);
+                    position = 0;
+                    if (limit < 0) {
+                        limit = 0;
+                        return line.length() == 0 ? null : terminate();
+                    }
+                }
+                final int start = position;
+                while (position < limit && buffer[position] != '\n') {
+                    position++;
+                }
+                line.append(buffer, start, position - start);
+                // one more character, for the carriage return before the line feed
+                if (line.length() > MAX_LINE_LENGTH + 1 || (line.length() == MAX_LINE_LENGTH + 1
+                        && line.charAt(MAX_LINE_LENGTH) != '\r')) {
+                    throw new BadRequestException("The line " + numberOfLine + " is longer than "
+                            + MAX_LINE_LENGTH + " characters.");
+                }
+                if (position < limit) {
+                    position++;     // the line feed
+                    return terminate();
+                }
+            }
+        }
+
+        /**
+         * @return the line read, without the carriage return at its end.
+         */
+        @NotNull
+        private String terminate() {
+            final int length = line.length();
+            return length > 0 && line.charAt(length - 1) == '\r'
+                    ? line.substring(0, length - 1) : line.toString();
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+
+    /**
+     * The body of a streamed response whose headers (with the status {@link #OK}) are sent
+     * with the first bytes, so that the status of the response can be chosen until then.
+     */
+    private static final class LazyResponseBody extends OutputStream {
+
+        /**
+         * The exchange.
+         */
+        @NotNull
+        private final HttpExchange exchange;
+
+        /**
+         * The body of the response, once the headers have been sent (null before).
+         */
+        @Nullable
+        private OutputStream body = null;
+
+        /**
+         * @param exchange The exchange.
+         */
+        LazyResponseBody(@NotNull final HttpExchange exchange) {
+            this.exchange = exchange;
+        }
+
+        /**
+         * @return true if the headers have been sent.
+         */
+        boolean isStarted() {
+            return body != null;
+        }
+
+        /**
+         * @return the body of the response, sending the headers if they have not been sent yet.
+         * @throws IOException if the headers cannot be sent.
+         */
+        @NotNull
+        private OutputStream body() throws IOException {
+            if (body == null) {
+                exchange.getResponseHeaders().set("Content-Type", PLAIN_TEXT);
+                exchange.sendResponseHeaders(OK, CHUNKED);
+                body = exchange.getResponseBody();
+            }
+            return body;
+        }
+
+        @Override
+        public void write(final int b) throws IOException {
+            body().write(b);
+        }
+
+        @Override
+        public void write(@NotNull final byte[] bytes, final int offset, final int length) throws IOException {
+            body().write(bytes, offset, length);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            body().flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            body().close();
+        }
+    }
+}
@@ -1,9 +1,15 @@
 package edit_distance;
 
-import benchmark.Benchmark;
+import edit_distance.entities.EditCostModel;
 import edit_distance.entities.EditDistanceCalculator;
 
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.LinkedHashMap;
+import java.util.List;
 
 /**
  * Main class with example of use of {@link EditDistanceCalculator}.
@@ -11,20 +17,42 @@ import java.util.LinkedHashMap;
 class Main {
 
     /**
-     * Sample term.
+     * The first command line argument selecting the bulk mode.
      */
-    private final static String SAMPLE_TERM_1 = "PLASMA";
+    private final static String BULK_MODE = "bulk";
+
     /**
-     * Sample term.
+     * The first command line argument selecting the server mode.
      */
-    private final static String SAMPLE_TERM_2 = "ALTRUISM";
+    private final static String SERVER_MODE = "server";
 
     /**
-     * Main method.
+     * The property which disables the algorithm of Nagle on the sockets of the server of the JDK:
+     * otherwise, the latency of a small response is about 40 ms, waiting for the delayed acknowledgment
+     * of the client. It is read once, when the first server is created.
+     */
+    private final static String NO_DELAY_PROPERTY = "sun.net.httpserver.nodelay";
+
+    /**
+     * Main method. Without arguments, it prints some examples; with the arguments
+     * <code>bulk &lt;input&gt; &lt;output&gt; [tsv|csv] [threads] [levenshtein]</code>, it computes
+     * the edit distances of the pairs in the input file (see {@link BulkPairProcessor}); with the arguments
+     * <code>server &lt;port&gt; [dictionary] [threads] [levenshtein]</code>, it serves the edit distances
+     * over HTTP (see {@link EditDistanceServer}).
      *
      * @param args Command line args.
+     * @throws IOException if the files of the bulk mode or the dictionary cannot be read or written,
+     *                     or the port of the server cannot be bound.
      */
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
+        if (args.length > 0 && args[0].equals(BULK_MODE)) {
+            runBulkMode(args);
+            return;
+        }
+        if (args.length > 0 && args[0].equals(SERVER_MODE)) {
+            runServerMode(args);
+            return;
+        }
 
         EditDistanceCalculator editDistanceCalculator =
                 new EditDistanceCalculator("HOME", "HOUSE");
@@ -51,12 +79,53 @@ class Main {
     }
 
     /**
-     * Benchmark for the first version of the program.
+     * Runs the bulk mode and prints the report.
+     *
+     * @param args Command line args: <code>bulk &lt;input&gt; &lt;output&gt; [tsv|csv] [threads] [levenshtein]</code>.
+     * @throws IOException if the files cannot be read or written.
+     */
+    private static void runBulkMode(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.err.println("Usage: " + BULK_MODE + " <input> <output> [tsv|csv] [threads] [levenshtein]");
+            System.exit(1);
+        }
+        final char separator = args.length > 3 && args[3].equalsIgnoreCase("csv") ? ',' : '\t';
+        final int numberOfThreads = args.length > 4
+                ? Integer.parseInt(args[4]) : Runtime.getRuntime().availableProcessors();
+        final EditCostModel costModel = args.length > 5 && args[5].equalsIgnoreCase("levenshtein")
+                ? EditCostModel.LEVENSHTEIN : EditCostModel.DEFAULT;
+        final BulkPairProcessor.Report report = new BulkPairProcessor(costModel, separator, numberOfThreads)
+                .process(Paths.get(args[1]), Paths.get(args[2]));
+        System.out.println(report);
+    }
+
+    /**
+     * Runs the server mode, until the process is terminated.
+     *
+     * @param args Command line args: <code>server &lt;port&gt; [dictionary] [threads] [levenshtein]</code>,
+     *             where the dictionary is a UTF-8 file with a word per line (<code>-</code> for none).
+     * @throws IOException if the dictionary cannot be read or the port cannot be bound.
      */
-    @Benchmark
-    private static void editDistanceBenchmark() {
-        //noinspection ResultOfMethodCallIgnored
-        new EditDistanceCalculator(SAMPLE_TERM_1, SAMPLE_TERM_2).getEditDistance();
+    private static void runServerMode(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: " + SERVER_MODE + " <port> [dictionary] [threads] [levenshtein]");
+            System.exit(1);
+        }
+        final List<String> dictionary = args.length > 2 && !args[2].equals("-")
+                ? Files.readAllLines(Paths.get(args[2]), StandardCharsets.UTF_8) : null;
+        final int numberOfThreads = args.length > 3
+                ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+        final EditCostModel costModel = args.length > 4 && args[4].equalsIgnoreCase("levenshtein")
+                ? EditCostModel.LEVENSHTEIN : EditCostModel.DEFAULT;
+        if (System.getProperty(NO_DELAY_PROPERTY) == null) {     // unless set otherwise on the command line
+            System.setProperty(NO_DELAY_PROPERTY, "true");
+        }
+        final EditDistanceServer server = new EditDistanceServer(
+                new InetSocketAddress(Integer.parseInt(args[1])), costModel, dictionary, numberOfThreads);
+        Runtime.getRuntime().addShutdownHook(new Thread(server::close));
+        server.start();
+        System.out.println("Listening on port " + server.getPort()
+                + (server.isUsingVirtualThreads() ? " (virtual threads)" : ""));
     }
 
 }
\ No newline at end of file
@@ -23,6 +23,10 @@ public class AppliedEditOperation {
      */
     private final int positionOfLetterInSecondWord;
 
+    /**
+     * The cost of the operation.
+     */
+    private final int operationCost;
 
     /**
      * A valid operation applicable in the context of the edit distance.
@@ -32,21 +36,58 @@ public class AppliedEditOperation {
      * @param positionOfLetterInSecondWord Position of the letter in the target word to which the operation refers.
      */
     public AppliedEditOperation(@NotNull EditOperation editOperation, int positionOfLetterInFirstWord, int positionOfLetterInSecondWord) {
+        this(editOperation, positionOfLetterInFirstWord, positionOfLetterInSecondWord, editOperation.getCost());
+    }
+
+    /**
+     * A valid operation applicable in the context of the edit distance, whose cost is given
+     * by an {@link EditCostModel}.
+     *
+     * @param editOperation                The {@link EditOperation}.
+     * @param positionOfLetterInFirstWord  Position of the letter in the starting word to which the operation refers.
+     * @param positionOfLetterInSecondWord Position of the letter in the target word to which the operation refers.
+     * @param operationCost                The cost of the operation.
+     */
+    public AppliedEditOperation(@NotNull EditOperation editOperation, int positionOfLetterInFirstWord,
+                                int positionOfLetterInSecondWord, int operationCost) {
         this.editOperation = editOperation;
         this.positionOfLetterInFirstWord = positionOfLetterInFirstWord;
         this.positionOfLetterInSecondWord = positionOfLetterInSecondWord;
+        this.operationCost = operationCost;
+    }
+
+    /**
+     * @return The {@link EditOperation}.
+     */
+    @NotNull
+    public EditOperation getEditOperation() {
+        return editOperation;
+    }
+
+    /**
+     * @return The position of the letter in the starting word to which the operation refers.
+     */
+    public int getPositionOfLetterInFirstWord() {
+        return positionOfLetterInFirstWord;
+    }
+
+    /**
+     * @return The position of the letter in the target word to which the operation refers.
+     */
+    public int getPositionOfLetterInSecondWord() {
+        return positionOfLetterInSecondWord;
     }
 
     /**
      * @return The cost of the operation.
      */
     public int getOperationCost() {
-        return editOperation.getCost();
+        return operationCost;
     }
 
     @Override
     public String toString() {
-        return "{" + editOperation +
+        return "{" + editOperation.name() + "[cost=" + operationCost + "]" +
                 " (" + positionOfLetterInFirstWord + "," + positionOfLetterInSecondWord + ")}";
     }
 }
@@ -0,0 +1,277 @@
+package edit_distance.entities;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * An instance of this class is a BK-tree (Burkhard-Keller tree) over a dictionary of words,
+ * to find the words whose edit distance from a query does not exceed a threshold without
+ * computing the edit distance from all the words of the dictionary.
+ * <p/>
+ * Each node holds a word and the edge to each child is labeled with the edit distance between
+ * the word of the parent and the word of the child; children of a node have distinct labels.
+ * If <i>d</i> is the edit distance from the query to the word of a node, by the triangle inequality
+ * only the subtrees of the children whose label is in <i>[d-k, d+k]</i> can contain words within
+ * the threshold <i>k</i>. Moreover, the edit distance from the query to the word of a node is computed
+ * {@link EditDistanceCalculator#distanceWithin(String, String, int) within the threshold} given by
+ * the greatest label of its children (plus <i>k</i>), because greater distances exclude all the children.
+ * <p/>
+ * The pruning is correct only if the edit distance is a {@link EditCostModel#isMetric() metric},
+ * which is not the case, e.g., when the {@link EditOperation#KILL} (which makes the edit distance
+ * asymmetric) or the {@link EditOperation#TWIDDLE} (which breaks the triangle inequality) are used:
+ * the constructors throw an {@link IllegalArgumentException} for such cost models.
+ * <p/>
+ * Nodes are saved in parallel arrays, which are grown on demand, with the children of a node
+ * linked as a list of siblings. Searches can be performed concurrently (each thread uses
+ * {@link EditDistanceEngine#getThreadLocalInstance() its own workspace}) but not while words are added.
+ */
+public final class BKTree {
+
+    /**
+     * Initial number of nodes for which the arrays are allocated.
+     */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * Value used for missing nodes.
+     */
+    private static final int NO_NODE = -1;
+
+    /**
+     * Index of the root node.
+     */
+    private static final int ROOT = 0;
+
+    /**
+     * The costs of the {@link EditOperation}s.
+     */
+    @NotNull
+    private final EditCostModel costModel;
+
+    /**
+     * The fastest algorithm to compute the edit distance with the {@link #costModel}.
+     */
+    @NotNull
+    private final EditDistanceAlgorithm algorithm;
+
+    /**
+     * Number of nodes (i.e., of words) in the tree.
+     */
+    private int size;
+
+    /**
+     * The word of each node.
+     */
+    private String[] words = new String[INITIAL_CAPACITY];
+
+    /**
+     * The edit distance from the word of the parent to the word of each node (i.e., the label of the edge).
+     */
+    private int[] distancesFromParent = new int[INITIAL_CAPACITY];
+
+    /**
+     * The index of the first child of each node, or {@link #NO_NODE}.
+     */
+    private int[] firstChildren = new int[INITIAL_CAPACITY];
+
+    /**
+     * The index of the next sibling of each node, or {@link #NO_NODE}.
+     */
+    private int[] nextSiblings = new int[INITIAL_CAPACITY];
+
+    /**
+     * The greatest label of the edges to the children of each node (0 if it has no children).
+     */
+    private int[] maxDistancesOfChildren = new int[INITIAL_CAPACITY];
+
+    /**
+     * Creates an empty tree using the {@link EditCostModel#LEVENSHTEIN Levenshtein distance}.
+     */
+    public BKTree() {
+        this(EditCostModel.LEVENSHTEIN);
+    }
+
+    /**
+     * Creates an empty tree using the given costs.
+     *
+     * @param costModel The costs of the {@link EditOperation}s.
+     * @throws IllegalArgumentException if the edit distance with the given costs is not a
+     *                                  {@link EditCostModel#isMetric() metric}.
+     */
+    public BKTree(@NotNull final EditCostModel costModel) {
+        if (!Objects.requireNonNull(costModel).isMetric()) {
+            throw new IllegalArgumentException(
+                    "A BK-tree requires a metric, but the edit distance with " + costModel + " is not a metric.");
+        }
+        this.costModel = costModel;
+        this.algorithm = EditDistanceAlgorithm.getFastestApplicable(costModel);
+    }
+
+    /**
+     * Creates a tree with the given words using the {@link EditCostModel#LEVENSHTEIN Levenshtein distance}.
+     *
+     * @param words The words of the dictionary.
+     */
+    public BKTree(@NotNull final Collection<String> words) {
+        this(words, EditCostModel.LEVENSHTEIN);
+    }
+
+    /**
+     * Creates a tree with the given words using the given costs.
+     *
+     * @param words     The words of the dictionary.
+     * @param costModel The costs of the {@link EditOperation}s.
+     * @throws IllegalArgumentException if the edit distance with the given costs is not a
+     *                                  {@link EditCostModel#isMetric() metric}.
+     */
+    public BKTree(@NotNull final Collection<String> words, @NotNull final EditCostModel costModel) {
+        this(costModel);
+        ensureCapacity(Objects.requireNonNull(words).size());
+        for (String word : words) {
+            add(word);
+        }
+    }
+
+    /**
+     * Adds a word to the tree.
+     *
+     * @param word The word to add.
+     * @return true if the word has been added, false if it was already in the tree.
+     */
+    public boolean add(@NotNull final String word) {
+        Objects.requireNonNull(word);
+        if (size == 0) {
+            addNode(word, 0);
+            return true;
+        }
+        final EditDistanceEngine engine = EditDistanceEngine.getThreadLocalInstance();
+        int node = ROOT;
+        while (true) {
+            final int editDistance = engine.compute(word, words[node], costModel, algorithm);
+            if (editDistance == 0) {
+                return false;   // same word, because the edit distance is a metric
+            }
+            int child = firstChildren[node];
+            while (child != NO_NODE && distancesFromParent[child] != editDistance) {
+                child = nextSiblings[child];
+            }
+            if (child == NO_NODE) {
+                final int newNode = addNode(word, editDistance);
+                nextSiblings[newNode] = firstChildren[node];
+                firstChildren[node] = newNode;
+                maxDistancesOfChildren[node] = Math.max(maxDistancesOfChildren[node], editDistance);
+                return true;
+            }
+            node = child;
+        }
+    }
+
+    /**
+     * Finds the words of the tree whose edit distance from the query does not exceed the given threshold.
+     *
+     * @param query       The query, which is the starting word for the edit distance.
+     * @param maxDistance The threshold for the edit distance (must be non-negative).
+     * @return the words within the threshold with their edit distance from the query,
+     * sorted by increasing edit distance and then alphabetically.
+     * @throws IllegalArgumentException if the given threshold is negative.
+     */
+    @NotNull
+    public List<DictionaryMatch> search(@NotNull final String query, final int maxDistance) {
+        Objects.requireNonNull(query);
+        if (maxDistance < 0) {
+            throw new IllegalArgumentException("The threshold cannot be negative, but " + maxDistance + " found.");
+        }
+        if (size == 0) {
+            return Collections.emptyList();
+        }
+        final EditDistanceEngine engine = EditDistanceEngine.getThreadLocalInstance();
+        final List<DictionaryMatch> matches = new ArrayList<>();
+        int[] nodesToVisit = new int[INITIAL_CAPACITY];
+        int numberOfNodesToVisit = 0;
+        nodesToVisit[numberOfNodesToVisit++] = ROOT;
+        while (numberOfNodesToVisit > 0) {
+            final int node = nodesToVisit[--numberOfNodesToVisit];
+            // children can be within the threshold only if the distance from the node is within this value
+            final int threshold = (int) Math.min((long) maxDistancesOfChildren[node] + maxDistance, Integer.MAX_VALUE);
+            final int editDistance = engine.computeWithin(query, words[node], threshold, costModel);
+            if (editDistance <= maxDistance) {
+                matches.add(new DictionaryMatch(words[node], editDistance));
+            }
+            if (editDistance > threshold) {
+                continue;
+            }
+            for (int child = firstChildren[node]; child != NO_NODE; child = nextSiblings[child]) {
+                if (Math.abs(distancesFromParent[child] - editDistance) <= maxDistance) {
+                    if (numberOfNodesToVisit == nodesToVisit.length) {
+                        nodesToVisit = Arrays.copyOf(nodesToVisit, 2 * nodesToVisit.length);
+                    }
+                    nodesToVisit[numberOfNodesToVisit++] = child;
+                }
+            }
+        }
+        Collections.sort(matches);
+        return matches;
+    }
+
+    /**
+     * @param word The word.
+     * @return true if the given word is in the tree.
+     */
+    public boolean contains(@NotNull final String word) {
+        return !search(word, 0).isEmpty();
+    }
+
+    /**
+     * @return the number of words in the tree.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the costs of the {@link EditOperation}s used by this tree.
+     */
+    @NotNull
+    public EditCostModel getCostModel() {
+        return costModel;
+    }
+
+    /**
+     * Appends a node without children.
+     *
+     * @param word               The word of the node.
+     * @param distanceFromParent The label of the edge from the parent.
+     * @return the index of the new node.
+     */
+    private int addNode(@NotNull final String word, final int distanceFromParent) {
+        ensureCapacity(size + 1);
+        words[size] = word;
+        distancesFromParent[size] = distanceFromParent;
+        firstChildren[size] = NO_NODE;
+        nextSiblings[size] = NO_NODE;
+        maxDistancesOfChildren[size] = 0;
+        return size++;
+    }
+
+    /**
+     * Grows the arrays of the nodes if needed.
+     *
+     * @param numberOfNodes The number of nodes which must fit in the arrays.
+     */
+    private void ensureCapacity(final int numberOfNodes) {
+        if (words.length < numberOfNodes) {
+            final int capacity = Math.max(numberOfNodes, 2 * words.length);
+            words = Arrays.copyOf(words, capacity);
+            distancesFromParent = Arrays.copyOf(distancesFromParent, capacity);
+            firstChildren = Arrays.copyOf(firstChildren, capacity);
+            nextSiblings = Arrays.copyOf(nextSiblings, capacity);
+            maxDistancesOfChildren = Arrays.copyOf(maxDistancesOfChildren, capacity);
+        }
+    }
+}
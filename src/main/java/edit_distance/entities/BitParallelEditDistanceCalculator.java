@@ -0,0 +1,441 @@
+package edit_distance.entities;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * This class computes the edit distance between two words with the bit-vector
+ * algorithm by Myers ("A fast bit-vector algorithm for approximate string matching
+ * based on dynamic programming", 1999), extended with the variant by Hyyrö ("A
+ * bit-vector algorithm for computing Levenshtein and Damerau edit distances", 2003)
+ * to take into account the {@link EditOperation#TWIDDLE}.
+ * The vertical differences between adjacent cells of a column of the cost matrix
+ * are encoded in machine words, hence 64 cells are processed at once. Words longer
+ * than 64 letters are split in blocks of 64 letters and the carries are propagated
+ * from a block to the next one.
+ * <p/>
+ * This algorithm can be used only with unitary costs (see {@link #isApplicable(EditCostModel)}).
+ */
+public final class BitParallelEditDistanceCalculator {
+
+    /**
+     * Number of cells of a column of the cost matrix encoded in a machine word.
+     */
+    private static final int BLOCK_SIZE = Long.SIZE;
+
+    /**
+     * Number of bit-vectors (each one made of as many blocks as needed) used by
+     * {@link #computeEditDistanceMultipleBlocks(PatternMasks, int[], int, boolean, long[], EditCostModel)}.
+     */
+    static final int NUMBER_OF_BIT_VECTORS = 4;
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private BitParallelEditDistanceCalculator() {
+    }
+
+    /**
+     * @return true if the {@link EditCostModel#DEFAULT default costs} allow to use this algorithm
+     * (see {@link #isApplicable(EditCostModel)}).
+     */
+    public static boolean isApplicable() {
+        return isApplicable(EditCostModel.DEFAULT);
+    }
+
+    /**
+     * @param costModel The costs of the {@link EditOperation}s.
+     * @return true if the given costs allow to use this algorithm, i.e.: {@link EditOperation#COPY}
+     * has cost 0, {@link EditOperation#REPLACE}, {@link EditOperation#DELETE} and
+     * {@link EditOperation#INSERT} have cost 1 (for all the letters) and the {@link EditOperation#TWIDDLE}
+     * (if used) has a positive cost. The {@link EditOperation#KILL} can have any cost.
+     */
+    public static boolean isApplicable(@NotNull final EditCostModel costModel) {
+        return Objects.requireNonNull(costModel).getKernel() == EditCostModel.Kernel.UNIT_COSTS;
+    }
+
+    /**
+     * @param costModel The costs of the {@link EditOperation}s.
+     * @return true if the {@link EditOperation#TWIDDLE} can lead to a cheaper sequence of operations.
+     * When its cost is greater than 1, a twiddle is never cheaper than two replacements.
+     */
+    private static boolean isTwiddleConvenient(@NotNull final EditCostModel costModel) {
+        return costModel.isTwiddleEnabled() && costModel.getCost(EditOperation.TWIDDLE) == 1;
+    }
+
+    /**
+     * Computes the edit distance between two words with the {@link EditCostModel#DEFAULT default costs}.
+     * The result is the same which would be returned by {@link EditDistanceCalculator#getEditDistance()}
+     * on a new instance.
+     *
+     * @param startingWord The starting word.
+     * @param targetWord   The target word.
+     * @return the edit distance from the starting word to the target word.
+     * @throws IllegalStateException if the costs of the {@link EditOperation}s do not allow to
+     *                               use this algorithm (see {@link #isApplicable()}).
+     */
+    public static int computeEditDistance(@NotNull final String startingWord, @NotNull final String targetWord) {
+        return computeEditDistance(startingWord, targetWord, EditCostModel.DEFAULT);
+    }
+
+    /**
+     * Computes the edit distance between two words with the given costs.
+     * The computation uses the {@link EditDistanceEngine#getThreadLocalInstance() workspace
+     * of the current thread}, hence the bit-vectors are not allocated at each call.
+     *
+     * @param startingWord The starting word.
+     * @param targetWord   The target word.
+     * @param costModel    The costs of the {@link EditOperation}s.
+     * @return the edit distance from the starting word to the target word.
+     * @throws IllegalStateException if the given costs do not allow to use this algorithm
+     *                               (see {@link #isApplicable(EditCostModel)}).
+     */
+    public static int computeEditDistance(
+            @NotNull final String startingWord, @NotNull final String targetWord,
+            @NotNull final EditCostModel costModel) {
+        Objects.requireNonNull(startingWord);
+        Objects.requireNonNull(targetWord);
+        if (!isApplicable(costModel)) {
+            throw new IllegalStateException("Bit-parallel algorithm can be used only with unitary costs.");
+        }
+        return EditDistanceEngine.getThreadLocalInstance()
+                .compute(startingWord, targetWord, costModel, EditDistanceAlgorithm.BIT_PARALLEL);
+    }
+
+    /**
+     * @param lengthOfStartingWord The length of the starting word.
+     * @param costModel            The costs of the {@link EditOperation}s.
+     * @return the cost of transforming a starting word of the given length into an empty word.
+     */
+    static int costOfDeletingOrKilling(int lengthOfStartingWord, @NotNull final EditCostModel costModel) {
+        if (costModel.isKillEnabled() && lengthOfStartingWord > 0) {
+            return Math.min(lengthOfStartingWord, costModel.getCost(EditOperation.KILL));
+        }
+        return lengthOfStartingWord;
+    }
+
+    /**
+     * Computes the edit distance when the encoded word fits in a single machine word.
+     *
+     * @param patternMasks        The masks of the encoded word.
+     * @param scannedWord         The word whose letters are scanned one at a time.
+     * @param lengthOfScannedWord The length of the scanned word (the array might be longer).
+     * @param transposed          true if the encoded word is the target word.
+     * @param costModel           The costs of the {@link EditOperation}s (see {@link #isApplicable(EditCostModel)}).
+     * @return the edit distance.
+     */
+    static int computeEditDistanceSingleBlock(
+            @NotNull final PatternMasks patternMasks, final int[] scannedWord, final int lengthOfScannedWord,
+            final boolean transposed, @NotNull final EditCostModel costModel) {
+
+        final int encodedWordLength = patternMasks.wordLength;
+        final long lastBit = 1L << (encodedWordLength - 1);
+        final boolean useTwiddle = isTwiddleConvenient(costModel);
+
+        long verticalPositive = -1L;    // vertical differences of the column: +1 (initially, all the cells)
+        long verticalNegative = 0L;     // vertical differences of the column: -1
+        long diagonalZeroOfPreviousColumn = 0L;
+        long matchesOfPreviousColumn = 0L;
+        int score = encodedWordLength;   // value of the cell in the last row of the current column
+        int minScoreOfColumnsFromWhichToKill = score;
+
+        for (int j = 0; j < lengthOfScannedWord; j++) {
+            if (transposed) {   // column j corresponds to the j-th letter of the starting word
+                minScoreOfColumnsFromWhichToKill = Math.min(minScoreOfColumnsFromWhichToKill, score);
+            }
+            final long matches = patternMasks.getMaskOfFirstBlock(scannedWord[j]);
+            long diagonalZero = (((matches & verticalPositive) + verticalPositive) ^ verticalPositive)
+                    | matches | verticalNegative;
+            if (useTwiddle) {
+                diagonalZero |= (((~diagonalZeroOfPreviousColumn) & matches) << 1) & matchesOfPreviousColumn;
+                diagonalZeroOfPreviousColumn = diagonalZero;
+                matchesOfPreviousColumn = matches;
+            }
+            long horizontalPositive = verticalNegative | ~(diagonalZero | verticalPositive);
+            long horizontalNegative = diagonalZero & verticalPositive;
+            if ((horizontalPositive & lastBit) != 0) {
+                score++;
+            } else if ((horizontalNegative & lastBit) != 0) {
+                score--;
+            }
+            horizontalPositive = (horizontalPositive << 1) | 1L;    // first row: the cost always increases
+            horizontalNegative <<= 1;
+            verticalPositive = horizontalNegative | ~(diagonalZero | horizontalPositive);
+            verticalNegative = diagonalZero & horizontalPositive;
+        }
+
+        if (!transposed && costModel.isKillEnabled()) {
+            // the last column of the cost matrix is encoded in the vertical differences
+            minScoreOfColumnsFromWhichToKill = lengthOfScannedWord;
+            int value = lengthOfScannedWord;
+            for (int i = 0; i < encodedWordLength - 1; i++) {
+                final long bit = 1L << i;
+                if ((verticalPositive & bit) != 0) {
+                    value++;
+                } else if ((verticalNegative & bit) != 0) {
+                    value--;
+                }
+                minScoreOfColumnsFromWhichToKill = Math.min(minScoreOfColumnsFromWhichToKill, value);
+            }
+        }
+        return applyKillIfConvenient(score, minScoreOfColumnsFromWhichToKill, costModel);
+    }
+
+    /**
+     * Computes the edit distance when the encoded word does not fit in a single machine word.
+     * The bit-vectors are handled as multi-word integers and the carries of additions and shifts
+     * are propagated from a block to the next one.
+     *
+     * @param patternMasks        The masks of the encoded word.
+     * @param scannedWord         The word whose letters are scanned one at a time.
+     * @param lengthOfScannedWord The length of the scanned word (the array might be longer).
+     * @param transposed          true if the encoded word is the target word.
+     * @param bitVectors          Scratch space for the {@link #NUMBER_OF_BIT_VECTORS} bit-vectors,
+     *                            with at least that number times the number of blocks elements.
+     *                            Its content is overwritten.
+     * @param costModel           The costs of the {@link EditOperation}s (see {@link #isApplicable(EditCostModel)}).
+     * @return the edit distance.
+     */
+    static int computeEditDistanceMultipleBlocks(
+            @NotNull final PatternMasks patternMasks, final int[] scannedWord, final int lengthOfScannedWord,
+            final boolean transposed, final long[] bitVectors, @NotNull final EditCostModel costModel) {
+
+        final int encodedWordLength = patternMasks.wordLength;
+        final int numberOfBlocks = patternMasks.numberOfBlocks;
+        final int lastBlock = numberOfBlocks - 1;
+        final long lastBit = 1L << ((encodedWordLength - 1) % BLOCK_SIZE);
+        final boolean useTwiddle = isTwiddleConvenient(costModel);
+        final long[] masks = patternMasks.masks;
+
+        // offsets of the bit-vectors in the scratch space
+        final int verticalPositive = 0;
+        final int verticalNegative = numberOfBlocks;
+        final int diagonalZeroOfPreviousColumn = 2 * numberOfBlocks;
+        final int matchesOfPreviousColumn = 3 * numberOfBlocks;
+        Arrays.fill(bitVectors, verticalPositive, verticalNegative, -1L);
+        Arrays.fill(bitVectors, verticalNegative, NUMBER_OF_BIT_VECTORS * numberOfBlocks, 0L);
+        int score = encodedWordLength;
+        int minScoreOfColumnsFromWhichToKill = score;
+
+        for (int j = 0; j < lengthOfScannedWord; j++) {
+            if (transposed) {
+                minScoreOfColumnsFromWhichToKill = Math.min(minScoreOfColumnsFromWhichToKill, score);
+            }
+            final int maskOffset = patternMasks.getOffsetOfMasks(scannedWord[j]);
+            long additionCarry = 0L;
+            long horizontalPositiveCarry = 1L;  // first row: the cost always increases
+            long horizontalNegativeCarry = 0L;
+            long twiddleCarry = 0L;
+            for (int block = 0; block < numberOfBlocks; block++) {
+                final long matches = maskOffset < 0 ? 0L : masks[maskOffset + block];
+                final long vp = bitVectors[verticalPositive + block];
+                final long vn = bitVectors[verticalNegative + block];
+
+                final long addend = matches & vp;
+                final long sum = addend + vp + additionCarry;
+                additionCarry = ((addend & vp) | ((addend | vp) & ~sum)) >>> (BLOCK_SIZE - 1);
+
+                long diagonalZero = (sum ^ vp) | matches | vn;
+                if (useTwiddle) {
+                    final long shiftedTerm = (~bitVectors[diagonalZeroOfPreviousColumn + block]) & matches;
+                    diagonalZero |= ((shiftedTerm << 1) | twiddleCarry) & bitVectors[matchesOfPreviousColumn + block];
+                    twiddleCarry = shiftedTerm >>> (BLOCK_SIZE - 1);
+                    bitVectors[diagonalZeroOfPreviousColumn + block] = diagonalZero;
+                    bitVectors[matchesOfPreviousColumn + block] = matches;
+                }
+                long horizontalPositive = vn | ~(diagonalZero | vp);
+                long horizontalNegative = diagonalZero & vp;
+                if (block == lastBlock) {
+                    if ((horizontalPositive & lastBit) != 0) {
+                        score++;
+                    } else if ((horizontalNegative & lastBit) != 0) {
+                        score--;
+                    }
+                }
+                final long shiftedHorizontalPositive = (horizontalPositive << 1) | horizontalPositiveCarry;
+                final long shiftedHorizontalNegative = (horizontalNegative << 1) | horizontalNegativeCarry;
+                horizontalPositiveCarry = horizontalPositive >>> (BLOCK_SIZE - 1);
+                horizontalNegativeCarry = horizontalNegative >>> (BLOCK_SIZE - 1);
+                bitVectors[verticalPositive + block] =
+                        shiftedHorizontalNegative | ~(diagonalZero | shiftedHorizontalPositive);
+                bitVectors[verticalNegative + block] = diagonalZero & shiftedHorizontalPositive;
+            }
+        }
+
+        if (!transposed && costModel.isKillEnabled()) {
+            minScoreOfColumnsFromWhichToKill = minValueOfLastColumn(
+                    lengthOfScannedWord, bitVectors, verticalPositive, verticalNegative, encodedWordLength);
+        }
+        return applyKillIfConvenient(score, minScoreOfColumnsFromWhichToKill, costModel);
+    }
+
+    /**
+     * @param valueOfFirstCell         The value of the first cell of the column (i.e., the length of the
+     *                                 scanned word).
+     * @param bitVectors               The bit-vectors.
+     * @param offsetOfVerticalPositive The offset of the blocks of positive vertical differences of the column.
+     * @param offsetOfVerticalNegative The offset of the blocks of negative vertical differences of the column.
+     * @param encodedWordLength        The length of the encoded word.
+     * @return the minimum value among the cells of the column, excluding the one in the last row
+     * (i.e., the cells from which the starting word can be killed).
+     */
+    private static int minValueOfLastColumn(
+            int valueOfFirstCell, final long[] bitVectors, final int offsetOfVerticalPositive,
+            final int offsetOfVerticalNegative, int encodedWordLength) {
+        int value = valueOfFirstCell;
+        int min = value;
+        for (int i = 0; i < encodedWordLength - 1; i++) {
+            final long bit = 1L << (i % BLOCK_SIZE);
+            if ((bitVectors[offsetOfVerticalPositive + i / BLOCK_SIZE] & bit) != 0) {
+                value++;
+            } else if ((bitVectors[offsetOfVerticalNegative + i / BLOCK_SIZE] & bit) != 0) {
+                value--;
+            }
+            min = Math.min(min, value);
+        }
+        return min;
+    }
+
+    /**
+     * @param editDistanceWithoutKilling    The edit distance without applying {@link EditOperation#KILL}.
+     * @param minCostOfCellsFromWhichToKill The cheapest cell from which the starting word can be killed.
+     * @param costModel                     The costs of the {@link EditOperation}s.
+     * @return the edit distance, after having applied the {@link EditOperation#KILL} if it is convenient.
+     */
+    private static int applyKillIfConvenient(
+            int editDistanceWithoutKilling, int minCostOfCellsFromWhichToKill, @NotNull final EditCostModel costModel) {
+        if (costModel.isKillEnabled()) {
+            return Math.min(editDistanceWithoutKilling,
+                    minCostOfCellsFromWhichToKill + costModel.getCost(EditOperation.KILL));
+        }
+        return editDistanceWithoutKilling;
+    }
+
+    /**
+     * An instance of this class saves, for each distinct letter of a word, the bit-vector (split
+     * in blocks of {@link #BLOCK_SIZE} bits) whose i-th bit is set if the i-th letter of the word
+     * is equal to the given one. Letters are saved in an open-addressing hash table.
+     * <p/>
+     * An instance can be {@link #encode(int[], int) re-encoded} with another word: the arrays are
+     * grown only if needed and only the used slots are cleared, hence the same instance can be
+     * reused for many words without allocations.
+     */
+    static final class PatternMasks {
+
+        /**
+         * The length of the encoded word.
+         */
+        private int wordLength;
+
+        /**
+         * The number of blocks needed to encode the word.
+         */
+        private int numberOfBlocks;
+
+        /**
+         * The letters (keys of the hash table).
+         */
+        private int[] letters = new int[0];
+
+        /**
+         * For each slot of the hash table, the index of the letter in the order of first
+         * appearance in the word, or -1 if the slot is not used.
+         */
+        private int[] indexesOfLetters = new int[0];
+
+        /**
+         * The used slots of the hash table, in order of first appearance of the letter.
+         */
+        private int[] usedSlots = new int[0];
+
+        /**
+         * The number of distinct letters of the encoded word.
+         */
+        private int numberOfDistinctLetters;
+
+        /**
+         * The masks: the ones of the letter with index <i>k</i> start at index <i>k*numberOfBlocks</i>.
+         */
+        private long[] masks = new long[0];
+
+        /**
+         * Encodes the given word, replacing the previous one.
+         *
+         * @param word       The letters of the word to encode.
+         * @param wordLength The length of the word (the array might be longer).
+         */
+        void encode(final int[] word, final int wordLength) {
+            for (int k = 0; k < numberOfDistinctLetters; k++) {
+                indexesOfLetters[usedSlots[k]] = -1;
+            }
+            this.wordLength = wordLength;
+            this.numberOfBlocks = (wordLength + BLOCK_SIZE - 1) / BLOCK_SIZE;
+            final int numberOfSlots =
+                    Integer.highestOneBit(Math.max(1, Math.min(wordLength, Character.MAX_VALUE + 1))) * 4;
+            if (letters.length < numberOfSlots) {
+                letters = new int[numberOfSlots];
+                indexesOfLetters = new int[numberOfSlots];
+                Arrays.fill(indexesOfLetters, -1);
+                usedSlots = new int[numberOfSlots];
+            }
+
+            numberOfDistinctLetters = 0;
+            for (int i = 0; i < wordLength; i++) {
+                final int letter = word[i];
+                final int slot = findSlot(letter);
+                if (indexesOfLetters[slot] < 0) {
+                    usedSlots[numberOfDistinctLetters] = slot;
+                    indexesOfLetters[slot] = numberOfDistinctLetters++;
+                    letters[slot] = letter;
+                    final int endOfMasks = numberOfDistinctLetters * numberOfBlocks;
+                    if (masks.length < endOfMasks) {
+                        masks = Arrays.copyOf(masks, Math.max(endOfMasks, 2 * masks.length));
+                    }
+                    Arrays.fill(masks, endOfMasks - numberOfBlocks, endOfMasks, 0L);
+                }
+                masks[indexesOfLetters[slot] * numberOfBlocks + i / BLOCK_SIZE] |= 1L << (i % BLOCK_SIZE);
+            }
+        }
+
+        /**
+         * @return the number of blocks needed to encode the word.
+         */
+        int getNumberOfBlocks() {
+            return numberOfBlocks;
+        }
+
+        /**
+         * @param letter A letter.
+         * @return the slot of the hash table where the letter is saved or where it should be saved.
+         */
+        private int findSlot(int letter) {
+            final int slotMask = letters.length - 1;
+            int slot = (letter * 0x9E3779B9 >>> 16) & slotMask;
+            while (indexesOfLetters[slot] >= 0 && letters[slot] != letter) {
+                slot = (slot + 1) & slotMask;
+            }
+            return slot;
+        }
+
+        /**
+         * @param letter A letter.
+         * @return the mask of the first block for the given letter.
+         */
+        long getMaskOfFirstBlock(int letter) {
+            final int index = indexesOfLetters[findSlot(letter)];
+            return index < 0 ? 0L : masks[index * numberOfBlocks];
+        }
+
+        /**
+         * @param letter A letter.
+         * @return the index of {@link #masks} where the masks for the given letter start,
+         * or a negative value if the letter does not appear in the encoded word.
+         */
+        int getOffsetOfMasks(int letter) {
+            final int index = indexesOfLetters[findSlot(letter)];
+            return index < 0 ? -1 : index * numberOfBlocks;
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package edit_distance.entities;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The k candidates closest to a query, kept in a binary max-heap of primitive longs: each entry
+ * packs the edit distance (high 32 bits) and the index of the candidate (low 32 bits), so the root
+ * is the worst of the kept candidates (the farthest one, the latest among the farthest ones) and
+ * nothing is allocated per candidate.
+ */
+final class BoundedDistanceHeap {
+
+    /**
+     * The entries of the heap, in the first {@link #size} positions.
+     */
+    private final long[] entries;
+
+    /**
+     * The number of entries in the heap.
+     */
+    private int size = 0;
+
+    /**
+     * @param k                  The number of neighbours to keep (positive).
+     * @param numberOfCandidates The number of candidates which can be offered: the capacity of the heap
+     *                           is not greater (but it is at least 1), so that the memory does not depend on
+     *                           k when k exceeds the number of candidates.
+     * @throws IllegalArgumentException if k is not positive.
+     */
+    BoundedDistanceHeap(final int k, final int numberOfCandidates) {
+        if (k <= 0) {
+            throw new IllegalArgumentException("The number of neighbours must be positive, but "
+                    + k + " found.");
+        }
+        this.entries = new long[Math.max(1, Math.min(k, numberOfCandidates))];
+    }
+
+    /**
+     * @param editDistance The edit distance of a candidate (non-negative).
+     * @param index        The index of the candidate (non-negative).
+     * @return the entry of the candidate.
+     */
+    private static long entryOf(final int editDistance, final int index) {
+        return (long) editDistance << Integer.SIZE | index;
+    }
+
+    /**
+     * @param entry An entry.
+     * @return the edit distance of the entry.
+     */
+    private static int editDistanceOf(final long entry) {
+        return (int) (entry >>> Integer.SIZE);
+    }
+
+    /**
+     * @param entry An entry.
+     * @return the index of the candidate of the entry.
+     */
+    private static int indexOf(final long entry) {
+        return (int) entry;
+    }
+
+    /**
+     * @return true if the heap contains as many candidates as its capacity.
+     */
+    boolean isFull() {
+        return size == entries.length;
+    }
+
+    /**
+     * @return the edit distance of the worst kept candidate, which is the greatest edit distance
+     * which can still enter the heap (with a lower index) once it {@link #isFull() is full}.
+     * @throws IllegalStateException if the heap is empty.
+     */
+    int getWorstEditDistance() {
+        if (size == 0) {
+            throw new IllegalStateException("The heap is empty.");
+        }
+        return editDistanceOf(entries[0]);
+    }
+
+    /**
+     * Offers a candidate, which is kept if the heap is not full or if it is closer than the
+     * worst kept candidate (or as close, but with a lower index), which is then discarded.
+     *
+     * @param editDistance The edit distance of the candidate (non-negative).
+     * @param index        The index of the candidate (non-negative).
+     * @return true if the candidate has been kept.
+     */
+    boolean offer(final int editDistance, final int index) {
+        final long entry = entryOf(editDistance, index);
+        if (size < entries.length) {
+            int child = size++;
+            while (child > 0) {     // sift up
+                final int parent = (child - 1) >>> 1;
+                if (entries[parent] >= entry) {
+                    break;
+                }
+                entries[child] = entries[parent];
+                child = parent;
+            }
+            entries[child] = entry;
+            return true;
+        }
+        if (entry >= entries[0]) {
+            return false;
+        }
+        int parent = 0;
+        while (true) {          // sift down
+            int child = 2 * parent + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && entries[child + 1] > entries[child]) {
+                child++;
+            }
+            if (entries[child] <= entry) {
+                break;
+            }
+            entries[parent] = entries[child];
+            parent = child;
+        }
+        entries[parent] = entry;
+        return true;
+    }
+
+    /**
+     * Offers all the candidates kept by the given heap.
+     *
+     * @param other Another heap.
+     */
+    void offerAll(@NotNull final BoundedDistanceHeap other) {
+        for (int e = 0; e < other.size; e++) {
+            offer(editDistanceOf(other.entries[e]), indexOf(other.entries[e]));
+        }
+    }
+
+    /**
+     * @param candidates The candidates whose indexes have been offered.
+     * @return the kept candidates, ordered by increasing edit distance and then by index.
+     */
+    @NotNull
+    List<DictionaryMatch> toMatches(@NotNull final List<? extends CharSequence> candidates) {
+        final long[] sortedEntries = Arrays.copyOf(entries, size);
+        Arrays.sort(sortedEntries);
+        final List<DictionaryMatch> matches = new ArrayList<>(size);
+        for (long entry : sortedEntries) {
+            matches.add(new DictionaryMatch(candidates.get(indexOf(entry)).toString(), editDistanceOf(entry)));
+        }
+        return matches;
+    }
+}
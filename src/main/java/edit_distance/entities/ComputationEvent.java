@@ -0,0 +1,74 @@
+package edit_distance.entities;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JDK Flight Recorder event emitted for each computation of an edit distance (see {@link EditDistanceMetrics}).
+ * Since an application may compute millions of edit distances per second, it is disabled by default: a recording
+ * (e.g. the one started by <code>-XX:StartFlightRecording</code>) records it only if its setting
+ * <code>edit_distance.Computation#enabled</code> is <code>true</code>, either in the configuration (.jfc)
+ * of the recording or by {@link jdk.jfr.Recording#enable(String)}, and a threshold on the duration can be set
+ * as for the events of the JDK. While it is not recorded, creating, beginning and committing an instance does
+ * nothing and the JIT compiler removes the allocation.
+ */
+@Name(ComputationEvent.NAME)
+@Label("Edit Distance Computation")
+@Category("Edit Distance")
+@Description("Computation of the edit distance between two words")
+@StackTrace(false)
+@Enabled(false)
+final class ComputationEvent extends Event {
+
+    /**
+     * The name of the event.
+     */
+    static final String NAME = "edit_distance.Computation";
+
+    /**
+     * The length of the starting word.
+     */
+    @Label("Starting Word Length")
+    int startingWordLength;
+
+    /**
+     * The length of the target word.
+     */
+    @Label("Target Word Length")
+    int targetWordLength;
+
+    /**
+     * The number of cells of the cost matrix which have been filled.
+     */
+    @Label("Filled Cells")
+    long filledCells;
+
+    /**
+     * The name of the {@link EditDistanceMetrics.Engine} which produced the result.
+     */
+    @Label("Engine")
+    String engine;
+
+    /**
+     * Whether the result came from an {@link EditDistanceCache}.
+     */
+    @Label("Cached")
+    boolean cached;
+
+    /**
+     * Whether the computation stopped before filling the cost matrix because the distance exceeded a threshold.
+     */
+    @Label("Early Exit")
+    boolean earlyExit;
+
+    /**
+     * The computed edit distance (the threshold plus 1 after an early exit).
+     */
+    @Label("Edit Distance")
+    int editDistance;
+}
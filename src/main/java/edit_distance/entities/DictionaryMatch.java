@@ -0,0 +1,72 @@
+package edit_distance.entities;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Objects;
+
+/**
+ * An instance of this class represents a word of a dictionary which has been
+ * found close to a query, together with its edit distance from the query.
+ * Matches are ordered by increasing edit distance and then alphabetically.
+ */
+public final class DictionaryMatch implements Comparable<DictionaryMatch> {
+
+    /**
+     * The word of the dictionary.
+     */
+    @NotNull
+    private final String word;
+
+    /**
+     * The edit distance from the query to the word.
+     */
+    private final int editDistance;
+
+    /**
+     * @param word         The word of the dictionary.
+     * @param editDistance The edit distance from the query to the word.
+     */
+    public DictionaryMatch(@NotNull final String word, final int editDistance) {
+        this.word = Objects.requireNonNull(word);
+        this.editDistance = editDistance;
+    }
+
+    /**
+     * @return the word of the dictionary.
+     */
+    @NotNull
+    public String getWord() {
+        return word;
+    }
+
+    /**
+     * @return the edit distance from the query to the word.
+     */
+    public int getEditDistance() {
+        return editDistance;
+    }
+
+    @Override
+    public int compareTo(@NotNull final DictionaryMatch other) {
+        int comparison = Integer.compare(editDistance, other.editDistance);
+        return comparison != 0 ? comparison : word.compareTo(other.word);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        DictionaryMatch that = (DictionaryMatch) o;
+        return editDistance == that.editDistance && word.equals(that.word);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(word, editDistance);
+    }
+
+    @Override
+    public String toString() {
+        return word + "[" + editDistance + "]";
+    }
+}
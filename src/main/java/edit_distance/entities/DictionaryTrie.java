@@ -0,0 +1,712 @@
+package edit_distance.entities;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.CharBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.zip.CRC32C;
+import java.util.zip.Checksum;
+
+/**
+ * An instance of this class is a trie over a dictionary of words, to find the words whose
+ * edit distance from a query does not exceed a threshold.
+ * <p/>
+ * The cost matrix from the query to a word has one row for each letter of the word (plus the
+ * one for the empty word), hence words sharing a prefix share the rows of that prefix. The search
+ * visits the trie depth-first and fills one row for each node, from the rows of its ancestors
+ * (see {@link EditDistanceEngine#fillRowOfQuery(int, int, int, int)}): the rows of a prefix are
+ * computed only once for all the words with that prefix. Moreover, the subtree of a node is skipped
+ * as soon as no cell of its row (nor of the row of its parent, if the {@link EditOperation#TWIDDLE}
+ * is used) is within the threshold, because costs never decrease along the rows.
+ * <p/>
+ * Any {@link EditCostModel} can be used. Nodes are saved in parallel arrays, which are grown
+ * on demand, with the children of a node linked as a list of siblings. Searches can be performed
+ * concurrently (each thread uses {@link EditDistanceEngine#getThreadLocalInstance() its own workspace})
+ * but not while words are added.
+ * <p/>
+ * A trie can be {@link #save(Path) saved} in a binary file, which {@link #load(Path, EditCostModel)}
+ * maps in memory without reading it: the nodes are accessed through views of the mapped file, so the
+ * trie is ready to be searched as soon as it is loaded, whatever its size, and the processes which load
+ * the same file share the pages of the file in the page cache of the operating system. The file is
+ * little-endian and has a header of {@link #HEADER_BYTES} bytes (the ints {@link #MAGIC},
+ * {@link #FORMAT_VERSION}, the number of words, the number of nodes, the length of the longest word,
+ * the CRC-32C of the sections, zero and the CRC-32C of the previous bytes of the header), followed by
+ * the sections of the nodes: the first children (ints), the next siblings (ints), the letters (chars)
+ * and the flags of the ends of words (bytes, 0 or 1). A loaded trie is read-only.
+ */
+public final class DictionaryTrie {
+
+    /**
+     * Initial number of nodes for which the arrays are allocated.
+     */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * Value used for missing nodes.
+     */
+    private static final int NO_NODE = -1;
+
+    /**
+     * Index of the root node, corresponding to the empty prefix.
+     */
+    private static final int ROOT = 0;
+
+    /**
+     * The first int of a saved trie (the bytes "EDTR" in little-endian order).
+     */
+    static final int MAGIC = 0x52544445;
+
+    /**
+     * The version of the format of the saved tries.
+     */
+    static final int FORMAT_VERSION = 2;
+
+    /**
+     * The number of bytes of the header of a saved trie.
+     */
+    static final int HEADER_BYTES = 32;
+
+    /**
+     * The position in the header of the checksum of the header.
+     */
+    static final int HEADER_CHECKSUM_POSITION = HEADER_BYTES - Integer.BYTES;
+
+    /**
+     * The maximum number of bytes of a memory-mapped section of a saved trie.
+     */
+    private static final long MAX_BYTES_PER_SECTION = Integer.MAX_VALUE;
+
+    /**
+     * The number of bytes of the buffer used to save a trie.
+     */
+    private static final int BYTES_PER_WRITE = 1 << 16;
+
+    /**
+     * The costs of the {@link EditOperation}s.
+     */
+    @NotNull
+    private final EditCostModel costModel;
+
+    /**
+     * Number of words in the trie.
+     */
+    private int size;
+
+    /**
+     * Number of nodes in the trie.
+     */
+    private int numberOfNodes;
+
+    /**
+     * The length of the longest word in the trie.
+     */
+    private int maxLengthOfWords;
+
+    /**
+     * True if the nodes are views of a mapped file, which cannot be modified.
+     */
+    private final boolean readOnly;
+
+    /**
+     * The last letter of the prefix of each node.
+     */
+    private CharBuffer letters;
+
+    /**
+     * The index of the first child of each node, or {@link #NO_NODE}.
+     */
+    private IntBuffer firstChildren;
+
+    /**
+     * The index of the next sibling of each node, or {@link #NO_NODE}.
+     */
+    private IntBuffer nextSiblings;
+
+    /**
+     * Flag (1) set for the nodes whose prefix is a word of the dictionary (0 for the other nodes).
+     */
+    private ByteBuffer endsOfWords;
+
+    /**
+     * Creates an empty trie using the {@link EditCostModel#DEFAULT default costs}.
+     */
+    public DictionaryTrie() {
+        this(EditCostModel.DEFAULT);
+    }
+
+    /**
+     * Creates an empty trie using the given costs.
+     *
+     * @param costModel The costs of the {@link EditOperation}s.
+     */
+    public DictionaryTrie(@NotNull final EditCostModel costModel) {
+        this.costModel = Objects.requireNonNull(costModel);
+        this.readOnly = false;
+        this.letters = CharBuffer.wrap(new char[INITIAL_CAPACITY]);
+        this.firstChildren = IntBuffer.wrap(new int[INITIAL_CAPACITY]);
+        this.nextSiblings = IntBuffer.wrap(new int[INITIAL_CAPACITY]);
+        this.endsOfWords = ByteBuffer.wrap(new byte[INITIAL_CAPACITY]);
+        addNode(Character.MIN_VALUE);  // root
+    }
+
+    /**
+     * Creates a read-only trie whose nodes are the sections of a mapped file.
+     *
+     * @param costModel        The costs of the {@link EditOperation}s.
+     * @param size             The number of words.
+     * @param numberOfNodes    The number of nodes.
+     * @param maxLengthOfWords The length of the longest word.
+     * @param channel          The channel of the file, whose length has been checked.
+     * @throws IOException if the file cannot be mapped.
+     */
+    private DictionaryTrie(@NotNull final EditCostModel costModel, final int size, final int numberOfNodes,
+                           final int maxLengthOfWords, @NotNull final FileChannel channel) throws IOException {
+        this.costModel = Objects.requireNonNull(costModel);
+        this.readOnly = true;
+        this.size = size;
+        this.numberOfNodes = numberOfNodes;
+        this.maxLengthOfWords = maxLengthOfWords;
+        long position = HEADER_BYTES;
+        this.firstChildren = mapSection(channel, position, (long) Integer.BYTES * numberOfNodes).asIntBuffer();
+        position += (long) Integer.BYTES * numberOfNodes;
+        this.nextSiblings = mapSection(channel, position, (long) Integer.BYTES * numberOfNodes).asIntBuffer();
+        position += (long) Integer.BYTES * numberOfNodes;
+        this.letters = mapSection(channel, position, (long) Character.BYTES * numberOfNodes).asCharBuffer();
+        position += (long) Character.BYTES * numberOfNodes;
+        this.endsOfWords = mapSection(channel, position, numberOfNodes);
+    }
+
+    /**
+     * Creates a trie with the given words using the {@link EditCostModel#DEFAULT default costs}.
+     *
+     * @param words The words of the dictionary.
+     */
+    public DictionaryTrie(@NotNull final Collection<String> words) {
+        this(words, EditCostModel.DEFAULT);
+    }
+
+    /**
+     * Creates a trie with the given words using the given costs.
+     *
+     * @param words     The words of the dictionary.
+     * @param costModel The costs of the {@link EditOperation}s.
+     */
+    public DictionaryTrie(@NotNull final Collection<String> words, @NotNull final EditCostModel costModel) {
+        this(costModel);
+        for (String word : Objects.requireNonNull(words)) {
+            add(word);
+        }
+    }
+
+    /**
+     * Adds a word to the trie.
+     *
+     * @param word The word to add.
+     * @return true if the word has been added, false if it was already in the trie.
+     * @throws UnsupportedOperationException if the trie is {@link #isReadOnly() read-only}.
+     */
+    public boolean add(@NotNull final String word) {
+        if (readOnly) {
+            throw new UnsupportedOperationException("The trie is read-only, since it has been loaded from a file.");
+        }
+        int node = ROOT;
+        for (int i = 0, length = Objects.requireNonNull(word).length(); i < length; i++) {
+            final char letter = word.charAt(i);
+            int child = findChild(node, letter);
+            if (child == NO_NODE) {
+                child = addNode(letter);
+                nextSiblings.put(child, firstChildren.get(node));
+                firstChildren.put(node, child);
+            }
+            node = child;
+        }
+        if (endsOfWords.get(node) != 0) {
+            return false;
+        }
+        endsOfWords.put(node, (byte) 1);
+        maxLengthOfWords = Math.max(maxLengthOfWords, word.length());
+        size++;
+        return true;
+    }
+
+    /**
+     * @param word The word.
+     * @return true if the given word is in the trie.
+     */
+    public boolean contains(@NotNull final String word) {
+        int node = ROOT;
+        for (int i = 0, length = Objects.requireNonNull(word).length(); i < length && node != NO_NODE; i++) {
+            node = findChild(node, word.charAt(i));
+        }
+        return node != NO_NODE && endsOfWords.get(node) != 0;
+    }
+
+    /**
+     * Finds the words of the trie whose edit distance from the query does not exceed the given threshold.
+     *
+     * @param query       The query, which is the starting word for the edit distance.
+     * @param maxDistance The threshold for the edit distance (must be non-negative).
+     * @return the words within the threshold with their edit distance from the query,
+     * sorted by increasing edit distance and then alphabetically.
+     * @throws IllegalArgumentException if the given threshold is negative.
+     */
+    @NotNull
+    public List<DictionaryMatch> search(@NotNull final String query, final int maxDistance) {
+        Objects.requireNonNull(query);
+        if (maxDistance < 0) {
+            throw new IllegalArgumentException("The threshold cannot be negative, but " + maxDistance + " found.");
+        }
+        if (size == 0) {
+            return Collections.emptyList();
+        }
+        final int exceeded = (int) Math.min((long) maxDistance + 1, Integer.MAX_VALUE);
+        final EditDistanceEngine engine = EditDistanceEngine.getThreadLocalInstance();
+        engine.prepareRowsOfQuery(query, costModel, maxLengthOfWords + 1);
+        final boolean useTwiddle = engine.isTwiddleUsedForRowsOfQuery();
+        final int twiddleCost = engine.getTwiddleCostForRowsOfQuery();
+
+        final List<DictionaryMatch> matches = new ArrayList<>();
+        if (endsOfWords.get(ROOT) != 0) {
+            addIfWithinThreshold(matches, "", engine.getEditDistanceOfRowOfQuery(0), maxDistance);
+        }
+
+        // the letters and the minimum costs of the rows of the prefix of the current node, indexed by depth
+        final char[] prefix = new char[maxLengthOfWords];
+        final int[] minCostsOfRows = new int[maxLengthOfWords + 1];
+        minCostsOfRows[0] = 0;
+        // nodes to visit with their depth (depth-first: the rows of the ancestors of a node are not overwritten)
+        int[] nodesToVisit = new int[INITIAL_CAPACITY];
+        int[] depthsOfNodesToVisit = new int[INITIAL_CAPACITY];
+        int numberOfNodesToVisit = 0;
+        for (int child = firstChildren.get(ROOT); child != NO_NODE; child = nextSiblings.get(child)) {
+            if (numberOfNodesToVisit == nodesToVisit.length) {
+                nodesToVisit = Arrays.copyOf(nodesToVisit, 2 * nodesToVisit.length);
+                depthsOfNodesToVisit = Arrays.copyOf(depthsOfNodesToVisit, 2 * depthsOfNodesToVisit.length);
+            }
+            nodesToVisit[numberOfNodesToVisit] = child;
+            depthsOfNodesToVisit[numberOfNodesToVisit++] = 1;
+        }
+        while (numberOfNodesToVisit > 0) {
+            final int node = nodesToVisit[--numberOfNodesToVisit];
+            final int depth = depthsOfNodesToVisit[numberOfNodesToVisit];
+            final char letter = letters.get(node);
+            prefix[depth - 1] = letter;
+            final int minCostOfRow = engine.fillRowOfQuery(
+                    depth, letter, depth >= 2 ? prefix[depth - 2] : -1, exceeded);
+            minCostsOfRows[depth] = minCostOfRow;
+            if (endsOfWords.get(node) != 0) {
+                addIfWithinThreshold(matches, new String(prefix, 0, depth),
+                        engine.getEditDistanceOfRowOfQuery(depth), maxDistance);
+            }
+            boolean noWordWithThisPrefixCanBeWithinTheThreshold =
+                    minCostOfRow > maxDistance
+                            && (!useTwiddle || (long) minCostsOfRows[depth - 1] + twiddleCost > maxDistance);
+            if (noWordWithThisPrefixCanBeWithinTheThreshold) {
+                continue;
+            }
+            for (int child = firstChildren.get(node); child != NO_NODE; child = nextSiblings.get(child)) {
+                if (numberOfNodesToVisit == nodesToVisit.length) {
+                    nodesToVisit = Arrays.copyOf(nodesToVisit, 2 * nodesToVisit.length);
+                    depthsOfNodesToVisit = Arrays.copyOf(depthsOfNodesToVisit, 2 * depthsOfNodesToVisit.length);
+                }
+                nodesToVisit[numberOfNodesToVisit] = child;
+                depthsOfNodesToVisit[numberOfNodesToVisit++] = depth + 1;
+            }
+        }
+        Collections.sort(matches);
+        return matches;
+    }
+
+    /**
+     * @return the number of words in the trie.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the costs of the {@link EditOperation}s used by this trie.
+     */
+    @NotNull
+    public EditCostModel getCostModel() {
+        return costModel;
+    }
+
+    /**
+     * @return true if words cannot be added, i.e., if the trie has been {@link #load(Path, EditCostModel)
+     * loaded} from a file.
+     */
+    public boolean isReadOnly() {
+        return readOnly;
+    }
+
+    /**
+     * Saves the trie in the given file (see the format in the {@link DictionaryTrie description of the class}),
+     * which is replaced atomically: the processes which have loaded the previous version of the file
+     * keep searching it until they load the file again.
+     *
+     * @param file The file, created or replaced.
+     * @throws IOException if the file cannot be written.
+     */
+    public void save(@NotNull final Path file) throws IOException {
+        final Path absoluteFile = Objects.requireNonNull(file).toAbsolutePath();
+        final Path temporaryFile = Files.createTempFile(absoluteFile.getParent(), ".dictionary", ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temporaryFile, StandardOpenOption.WRITE)) {
+                // the sections first, then the header with their checksum
+                final ByteBuffer buffer = ByteBuffer.allocateDirect(BYTES_PER_WRITE).order(ByteOrder.LITTLE_ENDIAN);
+                final CRC32C checksumOfSections = new CRC32C();
+                channel.position(HEADER_BYTES);
+                for (int node = 0; node < numberOfNodes; node++) {
+                    writeIfFull(channel, buffer, checksumOfSections, Integer.BYTES).putInt(firstChildren.get(node));
+                }
+                for (int node = 0; node < numberOfNodes; node++) {
+                    writeIfFull(channel, buffer, checksumOfSections, Integer.BYTES).putInt(nextSiblings.get(node));
+                }
+                for (int node = 0; node < numberOfNodes; node++) {
+                    writeIfFull(channel, buffer, checksumOfSections, Character.BYTES).putChar(letters.get(node));
+                }
+                for (int node = 0; node < numberOfNodes; node++) {
+                    writeIfFull(channel, buffer, checksumOfSections, Byte.BYTES).put(endsOfWords.get(node));
+                }
+                write(channel, buffer, checksumOfSections);
+                buffer.putInt(MAGIC).putInt(FORMAT_VERSION).putInt(size).putInt(numberOfNodes)
+                        .putInt(maxLengthOfWords).putInt((int) checksumOfSections.getValue());
+                while (buffer.position() < HEADER_CHECKSUM_POSITION) {
+                    buffer.put((byte) 0);
+                }
+                buffer.putInt(checksumOf(buffer, HEADER_CHECKSUM_POSITION));
+                channel.position(0);
+                write(channel, buffer, new CRC32C());
+                channel.force(true);
+            }
+            Files.move(temporaryFile, absoluteFile, StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporaryFile);
+        }
+    }
+
+    /**
+     * Loads a trie {@link #save(Path) saved} in a file, using the {@link EditCostModel#DEFAULT default costs},
+     * without {@link #load(Path, EditCostModel, boolean) verifying} its nodes.
+     *
+     * @param file The file.
+     * @return the read-only trie, whose nodes are the mapped file.
+     * @throws IOException if the file cannot be mapped, or it is not a saved trie of a supported version.
+     */
+    @NotNull
+    public static DictionaryTrie load(@NotNull final Path file) throws IOException {
+        return load(file, EditCostModel.DEFAULT);
+    }
+
+    /**
+     * Loads a trie {@link #save(Path) saved} in a file, without {@link #load(Path, EditCostModel, boolean)
+     * verifying} its nodes.
+     *
+     * @param file      The file.
+     * @param costModel The costs of the {@link EditOperation}s.
+     * @return the read-only trie, whose nodes are the mapped file.
+     * @throws IOException if the file cannot be mapped, or it is not a saved trie of a supported version.
+     */
+    @NotNull
+    public static DictionaryTrie load(@NotNull final Path file, @NotNull final EditCostModel costModel)
+            throws IOException {
+        return load(file, costModel, false);
+    }
+
+    /**
+     * Loads a trie {@link #save(Path) saved} in a file, mapping the file in memory without reading it:
+     * the time does not depend on the size of the file, and its pages are read (or shared with the other
+     * processes which have mapped it) on demand by the searches. The costs are not saved in the file,
+     * since the nodes do not depend on them.
+     * <p/>
+     * The header is always checked with its checksum, and the length of the file and of the longest word
+     * are checked against the number of nodes, so that a corrupted header is rejected before allocating
+     * anything. The nodes are checked only if they are verified, which reads the whole file: the checksum
+     * of the sections is checked, and then that the nodes are a tree (every index of a node is valid, and
+     * every node but the root is the child of exactly one node) whose depth and number of words match the
+     * header. The searches of a trie whose nodes are corrupted may fail or not terminate, hence the nodes
+     * should be verified if the file may have been corrupted or comes from an untrusted source.
+     * The file must not be modified while it is mapped.
+     *
+     * @param file      The file.
+     * @param costModel The costs of the {@link EditOperation}s.
+     * @param verify    True to read the whole file and verify the nodes.
+     * @return the read-only trie, whose nodes are the mapped file.
+     * @throws IOException if the file cannot be mapped, it is not a saved trie of a supported version,
+     *                     or it is corrupted.
+     */
+    @NotNull
+    public static DictionaryTrie load(@NotNull final Path file, @NotNull final EditCostModel costModel,
+                                      final boolean verify) throws IOException {
+        Objects.requireNonNull(costModel);
+        try (FileChannel channel = FileChannel.open(Objects.requireNonNull(file), StandardOpenOption.READ)) {
+            final ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining()) {
+                if (channel.read(header) < 0) {
+                    break;  // the file is shorter than the header
+                }
+            }
+            header.flip();
+            if (header.remaining() < HEADER_BYTES || header.getInt() != MAGIC) {
+                throw new IOException("The file " + file + " is not a saved dictionary trie.");
+            }
+            final int version = header.getInt();
+            if (version != FORMAT_VERSION) {
+                throw new IOException("The version " + version + " of the dictionary trie in " + file
+                        + " is not supported (the supported version is " + FORMAT_VERSION + ").");
+            }
+            if (header.getInt(HEADER_CHECKSUM_POSITION) != checksumOf(header, HEADER_CHECKSUM_POSITION)) {
+                throw corrupted(file, "the checksum of the header does not match");
+            }
+            final int size = header.getInt();
+            final int numberOfNodes = header.getInt();
+            final int maxLengthOfWords = header.getInt();
+            final int checksumOfSections = header.getInt();
+            final long expectedBytes =
+                    HEADER_BYTES + (2L * Integer.BYTES + Character.BYTES + Byte.BYTES) * numberOfNodes;
+            // each word ends in its own node, and each letter of the longest word is a node below the root
+            if (numberOfNodes <= 0 || size < 0 || size > numberOfNodes
+                    || maxLengthOfWords < 0 || maxLengthOfWords >= numberOfNodes || channel.size() != expectedBytes) {
+                throw new IOException("The dictionary trie in " + file + " is truncated or corrupted.");
+            }
+            if (verify && checksumOfSections(channel) != checksumOfSections) {
+                throw corrupted(file, "the checksum of the nodes does not match");
+            }
+            final DictionaryTrie trie = new DictionaryTrie(costModel, size, numberOfNodes, maxLengthOfWords, channel);
+            if (verify) {
+                trie.verifyNodes(file);
+            }
+            return trie;
+        }   // mapped sections remain valid after closing the channel
+    }
+
+    /**
+     * Checks that the nodes of a loaded trie are a tree rooted in {@link #ROOT} whose depth and
+     * number of words match the header, so that the searches access only valid indexes and terminate.
+     *
+     * @param file The file of the trie.
+     * @throws IOException if the nodes are not a valid tree.
+     */
+    private void verifyNodes(@NotNull final Path file) throws IOException {
+        if (nextSiblings.get(ROOT) != NO_NODE) {
+            throw corrupted(file, "the root has a sibling");
+        }
+        // the children of a node are the list of siblings starting from its first child: every node but the
+        // root is referenced once, as a first child or as a next sibling, hence the lists have no cycles
+        final boolean[] referenced = new boolean[numberOfNodes];
+        for (int node = 0; node < numberOfNodes; node++) {
+            checkReference(file, referenced, firstChildren.get(node));
+            checkReference(file, referenced, nextSiblings.get(node));
+        }
+        final int[] nodesToVisit = new int[numberOfNodes];
+        final int[] depthsOfNodesToVisit = new int[numberOfNodes];
+        int numberOfNodesToVisit = 0;
+        int numberOfVisitedNodes = 0;
+        int numberOfWords = 0;
+        int maxDepthOfWords = 0;
+        nodesToVisit[numberOfNodesToVisit++] = ROOT;
+        while (numberOfNodesToVisit > 0) {
+            final int node = nodesToVisit[--numberOfNodesToVisit];
+            final int depth = depthsOfNodesToVisit[numberOfNodesToVisit];
+            numberOfVisitedNodes++;
+            if (depth > maxLengthOfWords) {
+                throw corrupted(file, "the node " + node + " is deeper than the longest word");
+            }
+            final byte endOfWord = endsOfWords.get(node);
+            if (endOfWord != 0 && endOfWord != 1) {
+                throw corrupted(file, "the flag of the end of a word of the node " + node + " is " + endOfWord);
+            }
+            if (endOfWord == 1) {
+                numberOfWords++;
+                maxDepthOfWords = Math.max(maxDepthOfWords, depth);
+            }
+            for (int child = firstChildren.get(node); child != NO_NODE; child = nextSiblings.get(child)) {
+                nodesToVisit[numberOfNodesToVisit] = child;     // each node is visited once
+                depthsOfNodesToVisit[numberOfNodesToVisit++] = depth + 1;
+            }
+        }
+        if (numberOfVisitedNodes != numberOfNodes || numberOfWords != size || maxDepthOfWords != maxLengthOfWords) {
+            throw corrupted(file, "the nodes do not match the header");
+        }
+    }
+
+    /**
+     * Checks a reference to a node of a loaded trie, marking the node as referenced.
+     *
+     * @param file       The file of the trie.
+     * @param referenced The flags of the nodes already referenced.
+     * @param node       The referenced node, or {@link #NO_NODE}.
+     * @throws IOException if the node does not exist, it is the root or it has already been referenced.
+     */
+    private static void checkReference(@NotNull final Path file, @NotNull final boolean[] referenced,
+                                       final int node) throws IOException {
+        if (node == NO_NODE) {
+            return;
+        }
+        if (node <= ROOT || node >= referenced.length) {
+            throw corrupted(file, "the node " + node + " does not exist");
+        }
+        if (referenced[node]) {
+            throw corrupted(file, "the node " + node + " is referenced twice");
+        }
+        referenced[node] = true;
+    }
+
+    /**
+     * @param channel The channel of a saved trie, whose length has been checked.
+     * @return the CRC-32C of the sections of the nodes.
+     * @throws IOException if the file cannot be read.
+     */
+    private static int checksumOfSections(@NotNull final FileChannel channel) throws IOException {
+        final CRC32C checksum = new CRC32C();
+        final ByteBuffer buffer = ByteBuffer.allocateDirect(BYTES_PER_WRITE);
+        long position = HEADER_BYTES;
+        for (int read = channel.read(buffer, position); read >= 0; read = channel.read(buffer, position)) {
+            position += read;
+            buffer.flip();
+            checksum.update(buffer);
+            buffer.clear();
+        }
+        return (int) checksum.getValue();
+    }
+
+    /**
+     * @param header The header of a saved trie.
+     * @param bytes  The number of bytes to check.
+     * @return the CRC-32C of the first bytes of the header.
+     */
+    private static int checksumOf(@NotNull final ByteBuffer header, final int bytes) {
+        final CRC32C checksum = new CRC32C();
+        checksum.update(header.duplicate().position(0).limit(bytes));
+        return (int) checksum.getValue();
+    }
+
+    /**
+     * @param file   The file of a saved trie.
+     * @param reason The reason why the file is corrupted.
+     * @return the exception for the corrupted file.
+     */
+    @NotNull
+    private static IOException corrupted(@NotNull final Path file, @NotNull final String reason) {
+        return new IOException("The dictionary trie in " + file + " is corrupted: " + reason + ".");
+    }
+
+    /**
+     * @param channel  The channel of a saved trie.
+     * @param position The position of a section.
+     * @param bytes    The number of bytes of the section.
+     * @return the read-only, little-endian mapped section.
+     * @throws IOException if the section cannot be mapped or it is too large.
+     */
+    @NotNull
+    private static ByteBuffer mapSection(@NotNull final FileChannel channel, final long position, final long bytes)
+            throws IOException {
+        if (bytes > MAX_BYTES_PER_SECTION) {
+            throw new IOException("The dictionary trie is too large to be mapped (" + bytes + " bytes per section).");
+        }
+        return channel.map(FileChannel.MapMode.READ_ONLY, position, bytes).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Writes the buffer if it has not room for the given number of bytes.
+     *
+     * @param channel  The channel.
+     * @param buffer   The buffer, ready to be filled.
+     * @param checksum The checksum updated with the written bytes.
+     * @param bytes    The number of bytes to put in the buffer.
+     * @return the buffer.
+     * @throws IOException if the buffer cannot be written.
+     */
+    @NotNull
+    private static ByteBuffer writeIfFull(@NotNull final FileChannel channel, @NotNull final ByteBuffer buffer,
+                                          @NotNull final Checksum checksum, final int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            write(channel, buffer, checksum);
+        }
+        return buffer;
+    }
+
+    /**
+     * Writes the content of the buffer and clears it.
+     *
+     * @param channel  The channel.
+     * @param buffer   The buffer, ready to be filled.
+     * @param checksum The checksum updated with the written bytes.
+     * @throws IOException if the buffer cannot be written.
+     */
+    private static void write(@NotNull final FileChannel channel, @NotNull final ByteBuffer buffer,
+                              @NotNull final Checksum checksum) throws IOException {
+        buffer.flip();
+        checksum.update(buffer.duplicate());
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Adds a match to the given list if the edit distance does not exceed the threshold.
+     *
+     * @param matches      The list of matches.
+     * @param word         The word of the dictionary.
+     * @param editDistance The edit distance from the query to the word.
+     * @param maxDistance  The threshold.
+     */
+    private static void addIfWithinThreshold(@NotNull final List<DictionaryMatch> matches,
+                                             @NotNull final String word, final int editDistance,
+                                             final int maxDistance) {
+        if (editDistance <= maxDistance) {
+            matches.add(new DictionaryMatch(word, editDistance));
+        }
+    }
+
+    /**
+     * @param node   A node.
+     * @param letter A letter.
+     * @return the child of the given node for the given letter, or {@link #NO_NODE} if it does not exist.
+     */
+    private int findChild(final int node, final char letter) {
+        int child = firstChildren.get(node);
+        while (child != NO_NODE && letters.get(child) != letter) {
+            child = nextSiblings.get(child);
+        }
+        return child;
+    }
+
+    /**
+     * Appends a node without children nor siblings.
+     *
+     * @param letter The last letter of the prefix of the node.
+     * @return the index of the new node.
+     */
+    private int addNode(final char letter) {
+        if (letters.capacity() == numberOfNodes) {
+            final int capacity = 2 * letters.capacity();
+            letters = CharBuffer.wrap(Arrays.copyOf(letters.array(), capacity));
+            firstChildren = IntBuffer.wrap(Arrays.copyOf(firstChildren.array(), capacity));
+            nextSiblings = IntBuffer.wrap(Arrays.copyOf(nextSiblings.array(), capacity));
+            endsOfWords = ByteBuffer.wrap(Arrays.copyOf(endsOfWords.array(), capacity));
+        }
+        letters.put(numberOfNodes, letter);
+        firstChildren.put(numberOfNodes, NO_NODE);
+        nextSiblings.put(numberOfNodes, NO_NODE);
+        endsOfWords.put(numberOfNodes, (byte) 0);
+        return numberOfNodes++;
+    }
+}
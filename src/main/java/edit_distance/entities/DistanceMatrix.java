@@ -0,0 +1,333 @@
+package edit_distance.entities;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * An instance of this class holds the edit distances between all the pairs of words of a list.
+ * <p/>
+ * If the {@link EditCostModel#isSymmetric() cost model is symmetric}, only the upper triangle
+ * (diagonal included) is computed and saved, row by row: the element <code>(i,j)</code> with
+ * <code>i&le;j</code> is at index <code>i*n - i*(i-1)/2 + (j-i)</code>. Otherwise, the whole
+ * matrix is saved row by row. Values are saved with 2 bytes if all the possible edit distances
+ * fit in a <code>short</code>, otherwise with 4 bytes, in a primitive array or, for matrices
+ * too big for the heap, in a memory-mapped file (little-endian, without header).
+ * <p/>
+ * The matrix is divided in square tiles of {@link #TILE_SIZE} words, computed in parallel on a
+ * {@link ForkJoinPool}: the words of a tile stay in cache and each row of a tile is computed
+ * with {@link EditDistanceEngine#computeAll(CharSequence, List)}, which processes its word once.
+ */
+public final class DistanceMatrix {
+
+    /**
+     * Number of words along each side of a tile.
+     */
+    static final int TILE_SIZE = 64;
+
+    /**
+     * The number of words.
+     */
+    private final int size;
+
+    /**
+     * Flag set if only the upper triangle is saved.
+     */
+    private final boolean symmetric;
+
+    /**
+     * The saved values.
+     */
+    @NotNull
+    private final MatrixStorage storage;
+
+    /**
+     * @param size      The number of words.
+     * @param symmetric Flag set if only the upper triangle is saved.
+     * @param storage   The saved values.
+     */
+    private DistanceMatrix(final int size, final boolean symmetric, @NotNull final MatrixStorage storage) {
+        this.size = size;
+        this.symmetric = symmetric;
+        this.storage = storage;
+    }
+
+    /**
+     * Computes the edit distances between all the pairs of the given words with the
+     * {@link EditCostModel#DEFAULT default costs} on the {@link ForkJoinPool#commonPool() common pool}.
+     *
+     * @param words The words.
+     * @return the matrix of the edit distances.
+     * @throws IllegalArgumentException if the matrix does not fit in an array
+     *                                  (see {@link #computeToFile(List, EditCostModel, Path, ForkJoinPool)}).
+     */
+    @NotNull
+    public static DistanceMatrix compute(@NotNull final List<? extends CharSequence> words) {
+        return compute(words, EditCostModel.DEFAULT, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Like {@link #compute(List)}, but with the given costs and the given {@link ForkJoinPool}.
+     *
+     * @param words        The words.
+     * @param costModel    The costs of the {@link EditOperation}s.
+     * @param forkJoinPool The {@link ForkJoinPool} where tiles are computed.
+     * @return the matrix of the edit distances.
+     * @throws IllegalArgumentException if the matrix does not fit in an array
+     *                                  (see {@link #computeToFile(List, EditCostModel, Path, ForkJoinPool)}).
+     */
+    @NotNull
+    public static DistanceMatrix compute(
+            @NotNull final List<? extends CharSequence> words, @NotNull final EditCostModel costModel,
+            @NotNull final ForkJoinPool forkJoinPool) {
+        final boolean symmetric = Objects.requireNonNull(costModel).isSymmetric();
+        final long numberOfElements = getNumberOfElements(Objects.requireNonNull(words).size(), symmetric);
+        if (numberOfElements > MatrixStorage.MAX_ARRAY_LENGTH) {
+            throw new IllegalArgumentException("The matrix of " + words.size()
+                    + " words does not fit in an array: save it in a file.");
+        }
+        final MatrixStorage storage = fitsInShort(words, costModel)
+                ? new MatrixStorage.ShortArray((int) numberOfElements)
+                : new MatrixStorage.IntArray((int) numberOfElements);
+        return compute(words, costModel, forkJoinPool, symmetric, storage);
+    }
+
+    /**
+     * Like {@link #compute(List, EditCostModel, ForkJoinPool)}, but the values are saved in the given
+     * file (created or overwritten), which is memory-mapped.
+     *
+     * @param words        The words.
+     * @param costModel    The costs of the {@link EditOperation}s.
+     * @param file         The file where the values are saved.
+     * @param forkJoinPool The {@link ForkJoinPool} where tiles are computed.
+     * @return the matrix of the edit distances, backed by the file.
+     * @throws UncheckedIOException if the file cannot be written.
+     */
+    @NotNull
+    public static DistanceMatrix computeToFile(
+            @NotNull final List<? extends CharSequence> words, @NotNull final EditCostModel costModel,
+            @NotNull final Path file, @NotNull final ForkJoinPool forkJoinPool) {
+        final boolean symmetric = Objects.requireNonNull(costModel).isSymmetric();
+        final long numberOfElements = getNumberOfElements(Objects.requireNonNull(words).size(), symmetric);
+        final MatrixStorage.Mapped storage;
+        try {
+            storage = new MatrixStorage.Mapped(Objects.requireNonNull(file), numberOfElements,
+                    fitsInShort(words, costModel) ? Short.BYTES : Integer.BYTES);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        final DistanceMatrix distanceMatrix = compute(words, costModel, forkJoinPool, symmetric, storage);
+        storage.force();
+        return distanceMatrix;
+    }
+
+    /**
+     * @param words        The words.
+     * @param costModel    The costs of the {@link EditOperation}s.
+     * @param forkJoinPool The {@link ForkJoinPool} where tiles are computed.
+     * @param symmetric    Flag set if only the upper triangle is computed.
+     * @param storage      Where the values are saved.
+     * @return the matrix of the edit distances.
+     */
+    @NotNull
+    private static DistanceMatrix compute(
+            @NotNull final List<? extends CharSequence> words, @NotNull final EditCostModel costModel,
+            @NotNull final ForkJoinPool forkJoinPool, final boolean symmetric, @NotNull final MatrixStorage storage) {
+        final int size = words.size();
+        final int numberOfTilesPerSide = (size + TILE_SIZE - 1) / TILE_SIZE;
+        final DistanceMatrix distanceMatrix = new DistanceMatrix(size, symmetric, storage);
+        if (size > 0) {
+            Objects.requireNonNull(forkJoinPool).invoke(new TilesTask(
+                    distanceMatrix, words, costModel, EditDistanceAlgorithm.getFastestApplicable(costModel),
+                    numberOfTilesPerSide, 0, (long) numberOfTilesPerSide * numberOfTilesPerSide));
+        }
+        return distanceMatrix;
+    }
+
+    /**
+     * @param i The index of the starting word.
+     * @param j The index of the target word.
+     * @return the edit distance from the i-th word to the j-th word.
+     * @throws IndexOutOfBoundsException if an index is not valid.
+     */
+    public int get(final int i, final int j) {
+        Objects.checkIndex(i, size);
+        Objects.checkIndex(j, size);
+        return storage.get(getIndexOf(i, j));
+    }
+
+    /**
+     * @return the number of words.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return true if only the upper triangle is saved, because the edit distance is symmetric.
+     */
+    public boolean isSymmetric() {
+        return symmetric;
+    }
+
+    /**
+     * @return the number of bytes used to save each value.
+     */
+    public int getBytesPerValue() {
+        return storage.getBytesPerValue();
+    }
+
+    /**
+     * @param i The index of the starting word.
+     * @param j The index of the target word.
+     * @return the index of the element in the storage.
+     */
+    private long getIndexOf(int i, int j) {
+        if (!symmetric) {
+            return (long) i * size + j;
+        }
+        if (i > j) {
+            int tmp = i;
+            i = j;
+            j = tmp;
+        }
+        return (long) i * size - (long) i * (i - 1) / 2 + (j - i);
+    }
+
+    /**
+     * @param size      The number of words.
+     * @param symmetric Flag set if only the upper triangle is saved.
+     * @return the number of elements to save.
+     */
+    private static long getNumberOfElements(final int size, final boolean symmetric) {
+        return symmetric ? (long) size * (size + 1) / 2 : (long) size * size;
+    }
+
+    /**
+     * @param words     The words.
+     * @param costModel The costs of the {@link EditOperation}s.
+     * @return true if the edit distance between any two of the given words fits in a <code>short</code>,
+     * being not greater than the cost of deleting all the letters of a word and inserting the other one.
+     */
+    private static boolean fitsInShort(
+            @NotNull final List<? extends CharSequence> words, @NotNull final EditCostModel costModel) {
+        long maxLength = 0;
+        for (CharSequence word : words) {
+            maxLength = Math.max(maxLength, word.length());
+        }
+        return maxLength * costModel.getCost(EditOperation.DELETE) + maxLength * costModel.getCost(EditOperation.INSERT)
+                <= Short.MAX_VALUE;
+    }
+
+    /**
+     * An instance of this class computes a range of tiles, splitting it in halves until a single tile remains.
+     * Tiles are numbered row by row; in the symmetric case, tiles below the diagonal are skipped.
+     */
+    private static final class TilesTask extends RecursiveAction {
+
+        /**
+         * The version of the serialized form, required by {@link RecursiveAction} (the tiles are never serialized).
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * The matrix where the values are saved.
+         */
+        @NotNull
+        private final DistanceMatrix distanceMatrix;
+        /**
+         * The words.
+         */
+        @NotNull
+        private final List<? extends CharSequence> words;
+        /**
+         * The costs of the {@link EditOperation}s.
+         */
+        @NotNull
+        private final EditCostModel costModel;
+        /**
+         * The algorithm to compute the edit distance.
+         */
+        @NotNull
+        private final EditDistanceAlgorithm algorithm;
+        /**
+         * The number of tiles along each side of the matrix.
+         */
+        private final int numberOfTilesPerSide;
+        /**
+         * The index (included) of the first tile of the range.
+         */
+        private final long fromTile;
+        /**
+         * The index (excluded) of the last tile of the range.
+         */
+        private final long toTile;
+
+        /**
+         * Constructor.
+         *
+         * @param distanceMatrix       The matrix where the values are saved.
+         * @param words                The words.
+         * @param costModel            The costs of the {@link EditOperation}s.
+         * @param algorithm            The algorithm to compute the edit distance.
+         * @param numberOfTilesPerSide The number of tiles along each side of the matrix.
+         * @param fromTile             The index (included) of the first tile of the range.
+         * @param toTile               The index (excluded) of the last tile of the range.
+         */
+        TilesTask(@NotNull final DistanceMatrix distanceMatrix, @NotNull final List<? extends CharSequence> words,
+                  @NotNull final EditCostModel costModel, @NotNull final EditDistanceAlgorithm algorithm,
+                  final int numberOfTilesPerSide, final long fromTile, final long toTile) {
+            this.distanceMatrix = distanceMatrix;
+            this.words = words;
+            this.costModel = costModel;
+            this.algorithm = algorithm;
+            this.numberOfTilesPerSide = numberOfTilesPerSide;
+            this.fromTile = fromTile;
+            this.toTile = toTile;
+        }
+
+        @Override
+        protected void compute() {
+            if (toTile - fromTile > 1) {
+                final long middleTile = (fromTile + toTile) >>> 1;
+                invokeAll(
+                        new TilesTask(distanceMatrix, words, costModel, algorithm,
+                                numberOfTilesPerSide, fromTile, middleTile),
+                        new TilesTask(distanceMatrix, words, costModel, algorithm,
+                                numberOfTilesPerSide, middleTile, toTile));
+                return;
+            }
+            final int tileRow = (int) (fromTile / numberOfTilesPerSide);
+            final int tileColumn = (int) (fromTile % numberOfTilesPerSide);
+            if (distanceMatrix.symmetric && tileColumn < tileRow) {
+                return;
+            }
+            final int size = words.size();
+            final int lastRow = Math.min(size, (tileRow + 1) * TILE_SIZE);
+            final int lastColumn = Math.min(size, (tileColumn + 1) * TILE_SIZE);
+            final EditDistanceEngine engine = EditDistanceEngine.getThreadLocalInstance();
+            final int[] editDistances = new int[TILE_SIZE];
+            for (int i = tileRow * TILE_SIZE; i < lastRow; i++) {
+                // in the symmetric case, only the elements of the upper triangle
+                final int firstColumn = distanceMatrix.symmetric
+                        ? Math.max(i, tileColumn * TILE_SIZE)
+                        : tileColumn * TILE_SIZE;
+                if (firstColumn >= lastColumn) {
+                    continue;
+                }
+                engine.computeAll(words.get(i), words.subList(firstColumn, lastColumn),
+                        costModel, algorithm, editDistances, 0);
+                final long firstIndex = distanceMatrix.getIndexOf(i, firstColumn);
+                for (int j = firstColumn; j < lastColumn; j++) {
+                    distanceMatrix.storage.set(firstIndex + j - firstColumn, editDistances[j - firstColumn]);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,588 @@
+package edit_distance.entities;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * An instance of this class is an immutable model for the costs of the {@link EditOperation}s.
+ * It allows to use different costs without recompiling, e.g., to disable the
+ * {@link EditOperation#TWIDDLE} and the {@link EditOperation#KILL} or to use a table
+ * of costs for the {@link EditOperation#REPLACE} which depends on the replaced letters
+ * (e.g., the distance of the keys on a keyboard).
+ * <p/>
+ * Instances are created from {@link #DEFAULT} or {@link #LEVENSHTEIN} with the <code>with...</code>
+ * methods, which return a modified copy. Each instance is classified in a {@link Kernel}:
+ * the algorithms select the specialized inner loop for the kernel once per computation, so
+ * that no virtual call is made in the inner loops.
+ */
+public final class EditCostModel {
+
+    /**
+     * The shapes of cost model for which a specialized inner loop exists.
+     */
+    enum Kernel {
+
+        /**
+         * {@link EditOperation#COPY} has cost 0, {@link EditOperation#REPLACE}, {@link EditOperation#DELETE}
+         * and {@link EditOperation#INSERT} have cost 1, the {@link EditOperation#TWIDDLE} is disabled or
+         * has a positive cost and the {@link EditOperation#KILL} can have any cost: the bit-parallel
+         * algorithm can be used.
+         */
+        UNIT_COSTS,
+
+        /**
+         * Any cost, without the {@link EditOperation#TWIDDLE}.
+         */
+        WITHOUT_TWIDDLE,
+
+        /**
+         * Any cost, with the {@link EditOperation#TWIDDLE}.
+         */
+        GENERAL,
+
+        /**
+         * The cost of the {@link EditOperation#REPLACE} depends on the replaced letters.
+         */
+        SUBSTITUTION_MATRIX
+    }
+
+    /**
+     * The costs of the {@link EditOperation}s defined in the enum, with all the operations enabled
+     * (unless disabled by the debug flags of {@link EditDistanceCalculator}).
+     */
+    public static final EditCostModel DEFAULT = new EditCostModel(
+            EditOperation.COPY.getCost(), EditOperation.REPLACE.getCost(), EditOperation.DELETE.getCost(),
+            EditOperation.INSERT.getCost(),
+            EditDistanceCalculator.USE_TWIDDLE_OPERATION, EditOperation.TWIDDLE.getCost(),
+            EditDistanceCalculator.USE_KILL_OPERATION, EditOperation.KILL.getCost(),
+            null);
+
+    /**
+     * The Levenshtein distance: unitary costs for {@link EditOperation#REPLACE}, {@link EditOperation#DELETE}
+     * and {@link EditOperation#INSERT}, without {@link EditOperation#TWIDDLE} and {@link EditOperation#KILL}.
+     */
+    public static final EditCostModel LEVENSHTEIN =
+            new EditCostModel(0, 1, 1, 1, false, 1, false, 1, null);
+
+    /**
+     * Cost of the {@link EditOperation#COPY}.
+     */
+    private final int copyCost;
+
+    /**
+     * Cost of the {@link EditOperation#REPLACE} (for letters not in the {@link #substitutionMatrix}, if any).
+     */
+    private final int replaceCost;
+
+    /**
+     * Cost of the {@link EditOperation#DELETE}.
+     */
+    private final int deleteCost;
+
+    /**
+     * Cost of the {@link EditOperation#INSERT}.
+     */
+    private final int insertCost;
+
+    /**
+     * Flag set if the {@link EditOperation#TWIDDLE} can be used.
+     */
+    private final boolean twiddleEnabled;
+
+    /**
+     * Cost of the {@link EditOperation#TWIDDLE}.
+     */
+    private final int twiddleCost;
+
+    /**
+     * Flag set if the {@link EditOperation#KILL} can be used.
+     */
+    private final boolean killEnabled;
+
+    /**
+     * Cost of the {@link EditOperation#KILL}.
+     */
+    private final int killCost;
+
+    /**
+     * The costs of the {@link EditOperation#REPLACE} which depend on the letters, or null.
+     */
+    @Nullable
+    private final SubstitutionMatrix substitutionMatrix;
+
+    /**
+     * The kernel for this model.
+     */
+    @NotNull
+    private final Kernel kernel;
+
+    /**
+     * Constructor.
+     *
+     * @param copyCost           Cost of the {@link EditOperation#COPY}.
+     * @param replaceCost        Cost of the {@link EditOperation#REPLACE}.
+     * @param deleteCost         Cost of the {@link EditOperation#DELETE}.
+     * @param insertCost         Cost of the {@link EditOperation#INSERT}.
+     * @param twiddleEnabled     Flag set if the {@link EditOperation#TWIDDLE} can be used.
+     * @param twiddleCost        Cost of the {@link EditOperation#TWIDDLE}.
+     * @param killEnabled        Flag set if the {@link EditOperation#KILL} can be used.
+     * @param killCost           Cost of the {@link EditOperation#KILL}.
+     * @param substitutionMatrix The costs of the {@link EditOperation#REPLACE} which depend on the letters, or null.
+     * @throws IllegalArgumentException if a cost is negative.
+     */
+    private EditCostModel(int copyCost, int replaceCost, int deleteCost, int insertCost,
+                          boolean twiddleEnabled, int twiddleCost, boolean killEnabled, int killCost,
+                          @Nullable final SubstitutionMatrix substitutionMatrix) {
+        this.copyCost = requireNonNegativeCost(copyCost);
+        this.replaceCost = requireNonNegativeCost(replaceCost);
+        this.deleteCost = requireNonNegativeCost(deleteCost);
+        this.insertCost = requireNonNegativeCost(insertCost);
+        this.twiddleEnabled = twiddleEnabled;
+        this.twiddleCost = requireNonNegativeCost(twiddleCost);
+        this.killEnabled = killEnabled;
+        this.killCost = requireNonNegativeCost(killCost);
+        this.substitutionMatrix = substitutionMatrix;
+        if (substitutionMatrix != null) {
+            this.kernel = Kernel.SUBSTITUTION_MATRIX;
+        } else if (copyCost == 0 && replaceCost == 1 && deleteCost == 1 && insertCost == 1
+                && (!twiddleEnabled || twiddleCost >= 1)) {
+            this.kernel = Kernel.UNIT_COSTS;
+        } else {
+            this.kernel = twiddleEnabled ? Kernel.GENERAL : Kernel.WITHOUT_TWIDDLE;
+        }
+    }
+
+    /**
+     * @param cost A cost.
+     * @return the given cost.
+     * @throws IllegalArgumentException if the cost is negative.
+     */
+    private static int requireNonNegativeCost(int cost) {
+        if (cost < 0) {
+            throw new IllegalArgumentException("Costs cannot be negative, but " + cost + " found.");
+        }
+        return cost;
+    }
+
+    /**
+     * @param editOperation The {@link EditOperation}.
+     * @param cost          The new cost for the given operation (for the {@link EditOperation#REPLACE},
+     *                      it is the cost used for letters not in the substitution matrix, if any).
+     * @return a copy of this instance with the given cost for the given operation.
+     * @throws IllegalArgumentException if the cost is negative.
+     */
+    @NotNull
+    public EditCostModel withCost(@NotNull final EditOperation editOperation, int cost) {
+        switch (Objects.requireNonNull(editOperation)) {
+            case COPY:
+                return new EditCostModel(cost, replaceCost, deleteCost, insertCost,
+                        twiddleEnabled, twiddleCost, killEnabled, killCost, substitutionMatrix);
+            case REPLACE:
+                return new EditCostModel(copyCost, cost, deleteCost, insertCost, twiddleEnabled, twiddleCost,
+                        killEnabled, killCost,
+                        substitutionMatrix == null ? null : substitutionMatrix.withDefaultCost(cost));
+            case TWIDDLE:
+                return new EditCostModel(copyCost, replaceCost, deleteCost, insertCost,
+                        twiddleEnabled, cost, killEnabled, killCost, substitutionMatrix);
+            case DELETE:
+                return new EditCostModel(copyCost, replaceCost, cost, insertCost,
+                        twiddleEnabled, twiddleCost, killEnabled, killCost, substitutionMatrix);
+            case INSERT:
+                return new EditCostModel(copyCost, replaceCost, deleteCost, cost,
+                        twiddleEnabled, twiddleCost, killEnabled, killCost, substitutionMatrix);
+            default /*KILL*/:
+                return new EditCostModel(copyCost, replaceCost, deleteCost, insertCost,
+                        twiddleEnabled, twiddleCost, killEnabled, cost, substitutionMatrix);
+        }
+    }
+
+    /**
+     * @param twiddleEnabled true if the {@link EditOperation#TWIDDLE} can be used.
+     * @return a copy of this instance with the {@link EditOperation#TWIDDLE} enabled or disabled.
+     */
+    @NotNull
+    public EditCostModel withTwiddle(boolean twiddleEnabled) {
+        return new EditCostModel(copyCost, replaceCost, deleteCost, insertCost,
+                twiddleEnabled, twiddleCost, killEnabled, killCost, substitutionMatrix);
+    }
+
+    /**
+     * @param killEnabled true if the {@link EditOperation#KILL} can be used.
+     * @return a copy of this instance with the {@link EditOperation#KILL} enabled or disabled.
+     */
+    @NotNull
+    public EditCostModel withKill(boolean killEnabled) {
+        return new EditCostModel(copyCost, replaceCost, deleteCost, insertCost,
+                twiddleEnabled, twiddleCost, killEnabled, killCost, substitutionMatrix);
+    }
+
+    /**
+     * Creates a model where the cost of the {@link EditOperation#REPLACE} depends on the replaced
+     * letters, e.g., to make cheaper the replacement of letters whose keys are close on a keyboard.
+     * Replacements involving letters not in the given alphabet cost as specified by
+     * {@link #withCost(EditOperation, int)}.
+     *
+     * @param alphabet     The letters for which the costs are given (without repetitions).
+     * @param replaceCosts The square matrix of the costs, whose element (a,b) is the cost of
+     *                     replacing the a-th letter of the alphabet with the b-th one (the
+     *                     diagonal is ignored, because equal letters are copied).
+     * @return a copy of this instance with the given costs for the {@link EditOperation#REPLACE}.
+     * @throws IllegalArgumentException if the alphabet has repeated letters, if the matrix is not a square
+     *                                  matrix of the size of the alphabet or if a cost is negative.
+     */
+    @NotNull
+    public EditCostModel withReplaceCosts(@NotNull final String alphabet, @NotNull final int[][] replaceCosts) {
+        return new EditCostModel(copyCost, replaceCost, deleteCost, insertCost,
+                twiddleEnabled, twiddleCost, killEnabled, killCost,
+                new SubstitutionMatrix(alphabet, replaceCosts, replaceCost));
+    }
+
+    /**
+     * @param editOperation The {@link EditOperation}.
+     * @return the cost of the given operation (for the {@link EditOperation#REPLACE}, the cost for letters
+     * not in the substitution matrix, if any).
+     */
+    public int getCost(@NotNull final EditOperation editOperation) {
+        switch (Objects.requireNonNull(editOperation)) {
+            case COPY:
+                return copyCost;
+            case REPLACE:
+                return replaceCost;
+            case TWIDDLE:
+                return twiddleCost;
+            case DELETE:
+                return deleteCost;
+            case INSERT:
+                return insertCost;
+            default /*KILL*/:
+                return killCost;
+        }
+    }
+
+    /**
+     * @param replacedLetter    The letter of the starting word.
+     * @param replacementLetter The letter of the target word.
+     * @return the cost of transforming the first letter into the second one, i.e., the cost of the
+     * {@link EditOperation#COPY} if the letters are equal, the cost of the {@link EditOperation#REPLACE}
+     * otherwise.
+     */
+    public int getCostOfReplacing(int replacedLetter, int replacementLetter) {
+        if (replacedLetter == replacementLetter) {
+            return copyCost;
+        }
+        return substitutionMatrix == null
+                ? replaceCost
+                : substitutionMatrix.getCost(
+                substitutionMatrix.getIndexOf(replacedLetter), substitutionMatrix.getIndexOf(replacementLetter));
+    }
+
+    /**
+     * @return the lowest cost of replacing a letter with a different one (i.e., the cost of the
+     * {@link EditOperation#REPLACE} if it does not depend on the letters).
+     */
+    int getMinimumReplaceCost() {
+        return substitutionMatrix == null ? replaceCost : substitutionMatrix.getMinimumCostOfReplacingDifferentLetters();
+    }
+
+    /**
+     * @return true if the {@link EditOperation#TWIDDLE} can be used.
+     */
+    public boolean isTwiddleEnabled() {
+        return twiddleEnabled;
+    }
+
+    /**
+     * @return true if the {@link EditOperation#KILL} can be used.
+     */
+    public boolean isKillEnabled() {
+        return killEnabled;
+    }
+
+    /**
+     * @return true if the edit distance from a word to another one is always equal to the
+     * edit distance from the second word to the first one.
+     */
+    public boolean isSymmetric() {
+        return !killEnabled && deleteCost == insertCost
+                && (substitutionMatrix == null || substitutionMatrix.isSymmetric());
+    }
+
+    /**
+     * @return true if the edit distance is a metric (i.e., it is symmetric, it is zero only for
+     * equal words and it satisfies the triangle inequality), hence it can be used, e.g., by
+     * metric trees. The {@link EditOperation#TWIDDLE} must be disabled, because the edit distance
+     * does not satisfy the triangle inequality if a letter cannot be edited more than once.
+     */
+    public boolean isMetric() {
+        return isSymmetric() && !twiddleEnabled && copyCost == 0 && deleteCost > 0
+                && (substitutionMatrix == null
+                ? replaceCost > 0
+                : substitutionMatrix.hasOnlyPositiveCosts() && substitutionMatrix.satisfiesTriangleInequality());
+    }
+
+    /**
+     * @return the kernel for this model.
+     */
+    @NotNull
+    Kernel getKernel() {
+        return kernel;
+    }
+
+    /**
+     * @return the substitution matrix, or null if the cost of the {@link EditOperation#REPLACE} does
+     * not depend on the letters.
+     */
+    @Nullable
+    SubstitutionMatrix getSubstitutionMatrix() {
+        return substitutionMatrix;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        EditCostModel that = (EditCostModel) o;
+        return copyCost == that.copyCost && replaceCost == that.replaceCost && deleteCost == that.deleteCost
+                && insertCost == that.insertCost && twiddleEnabled == that.twiddleEnabled
+                && twiddleCost == that.twiddleCost && killEnabled == that.killEnabled && killCost == that.killCost
+                && Objects.equals(substitutionMatrix, that.substitutionMatrix);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(copyCost, replaceCost, deleteCost, insertCost,
+                twiddleEnabled, twiddleCost, killEnabled, killCost, substitutionMatrix);
+    }
+
+    @Override
+    public String toString() {
+        return "EditCostModel{" +
+                "copy=" + copyCost +
+                ", replace=" + replaceCost +
+                ", delete=" + deleteCost +
+                ", insert=" + insertCost +
+                ", twiddle=" + (twiddleEnabled ? String.valueOf(twiddleCost) : "disabled") +
+                ", kill=" + (killEnabled ? String.valueOf(killCost) : "disabled") +
+                (substitutionMatrix == null ? "" : ", substitutionMatrix=" + substitutionMatrix) +
+                '}';
+    }
+
+    /**
+     * The costs of the {@link EditOperation#REPLACE} which depend on the replaced letters.
+     * Each letter is mapped to an index (letters not in the alphabet are all mapped to the
+     * last index), so that the inner loops only need array accesses.
+     */
+    static final class SubstitutionMatrix {
+
+        /**
+         * The letters of the alphabet.
+         */
+        @NotNull
+        private final String alphabet;
+
+        /**
+         * For each letter up to the greatest one of the alphabet, its index in the alphabet
+         * or {@link #otherLetterIndex} if it is not in the alphabet.
+         */
+        private final int[] indexesOfLetters;
+
+        /**
+         * The index of the letters which are not in the alphabet.
+         */
+        private final int otherLetterIndex;
+
+        /**
+         * The costs: the one for replacing the letter with index a with the letter with index b
+         * is at index <i>a*(otherLetterIndex+1)+b</i>.
+         */
+        private final int[] costs;
+
+        /**
+         * Constructor.
+         *
+         * @param alphabet     The letters for which the costs are given.
+         * @param replaceCosts The square matrix of the costs.
+         * @param defaultCost  The cost for replacements involving letters not in the alphabet.
+         */
+        SubstitutionMatrix(@NotNull final String alphabet, @NotNull final int[][] replaceCosts, int defaultCost) {
+            this.alphabet = Objects.requireNonNull(alphabet);
+            Objects.requireNonNull(replaceCosts);
+            final int size = alphabet.length();
+            if (replaceCosts.length != size) {
+                throw new IllegalArgumentException(
+                        "The matrix must have " + size + " rows, but " + replaceCosts.length + " found.");
+            }
+            this.otherLetterIndex = size;
+            final int greatestLetter = alphabet.chars().max().orElse(-1);
+            this.indexesOfLetters = new int[greatestLetter + 1];
+            Arrays.fill(indexesOfLetters, otherLetterIndex);
+            for (int a = 0; a < size; a++) {
+                if (indexesOfLetters[alphabet.charAt(a)] != otherLetterIndex) {
+                    throw new IllegalArgumentException("Repeated letter in the alphabet: " + alphabet.charAt(a));
+                }
+                indexesOfLetters[alphabet.charAt(a)] = a;
+            }
+            final int stride = size + 1;
+            this.costs = new int[stride * stride];
+            Arrays.fill(costs, requireNonNegativeCost(defaultCost));
+            for (int a = 0; a < size; a++) {
+                if (replaceCosts[a].length != size) {
+                    throw new IllegalArgumentException(
+                            "The matrix must have " + size + " columns, but " + replaceCosts[a].length + " found.");
+                }
+                for (int b = 0; b < size; b++) {
+                    costs[a * stride + b] = requireNonNegativeCost(replaceCosts[a][b]);
+                }
+            }
+        }
+
+        /**
+         * Copy constructor changing the default cost.
+         *
+         * @param other       The instance to copy.
+         * @param defaultCost The cost for replacements involving letters not in the alphabet.
+         */
+        private SubstitutionMatrix(@NotNull final SubstitutionMatrix other, int defaultCost) {
+            this.alphabet = other.alphabet;
+            this.indexesOfLetters = other.indexesOfLetters;
+            this.otherLetterIndex = other.otherLetterIndex;
+            this.costs = Arrays.copyOf(other.costs, other.costs.length);
+            final int stride = otherLetterIndex + 1;
+            for (int k = 0; k < stride; k++) {
+                costs[otherLetterIndex * stride + k] = defaultCost;
+                costs[k * stride + otherLetterIndex] = defaultCost;
+            }
+        }
+
+        /**
+         * @param defaultCost The cost for replacements involving letters not in the alphabet.
+         * @return a copy of this instance with the given default cost.
+         */
+        @NotNull
+        SubstitutionMatrix withDefaultCost(int defaultCost) {
+            return new SubstitutionMatrix(this, requireNonNegativeCost(defaultCost));
+        }
+
+        /**
+         * @param letter A letter.
+         * @return the index of the given letter, to be used with {@link #getCost(int, int)}.
+         */
+        int getIndexOf(int letter) {
+            return letter >= 0 && letter < indexesOfLetters.length ? indexesOfLetters[letter] : otherLetterIndex;
+        }
+
+        /**
+         * @param indexOfReplacedLetter    The {@link #getIndexOf(int) index} of the replaced letter.
+         * @param indexOfReplacementLetter The {@link #getIndexOf(int) index} of the replacement letter.
+         * @return the cost of the replacement.
+         */
+        int getCost(int indexOfReplacedLetter, int indexOfReplacementLetter) {
+            return costs[indexOfReplacedLetter * (otherLetterIndex + 1) + indexOfReplacementLetter];
+        }
+
+        /**
+         * @return the number of indexes returned by {@link #getIndexOf(int)}.
+         */
+        int getNumberOfIndexes() {
+            return otherLetterIndex + 1;
+        }
+
+        /**
+         * @return the flattened costs (see {@link #getCost(int, int)}), not to be modified.
+         */
+        int[] getCosts() {
+            return costs;
+        }
+
+        /**
+         * @return true if the cost of replacing a letter with another one is the same of the reverse replacement.
+         */
+        private boolean isSymmetric() {
+            for (int a = 0; a <= otherLetterIndex; a++) {
+                for (int b = 0; b < a; b++) {
+                    if (getCost(a, b) != getCost(b, a)) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+
+        /**
+         * @return the lowest cost of replacing a letter with a different one.
+         */
+        int getMinimumCostOfReplacingDifferentLetters() {
+            int minimumCost = Integer.MAX_VALUE;
+            for (int a = 0; a <= otherLetterIndex; a++) {
+                for (int b = 0; b <= otherLetterIndex; b++) {
+                    if (a != b || a == otherLetterIndex) {  // letters not in the alphabet share the same index
+                        minimumCost = Math.min(minimumCost, getCost(a, b));
+                    }
+                }
+            }
+            return minimumCost;
+        }
+
+        /**
+         * @return true if all the costs of replacing different letters are positive.
+         */
+        boolean hasOnlyPositiveCosts() {
+            for (int a = 0; a <= otherLetterIndex; a++) {
+                for (int b = 0; b <= otherLetterIndex; b++) {
+                    if ((a != b || a == otherLetterIndex) && getCost(a, b) <= 0) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+
+        /**
+         * @return true if replacing a letter passing by a third one is never cheaper than replacing it directly.
+         */
+        private boolean satisfiesTriangleInequality() {
+            final int n = otherLetterIndex + 1;
+            for (int a = 0; a < n; a++) {
+                for (int b = 0; b < n; b++) {
+                    for (int c = 0; c < n; c++) {
+                        if (getCostBetweenIndexes(a, c) + getCostBetweenIndexes(c, b) < getCostBetweenIndexes(a, b)) {
+                            return false;
+                        }
+                    }
+                }
+            }
+            return true;
+        }
+
+        /**
+         * @param a The index of a letter.
+         * @param b The index of another letter.
+         * @return the cost of transforming the first letter into the second one, assuming that
+         * the letters not in the alphabet are distinct.
+         */
+        private int getCostBetweenIndexes(int a, int b) {
+            return a == b && a != otherLetterIndex ? 0 : getCost(a, b);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            SubstitutionMatrix that = (SubstitutionMatrix) o;
+            return alphabet.equals(that.alphabet) && Arrays.equals(costs, that.costs);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * alphabet.hashCode() + Arrays.hashCode(costs);
+        }
+
+        @Override
+        public String toString() {
+            return "[" + alphabet + "]";
+        }
+    }
+}
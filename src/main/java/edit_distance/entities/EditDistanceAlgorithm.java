@@ -0,0 +1,123 @@
+package edit_distance.entities;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Objects;
+
+/**
+ * Each value of this enum represents an algorithm which can be selected to
+ * compute the edit distance between two words when the sequence of operations
+ * is not needed.
+ */
+public enum EditDistanceAlgorithm {
+
+    /**
+     * Dynamic programming with rolling rows of the cost matrix
+     * (see {@link EditDistanceCalculator#computeEditDistance(String, String, EditCostModel)}).
+     */
+    DYNAMIC_PROGRAMMING {
+        @Override
+        public boolean isApplicable(@NotNull final EditCostModel costModel) {
+            Objects.requireNonNull(costModel);
+            return true;
+        }
+
+        @Override
+        public int computeEditDistance(
+                @NotNull final String startingWord, @NotNull final String targetWord,
+                @NotNull final EditCostModel costModel) {
+            return EditDistanceCalculator.computeEditDistance(startingWord, targetWord, costModel);
+        }
+    },
+
+    /**
+     * Bit-parallel algorithm, for unitary costs only
+     * (see {@link BitParallelEditDistanceCalculator#computeEditDistance(String, String, EditCostModel)}).
+     */
+    BIT_PARALLEL {
+        @Override
+        public boolean isApplicable(@NotNull final EditCostModel costModel) {
+            return BitParallelEditDistanceCalculator.isApplicable(costModel);
+        }
+
+        @Override
+        public int computeEditDistance(
+                @NotNull final String startingWord, @NotNull final String targetWord,
+                @NotNull final EditCostModel costModel) {
+            return BitParallelEditDistanceCalculator.computeEditDistance(startingWord, targetWord, costModel);
+        }
+    },
+
+    /**
+     * Dynamic programming computing the anti-diagonals of blocks of the cost matrix one after the other,
+     * with the blocks of each anti-diagonal in parallel, for pairs of very long words
+     * (see {@link WavefrontEditDistanceCalculator#computeEditDistance(String, String, EditCostModel)}).
+     * It is never selected as the fastest algorithm, because its synchronization does not pay off for short words.
+     */
+    WAVEFRONT {
+        @Override
+        public boolean isApplicable(@NotNull final EditCostModel costModel) {
+            Objects.requireNonNull(costModel);
+            return true;
+        }
+
+        @Override
+        public int computeEditDistance(
+                @NotNull final String startingWord, @NotNull final String targetWord,
+                @NotNull final EditCostModel costModel) {
+            return WavefrontEditDistanceCalculator.computeEditDistance(startingWord, targetWord, costModel);
+        }
+    };
+
+    /**
+     * @return true if the algorithm can be used with the {@link EditCostModel#DEFAULT default costs}.
+     */
+    public boolean isApplicable() {
+        return isApplicable(EditCostModel.DEFAULT);
+    }
+
+    /**
+     * @param costModel The costs of the {@link EditOperation}s.
+     * @return true if the algorithm can be used with the given costs.
+     */
+    public abstract boolean isApplicable(@NotNull final EditCostModel costModel);
+
+    /**
+     * @param startingWord The starting word.
+     * @param targetWord   The target word.
+     * @return the edit distance from the starting word to the target word, with the
+     * {@link EditCostModel#DEFAULT default costs}.
+     * @throws IllegalStateException if the algorithm is not applicable (see {@link #isApplicable()}).
+     */
+    public int computeEditDistance(@NotNull final String startingWord, @NotNull final String targetWord) {
+        return computeEditDistance(startingWord, targetWord, EditCostModel.DEFAULT);
+    }
+
+    /**
+     * @param startingWord The starting word.
+     * @param targetWord   The target word.
+     * @param costModel    The costs of the {@link EditOperation}s.
+     * @return the edit distance from the starting word to the target word.
+     * @throws IllegalStateException if the algorithm is not applicable (see {@link #isApplicable(EditCostModel)}).
+     */
+    public abstract int computeEditDistance(
+            @NotNull final String startingWord, @NotNull final String targetWord,
+            @NotNull final EditCostModel costModel);
+
+    /**
+     * @return the fastest algorithm which is applicable with the {@link EditCostModel#DEFAULT default costs}.
+     */
+    @NotNull
+    public static EditDistanceAlgorithm getFastestApplicable() {
+        return getFastestApplicable(EditCostModel.DEFAULT);
+    }
+
+    /**
+     * @param costModel The costs of the {@link EditOperation}s.
+     * @return the fastest algorithm which is applicable with the given costs.
+     */
+    @NotNull
+    public static EditDistanceAlgorithm getFastestApplicable(@NotNull final EditCostModel costModel) {
+        return BIT_PARALLEL.isApplicable(costModel) ? BIT_PARALLEL : DYNAMIC_PROGRAMMING;
+    }
+}
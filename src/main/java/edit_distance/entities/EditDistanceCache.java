@@ -0,0 +1,444 @@
+package edit_distance.entities;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * An instance of this class memoizes the edit distances of pairs of words, for workloads where
+ * the same pairs (e.g., the same misspellings against the same suggestions) are computed again and again.
+ * <p/>
+ * The cache is bounded: when it is full, the least recently used pair is evicted. It can be used
+ * by many threads without a global lock: pairs are split by hash among independent segments, each one
+ * with its own lock and its own LRU order, hence threads contend only when they access the same segment.
+ * The edit distance of a missing pair is computed outside the lock (two threads missing the same pair
+ * at the same time might both compute it).
+ * <p/>
+ * By default, only the edit distance of a pair is kept; edit scripts can be retained too, at
+ * the price of more memory. With a {@link EditCostModel#isSymmetric() symmetric} cost model, the pairs
+ * can be canonicalized, so that a pair and its reverse share the same entry.
+ */
+public final class EditDistanceCache {
+
+    /**
+     * Number of segments for each available processor, to make contention unlikely.
+     */
+    private static final int SEGMENTS_PER_PROCESSOR = 4;
+
+    /**
+     * The costs of the {@link EditOperation}s.
+     */
+    @NotNull
+    private final EditCostModel costModel;
+
+    /**
+     * The algorithm used to compute the edit distances when edit scripts are not retained.
+     */
+    @NotNull
+    private final EditDistanceAlgorithm algorithm;
+
+    /**
+     * Flag set if a pair and its reverse share the same entry.
+     */
+    private final boolean canonicalizeSymmetricPairs;
+
+    /**
+     * Flag set if the edit scripts are retained.
+     */
+    private final boolean retainEditScripts;
+
+    /**
+     * The maximum number of pairs in the cache.
+     */
+    private final int maximumSize;
+
+    /**
+     * The segments (their number is a power of 2).
+     */
+    private final Segment[] segments;
+
+    /**
+     * Statistic: number of lookups which found the pair.
+     */
+    private final LongAdder hitCount = new LongAdder();
+
+    /**
+     * Statistic: number of lookups which did not find the pair.
+     */
+    private final LongAdder missCount = new LongAdder();
+
+    /**
+     * Statistic: number of evicted pairs.
+     */
+    private final LongAdder evictionCount = new LongAdder();
+
+    /**
+     * Creates a cache keeping only the edit distances with the {@link EditCostModel#DEFAULT default costs}.
+     *
+     * @param maximumSize The maximum number of pairs in the cache.
+     * @throws IllegalArgumentException if the maximum size is not positive.
+     */
+    public EditDistanceCache(final int maximumSize) {
+        this(maximumSize, EditCostModel.DEFAULT);
+    }
+
+    /**
+     * Creates a cache keeping only the edit distances with the given costs.
+     *
+     * @param maximumSize The maximum number of pairs in the cache.
+     * @param costModel   The costs of the {@link EditOperation}s.
+     * @throws IllegalArgumentException if the maximum size is not positive.
+     */
+    public EditDistanceCache(final int maximumSize, @NotNull final EditCostModel costModel) {
+        this(maximumSize, costModel, false, false);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param maximumSize                The maximum number of pairs in the cache.
+     * @param costModel                  The costs of the {@link EditOperation}s.
+     * @param canonicalizeSymmetricPairs True if a pair and its reverse must share the same entry.
+     * @param retainEditScripts          True if the {@link EditScript}s must be retained.
+     * @throws IllegalArgumentException if the maximum size is not positive, or if pairs must be canonicalized
+     *                                  but the costs are not {@link EditCostModel#isSymmetric() symmetric} or
+     *                                  edit scripts are retained (the script of the reverse pair is different).
+     */
+    public EditDistanceCache(final int maximumSize, @NotNull final EditCostModel costModel,
+                             final boolean canonicalizeSymmetricPairs, final boolean retainEditScripts) {
+        this.costModel = Objects.requireNonNull(costModel);
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("The maximum size must be positive, but " + maximumSize + " found.");
+        }
+        if (canonicalizeSymmetricPairs && (!costModel.isSymmetric() || retainEditScripts)) {
+            throw new IllegalArgumentException("Pairs can be canonicalized only with symmetric costs and "
+                    + "without retaining edit scripts.");
+        }
+        this.algorithm = EditDistanceAlgorithm.getFastestApplicable(costModel);
+        this.canonicalizeSymmetricPairs = canonicalizeSymmetricPairs;
+        this.retainEditScripts = retainEditScripts;
+        this.maximumSize = maximumSize;
+
+        int numberOfSegments = Integer.highestOneBit(Math.min(
+                maximumSize, SEGMENTS_PER_PROCESSOR * Runtime.getRuntime().availableProcessors()));
+        this.segments = new Segment[numberOfSegments];
+        for (int s = 0; s < numberOfSegments; s++) {   // the capacities sum to the maximum size
+            segments[s] = new Segment(maximumSize / numberOfSegments + (s < maximumSize % numberOfSegments ? 1 : 0));
+        }
+    }
+
+    /**
+     * @param startingWord The starting word.
+     * @param targetWord   The target word.
+     * @return the edit distance from the starting word to the target word, computed if the pair is not cached.
+     */
+    public int getEditDistance(@NotNull final String startingWord, @NotNull final String targetWord) {
+        final Object cached = lookup(startingWord, targetWord);
+        if (cached instanceof Integer) {
+            return (Integer) cached;
+        }
+        if (cached instanceof ScriptedEditDistance) {
+            return ((ScriptedEditDistance) cached).editDistance;
+        }
+        if (retainEditScripts) {
+            return computeAndCacheEditScript(startingWord, targetWord).editDistance;
+        }
+        final int editDistance = EditDistanceEngine.getThreadLocalInstance()
+                .compute(startingWord, targetWord, costModel, algorithm);
+        store(startingWord, targetWord, editDistance);
+        return editDistance;
+    }
+
+    /**
+     * @param startingWord The starting word.
+     * @param targetWord   The target word.
+     * @return the {@link EditScript} from the starting word to the target word, computed if it is not cached.
+     * @throws IllegalStateException if this cache does not retain edit scripts.
+     */
+    @NotNull
+    public EditScript getEditScript(@NotNull final String startingWord, @NotNull final String targetWord) {
+        if (!retainEditScripts) {
+            throw new IllegalStateException("This cache does not retain edit scripts.");
+        }
+        final Object cached = lookup(startingWord, targetWord);
+        return (cached instanceof ScriptedEditDistance
+                ? (ScriptedEditDistance) cached
+                : computeAndCacheEditScript(startingWord, targetWord)).editScript;
+    }
+
+    /**
+     * Computes the edit script of a missing pair and caches it.
+     *
+     * @param startingWord The starting word.
+     * @param targetWord   The target word.
+     * @return the cached edit distance and edit script.
+     */
+    @NotNull
+    private ScriptedEditDistance computeAndCacheEditScript(
+            @NotNull final String startingWord, @NotNull final String targetWord) {
+        final EditDistanceCalculator editDistanceCalculator =
+                new EditDistanceCalculator(startingWord, targetWord, costModel);
+        // the matrices of the calculator are not retained
+        final ScriptedEditDistance scriptedEditDistance = new ScriptedEditDistance(
+                editDistanceCalculator.getEditDistance(), editDistanceCalculator.getEditScript());
+        store(startingWord, targetWord, scriptedEditDistance);
+        return scriptedEditDistance;
+    }
+
+    /**
+     * Looks up a pair, updating the statistics.
+     *
+     * @param startingWord The starting word.
+     * @param targetWord   The target word.
+     * @return the cached value (an {@link Integer} or a {@link ScriptedEditDistance}),
+     * or null if the pair is not cached.
+     */
+    private Object lookup(@NotNull final String startingWord, @NotNull final String targetWord) {
+        final ComputationEvent event = new ComputationEvent();
+        event.begin();
+        final long startTime = EditDistanceMetrics.startMeasurement();
+        final Pair pair = newPair(startingWord, targetWord);
+        final Segment segment = segmentOf(pair);
+        final Object cached;
+        synchronized (segment) {
+            cached = segment.get(pair);
+        }
+        if (cached == null) {
+            missCount.increment();  // the computation is recorded by the engine
+        } else {
+            hitCount.increment();
+            EditDistanceMetrics.record(event, startTime, EditDistanceMetrics.Engine.CACHE,
+                    startingWord.length(), targetWord.length(), 0, false, cached instanceof Integer
+                            ? (Integer) cached : ((ScriptedEditDistance) cached).editDistance);
+        }
+        return cached;
+    }
+
+    /**
+     * Caches a pair.
+     *
+     * @param startingWord The starting word.
+     * @param targetWord   The target word.
+     * @param value        The value to cache.
+     */
+    private void store(@NotNull final String startingWord, @NotNull final String targetWord,
+                       @NotNull final Object value) {
+        final Pair pair = newPair(startingWord, targetWord);
+        final Segment segment = segmentOf(pair);
+        synchronized (segment) {
+            segment.put(pair, value);
+        }
+    }
+
+    /**
+     * @param startingWord The starting word.
+     * @param targetWord   The target word.
+     * @return the key of the pair, canonicalized if required.
+     */
+    @NotNull
+    private Pair newPair(@NotNull final String startingWord, @NotNull final String targetWord) {
+        Objects.requireNonNull(startingWord);
+        Objects.requireNonNull(targetWord);
+        return canonicalizeSymmetricPairs && startingWord.compareTo(targetWord) > 0
+                ? new Pair(targetWord, startingWord)
+                : new Pair(startingWord, targetWord);
+    }
+
+    /**
+     * @param pair A pair.
+     * @return the segment holding the given pair.
+     */
+    @NotNull
+    private Segment segmentOf(@NotNull final Pair pair) {
+        final int hash = pair.hashCode();
+        return segments[(hash ^ (hash >>> 16)) & (segments.length - 1)];
+    }
+
+    /**
+     * Removes all the pairs from the cache (statistics are not reset).
+     */
+    public void clear() {
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    /**
+     * @return the number of pairs in the cache.
+     */
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * @return the maximum number of pairs in the cache.
+     */
+    public int getMaximumSize() {
+        return maximumSize;
+    }
+
+    /**
+     * @return the costs of the {@link EditOperation}s.
+     */
+    @NotNull
+    public EditCostModel getCostModel() {
+        return costModel;
+    }
+
+    /**
+     * @return the number of lookups which found the pair.
+     */
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    /**
+     * @return the number of lookups which did not find the pair.
+     */
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    /**
+     * @return the number of pairs evicted to respect the maximum size.
+     */
+    public long getEvictionCount() {
+        return evictionCount.sum();
+    }
+
+    /**
+     * @return the ratio between hits and lookups, or 0 if there have been no lookups.
+     */
+    public double getHitRate() {
+        final long hits = getHitCount();
+        final long lookups = hits + getMissCount();
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    @Override
+    public String toString() {
+        return "EditDistanceCache{" +
+                "size=" + size() +
+                ", maximumSize=" + maximumSize +
+                ", hits=" + getHitCount() +
+                ", misses=" + getMissCount() +
+                ", evictions=" + getEvictionCount() +
+                '}';
+    }
+
+    /**
+     * A (possibly canonicalized) pair of words, used as key.
+     */
+    private static final class Pair {
+
+        /**
+         * The starting word.
+         */
+        @NotNull
+        private final String startingWord;
+        /**
+         * The target word.
+         */
+        @NotNull
+        private final String targetWord;
+        /**
+         * The hash code.
+         */
+        private final int hash;
+
+        /**
+         * @param startingWord The starting word.
+         * @param targetWord   The target word.
+         */
+        Pair(@NotNull final String startingWord, @NotNull final String targetWord) {
+            this.startingWord = startingWord;
+            this.targetWord = targetWord;
+            this.hash = 31 * startingWord.hashCode() + targetWord.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Pair pair = (Pair) o;
+            return hash == pair.hash && startingWord.equals(pair.startingWord) && targetWord.equals(pair.targetWord);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /**
+     * An edit distance together with its {@link EditScript}.
+     */
+    private static final class ScriptedEditDistance {
+
+        /**
+         * The edit distance.
+         */
+        private final int editDistance;
+        /**
+         * The edit script.
+         */
+        @NotNull
+        private final EditScript editScript;
+
+        /**
+         * @param editDistance The edit distance.
+         * @param editScript   The edit script.
+         */
+        ScriptedEditDistance(final int editDistance, @NotNull final EditScript editScript) {
+            this.editDistance = editDistance;
+            this.editScript = editScript;
+        }
+    }
+
+    /**
+     * A segment of the cache: a map in access order which evicts the least recently used pair
+     * when its capacity is exceeded. Values are the edit distances ({@link Integer}s, without any
+     * other wrapper) or, if edit scripts are retained, the {@link ScriptedEditDistance}s.
+     * Instances must be accessed while holding their lock.
+     */
+    private final class Segment extends LinkedHashMap<Pair, Object> {
+
+        /**
+         * The version of the serialized form, required by {@link LinkedHashMap} (the segments are never serialized).
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * The maximum number of pairs in this segment.
+         */
+        private final int capacity;
+
+        /**
+         * @param capacity The maximum number of pairs in this segment.
+         */
+        Segment(final int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Pair, Object> eldest) {
+            if (size() > capacity) {
+                evictionCount.increment();
+                return true;
+            }
+            return false;
+        }
+    }
+}
@@ -6,10 +6,12 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.jetbrains.annotations.Unmodifiable;
 
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Supplier;
 import java.util.stream.IntStream;
-import java.util.stream.Stream;
 
 /**
  * An instance of this class computes the edit distance between two words.
@@ -18,13 +20,13 @@ public class EditDistanceCalculator {
 
     //region debug flags
     /**
-     * Flag to be true if {@link EditOperation#KILL} can be used.
+     * Flag to be true if {@link EditOperation#KILL} can be used by {@link EditCostModel#DEFAULT}.
      */
-    private static final boolean USE_KILL_OPERATION = true;
+    static final boolean USE_KILL_OPERATION = true;
     /**
-     * Flag to be true if {@link EditOperation#TWIDDLE} can be used.
+     * Flag to be true if {@link EditOperation#TWIDDLE} can be used by {@link EditCostModel#DEFAULT}.
      */
-    private static final boolean USE_TWIDDLE_OPERATION = true;
+    static final boolean USE_TWIDDLE_OPERATION = true;
     //endregion
 
     /**
@@ -48,16 +50,18 @@ public class EditDistanceCalculator {
     private final char[] targetWord;        // starting word must be transformed to the target word
 
     /**
-     * The matrix which saves at position (i,j) the cost to transform the i-th letter
-     * of the {@link #startingWord} into the j-th letter of the{@link #targetWord}.
+     * The costs of the {@link EditOperation}s.
      */
-    private final int[][] editCostMatrix;
+    @NotNull
+    private final EditCostModel costModel;
 
     /**
-     * The matrix which saves at position (i,j) the operations to transform the i-th letter
-     * of the {@link #startingWord} into the j-th letter of the{@link #targetWord}.
+     * The matrices which save at position (i,j) the cost and the operation to transform the i-th letter
+     * of the {@link #startingWord} into the j-th letter of the{@link #targetWord}, in compact form
+     * (see {@link EditMatrices}).
      */
-    private final EditOperation[][] editOperationMatrix;
+    @NotNull
+    private final EditMatrices editMatrices;
 
     /**
      * The edit distance resulting from the algorithm.
@@ -72,24 +76,328 @@ public class EditDistanceCalculator {
     private List<AppliedEditOperation> operationSequence = null;
 
     /**
-     * Constructor.
+     * Compact representation of the sequence of operation computed to transform the starting string
+     * to the target one.
+     */
+    @Nullable
+    private EditScript editScript = null;
+
+    /**
+     * Constructor, using the {@link EditCostModel#DEFAULT default costs}.
      *
      * @param startingWord The starting word.
      * @param targetWord   The target word.
      */
     public EditDistanceCalculator(@NotNull final String startingWord, @NotNull final String targetWord) {
+        this(startingWord, targetWord, EditCostModel.DEFAULT);
+    }
+
+    /**
+     * Constructor. The matrices are saved in the heap, with about 2.4 bytes per cell
+     * (4.4 if the costs do not fit in a <code>short</code>).
+     *
+     * @param startingWord The starting word.
+     * @param targetWord   The target word.
+     * @param costModel    The costs of the {@link EditOperation}s.
+     * @throws IllegalArgumentException if the matrices are too big for an array
+     *                                  (see {@link #EditDistanceCalculator(String, String, EditCostModel, Path)}).
+     */
+    public EditDistanceCalculator(
+            @NotNull final String startingWord, @NotNull final String targetWord,
+            @NotNull final EditCostModel costModel) {
+        this(startingWord, targetWord, costModel, EditMatrices.MAX_CELLS_ON_HEAP, null);
+    }
+
+    /**
+     * Constructor for long words, which saves the matrices with more than 2<sup>26</sup> cells off-heap,
+     * in a temporary memory-mapped file of the given directory. The file takes about 2.4 bytes per cell
+     * (4.4 if the costs do not fit in a <code>short</code>), e.g. 2.4 GB for two words of 32000 letters, and it is
+     * deleted at once on the systems which allow deleting mapped files (e.g. Linux and macOS), but its disk
+     * space and its pages in memory are released only when this calculator is garbage-collected, since
+     * mapped files cannot be unmapped explicitly: the directory must have room for all the calculators
+     * which are alive at the same time.
+     *
+     * @param startingWord   The starting word.
+     * @param targetWord     The target word.
+     * @param costModel      The costs of the {@link EditOperation}s.
+     * @param spillDirectory The directory of the temporary files.
+     * @throws UncheckedIOException if the temporary file cannot be created.
+     */
+    public EditDistanceCalculator(
+            @NotNull final String startingWord, @NotNull final String targetWord,
+            @NotNull final EditCostModel costModel, @NotNull final Path spillDirectory) {
+        this(startingWord, targetWord, costModel, EditMatrices.MAX_CELLS_ON_HEAP,
+                Objects.requireNonNull(spillDirectory));
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param startingWord   The starting word.
+     * @param targetWord     The target word.
+     * @param costModel      The costs of the {@link EditOperation}s.
+     * @param maxCellsOnHeap The maximum number of cells of the matrices saved in the heap,
+     *                       if a spill directory is given (see {@link EditMatrices}).
+     * @param spillDirectory The directory of the temporary files, or null to save the matrices in the heap.
+     */
+    EditDistanceCalculator(
+            @NotNull final String startingWord, @NotNull final String targetWord,
+            @NotNull final EditCostModel costModel, final long maxCellsOnHeap, @Nullable final Path spillDirectory) {
+        this.costModel = Objects.requireNonNull(costModel);
+        final ComputationEvent event = new ComputationEvent();
+        event.begin();
+        final long startTime = EditDistanceMetrics.startMeasurement();
         this.startingWord = new char[startingWord.length() + 1];
         this.startingWord[0] = EMPTY_WORD_SYMBOL;
-        System.arraycopy(startingWord.toCharArray(), 0, this.startingWord, 1, startingWord.length());
+        startingWord.getChars(0, startingWord.length(), this.startingWord, 1);
 
         this.targetWord = new char[targetWord.length() + 1];
         this.targetWord[0] = EMPTY_WORD_SYMBOL;
-        System.arraycopy(targetWord.toCharArray(), 0, this.targetWord, 1, targetWord.length());
+        targetWord.getChars(0, targetWord.length(), this.targetWord, 1);
 
-        this.editCostMatrix = new int[this.startingWord.length][this.targetWord.length];
-        this.editOperationMatrix =
-                new EditOperation[this.startingWord.length][this.targetWord.length];
+        // no cost exceeds the one of deleting all the letters and inserting the target word
+        final long maxCost = (long) startingWord.length() * costModel.getCost(EditOperation.DELETE)
+                + (long) targetWord.length() * costModel.getCost(EditOperation.INSERT);
+        this.editMatrices =
+                new EditMatrices(this.startingWord.length, this.targetWord.length, maxCost, maxCellsOnHeap, spillDirectory);
         this.editDistance = computeEditDistanceAndGet();
+        EditDistanceMetrics.record(event, startTime, EditDistanceMetrics.Engine.FULL_MATRIX,
+                startingWord.length(), targetWord.length(), (long) startingWord.length() * targetWord.length(),
+                false, editDistance);
+    }
+
+    /**
+     * Computes the edit distance between two words without building the cost matrix
+     * and the operation matrix: only three rolling rows (the one needed for
+     * {@link EditOperation#TWIDDLE} included) of the length of the shorter word are kept,
+     * hence the memory requirement is <i>O(min(n,m))</i>. The result is the same which
+     * would be returned by {@link #getEditDistance()} on a new instance.
+     * The rows are taken from the {@link EditDistanceEngine#getThreadLocalInstance() workspace
+     * of the current thread}, hence they are not allocated at each call.
+     *
+     * @param startingWord The starting word.
+     * @param targetWord   The target word.
+     * @return the edit distance from the starting word to the target word.
+     */
+    public static int computeEditDistance(@NotNull final String startingWord, @NotNull final String targetWord) {
+        return computeEditDistance(startingWord, targetWord, EditCostModel.DEFAULT);
+    }
+
+    /**
+     * Like {@link #computeEditDistance(String, String)}, but with the given costs.
+     *
+     * @param startingWord The starting word.
+     * @param targetWord   The target word.
+     * @param costModel    The costs of the {@link EditOperation}s.
+     * @return the edit distance from the starting word to the target word.
+     */
+    public static int computeEditDistance(
+            @NotNull final String startingWord, @NotNull final String targetWord,
+            @NotNull final EditCostModel costModel) {
+        return EditDistanceEngine.getThreadLocalInstance()
+                .compute(startingWord, targetWord, costModel, EditDistanceAlgorithm.DYNAMIC_PROGRAMMING);
+    }
+
+    /**
+     * Like {@link #computeEditDistance(String, String)}, but the letters are the Unicode code points of the
+     * words: a supplementary character (encoded by a surrogate pair) counts as a single letter
+     * (see {@link EditDistanceEngine#computeByCodePoints(CharSequence, CharSequence)}).
+     *
+     * @param startingWord The starting word.
+     * @param targetWord   The target word.
+     * @return the edit distance from the starting word to the target word, whose letters are code points.
+     */
+    public static int computeEditDistanceByCodePoints(
+            @NotNull final String startingWord, @NotNull final String targetWord) {
+        return computeEditDistanceByCodePoints(startingWord, targetWord, EditCostModel.DEFAULT);
+    }
+
+    /**
+     * Like {@link #computeEditDistanceByCodePoints(String, String)}, but with the given costs.
+     *
+     * @param startingWord The starting word.
+     * @param targetWord   The target word.
+     * @param costModel    The costs of the {@link EditOperation}s.
+     * @return the edit distance from the starting word to the target word, whose letters are code points.
+     */
+    public static int computeEditDistanceByCodePoints(
+            @NotNull final String startingWord, @NotNull final String targetWord,
+            @NotNull final EditCostModel costModel) {
+        return EditDistanceEngine.getThreadLocalInstance().computeByCodePoints(
+                startingWord, targetWord, costModel, EditDistanceAlgorithm.DYNAMIC_PROGRAMMING);
+    }
+
+    /**
+     * Computes the edit distance between two words if it does not exceed the given
+     * threshold. Only the diagonal band of the (virtual) cost matrix which can be
+     * reached with a cost not greater than the threshold is filled (i.e., the band of
+     * width <i>2k+1</i> for unitary costs of insertions and deletions) and the
+     * computation stops as soon as no cell can lead to a distance within the threshold.
+     * The memory requirement is the same of {@link #computeEditDistance(String, String)}.
+     *
+     * @param startingWord The starting word.
+     * @param targetWord   The target word.
+     * @param maxDistance  The threshold for the edit distance (must be non-negative).
+     * @return the edit distance if it is not greater than the given threshold,
+     * <code>maxDistance + 1</code> otherwise.
+     * @throws IllegalArgumentException if the given threshold is negative.
+     */
+    public static int distanceWithin(
+            @NotNull final String startingWord, @NotNull final String targetWord, final int maxDistance) {
+        return distanceWithin(startingWord, targetWord, maxDistance, EditCostModel.DEFAULT);
+    }
+
+    /**
+     * Like {@link #distanceWithin(String, String, int)}, but with the given costs.
+     *
+     * @param startingWord The starting word.
+     * @param targetWord   The target word.
+     * @param maxDistance  The threshold for the edit distance (must be non-negative).
+     * @param costModel    The costs of the {@link EditOperation}s.
+     * @return the edit distance if it is not greater than the given threshold,
+     * <code>maxDistance + 1</code> otherwise.
+     * @throws IllegalArgumentException if the given threshold is negative.
+     */
+    public static int distanceWithin(
+            @NotNull final String startingWord, @NotNull final String targetWord, final int maxDistance,
+            @NotNull final EditCostModel costModel) {
+        return EditDistanceEngine.getThreadLocalInstance()
+                .computeWithin(startingWord, targetWord, maxDistance, costModel);
+    }
+
+    /**
+     * Computes the edit distance from the given query to each of the given candidates,
+     * processing the query only once and reusing the {@link EditDistanceEngine#getThreadLocalInstance()
+     * workspace of the current thread} for all the candidates
+     * (see {@link EditDistanceEngine#computeAll(CharSequence, List)}).
+     *
+     * @param query      The starting word.
+     * @param candidates The target words.
+     * @return the array whose i-th element is the edit distance from the query to the i-th candidate.
+     */
+    @NotNull
+    public static int[] distances(@NotNull final String query, @NotNull final List<String> candidates) {
+        return distances(query, candidates, EditCostModel.DEFAULT);
+    }
+
+    /**
+     * Like {@link #distances(String, List)}, but with the given costs.
+     *
+     * @param query      The starting word.
+     * @param candidates The target words.
+     * @param costModel  The costs of the {@link EditOperation}s.
+     * @return the array whose i-th element is the edit distance from the query to the i-th candidate.
+     */
+    @NotNull
+    public static int[] distances(
+            @NotNull final String query, @NotNull final List<String> candidates,
+            @NotNull final EditCostModel costModel) {
+        final int[] editDistances = new int[Objects.requireNonNull(candidates).size()];
+        EditDistanceEngine.getThreadLocalInstance().computeAll(
+                query, candidates, costModel, EditDistanceAlgorithm.getFastestApplicable(costModel), editDistances, 0);
+        return editDistances;
+    }
+
+    /**
+     * Like {@link #distances(String, List)}, but the candidates are split among the threads
+     * of the {@link java.util.concurrent.ForkJoinPool#commonPool() common pool}
+     * (see {@link EditDistanceEngine#computeAllInParallel(CharSequence, List)}).
+     *
+     * @param query      The starting word.
+     * @param candidates The target words.
+     * @return the array whose i-th element is the edit distance from the query to the i-th candidate.
+     */
+    @NotNull
+    public static int[] distancesInParallel(@NotNull final String query, @NotNull final List<String> candidates) {
+        return distancesInParallel(query, candidates, EditCostModel.DEFAULT);
+    }
+
+    /**
+     * Like {@link #distancesInParallel(String, List)}, but with the given costs.
+     *
+     * @param query      The starting word.
+     * @param candidates The target words.
+     * @param costModel  The costs of the {@link EditOperation}s.
+     * @return the array whose i-th element is the edit distance from the query to the i-th candidate.
+     */
+    @NotNull
+    public static int[] distancesInParallel(
+            @NotNull final String query, @NotNull final List<String> candidates,
+            @NotNull final EditCostModel costModel) {
+        return EditDistanceEngine.computeAllInParallel(query, candidates, costModel,
+                EditDistanceAlgorithm.getFastestApplicable(costModel), ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Finds the k candidates closest to the given query, comparing each candidate within the
+     * edit distance of the worst of the closest ones found so far, with the
+     * {@link EditDistanceEngine#getThreadLocalInstance() workspace of the current thread}
+     * (see {@link EditDistanceEngine#nearest(CharSequence, List, int)}).
+     *
+     * @param query      The starting word.
+     * @param candidates The target words.
+     * @param k          The number of candidates to find (positive).
+     * @return the k candidates closest to the query (or all of them, if they are fewer), with their
+     * edit distances, ordered by increasing edit distance and then by position in the given list.
+     * @throws IllegalArgumentException if k is not positive.
+     */
+    @NotNull
+    public static List<DictionaryMatch> nearest(
+            @NotNull final String query, @NotNull final List<String> candidates, final int k) {
+        return nearest(query, candidates, k, EditCostModel.DEFAULT);
+    }
+
+    /**
+     * Like {@link #nearest(String, List, int)}, but with the given costs.
+     *
+     * @param query      The starting word.
+     * @param candidates The target words.
+     * @param k          The number of candidates to find (positive).
+     * @param costModel  The costs of the {@link EditOperation}s.
+     * @return See {@link #nearest(String, List, int)}.
+     * @throws IllegalArgumentException if k is not positive.
+     */
+    @NotNull
+    public static List<DictionaryMatch> nearest(
+            @NotNull final String query, @NotNull final List<String> candidates, final int k,
+            @NotNull final EditCostModel costModel) {
+        return EditDistanceEngine.getThreadLocalInstance().nearest(
+                query, candidates, k, costModel, EditDistanceAlgorithm.getFastestApplicable(costModel));
+    }
+
+    /**
+     * Like {@link #nearest(String, List, int)}, but the candidates are split among the threads
+     * of the {@link java.util.concurrent.ForkJoinPool#commonPool() common pool}, which share the bound
+     * (see {@link EditDistanceEngine#nearestInParallel(CharSequence, List, int, ForkJoinPool)}).
+     *
+     * @param query      The starting word.
+     * @param candidates The target words.
+     * @param k          The number of candidates to find (positive).
+     * @return See {@link #nearest(String, List, int)}.
+     * @throws IllegalArgumentException if k is not positive.
+     */
+    @NotNull
+    public static List<DictionaryMatch> nearestInParallel(
+            @NotNull final String query, @NotNull final List<String> candidates, final int k) {
+        return nearestInParallel(query, candidates, k, EditCostModel.DEFAULT);
+    }
+
+    /**
+     * Like {@link #nearestInParallel(String, List, int)}, but with the given costs.
+     *
+     * @param query      The starting word.
+     * @param candidates The target words.
+     * @param k          The number of candidates to find (positive).
+     * @param costModel  The costs of the {@link EditOperation}s.
+     * @return See {@link #nearest(String, List, int)}.
+     * @throws IllegalArgumentException if k is not positive.
+     */
+    @NotNull
+    public static List<DictionaryMatch> nearestInParallel(
+            @NotNull final String query, @NotNull final List<String> candidates, final int k,
+            @NotNull final EditCostModel costModel) {
+        return EditDistanceEngine.nearestInParallel(query, candidates, k, costModel,
+                EditDistanceAlgorithm.getFastestApplicable(costModel), ForkJoinPool.commonPool());
     }
 
     /**
@@ -109,70 +417,15 @@ public class EditDistanceCalculator {
     /**
      * @param operations Matrix of {@link AppliedEditOperation} used to transform the
      *                   {@link #startingWord} into the {@link #targetWord}.
-     * @return The immutable {@link List} of {@link AppliedEditOperation} applied to transform
-     * * the {@link #startingWord} into the {@link #targetWord}.
+     * @return The {@link List} of {@link AppliedEditOperation} applied to transform
+     * the {@link #startingWord} into the {@link #targetWord}. The traceback is iterative,
+     * see {@link EditScript#fromOperationMatrix(EditOperation[][])}.
      */
     public static List<AppliedEditOperation> getSequenceOfOperationComputedToTransformStartingWordToTargetWord(
             final EditOperation[][] operations) {
         assert operations != null;
-        if (operations.length > 0) {
-            assert operations[0] != null;
-            if (operations[0].length > 0) {
-                return getOperationSequenceRecursivelyFromMatrixCoordinates(operations, operations.length - 1, operations[0].length - 1);
-            }
-        }
-        return new ArrayList<>(0);
-    }
-
-    /**
-     * Support method for {@link  #getSequenceOfOperationComputedToTransformStartingWordToTargetWord(EditOperation[][])}.
-     *
-     * @param operations operations Matrix of {@link AppliedEditOperation} used to transform the
-     *                   {@link #startingWord} into the {@link #targetWord}.
-     * @param i          row index of the given matrix
-     * @param j          column index of the given matrix.
-     * @return See {@link #getSequenceOfOperationComputedToTransformStartingWordToTargetWord(EditOperation[][])}.
-     */
-    private static List<AppliedEditOperation> getOperationSequenceRecursivelyFromMatrixCoordinates(
-            final EditOperation[][] operations, int i, int j) {
-        assert operations != null;
-        assert operations[0] != null;
-        assert i <= operations.length;
-        assert j <= operations[0].length;
-        assert i >= 0;
-        assert j >= 0;
-
-        AppliedEditOperation currentOperation = new AppliedEditOperation(operations[i][j], i, j);
-        List<AppliedEditOperation> toReturn;
-
-        if (i == 0 && j == 0) {
-            toReturn = new ArrayList<>();
-        } else {
-            switch (operations[i][j]) {
-                case COPY:
-                case REPLACE:
-                    i--;
-                    j--;
-                    break;
-                case TWIDDLE:
-                    i -= 2;
-                    j -= 2;
-                    break;
-                case DELETE:
-                    i--;
-                    break;
-                case INSERT:
-                    j--;
-                    break;
-                default /*includes case KILL*/:
-                    operations[i][j] = EditOperation.KILL; // operation must be "KILL"
-                    i--;
-                    break;
-            }
-            toReturn = getOperationSequenceRecursivelyFromMatrixCoordinates(operations, i, j);
-        }
-
-        toReturn.add(currentOperation);
+        List<AppliedEditOperation> toReturn = new ArrayList<>();
+        EditScript.fromOperationMatrix(operations).forEach(toReturn::add);
         return toReturn;
     }
 
@@ -192,30 +445,38 @@ public class EditDistanceCalculator {
             }
         }
 
-        if (USE_KILL_OPERATION) {
+        if (costModel.isKillEnabled()) {
             killStartingWordToEqualsTargetWordIfKillingIsCheapestEditOperation();
         }
 
-        return getSequenceOfOperationComputedToTransformStartingWordToTargetWord()
-                .stream().unordered()
-                .mapToInt(AppliedEditOperation::getOperationCost)
-                .sum();
+        return editMatrices.getCost(startingWord.length - 1, targetWord.length - 1);
     }
 
     /**
      * If cheaper than other operation, applies the {@link EditOperation#KILL} operation.
+     * The starting word is killed from the row of the last column of the cost matrix which
+     * minimizes the overall cost: all the cells of the last column below that row are marked
+     * with {@link EditOperation#KILL}, so that the traceback can find where the killing started.
      */
     private void killStartingWordToEqualsTargetWordIfKillingIsCheapestEditOperation() {
-        int[] copyOfLastColumnOfCostMatrix =
-                MatricesUtility.getCopyOfColumn(targetWord.length - 1, editCostMatrix);
-        IntStream.range(0, startingWord.length)
-                .unordered()
-                .map(i -> copyOfLastColumnOfCostMatrix[i] + EditOperation.KILL.getCost())
-                .filter(killCost -> killCost < copyOfLastColumnOfCostMatrix[startingWord.length - 1])
-                .findAny()
-                .ifPresent(killCost -> {
-                    editCostMatrix[startingWord.length - 1][targetWord.length - 1] = killCost;
-                    editOperationMatrix[startingWord.length - 1][targetWord.length - 1] = EditOperation.KILL;
+        final int lastRowIndex = startingWord.length - 1;
+        final int lastColumnIndex = targetWord.length - 1;
+        int[] copyOfLastColumnOfCostMatrix = new int[startingWord.length];
+        for (int i = 0; i <= lastRowIndex; i++) {
+            copyOfLastColumnOfCostMatrix[i] = editMatrices.getCost(i, lastColumnIndex);
+        }
+        IntStream.range(0, lastRowIndex)
+                .boxed()
+                .min(Comparator.comparingInt(i -> copyOfLastColumnOfCostMatrix[i]))
+                .filter(i -> copyOfLastColumnOfCostMatrix[i] + costModel.getCost(EditOperation.KILL)
+                        < copyOfLastColumnOfCostMatrix[lastRowIndex])
+                .ifPresent(rowIndexFromWhichToKill -> {
+                    editMatrices.setCost(lastRowIndex, lastColumnIndex,
+                            copyOfLastColumnOfCostMatrix[rowIndexFromWhichToKill]
+                                    + costModel.getCost(EditOperation.KILL));
+                    for (int i = rowIndexFromWhichToKill + 1; i <= lastRowIndex; i++) {
+                        editMatrices.setOperation(i, lastColumnIndex, EditOperation.KILL);
+                    }
                 });
     }
 
@@ -232,20 +493,21 @@ public class EditDistanceCalculator {
         {
             if (startingWord[i] == targetWord[j]) {
                 operationCostToTransformIthLetterIfStartingWordInJthLetterOfTargetWord =
-                        editCostMatrix[i - 1][j - 1] + EditOperation.COPY.getCost();
+                        editMatrices.getCost(i - 1, j - 1) + costModel.getCost(EditOperation.COPY);
                 operationToTransformIthLetterIfStartingWordInJthLetterOfTargetWord =
                         EditOperation.COPY;
             } else { // different chars at positions currently under examination
                 operationCostToTransformIthLetterIfStartingWordInJthLetterOfTargetWord =
-                        editCostMatrix[i - 1][j - 1] + EditOperation.REPLACE.getCost();
+                        editMatrices.getCost(i - 1, j - 1)
+                                + costModel.getCostOfReplacing(startingWord[i], targetWord[j]);
                 operationToTransformIthLetterIfStartingWordInJthLetterOfTargetWord =
                         EditOperation.REPLACE;
             }
-            if (USE_TWIDDLE_OPERATION &&
+            if (costModel.isTwiddleEnabled() &&
                     i >= 2 && j >= 2
                     && startingWord[i] == targetWord[j - 1]
                     && startingWord[i - 1] == targetWord[j]) {
-                var twiddleCost = editCostMatrix[i - 2][j - 2] + EditOperation.TWIDDLE.getCost();
+                var twiddleCost = editMatrices.getCost(i - 2, j - 2) + costModel.getCost(EditOperation.TWIDDLE);
                 if (twiddleCost < operationCostToTransformIthLetterIfStartingWordInJthLetterOfTargetWord) {
                     operationCostToTransformIthLetterIfStartingWordInJthLetterOfTargetWord = twiddleCost;
                     operationToTransformIthLetterIfStartingWordInJthLetterOfTargetWord =
@@ -253,22 +515,22 @@ public class EditDistanceCalculator {
                 }
             }
             {
-                int deleteCost = editCostMatrix[i - 1][j] + EditOperation.DELETE.getCost();
+                int deleteCost = editMatrices.getCost(i - 1, j) + costModel.getCost(EditOperation.DELETE);
                 if (deleteCost < operationCostToTransformIthLetterIfStartingWordInJthLetterOfTargetWord) {
                     operationCostToTransformIthLetterIfStartingWordInJthLetterOfTargetWord = deleteCost;
                     operationToTransformIthLetterIfStartingWordInJthLetterOfTargetWord = EditOperation.DELETE;
                 }
             }
             {
-                int insertCost = editCostMatrix[i][j - 1] + EditOperation.INSERT.getCost();
+                int insertCost = editMatrices.getCost(i, j - 1) + costModel.getCost(EditOperation.INSERT);
                 if (insertCost < operationCostToTransformIthLetterIfStartingWordInJthLetterOfTargetWord) {
                     operationCostToTransformIthLetterIfStartingWordInJthLetterOfTargetWord = insertCost;
                     operationToTransformIthLetterIfStartingWordInJthLetterOfTargetWord = EditOperation.INSERT;
                 }
             }
         }
-        editCostMatrix[i][j] = operationCostToTransformIthLetterIfStartingWordInJthLetterOfTargetWord;
-        editOperationMatrix[i][j] = operationToTransformIthLetterIfStartingWordInJthLetterOfTargetWord;
+        editMatrices.setCost(i, j, operationCostToTransformIthLetterIfStartingWordInJthLetterOfTargetWord);
+        editMatrices.setOperation(i, j, operationToTransformIthLetterIfStartingWordInJthLetterOfTargetWord);
     }
 
     /**
@@ -290,12 +552,16 @@ public class EditDistanceCalculator {
     /**
      * Getter.
      *
-     * @return copy of {@link #editCostMatrix}.
+     * @return copy of the cost matrix (see {@link #editMatrices}).
      */
     public int[][] getEditCostMatrix() {
-        return Stream.of(editCostMatrix).sequential()
-                .map(aRow -> Arrays.copyOf(aRow, aRow.length))
-                .toArray(int[][]::new);
+        final int[][] editCostMatrix = new int[editMatrices.getNumberOfRows()][editMatrices.getNumberOfColumns()];
+        for (int i = 0; i < editCostMatrix.length; i++) {
+            for (int j = 0; j < editCostMatrix[i].length; j++) {
+                editCostMatrix[i][j] = editMatrices.getCost(i, j);
+            }
+        }
+        return editCostMatrix;
     }
 
     /**
@@ -304,7 +570,7 @@ public class EditDistanceCalculator {
     public String getCostMatrixToString() {
         return "COST MATRIX:" + System.lineSeparator() +
                 MatricesUtility.getMatrixToStringWithHeading(new String(startingWord), new String(targetWord),
-                        Arrays.stream(editCostMatrix)
+                        Arrays.stream(getEditCostMatrix())
                                 .map(ArrayUtils::toObject)
                                 .toArray(Integer[][]::new));
     }
@@ -316,14 +582,37 @@ public class EditDistanceCalculator {
     public @Unmodifiable List<AppliedEditOperation> getSequenceOfOperationComputedToTransformStartingWordToTargetWord() {
         Supplier<@Unmodifiable List<AppliedEditOperation>> computeSequenceOfOperationOrCacheIfAlreadyComputer = () -> {
             if (operationSequence == null) {
-                operationSequence = Collections.unmodifiableList(
-                        getSequenceOfOperationComputedToTransformStartingWordToTargetWord(editOperationMatrix));
+                List<AppliedEditOperation> operations = new ArrayList<>();
+                getEditScript().forEach(operations::add);
+                operationSequence = Collections.unmodifiableList(operations);
             }
             return operationSequence;
         };
         return computeSequenceOfOperationOrCacheIfAlreadyComputer.get();
     }
 
+    /**
+     * @return The {@link EditScript} (i.e., the compact representation of the sequence of
+     * operations) applied to transform the {@link #startingWord} into the {@link #targetWord}.
+     * Operations can be counted or iterated lazily without materializing the list returned by
+     * {@link #getSequenceOfOperationComputedToTransformStartingWordToTargetWord()}.
+     */
+    @NotNull
+    public EditScript getEditScript() {
+        if (editScript == null) {
+            editScript = EditScript.fromEditMatrices(editMatrices, startingWord, targetWord, costModel);
+        }
+        return editScript;
+    }
+
+    /**
+     * @return the costs of the {@link EditOperation}s.
+     */
+    @NotNull
+    public EditCostModel getCostModel() {
+        return costModel;
+    }
+
     /**
      * @return the edit distance.
      */
@@ -335,36 +624,37 @@ public class EditDistanceCalculator {
      * Set fields of the object for the case of empty {@link #startingWord}.
      */
     private void setInstanceVariablesForTheCaseEmptyStartingWord() {
-        editCostMatrix[0] =
-                IntStream.range(0, targetWord.length)
-                        .sequential()
-                        .map(positionIndexInTargetWord -> positionIndexInTargetWord * EditOperation.INSERT.getCost())
-                        .toArray();
-        editOperationMatrix[0] =
-                IntStream.range(0, targetWord.length)
-                        .mapToObj(positionIndexInTargetWord -> EditOperation.INSERT)
-                        .toArray(EditOperation[]::new);
+        for (int positionIndexInTargetWord = 0;
+             positionIndexInTargetWord < targetWord.length;
+             positionIndexInTargetWord++) {
+            editMatrices.setCost(0, positionIndexInTargetWord,
+                    positionIndexInTargetWord * costModel.getCost(EditOperation.INSERT));
+            editMatrices.setOperation(0, positionIndexInTargetWord, EditOperation.INSERT);
+        }
     }
 
     /**
      * Set fields of the object for the case of empty {@link #targetWord}.
      */
     private void setInstanceVariablesForTheCaseEmptyTargetWord() {
-        IntStream.range(1, startingWord.length)
-                .forEach(positionIndexInStartingWord -> {
-                    editCostMatrix[positionIndexInStartingWord][0] =
-                            positionIndexInStartingWord * EditOperation.DELETE.getCost();
-                    editOperationMatrix[positionIndexInStartingWord][0] =
-                            EditOperation.DELETE;
-                });
+        for (int positionIndexInStartingWord = 1;
+             positionIndexInStartingWord < startingWord.length;
+             positionIndexInStartingWord++) {
+            editMatrices.setCost(positionIndexInStartingWord, 0,
+                    positionIndexInStartingWord * costModel.getCost(EditOperation.DELETE));
+            editMatrices.setOperation(positionIndexInStartingWord, 0, EditOperation.DELETE);
+        }
     }
 
     /**
      * Set fields of the object for the case of empty both {@link #startingWord} and {@link #targetWord}.
+     * Transforming the empty word into itself costs nothing with any {@link #costModel}: the cell is
+     * the origin of the paths of the other ones, hence a {@link EditOperation#COPY} cost there would be
+     * added to every edit distance.
      */
     private void setInstanceVariablesForTheCaseEmptyBothStartingWordAndTargetWord() {
-        editCostMatrix[0][0] = EditOperation.COPY.getCost();
-        editOperationMatrix[0][0] = EditOperation.COPY;
+        editMatrices.setCost(0, 0, 0);
+        editMatrices.setOperation(0, 0, EditOperation.COPY);
     }
 
 }
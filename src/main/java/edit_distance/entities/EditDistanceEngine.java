@@ -0,0 +1,1581 @@
+package edit_distance.entities;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An instance of this class is a reusable workspace to compute the edit distance
+ * between many pairs of words, when the sequence of operations is not needed.
+ * Words are copied into scratch buffers which are grown on demand and reused
+ * across calls, as well as the rolling rows of the cost matrix and the bit-vectors
+ * of {@link BitParallelEditDistanceCalculator}: once the buffers are large enough
+ * for the processed words, a computation does not allocate anything.
+ * <p/>
+ * The rows of the cost matrix are filled by a loop specialized for the
+ * {@link EditCostModel.Kernel kernel} of the {@link EditCostModel}, which is selected
+ * once per row: the costs are local variables of the loop and no virtual call is made
+ * for each cell.
+ * <p/>
+ * When one word has to be compared with many candidates, {@link #computeAll(CharSequence, List)}
+ * processes that word only once, optionally splitting the candidates among the threads of a
+ * {@link ForkJoinPool} ({@link #computeAllInParallel(CharSequence, List, ForkJoinPool)}); when only the
+ * closest candidates are needed, {@link #nearest(CharSequence, List, int)} compares each candidate within
+ * the distance of the worst of the closest ones found so far.
+ * <p/>
+ * Words can also be given as ranges of larger buffers, without creating {@link String}s: slices of
+ * {@link CharSequence}s, ISO-8859-1 bytes and Unicode code points. By default a letter is a <code>char</code>,
+ * hence a supplementary character counts as two letters, unless the words are compared by code points
+ * ({@link #computeByCodePoints(CharSequence, CharSequence)} or the arrays of code points).
+ * <p/>
+ * Instances are <strong>not</strong> thread-safe: use one instance per thread,
+ * e.g. the one returned by {@link #getThreadLocalInstance()}.
+ */
+public final class EditDistanceEngine {
+
+    /**
+     * Initial capacity of the buffers (number of letters of a word).
+     */
+    private static final int INITIAL_CAPACITY = 32;
+
+    /**
+     * Value considered as "infinity".
+     */
+    private static final int INFINITY = Integer.MAX_VALUE;
+
+    /**
+     * Minimum number of candidates processed by a task of
+     * {@link #computeAllInParallel(CharSequence, List, ForkJoinPool)}: fewer candidates
+     * would not pay off the pre-processing of the query in each task.
+     */
+    private static final int MIN_CANDIDATES_PER_TASK = 256;
+
+    /**
+     * Number of tasks for each thread of the pool in
+     * {@link #computeAllInParallel(CharSequence, List, ForkJoinPool)}, to balance the load
+     * when the candidates have different lengths.
+     */
+    private static final int TASKS_PER_THREAD = 4;
+
+    /**
+     * One instance for each thread, using the {@link EditCostModel#DEFAULT default costs}
+     * and the fastest applicable algorithm.
+     */
+    private static final ThreadLocal<EditDistanceEngine> THREAD_LOCAL_INSTANCES =
+            ThreadLocal.withInitial(EditDistanceEngine::new);
+
+    /**
+     * The costs used by {@link #compute(CharSequence, CharSequence)}.
+     */
+    @NotNull
+    private final EditCostModel costModel;
+
+    /**
+     * The algorithm used by {@link #compute(CharSequence, CharSequence)}.
+     */
+    @NotNull
+    private final EditDistanceAlgorithm algorithm;
+
+    /**
+     * Buffer for the starting word.
+     */
+    private int[] startingWord = new int[INITIAL_CAPACITY];
+
+    /**
+     * Buffer for the target word.
+     */
+    private int[] targetWord = new int[INITIAL_CAPACITY];
+
+    /**
+     * Buffer for the three rolling rows of the cost matrix, one after the other.
+     */
+    private int[] rows = new int[3 * (INITIAL_CAPACITY + 1)];
+
+    /**
+     * Buffer for the keys of the letters along the columns in the
+     * {@link EditCostModel.SubstitutionMatrix substitution matrix}.
+     */
+    private int[] substitutionKeys = new int[INITIAL_CAPACITY];
+
+    /**
+     * Buffer for the letters along the columns of a block of the cost matrix
+     * (see {@link #fillBlock(EditCostModel, int[], int[], int[], int[], int[], int[], int[], int[], int, int, int, int)}).
+     */
+    private int[] lettersOfBlock = new int[INITIAL_CAPACITY];
+
+    /**
+     * Buffer for the first row of the cost matrix of a query, computed once and copied
+     * in {@link #rows} for each candidate by {@link #computeAll(CharSequence, List)}.
+     */
+    private int[] firstRowOfQuery = new int[INITIAL_CAPACITY + 1];
+
+    /**
+     * Reusable masks for {@link BitParallelEditDistanceCalculator}.
+     */
+    private final BitParallelEditDistanceCalculator.PatternMasks patternMasks =
+            new BitParallelEditDistanceCalculator.PatternMasks();
+
+    /**
+     * Reusable bit-vectors for {@link BitParallelEditDistanceCalculator}.
+     */
+    private long[] bitVectors = new long[BitParallelEditDistanceCalculator.NUMBER_OF_BIT_VECTORS];
+
+    //region state of the current computation, set by prepareRowFilling
+    /**
+     * The kernel of the cost model of the current computation.
+     */
+    private EditCostModel.Kernel kernel;
+    /**
+     * Cost of the {@link EditOperation#COPY}.
+     */
+    private int copyCost;
+    /**
+     * Cost of the {@link EditOperation#REPLACE} (for the letters not in the substitution matrix, if any).
+     */
+    private int replaceCost;
+    /**
+     * Flag set if the {@link EditOperation#TWIDDLE} must be considered.
+     */
+    private boolean useTwiddle;
+    /**
+     * Cost of the {@link EditOperation#TWIDDLE}.
+     */
+    private int twiddleCost;
+    /**
+     * Cost of moving from a column to the next one.
+     */
+    private int costOfMovingAlongRow;
+    /**
+     * Cost of moving from a row to the next one.
+     */
+    private int costOfMovingAlongColumn;
+    /**
+     * The substitution matrix, if any.
+     */
+    private EditCostModel.SubstitutionMatrix substitutionMatrix;
+    /**
+     * The flattened costs of the substitution matrix, if any.
+     */
+    private int[] substitutionCosts;
+    /**
+     * The multiplier of the index of a letter along the rows to get its key in {@link #substitutionCosts}.
+     */
+    private int multiplierOfRowKeys;
+    /**
+     * The number of columns of the rows of the query
+     * (see {@link #prepareRowsOfQuery(CharSequence, EditCostModel, int)}).
+     */
+    private int numberOfColumnsOfQuery;
+    /**
+     * The word whose letters index the columns of the rows of the query (the buffer of the starting word
+     * or of the target word).
+     */
+    private int[] wordAlongColumnsOfQuery;
+    /**
+     * The cost of the {@link EditOperation#KILL}, or {@link #INFINITY} if it is not used.
+     */
+    private int killCost;
+    //endregion
+
+    //region instrumentation of the last computation of computeWithinBand
+    /**
+     * The number of cells filled by the last computation of
+     * {@link #computeWithinBand(int, int, int, EditCostModel)}.
+     */
+    private long filledCellsOfBand;
+    /**
+     * Flag set if the last computation of {@link #computeWithinBand(int, int, int, EditCostModel)}
+     * stopped before the last row, because no cell could lead to a distance within the threshold.
+     */
+    private boolean bandExitedEarly;
+    //endregion
+
+    /**
+     * Creates an instance using the {@link EditCostModel#DEFAULT default costs} and the
+     * {@link EditDistanceAlgorithm#getFastestApplicable() fastest applicable} algorithm.
+     */
+    public EditDistanceEngine() {
+        this(EditCostModel.DEFAULT);
+    }
+
+    /**
+     * Creates an instance using the given costs and the
+     * {@link EditDistanceAlgorithm#getFastestApplicable(EditCostModel) fastest applicable} algorithm.
+     *
+     * @param costModel The costs used by {@link #compute(CharSequence, CharSequence)}.
+     */
+    public EditDistanceEngine(@NotNull final EditCostModel costModel) {
+        this(costModel, EditDistanceAlgorithm.getFastestApplicable(costModel));
+    }
+
+    /**
+     * Creates an instance using the {@link EditCostModel#DEFAULT default costs} and the given algorithm.
+     *
+     * @param algorithm The algorithm used by {@link #compute(CharSequence, CharSequence)}.
+     * @throws IllegalArgumentException if the given algorithm is not applicable.
+     */
+    public EditDistanceEngine(@NotNull final EditDistanceAlgorithm algorithm) {
+        this(EditCostModel.DEFAULT, algorithm);
+    }
+
+    /**
+     * Creates an instance using the given costs and the given algorithm.
+     *
+     * @param costModel The costs used by {@link #compute(CharSequence, CharSequence)}.
+     * @param algorithm The algorithm used by {@link #compute(CharSequence, CharSequence)}.
+     * @throws IllegalArgumentException if the given algorithm is not applicable with the given costs.
+     */
+    public EditDistanceEngine(@NotNull final EditCostModel costModel, @NotNull final EditDistanceAlgorithm algorithm) {
+        if (!Objects.requireNonNull(algorithm).isApplicable(Objects.requireNonNull(costModel))) {
+            throw new IllegalArgumentException(algorithm + " is not applicable with " + costModel + ".");
+        }
+        this.costModel = costModel;
+        this.algorithm = algorithm;
+    }
+
+    /**
+     * @return the instance of the current thread, using the {@link EditCostModel#DEFAULT default costs}
+     * and the fastest applicable algorithm.
+     */
+    @NotNull
+    public static EditDistanceEngine getThreadLocalInstance() {
+        return THREAD_LOCAL_INSTANCES.get();
+    }
+
+    /**
+     * @return the costs used by {@link #compute(CharSequence, CharSequence)}.
+     */
+    @NotNull
+    public EditCostModel getCostModel() {
+        return costModel;
+    }
+
+    /**
+     * @return the algorithm used by {@link #compute(CharSequence, CharSequence)}.
+     */
+    @NotNull
+    public EditDistanceAlgorithm getAlgorithm() {
+        return algorithm;
+    }
+
+    /**
+     * @param startingWord The starting word.
+     * @param targetWord   The target word.
+     * @return the edit distance from the starting word to the target word, which is the same which would
+     * be returned by {@link EditDistanceCalculator#getEditDistance()} on a new instance with the same costs.
+     */
+    public int compute(@NotNull final CharSequence startingWord, @NotNull final CharSequence targetWord) {
+        return compute(startingWord, targetWord, costModel, algorithm);
+    }
+
+    /**
+     * @param startingWord The starting word.
+     * @param targetWord   The target word.
+     * @param costModel    The costs of the {@link EditOperation}s.
+     * @param algorithm    The algorithm to use (it must be applicable with the given costs).
+     * @return See {@link #compute(CharSequence, CharSequence)}.
+     */
+    int compute(@NotNull final CharSequence startingWord, @NotNull final CharSequence targetWord,
+                @NotNull final EditCostModel costModel, @NotNull final EditDistanceAlgorithm algorithm) {
+        Objects.requireNonNull(costModel);
+        final ComputationEvent event = new ComputationEvent();
+        event.begin();
+        final long startTime = EditDistanceMetrics.startMeasurement();
+        final int n = loadStartingWord(startingWord);
+        final int m = loadTargetWord(targetWord);
+        return computeLoadedWords(event, startTime, n, m, costModel, algorithm);
+    }
+
+    /**
+     * Like {@link #compute(CharSequence, CharSequence)}, but the words are the given ranges of the given
+     * sequences (e.g., slices of a larger buffer), which are read without creating any {@link String}.
+     *
+     * @param startingWord   The sequence containing the starting word.
+     * @param startingOffset The index of the first letter of the starting word.
+     * @param startingLength The length of the starting word.
+     * @param targetWord     The sequence containing the target word.
+     * @param targetOffset   The index of the first letter of the target word.
+     * @param targetLength   The length of the target word.
+     * @return the edit distance from the starting word to the target word.
+     * @throws IndexOutOfBoundsException if a range is out of the bounds of its sequence.
+     */
+    public int compute(@NotNull final CharSequence startingWord, final int startingOffset, final int startingLength,
+                       @NotNull final CharSequence targetWord, final int targetOffset, final int targetLength) {
+        Objects.checkFromIndexSize(startingOffset, startingLength, startingWord.length());
+        Objects.checkFromIndexSize(targetOffset, targetLength, targetWord.length());
+        final ComputationEvent event = new ComputationEvent();
+        event.begin();
+        final long startTime = EditDistanceMetrics.startMeasurement();
+        copyLetters(startingWord, startingOffset, startingLength, startingWordBuffer(startingLength));
+        copyLetters(targetWord, targetOffset, targetLength, targetWordBuffer(targetLength));
+        return computeLoadedWords(event, startTime, startingLength, targetLength, costModel, algorithm);
+    }
+
+    /**
+     * Like {@link #compute(CharSequence, CharSequence)}, but the words are the given ranges of the given
+     * arrays of ISO-8859-1 (Latin-1, hence also ASCII) bytes, each byte being a letter: the arrays can be
+     * read from a buffer (e.g., a memory-mapped file) without decoding them into {@link String}s.
+     *
+     * @param startingWord   The bytes containing the starting word.
+     * @param startingOffset The index of the first letter of the starting word.
+     * @param startingLength The length of the starting word.
+     * @param targetWord     The bytes containing the target word.
+     * @param targetOffset   The index of the first letter of the target word.
+     * @param targetLength   The length of the target word.
+     * @return the edit distance from the starting word to the target word.
+     * @throws IndexOutOfBoundsException if a range is out of the bounds of its array.
+     */
+    public int compute(final byte[] startingWord, final int startingOffset, final int startingLength,
+                       final byte[] targetWord, final int targetOffset, final int targetLength) {
+        Objects.checkFromIndexSize(startingOffset, startingLength, startingWord.length);
+        Objects.checkFromIndexSize(targetOffset, targetLength, targetWord.length);
+        final ComputationEvent event = new ComputationEvent();
+        event.begin();
+        final long startTime = EditDistanceMetrics.startMeasurement();
+        copyLatin1Letters(startingWord, startingOffset, startingLength, startingWordBuffer(startingLength));
+        copyLatin1Letters(targetWord, targetOffset, targetLength, targetWordBuffer(targetLength));
+        return computeLoadedWords(event, startTime, startingLength, targetLength, costModel, algorithm);
+    }
+
+    /**
+     * Like {@link #compute(CharSequence, CharSequence)}, but the words are the given ranges of the given
+     * arrays of Unicode code points, each code point being a letter (hence a supplementary character is
+     * a single letter, as in {@link #computeByCodePoints(CharSequence, CharSequence)}).
+     *
+     * @param startingWord   The code points containing the starting word.
+     * @param startingOffset The index of the first letter of the starting word.
+     * @param startingLength The length of the starting word.
+     * @param targetWord     The code points containing the target word.
+     * @param targetOffset   The index of the first letter of the target word.
+     * @param targetLength   The length of the target word.
+     * @return the edit distance from the starting word to the target word.
+     * @throws IndexOutOfBoundsException if a range is out of the bounds of its array.
+     * @throws IllegalArgumentException  if a letter is not a valid code point.
+     */
+    public int compute(final int[] startingWord, final int startingOffset, final int startingLength,
+                       final int[] targetWord, final int targetOffset, final int targetLength) {
+        Objects.checkFromIndexSize(startingOffset, startingLength, startingWord.length);
+        Objects.checkFromIndexSize(targetOffset, targetLength, targetWord.length);
+        final ComputationEvent event = new ComputationEvent();
+        event.begin();
+        final long startTime = EditDistanceMetrics.startMeasurement();
+        copyCodePoints(startingWord, startingOffset, startingLength, startingWordBuffer(startingLength));
+        copyCodePoints(targetWord, targetOffset, targetLength, targetWordBuffer(targetLength));
+        return computeLoadedWords(event, startTime, startingLength, targetLength, costModel, algorithm);
+    }
+
+    /**
+     * Like {@link #compute(CharSequence, CharSequence)}, but the letters are the Unicode code points of
+     * the words instead of their <code>char</code>s: a supplementary character (encoded by a surrogate pair)
+     * is a single letter, hence replacing it with another one costs one {@link EditOperation#REPLACE}
+     * instead of two. Unpaired surrogates are letters on their own.
+     *
+     * @param startingWord The starting word.
+     * @param targetWord   The target word.
+     * @return the edit distance from the starting word to the target word, whose letters are code points.
+     */
+    public int computeByCodePoints(@NotNull final CharSequence startingWord, @NotNull final CharSequence targetWord) {
+        return computeByCodePoints(startingWord, targetWord, costModel, algorithm);
+    }
+
+    /**
+     * @param startingWord The starting word.
+     * @param targetWord   The target word.
+     * @param costModel    The costs of the {@link EditOperation}s.
+     * @param algorithm    The algorithm to use (it must be applicable with the given costs).
+     * @return See {@link #computeByCodePoints(CharSequence, CharSequence)}.
+     */
+    int computeByCodePoints(@NotNull final CharSequence startingWord, @NotNull final CharSequence targetWord,
+                            @NotNull final EditCostModel costModel, @NotNull final EditDistanceAlgorithm algorithm) {
+        Objects.requireNonNull(costModel);
+        final ComputationEvent event = new ComputationEvent();
+        event.begin();
+        final long startTime = EditDistanceMetrics.startMeasurement();
+        final int n = copyCodePoints(startingWord, startingWordBuffer(startingWord.length()));
+        final int m = copyCodePoints(targetWord, targetWordBuffer(targetWord.length()));
+        return computeLoadedWords(event, startTime, n, m, costModel, algorithm);
+    }
+
+    /**
+     * Computes the edit distance between the words in {@link #startingWord} and {@link #targetWord}
+     * and records the computation (see {@link EditDistanceMetrics}).
+     *
+     * @param event     The event begun before loading the words.
+     * @param startTime The start time of the measurement (see {@link EditDistanceMetrics#startMeasurement()}).
+     * @param n         The length of the starting word.
+     * @param m         The length of the target word.
+     * @param costModel The costs of the {@link EditOperation}s.
+     * @param algorithm The algorithm to use (it must be applicable with the given costs).
+     * @return the edit distance.
+     */
+    private int computeLoadedWords(@NotNull final ComputationEvent event, final long startTime,
+                                   final int n, final int m, @NotNull final EditCostModel costModel,
+                                   @NotNull final EditDistanceAlgorithm algorithm) {
+        final int editDistance;
+        switch (algorithm) {
+            case BIT_PARALLEL:
+                editDistance = computeWithBitParallelism(n, m, costModel);
+                break;
+            case WAVEFRONT:
+                editDistance = WavefrontEditDistanceCalculator.computeEditDistance(
+                        Arrays.copyOf(this.startingWord, n), Arrays.copyOf(this.targetWord, m), costModel,
+                        ForkJoinPool.commonPool(), WavefrontEditDistanceCalculator.DEFAULT_BLOCK_SIZE);
+                break;
+            default:
+                editDistance = computeWithRollingRows(n, m, costModel);
+        }
+        EditDistanceMetrics.record(event, startTime, EditDistanceMetrics.Engine.of(algorithm),
+                n, m, (long) n * m, false, editDistance);
+        return editDistance;
+    }
+
+    /**
+     * Computes the edit distance between two words if it does not exceed the given threshold
+     * (see {@link EditDistanceCalculator#distanceWithin(String, String, int)}).
+     *
+     * @param startingWord The starting word.
+     * @param targetWord   The target word.
+     * @param maxDistance  The threshold for the edit distance (must be non-negative).
+     * @return the edit distance if it is not greater than the given threshold,
+     * <code>maxDistance + 1</code> otherwise.
+     * @throws IllegalArgumentException if the given threshold is negative.
+     */
+    public int computeWithin(
+            @NotNull final CharSequence startingWord, @NotNull final CharSequence targetWord, final int maxDistance) {
+        return computeWithin(startingWord, targetWord, maxDistance, costModel);
+    }
+
+    /**
+     * @param startingWord The starting word.
+     * @param targetWord   The target word.
+     * @param maxDistance  The threshold for the edit distance (must be non-negative).
+     * @param costModel    The costs of the {@link EditOperation}s.
+     * @return See {@link #computeWithin(CharSequence, CharSequence, int)}.
+     * @throws IllegalArgumentException if the given threshold is negative.
+     */
+    int computeWithin(
+            @NotNull final CharSequence startingWord, @NotNull final CharSequence targetWord, final int maxDistance,
+            @NotNull final EditCostModel costModel) {
+        return computeWithin(startingWord, 0, startingWord.length(), targetWord, 0, targetWord.length(),
+                maxDistance, costModel);
+    }
+
+    /**
+     * Like {@link #computeWithin(CharSequence, CharSequence, int, EditCostModel)}, but the words are the
+     * given ranges of the given sequences (which must be within their bounds).
+     *
+     * @param startingWord   The sequence containing the starting word.
+     * @param startingOffset The index of the first letter of the starting word.
+     * @param startingLength The length of the starting word.
+     * @param targetWord     The sequence containing the target word.
+     * @param targetOffset   The index of the first letter of the target word.
+     * @param targetLength   The length of the target word.
+     * @param maxDistance    The threshold for the edit distance (must be non-negative).
+     * @param costModel      The costs of the {@link EditOperation}s.
+     * @return See {@link #computeWithin(CharSequence, CharSequence, int)}.
+     * @throws IllegalArgumentException if the given threshold is negative.
+     */
+    int computeWithin(
+            @NotNull final CharSequence startingWord, final int startingOffset, final int startingLength,
+            @NotNull final CharSequence targetWord, final int targetOffset, final int targetLength,
+            final int maxDistance, @NotNull final EditCostModel costModel) {
+        Objects.requireNonNull(costModel);
+        if (maxDistance < 0) {
+            throw new IllegalArgumentException("The threshold cannot be negative, but " + maxDistance + " found.");
+        }
+        final ComputationEvent event = new ComputationEvent();
+        event.begin();
+        final long startTime = EditDistanceMetrics.startMeasurement();
+        final int n = startingLength;
+        final int m = targetLength;
+        copyLetters(startingWord, startingOffset, n, startingWordBuffer(n));
+        copyLetters(targetWord, targetOffset, m, targetWordBuffer(m));
+        if (maxDistance >= INFINITY / 2) {  // saturated costs might overflow
+            int editDistance = computeWithRollingRows(n, m, costModel);
+            editDistance = editDistance <= maxDistance ? editDistance : maxDistance + 1;
+            EditDistanceMetrics.record(event, startTime, EditDistanceMetrics.Engine.DYNAMIC_PROGRAMMING,
+                    n, m, (long) n * m, false, editDistance);
+            return editDistance;
+        }
+        final int editDistance = computeWithinBand(n, m, maxDistance, costModel);
+        EditDistanceMetrics.record(event, startTime, EditDistanceMetrics.Engine.BANDED,
+                n, m, filledCellsOfBand, bandExitedEarly, editDistance);
+        return editDistance;
+    }
+
+    /**
+     * Computes the edit distance from the given query to each of the given candidates.
+     * The query is processed only once: with {@link EditDistanceAlgorithm#BIT_PARALLEL}
+     * its letters are encoded in the masks, which are then used to scan all the candidates,
+     * otherwise the first row of the cost matrix and the keys of the substitution matrix (if any)
+     * are computed once and the query is placed along the columns of the cost matrix of each
+     * candidate. The same workspace is used for all the candidates.
+     *
+     * @param query      The starting word.
+     * @param candidates The target words.
+     * @return the array whose i-th element is the edit distance from the query to the i-th candidate,
+     * which is the same which would be returned by {@link #compute(CharSequence, CharSequence)}.
+     */
+    @NotNull
+    public int[] computeAll(@NotNull final CharSequence query, @NotNull final List<? extends CharSequence> candidates) {
+        final int[] editDistances = new int[Objects.requireNonNull(candidates).size()];
+        computeAll(query, candidates, costModel, algorithm, editDistances, 0);
+        return editDistances;
+    }
+
+    /**
+     * Like {@link #computeAll(CharSequence, List)}, but candidates are split among the threads of
+     * the {@link ForkJoinPool#commonPool() common pool}.
+     *
+     * @param query      The starting word.
+     * @param candidates The target words.
+     * @return See {@link #computeAll(CharSequence, List)}.
+     */
+    @NotNull
+    public int[] computeAllInParallel(
+            @NotNull final CharSequence query, @NotNull final List<? extends CharSequence> candidates) {
+        return computeAllInParallel(query, candidates, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Like {@link #computeAll(CharSequence, List)}, but candidates are split in contiguous chunks
+     * processed in parallel on the given {@link ForkJoinPool}. Each task uses its own workspace
+     * (with the same costs and algorithm of this instance) and processes the query once, hence this
+     * instance is not used and the given list must not be modified during the computation.
+     *
+     * @param query        The starting word.
+     * @param candidates   The target words.
+     * @param forkJoinPool The {@link ForkJoinPool} where candidates are processed.
+     * @return See {@link #computeAll(CharSequence, List)}.
+     */
+    @NotNull
+    public int[] computeAllInParallel(
+            @NotNull final CharSequence query, @NotNull final List<? extends CharSequence> candidates,
+            @NotNull final ForkJoinPool forkJoinPool) {
+        return computeAllInParallel(query, candidates, costModel, algorithm, forkJoinPool);
+    }
+
+    /**
+     * @param query        The starting word.
+     * @param candidates   The target words.
+     * @param costModel    The costs of the {@link EditOperation}s.
+     * @param algorithm    The algorithm to use (it must be applicable with the given costs).
+     * @param forkJoinPool The {@link ForkJoinPool} where candidates are processed.
+     * @return See {@link #computeAllInParallel(CharSequence, List, ForkJoinPool)}.
+     */
+    @NotNull
+    static int[] computeAllInParallel(
+            @NotNull final CharSequence query, @NotNull final List<? extends CharSequence> candidates,
+            @NotNull final EditCostModel costModel, @NotNull final EditDistanceAlgorithm algorithm,
+            @NotNull final ForkJoinPool forkJoinPool) {
+        Objects.requireNonNull(query);
+        Objects.requireNonNull(forkJoinPool);
+        final int numberOfCandidates = Objects.requireNonNull(candidates).size();
+        final int[] editDistances = new int[numberOfCandidates];
+        final int numberOfTasks = Math.max(1, Math.min(
+                numberOfCandidates / MIN_CANDIDATES_PER_TASK, TASKS_PER_THREAD * forkJoinPool.getParallelism()));
+        final List<ForkJoinTask<?>> tasks = new ArrayList<>(numberOfTasks);
+        for (int t = 0; t < numberOfTasks; t++) {
+            final int from = (int) ((long) numberOfCandidates * t / numberOfTasks);
+            final int to = (int) ((long) numberOfCandidates * (t + 1) / numberOfTasks);
+            tasks.add(ForkJoinTask.adapt(() -> new EditDistanceEngine(costModel, algorithm)
+                    .computeAll(query, candidates.subList(from, to), costModel, algorithm, editDistances, from)));
+        }
+        forkJoinPool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(tasks)));
+        return editDistances;
+    }
+
+    /**
+     * Saves in the given array the edit distances from the query to each of the candidates.
+     *
+     * @param query         The starting word.
+     * @param candidates    The target words.
+     * @param costModel     The costs of the {@link EditOperation}s.
+     * @param algorithm     The algorithm to use (it must be applicable with the given costs).
+     * @param editDistances The array where the results are saved.
+     * @param offset        The index in the array of the result for the first candidate.
+     */
+    void computeAll(@NotNull final CharSequence query, @NotNull final List<? extends CharSequence> candidates,
+                    @NotNull final EditCostModel costModel, @NotNull final EditDistanceAlgorithm algorithm,
+                    final int[] editDistances, final int offset) {
+        Objects.requireNonNull(costModel);
+        Objects.requireNonNull(candidates);
+        final int n = loadStartingWord(query);
+        int i = offset;
+        if (algorithm == EditDistanceAlgorithm.BIT_PARALLEL) {
+            if (n == 0) {   // only insertions, with unitary costs
+                for (CharSequence candidate : candidates) {
+                    final ComputationEvent event = new ComputationEvent();
+                    event.begin();
+                    final long startTime = EditDistanceMetrics.startMeasurement();
+                    final int m = Objects.requireNonNull(candidate).length();
+                    editDistances[i++] = m;
+                    EditDistanceMetrics.record(event, startTime, EditDistanceMetrics.Engine.BIT_PARALLEL,
+                            n, m, 0, false, m);
+                }
+                return;
+            }
+            patternMasks.encode(startingWord, n);
+            final int numberOfBlocks = patternMasks.getNumberOfBlocks();
+            final int requiredBitVectors = BitParallelEditDistanceCalculator.NUMBER_OF_BIT_VECTORS * numberOfBlocks;
+            if (bitVectors.length < requiredBitVectors) {
+                bitVectors = new long[Math.max(requiredBitVectors, 2 * bitVectors.length)];
+            }
+            for (CharSequence candidate : candidates) {
+                final ComputationEvent event = new ComputationEvent();
+                event.begin();
+                final long startTime = EditDistanceMetrics.startMeasurement();
+                final int m = loadTargetWord(candidate);
+                final int editDistance = numberOfBlocks == 1
+                        ? BitParallelEditDistanceCalculator.computeEditDistanceSingleBlock(
+                        patternMasks, targetWord, m, false, costModel)
+                        : BitParallelEditDistanceCalculator.computeEditDistanceMultipleBlocks(
+                        patternMasks, targetWord, m, false, bitVectors, costModel);
+                editDistances[i++] = editDistance;
+                EditDistanceMetrics.record(event, startTime, EditDistanceMetrics.Engine.BIT_PARALLEL,
+                        n, m, (long) n * m, false, editDistance);
+            }
+        } else {
+            // the query is along the columns: its first row and substitution keys are the same for all candidates
+            final int numberOfColumns = n + 1;
+            prepareRowFilling(costModel, true, startingWord, n);
+            if (firstRowOfQuery.length < numberOfColumns) {
+                firstRowOfQuery = new int[Math.max(numberOfColumns, 2 * firstRowOfQuery.length)];
+            }
+            for (int j = 0; j < numberOfColumns; j++) {
+                firstRowOfQuery[j] = j * costOfMovingAlongRow;
+            }
+            final int[] rows = getRows(numberOfColumns);
+            for (CharSequence candidate : candidates) {
+                final ComputationEvent event = new ComputationEvent();
+                event.begin();
+                final long startTime = EditDistanceMetrics.startMeasurement();
+                final int m = loadTargetWord(candidate);
+                System.arraycopy(firstRowOfQuery, 0, rows, numberOfColumns, numberOfColumns);
+                final int editDistance = fillRollingRows(n, m, true, costModel);
+                editDistances[i++] = editDistance;
+                EditDistanceMetrics.record(event, startTime, EditDistanceMetrics.Engine.DYNAMIC_PROGRAMMING,
+                        n, m, (long) n * m, false, editDistance);
+            }
+        }
+    }
+
+    /**
+     * Finds the k candidates closest to the given query. The closest candidates found so far are kept
+     * in a bounded heap and, once it is full, each following candidate is compared within the
+     * edit distance of the worst of them (see {@link #computeWithin(CharSequence, CharSequence, int)}),
+     * so most comparisons stop as soon as the candidate cannot enter the heap.
+     *
+     * @param query      The starting word.
+     * @param candidates The target words.
+     * @param k          The number of candidates to find (positive).
+     * @return the k candidates closest to the query (or all of them, if they are fewer), with their
+     * edit distances, ordered by increasing edit distance and then by position in the given list
+     * (candidates as close as the k-th one but after it are not returned).
+     * @throws IllegalArgumentException if k is not positive.
+     */
+    @NotNull
+    public List<DictionaryMatch> nearest(@NotNull final CharSequence query,
+                                         @NotNull final List<? extends CharSequence> candidates, final int k) {
+        return nearest(query, candidates, k, costModel, algorithm);
+    }
+
+    /**
+     * @param query      The starting word.
+     * @param candidates The target words.
+     * @param k          The number of candidates to find (positive).
+     * @param costModel  The costs of the {@link EditOperation}s.
+     * @param algorithm  The algorithm to use until k candidates have been found (it must be applicable
+     *                   with the given costs).
+     * @return See {@link #nearest(CharSequence, List, int)}.
+     * @throws IllegalArgumentException if k is not positive.
+     */
+    @NotNull
+    List<DictionaryMatch> nearest(@NotNull final CharSequence query,
+                                  @NotNull final List<? extends CharSequence> candidates, final int k,
+                                  @NotNull final EditCostModel costModel,
+                                  @NotNull final EditDistanceAlgorithm algorithm) {
+        Objects.requireNonNull(query);
+        final BoundedDistanceHeap nearestCandidates =
+                new BoundedDistanceHeap(k, Objects.requireNonNull(candidates).size());
+        offerNearest(query, candidates, 0, costModel, algorithm, nearestCandidates, null);
+        return nearestCandidates.toMatches(candidates);
+    }
+
+    /**
+     * Like {@link #nearest(CharSequence, List, int)}, but candidates are split among the threads of
+     * the {@link ForkJoinPool#commonPool() common pool}.
+     *
+     * @param query      The starting word.
+     * @param candidates The target words.
+     * @param k          The number of candidates to find (positive).
+     * @return See {@link #nearest(CharSequence, List, int)}.
+     * @throws IllegalArgumentException if k is not positive.
+     */
+    @NotNull
+    public List<DictionaryMatch> nearestInParallel(
+            @NotNull final CharSequence query, @NotNull final List<? extends CharSequence> candidates, final int k) {
+        return nearestInParallel(query, candidates, k, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Like {@link #nearest(CharSequence, List, int)}, but candidates are split in contiguous chunks
+     * processed in parallel on the given {@link ForkJoinPool}, as in
+     * {@link #computeAllInParallel(CharSequence, List, ForkJoinPool)}. Each task keeps its own heap and,
+     * once it is full, lowers the bound shared by all the tasks (an {@link AtomicInteger} updated without
+     * locks) to the edit distance of its worst candidate: a candidate farther than the shared bound cannot
+     * be among the k closest ones, hence the comparisons of each task stop within the lowest bound found
+     * by any task. The heaps of the tasks are merged at the end.
+     *
+     * @param query        The starting word.
+     * @param candidates   The target words.
+     * @param k            The number of candidates to find (positive).
+     * @param forkJoinPool The {@link ForkJoinPool} where candidates are processed.
+     * @return See {@link #nearest(CharSequence, List, int)}.
+     * @throws IllegalArgumentException if k is not positive.
+     */
+    @NotNull
+    public List<DictionaryMatch> nearestInParallel(
+            @NotNull final CharSequence query, @NotNull final List<? extends CharSequence> candidates, final int k,
+            @NotNull final ForkJoinPool forkJoinPool) {
+        return nearestInParallel(query, candidates, k, costModel, algorithm, forkJoinPool);
+    }
+
+    /**
+     * @param query        The starting word.
+     * @param candidates   The target words.
+     * @param k            The number of candidates to find (positive).
+     * @param costModel    The costs of the {@link EditOperation}s.
+     * @param algorithm    The algorithm to use until k candidates have been found (it must be applicable
+     *                     with the given costs).
+     * @param forkJoinPool The {@link ForkJoinPool} where candidates are processed.
+     * @return See {@link #nearest(CharSequence, List, int)}.
+     * @throws IllegalArgumentException if k is not positive.
+     */
+    @NotNull
+    static List<DictionaryMatch> nearestInParallel(
+            @NotNull final CharSequence query, @NotNull final List<? extends CharSequence> candidates, final int k,
+            @NotNull final EditCostModel costModel, @NotNull final EditDistanceAlgorithm algorithm,
+            @NotNull final ForkJoinPool forkJoinPool) {
+        Objects.requireNonNull(query);
+        Objects.requireNonNull(forkJoinPool);
+        final int numberOfCandidates = Objects.requireNonNull(candidates).size();
+        final BoundedDistanceHeap nearestCandidates = new BoundedDistanceHeap(k, numberOfCandidates);
+        final int numberOfTasks = Math.max(1, Math.min(
+                numberOfCandidates / MIN_CANDIDATES_PER_TASK, TASKS_PER_THREAD * forkJoinPool.getParallelism()));
+        final AtomicInteger sharedBound = new AtomicInteger(INFINITY);
+        final BoundedDistanceHeap[] nearestCandidatesOfTasks = new BoundedDistanceHeap[numberOfTasks];
+        final List<ForkJoinTask<?>> tasks = new ArrayList<>(numberOfTasks);
+        for (int t = 0; t < numberOfTasks; t++) {
+            final int from = (int) ((long) numberOfCandidates * t / numberOfTasks);
+            final int to = (int) ((long) numberOfCandidates * (t + 1) / numberOfTasks);
+            // capped by all the candidates, not by the ones of the task: a task must not lower the shared
+            // bound when its heap holds all its candidates but fewer than the k closest ones
+            final BoundedDistanceHeap nearestCandidatesOfTask = new BoundedDistanceHeap(k, numberOfCandidates);
+            nearestCandidatesOfTasks[t] = nearestCandidatesOfTask;
+            tasks.add(ForkJoinTask.adapt(() -> new EditDistanceEngine(costModel, algorithm).offerNearest(
+                    query, candidates.subList(from, to), from, costModel, algorithm,
+                    nearestCandidatesOfTask, sharedBound)));
+        }
+        forkJoinPool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(tasks)));
+        for (BoundedDistanceHeap nearestCandidatesOfTask : nearestCandidatesOfTasks) {
+            nearestCandidates.offerAll(nearestCandidatesOfTask);
+        }
+        return nearestCandidates.toMatches(candidates);
+    }
+
+    /**
+     * Offers the given candidates to the given heap, rejecting each one as soon as it cannot enter the heap
+     * (or exceeds the shared bound, if any): first by the difference of the lengths of the words
+     * (see {@link EditDistanceFilterCascade#lengthDifference(EditCostModel)}), then by computing the edit
+     * distance within the bound. With {@link EditDistanceAlgorithm#BIT_PARALLEL} the query is encoded once
+     * and the edit distance of each candidate is computed in full, which is faster than the band.
+     *
+     * @param query             The starting word.
+     * @param candidates        The target words.
+     * @param offset            The index of the first candidate in the whole list of candidates.
+     * @param costModel         The costs of the {@link EditOperation}s.
+     * @param algorithm         The algorithm to use while no bound is known.
+     * @param nearestCandidates The heap of the closest candidates.
+     * @param sharedBound       The greatest edit distance of a candidate which can be among the closest ones,
+     *                          lowered by this method when the heap is full, or null if no bound is shared.
+     */
+    private void offerNearest(@NotNull final CharSequence query, @NotNull final List<? extends CharSequence> candidates,
+                              final int offset, @NotNull final EditCostModel costModel,
+                              @NotNull final EditDistanceAlgorithm algorithm,
+                              @NotNull final BoundedDistanceHeap nearestCandidates,
+                              @Nullable final AtomicInteger sharedBound) {
+        final EditDistanceFilterCascade.Stage lengthDifference = EditDistanceFilterCascade.lengthDifference(costModel);
+        final int n = query.length();
+        final boolean encodedQuery = algorithm == EditDistanceAlgorithm.BIT_PARALLEL && n > 0;
+        if (encodedQuery) {
+            loadStartingWord(query);
+            patternMasks.encode(startingWord, n);
+            final int requiredBitVectors =
+                    BitParallelEditDistanceCalculator.NUMBER_OF_BIT_VECTORS * patternMasks.getNumberOfBlocks();
+            if (bitVectors.length < requiredBitVectors) {
+                bitVectors = new long[Math.max(requiredBitVectors, 2 * bitVectors.length)];
+            }
+        }
+        int index = offset - 1;
+        for (CharSequence candidate : candidates) {
+            index++;
+            final int m = Objects.requireNonNull(candidate).length();
+            int maxDistance = INFINITY;
+            if (nearestCandidates.isFull()) {
+                // the following candidates have greater indexes: they must be strictly closer than the worst one
+                maxDistance = nearestCandidates.getWorstEditDistance() - 1;
+                if (maxDistance < 0) {
+                    return;
+                }
+            }
+            if (sharedBound != null) {
+                maxDistance = Math.min(maxDistance, sharedBound.get());
+            }
+            if (maxDistance != INFINITY
+                    && lengthDifference.lowerBound(query, 0, n, candidate, 0, m, maxDistance) > maxDistance) {
+                continue;
+            }
+            final int editDistance;
+            if (encodedQuery) {
+                final ComputationEvent event = new ComputationEvent();
+                event.begin();
+                final long startTime = EditDistanceMetrics.startMeasurement();
+                loadTargetWord(candidate);
+                editDistance = patternMasks.getNumberOfBlocks() == 1
+                        ? BitParallelEditDistanceCalculator.computeEditDistanceSingleBlock(
+                        patternMasks, targetWord, m, false, costModel)
+                        : BitParallelEditDistanceCalculator.computeEditDistanceMultipleBlocks(
+                        patternMasks, targetWord, m, false, bitVectors, costModel);
+                EditDistanceMetrics.record(event, startTime, EditDistanceMetrics.Engine.BIT_PARALLEL,
+                        n, m, (long) n * m, false, editDistance);
+            } else if (maxDistance == INFINITY) {
+                editDistance = compute(query, candidate, costModel, algorithm);
+            } else {
+                editDistance = computeWithin(query, 0, n, candidate, 0, m, maxDistance, costModel);
+            }
+            if (editDistance <= maxDistance && nearestCandidates.offer(editDistance, index)
+                    && sharedBound != null && nearestCandidates.isFull()) {
+                sharedBound.accumulateAndGet(nearestCandidates.getWorstEditDistance(), Math::min);
+            }
+        }
+    }
+
+    /**
+     * Prepares this workspace to compute the edit distance from the given query to many words
+     * sharing prefixes, e.g., the words of a trie. The query is along the columns and the i-th row
+     * refers to the i-th letter of a word: the rows are saved one after the other, so the rows of a
+     * prefix are computed once and reused for all the words with that prefix
+     * (see {@link #fillRowOfQuery(int, int, int, int)}). The first row is computed by this method.
+     *
+     * @param query           The starting word.
+     * @param costModel       The costs of the {@link EditOperation}s.
+     * @param maxNumberOfRows The maximum number of rows (i.e., the length of the longest word plus 1).
+     */
+    void prepareRowsOfQuery(@NotNull final CharSequence query, @NotNull final EditCostModel costModel,
+                            final int maxNumberOfRows) {
+        final int n = loadStartingWord(query);
+        prepareRowFilling(Objects.requireNonNull(costModel), true, startingWord, n);
+        killCost = costModel.isKillEnabled() ? costModel.getCost(EditOperation.KILL) : INFINITY;
+        prepareFirstRowOfQuery(startingWord, n, maxNumberOfRows);
+    }
+
+    /**
+     * Like {@link #prepareRowsOfQuery(CharSequence, EditCostModel, int)}, but the given word is the
+     * target word and the i-th row refers to the i-th letter of the starting word, which can grow
+     * one letter at a time (see {@link IncrementalEditDistanceCalculator}). The
+     * {@link EditOperation#KILL} is not considered by {@link #getEditDistanceOfRowOfQuery(int)}, because
+     * it would kill the rest of the starting word, which is along the rows.
+     *
+     * @param targetWord      The target word.
+     * @param costModel       The costs of the {@link EditOperation}s.
+     * @param maxNumberOfRows The initial maximum number of rows (see {@link #growRowsOfQuery(int)}).
+     */
+    void prepareRowsOfTargetWord(@NotNull final CharSequence targetWord, @NotNull final EditCostModel costModel,
+                                 final int maxNumberOfRows) {
+        final int m = loadTargetWord(targetWord);
+        prepareRowFilling(Objects.requireNonNull(costModel), false, this.targetWord, m);
+        killCost = INFINITY;
+        prepareFirstRowOfQuery(this.targetWord, m, maxNumberOfRows);
+    }
+
+    /**
+     * Allocates the rows of the query and computes the first one.
+     *
+     * @param wordAlongColumns         The word whose letters index the columns of the rows.
+     * @param lengthOfWordAlongColumns The length of the word along the columns.
+     * @param maxNumberOfRows          The maximum number of rows.
+     */
+    private void prepareFirstRowOfQuery(final int[] wordAlongColumns, final int lengthOfWordAlongColumns,
+                                        final int maxNumberOfRows) {
+        wordAlongColumnsOfQuery = wordAlongColumns;
+        numberOfColumnsOfQuery = lengthOfWordAlongColumns + 1;
+        final int requiredLength = Math.multiplyExact(Math.max(1, maxNumberOfRows), numberOfColumnsOfQuery);
+        if (rows.length < requiredLength) {
+            rows = new int[Math.max(requiredLength, 2 * rows.length)];
+        }
+        for (int j = 0; j < numberOfColumnsOfQuery; j++) {
+            rows[j] = (int) Math.min((long) j * costOfMovingAlongRow, INFINITY);
+        }
+    }
+
+    /**
+     * Fills the i-th row of the query prepared by {@link #prepareRowsOfQuery(CharSequence, EditCostModel, int)},
+     * from the rows before it, which must have been computed for the same prefix.
+     *
+     * @param i              The index of the row to fill (at least 1).
+     * @param letter         The i-th letter of the word.
+     * @param previousLetter The letter before the i-th one, or -1 if i is 1.
+     * @param cap            The maximum value saved in a cell (greater values are saturated).
+     * @return the minimum among the cells of the row.
+     */
+    int fillRowOfQuery(final int i, final int letter, final int previousLetter, final int cap) {
+        final int currentRow = i * numberOfColumnsOfQuery;
+        final int previousRow = currentRow - numberOfColumnsOfQuery;
+        final int twoRowsAbove = i >= 2 ? previousRow - numberOfColumnsOfQuery : 0;
+        rows[currentRow] = (int) Math.min((long) i * costOfMovingAlongColumn, cap);
+        return Math.min(rows[currentRow], fillRow(currentRow, previousRow, twoRowsAbove, wordAlongColumnsOfQuery,
+                letter, previousLetter, 1, numberOfColumnsOfQuery - 1, cap));
+    }
+
+    /**
+     * Grows the buffer of the rows of the query, keeping the rows already filled.
+     *
+     * @param maxNumberOfRows The new maximum number of rows.
+     */
+    void growRowsOfQuery(final int maxNumberOfRows) {
+        final int requiredLength = Math.multiplyExact(maxNumberOfRows, numberOfColumnsOfQuery);
+        if (rows.length < requiredLength) {
+            rows = Arrays.copyOf(rows, Math.max(requiredLength, 2 * rows.length));
+        }
+    }
+
+    /**
+     * @param i The index of a row filled by {@link #fillRowOfQuery(int, int, int, int)}.
+     * @return the edit distance from the query to the word made by the first i letters of the current prefix
+     * (saturated to the cap used to fill the rows).
+     */
+    int getEditDistanceOfRowOfQuery(final int i) {
+        final int lastCell = (i + 1) * numberOfColumnsOfQuery - 1;
+        int editDistance = rows[lastCell];
+        if (killCost != INFINITY) { // kill the rest of the query after having transformed a prefix into the word
+            for (int j = i * numberOfColumnsOfQuery; j < lastCell; j++) {
+                editDistance = (int) Math.min(editDistance, (long) rows[j] + killCost);
+            }
+        }
+        return editDistance;
+    }
+
+    /**
+     * @return true if the {@link EditOperation#TWIDDLE} is considered for the rows of the query.
+     */
+    boolean isTwiddleUsedForRowsOfQuery() {
+        return useTwiddle;
+    }
+
+    /**
+     * @return the cost of the {@link EditOperation#TWIDDLE} for the rows of the query.
+     */
+    int getTwiddleCostForRowsOfQuery() {
+        return twiddleCost;
+    }
+
+    /**
+     * Fills the block <code>[fromRow, toRow) x [fromColumn, toColumn)</code> of the cost matrix from the
+     * starting word (along the rows) to the target word (along the columns), with the loop specialized for
+     * the kernel of the given cost model. The block reads the two rows above it and the two columns at its
+     * left (the only cells read by the {@link EditOperation}s, {@link EditOperation#TWIDDLE} included), then
+     * it saves its last two rows and its last two columns, to be read by the blocks below and at its right.
+     * Rows are indexed by the column plus 1 (the first element refers to the column -1, which is never read)
+     * and columns are indexed by the row; the given columns are overwritten with the ones of this block.
+     * If <code>fromColumn</code> is 1, the saved rows include the column 0.
+     *
+     * @param costModel               The costs of the {@link EditOperation}s.
+     * @param startingWord            The starting word.
+     * @param targetWord              The target word.
+     * @param secondRowAboveBlock     The row <code>fromRow-2</code> (not read if <code>fromRow</code> is 1).
+     * @param rowAboveBlock           The row <code>fromRow-1</code>.
+     * @param secondToLastRowOfBlock  Where the row <code>toRow-2</code> is saved.
+     * @param lastRowOfBlock          Where the row <code>toRow-1</code> is saved.
+     * @param secondColumnLeftOfBlock The column <code>fromColumn-2</code> (not read if <code>fromColumn</code>
+     *                                is 1), overwritten with the column <code>toColumn-2</code>.
+     * @param columnLeftOfBlock       The column <code>fromColumn-1</code>, overwritten with the column
+     *                                <code>toColumn-1</code>.
+     * @param fromRow                 The first row of the block (at least 1).
+     * @param toRow                   The row after the last one of the block.
+     * @param fromColumn              The first column of the block (at least 1).
+     * @param toColumn                The column after the last one of the block.
+     * @return the minimum among the cells of the last column of the block, excluding the last row of the
+     * cost matrix (i.e., the cells from which the starting word can be killed, if this is the last column).
+     */
+    int fillBlock(@NotNull final EditCostModel costModel, final int[] startingWord, final int[] targetWord,
+                  final int[] secondRowAboveBlock, final int[] rowAboveBlock,
+                  final int[] secondToLastRowOfBlock, final int[] lastRowOfBlock,
+                  final int[] secondColumnLeftOfBlock, final int[] columnLeftOfBlock,
+                  final int fromRow, final int toRow, final int fromColumn, final int toColumn) {
+        // local column L refers to the column fromColumn-2+L, whose letter is lettersOfBlock[L-1]
+        final int width = toColumn - fromColumn + 2;
+        if (lettersOfBlock.length < width - 1) {
+            lettersOfBlock = new int[Math.max(width - 1, 2 * lettersOfBlock.length)];
+        }
+        lettersOfBlock[0] = fromColumn >= 2 ? targetWord[fromColumn - 2] : -1;  // no letter: no twiddle
+        System.arraycopy(targetWord, fromColumn - 1, lettersOfBlock, 1, width - 2);
+        prepareRowFilling(costModel, false, lettersOfBlock, width - 1);
+        final int[] rows = getRows(width);
+
+        int twoRowsAbove = 0;
+        int previousRow = width;
+        int currentRow = 2 * width;
+        System.arraycopy(secondRowAboveBlock, fromColumn - 1, rows, twoRowsAbove, width);
+        System.arraycopy(rowAboveBlock, fromColumn - 1, rows, previousRow, width);
+        int minCostOfLastColumn = INFINITY;
+        for (int i = fromRow; i < toRow; i++) {
+            rows[currentRow] = secondColumnLeftOfBlock[i];
+            rows[currentRow + 1] = columnLeftOfBlock[i];
+            fillRow(currentRow, previousRow, twoRowsAbove, lettersOfBlock,
+                    startingWord[i - 1], i >= 2 ? startingWord[i - 2] : -1, 2, width - 1, INFINITY);
+            secondColumnLeftOfBlock[i] = rows[currentRow + width - 2];
+            columnLeftOfBlock[i] = rows[currentRow + width - 1];
+            if (i < startingWord.length) {
+                minCostOfLastColumn = Math.min(minCostOfLastColumn, columnLeftOfBlock[i]);
+            }
+            int tmp = twoRowsAbove;
+            twoRowsAbove = previousRow;
+            previousRow = currentRow;
+            currentRow = tmp;
+        }
+        // the first block of the row saves also the column 0, which is not part of any block
+        final int firstSavedColumn = fromColumn == 1 ? 1 : 2;
+        System.arraycopy(rows, twoRowsAbove + firstSavedColumn,
+                secondToLastRowOfBlock, fromColumn - 1 + firstSavedColumn, width - firstSavedColumn);
+        System.arraycopy(rows, previousRow + firstSavedColumn,
+                lastRowOfBlock, fromColumn - 1 + firstSavedColumn, width - firstSavedColumn);
+        return minCostOfLastColumn;
+    }
+
+    /**
+     * Copies the given word in {@link #startingWord}, growing it if needed.
+     *
+     * @param word The word.
+     * @return the length of the word.
+     */
+    private int loadStartingWord(@NotNull final CharSequence word) {
+        final int length = Objects.requireNonNull(word).length();
+        copyLetters(word, 0, length, startingWordBuffer(length));
+        return length;
+    }
+
+    /**
+     * Copies the given word in {@link #targetWord}, growing it if needed.
+     *
+     * @param word The word.
+     * @return the length of the word.
+     */
+    private int loadTargetWord(@NotNull final CharSequence word) {
+        final int length = Objects.requireNonNull(word).length();
+        copyLetters(word, 0, length, targetWordBuffer(length));
+        return length;
+    }
+
+    /**
+     * @param length The length of the starting word.
+     * @return {@link #startingWord}, grown if needed to contain a word of the given length.
+     */
+    private int[] startingWordBuffer(final int length) {
+        if (startingWord.length < length) {
+            startingWord = new int[Math.max(length, 2 * startingWord.length)];
+        }
+        return startingWord;
+    }
+
+    /**
+     * @param length The length of the target word.
+     * @return {@link #targetWord}, grown if needed to contain a word of the given length.
+     */
+    private int[] targetWordBuffer(final int length) {
+        if (targetWord.length < length) {
+            targetWord = new int[Math.max(length, 2 * targetWord.length)];
+        }
+        return targetWord;
+    }
+
+    /**
+     * @param word        The sequence containing the word to copy.
+     * @param offset      The index of the first letter of the word.
+     * @param length      The length of the word.
+     * @param destination The buffer where the letters are copied (large enough).
+     */
+    private static void copyLetters(@NotNull final CharSequence word, final int offset, final int length,
+                                    final int[] destination) {
+        if (word instanceof String) {   // monomorphic call site for the most common case
+            final String string = (String) word;
+            for (int i = 0; i < length; i++) {
+                destination[i] = string.charAt(offset + i);
+            }
+        } else {
+            for (int i = 0; i < length; i++) {
+                destination[i] = word.charAt(offset + i);
+            }
+        }
+    }
+
+    /**
+     * @param word        The bytes containing the word to copy, in ISO-8859-1.
+     * @param offset      The index of the first letter of the word.
+     * @param length      The length of the word.
+     * @param destination The buffer where the letters are copied (large enough).
+     */
+    private static void copyLatin1Letters(final byte[] word, final int offset, final int length,
+                                          final int[] destination) {
+        for (int i = 0; i < length; i++) {
+            destination[i] = word[offset + i] & 0xFF;
+        }
+    }
+
+    /**
+     * @param word        The code points containing the word to copy.
+     * @param offset      The index of the first letter of the word.
+     * @param length      The length of the word.
+     * @param destination The buffer where the letters are copied (large enough).
+     * @throws IllegalArgumentException if a letter is not a valid code point.
+     */
+    private static void copyCodePoints(final int[] word, final int offset, final int length,
+                                       final int[] destination) {
+        for (int i = 0; i < length; i++) {
+            final int codePoint = word[offset + i];
+            if (!Character.isValidCodePoint(codePoint)) {
+                throw new IllegalArgumentException("Invalid code point: " + codePoint);
+            }
+            destination[i] = codePoint;
+        }
+    }
+
+    /**
+     * @param word        The word to copy.
+     * @param destination The buffer where the code points are copied (at least as long as the word).
+     * @return the number of code points of the word.
+     */
+    private static int copyCodePoints(@NotNull final CharSequence word, final int[] destination) {
+        int numberOfCodePoints = 0;
+        for (int i = 0, length = word.length(); i < length; i++) {
+            final char letter = word.charAt(i);
+            if (Character.isHighSurrogate(letter) && i + 1 < length && Character.isLowSurrogate(word.charAt(i + 1))) {
+                destination[numberOfCodePoints++] = Character.toCodePoint(letter, word.charAt(++i));
+            } else {
+                destination[numberOfCodePoints++] = letter;
+            }
+        }
+        return numberOfCodePoints;
+    }
+
+    /**
+     * @param numberOfColumns The number of columns of a row.
+     * @return the buffer for three rolling rows with the given number of columns.
+     */
+    private int[] getRows(final int numberOfColumns) {
+        if (rows.length < 3 * numberOfColumns) {
+            rows = new int[Math.max(3 * numberOfColumns, 2 * rows.length)];
+        }
+        return rows;
+    }
+
+    /**
+     * Saves in the fields of this instance the costs needed to fill the rows of the cost matrix.
+     *
+     * @param costModel                The costs of the {@link EditOperation}s.
+     * @param transposed               true if the rows refer to the target word.
+     * @param wordAlongColumns         The word whose letters index the columns of the cost matrix.
+     * @param lengthOfWordAlongColumns The length of the word along columns.
+     */
+    private void prepareRowFilling(@NotNull final EditCostModel costModel, final boolean transposed,
+                                   final int[] wordAlongColumns, final int lengthOfWordAlongColumns) {
+        kernel = costModel.getKernel();
+        copyCost = costModel.getCost(EditOperation.COPY);
+        replaceCost = costModel.getCost(EditOperation.REPLACE);
+        twiddleCost = costModel.getCost(EditOperation.TWIDDLE);
+        // with unitary costs, a twiddle costing more than 1 is never cheaper than two replacements
+        useTwiddle = costModel.isTwiddleEnabled() && (kernel != EditCostModel.Kernel.UNIT_COSTS || twiddleCost == 1);
+        costOfMovingAlongRow = costModel.getCost(transposed ? EditOperation.DELETE : EditOperation.INSERT);
+        costOfMovingAlongColumn = costModel.getCost(transposed ? EditOperation.INSERT : EditOperation.DELETE);
+
+        substitutionMatrix = costModel.getSubstitutionMatrix();
+        if (substitutionMatrix != null) {
+            // the cost of replacing the letter with index a with the letter with index b is at a*stride+b:
+            // keys are the addends, pre-multiplied for the letter of the starting word
+            final int stride = substitutionMatrix.getNumberOfIndexes();
+            substitutionCosts = substitutionMatrix.getCosts();
+            multiplierOfRowKeys = transposed ? 1 : stride;
+            if (substitutionKeys.length < lengthOfWordAlongColumns) {
+                substitutionKeys = new int[Math.max(lengthOfWordAlongColumns, 2 * substitutionKeys.length)];
+            }
+            final int multiplierOfColumnKeys = transposed ? stride : 1;
+            for (int j = 0; j < lengthOfWordAlongColumns; j++) {
+                substitutionKeys[j] = substitutionMatrix.getIndexOf(wordAlongColumns[j]) * multiplierOfColumnKeys;
+            }
+        } else {
+            substitutionCosts = null;
+        }
+    }
+
+    /**
+     * Fills the cells <code>[fromColumn, toColumn]</code> (with <code>fromColumn</code> at least 1)
+     * of a row of the cost matrix, with the loop specialized for the kernel saved by
+     * {@link #prepareRowFilling(EditCostModel, boolean, int[], int)}. The cells read from the
+     * previous rows must have been computed.
+     *
+     * @param currentRow             The offset in {@link #rows} of the row to fill.
+     * @param previousRow            The offset in {@link #rows} of the previous row.
+     * @param twoRowsAbove           The offset in {@link #rows} of the row before the previous one.
+     * @param wordAlongColumns       The word whose letters index the columns of the cost matrix.
+     * @param letterAlongRows        The letter of the row to fill.
+     * @param previousLetterAlongRows The letter of the previous row, or -1 for the first row.
+     * @param fromColumn             The first column to fill.
+     * @param toColumn               The last column to fill.
+     * @param cap                    The maximum value saved in a cell (greater values are saturated).
+     * @return the minimum among the filled cells, or the cap if no cell is filled.
+     */
+    private int fillRow(final int currentRow, final int previousRow, final int twoRowsAbove,
+                        final int[] wordAlongColumns, final int letterAlongRows, final int previousLetterAlongRows,
+                        final int fromColumn, final int toColumn, final int cap) {
+        switch (kernel) {
+            case UNIT_COSTS:
+                return fillRowWithUnitCosts(rows, currentRow, previousRow, twoRowsAbove, wordAlongColumns,
+                        letterAlongRows, previousLetterAlongRows, fromColumn, toColumn, useTwiddle, cap);
+            case WITHOUT_TWIDDLE:
+                return fillRowWithoutTwiddle(rows, currentRow, previousRow, wordAlongColumns, letterAlongRows,
+                        fromColumn, toColumn, copyCost, replaceCost,
+                        costOfMovingAlongRow, costOfMovingAlongColumn, cap);
+            case SUBSTITUTION_MATRIX:
+                return fillRowWithSubstitutionMatrix(rows, currentRow, previousRow, twoRowsAbove, wordAlongColumns,
+                        substitutionKeys, letterAlongRows, previousLetterAlongRows,
+                        substitutionCosts, substitutionMatrix.getIndexOf(letterAlongRows) * multiplierOfRowKeys,
+                        fromColumn, toColumn, copyCost, useTwiddle, twiddleCost,
+                        costOfMovingAlongRow, costOfMovingAlongColumn, cap);
+            default /*GENERAL*/:
+                return fillRowWithTwiddle(rows, currentRow, previousRow, twoRowsAbove, wordAlongColumns,
+                        letterAlongRows, previousLetterAlongRows, fromColumn, toColumn, copyCost, replaceCost,
+                        twiddleCost, costOfMovingAlongRow, costOfMovingAlongColumn, cap);
+        }
+    }
+
+    /**
+     * Loop of {@link #fillRow} for {@link EditCostModel.Kernel#UNIT_COSTS}.
+     */
+    private static int fillRowWithUnitCosts(
+            final int[] rows, final int currentRow, final int previousRow, final int twoRowsAbove,
+            final int[] wordAlongColumns, final int letterAlongRows, final int previousLetterAlongRows,
+            final int fromColumn, final int toColumn, final boolean useTwiddle, final int cap) {
+        int minCost = cap;
+        for (int j = fromColumn; j <= toColumn; j++) {
+            final int letterAlongColumns = wordAlongColumns[j - 1];
+            int cost = Math.min(rows[previousRow + j], rows[currentRow + j - 1]) + 1;
+            cost = Math.min(cost, rows[previousRow + j - 1] + (letterAlongRows == letterAlongColumns ? 0 : 1));
+            if (useTwiddle && j >= 2
+                    && letterAlongRows == wordAlongColumns[j - 2] && previousLetterAlongRows == letterAlongColumns) {
+                cost = Math.min(cost, rows[twoRowsAbove + j - 2] + 1);
+            }
+            cost = Math.min(cost, cap);
+            rows[currentRow + j] = cost;
+            minCost = Math.min(minCost, cost);
+        }
+        return minCost;
+    }
+
+    /**
+     * Loop of {@link #fillRow} for {@link EditCostModel.Kernel#WITHOUT_TWIDDLE}.
+     */
+    private static int fillRowWithoutTwiddle(
+            final int[] rows, final int currentRow, final int previousRow,
+            final int[] wordAlongColumns, final int letterAlongRows, final int fromColumn, final int toColumn,
+            final int copyCost, final int replaceCost, final int costOfMovingAlongRow,
+            final int costOfMovingAlongColumn, final int cap) {
+        int minCost = cap;
+        for (int j = fromColumn; j <= toColumn; j++) {
+            int cost = rows[previousRow + j - 1]
+                    + (letterAlongRows == wordAlongColumns[j - 1] ? copyCost : replaceCost);
+            cost = Math.min(cost, rows[previousRow + j] + costOfMovingAlongColumn);
+            cost = Math.min(cost, rows[currentRow + j - 1] + costOfMovingAlongRow);
+            cost = Math.min(cost, cap);
+            rows[currentRow + j] = cost;
+            minCost = Math.min(minCost, cost);
+        }
+        return minCost;
+    }
+
+    /**
+     * Loop of {@link #fillRow} for {@link EditCostModel.Kernel#GENERAL}.
+     */
+    private static int fillRowWithTwiddle(
+            final int[] rows, final int currentRow, final int previousRow, final int twoRowsAbove,
+            final int[] wordAlongColumns, final int letterAlongRows, final int previousLetterAlongRows,
+            final int fromColumn, final int toColumn, final int copyCost, final int replaceCost,
+            final int twiddleCost, final int costOfMovingAlongRow, final int costOfMovingAlongColumn, final int cap) {
+        int minCost = cap;
+        for (int j = fromColumn; j <= toColumn; j++) {
+            final int letterAlongColumns = wordAlongColumns[j - 1];
+            int cost = rows[previousRow + j - 1] + (letterAlongRows == letterAlongColumns ? copyCost : replaceCost);
+            if (j >= 2
+                    && letterAlongRows == wordAlongColumns[j - 2] && previousLetterAlongRows == letterAlongColumns) {
+                cost = Math.min(cost, rows[twoRowsAbove + j - 2] + twiddleCost);
+            }
+            cost = Math.min(cost, rows[previousRow + j] + costOfMovingAlongColumn);
+            cost = Math.min(cost, rows[currentRow + j - 1] + costOfMovingAlongRow);
+            cost = Math.min(cost, cap);
+            rows[currentRow + j] = cost;
+            minCost = Math.min(minCost, cost);
+        }
+        return minCost;
+    }
+
+    /**
+     * Loop of {@link #fillRow} for {@link EditCostModel.Kernel#SUBSTITUTION_MATRIX}: the cost of
+     * replacing the letter of the row with the j-th letter along the columns is at index
+     * <code>rowKey + substitutionKeys[j-1]</code> of the flattened substitution matrix.
+     */
+    private static int fillRowWithSubstitutionMatrix(
+            final int[] rows, final int currentRow, final int previousRow, final int twoRowsAbove,
+            final int[] wordAlongColumns, final int[] substitutionKeys,
+            final int letterAlongRows, final int previousLetterAlongRows,
+            final int[] substitutionCosts, final int rowKey, final int fromColumn, final int toColumn,
+            final int copyCost, final boolean useTwiddle, final int twiddleCost,
+            final int costOfMovingAlongRow, final int costOfMovingAlongColumn, final int cap) {
+        int minCost = cap;
+        for (int j = fromColumn; j <= toColumn; j++) {
+            final int letterAlongColumns = wordAlongColumns[j - 1];
+            int cost = rows[previousRow + j - 1] + (letterAlongRows == letterAlongColumns
+                    ? copyCost
+                    : substitutionCosts[rowKey + substitutionKeys[j - 1]]);
+            if (useTwiddle && j >= 2
+                    && letterAlongRows == wordAlongColumns[j - 2] && previousLetterAlongRows == letterAlongColumns) {
+                cost = Math.min(cost, rows[twoRowsAbove + j - 2] + twiddleCost);
+            }
+            cost = Math.min(cost, rows[previousRow + j] + costOfMovingAlongColumn);
+            cost = Math.min(cost, rows[currentRow + j - 1] + costOfMovingAlongRow);
+            cost = Math.min(cost, cap);
+            rows[currentRow + j] = cost;
+            minCost = Math.min(minCost, cost);
+        }
+        return minCost;
+    }
+
+    /**
+     * Computes the edit distance with the dynamic programming algorithm keeping three rolling
+     * rows of the length of the shorter word. The (virtual) cost matrix has one row for each
+     * letter of the longer word (plus the one for the empty word) and it is filled row by row.
+     *
+     * @param n         The length of the starting word.
+     * @param m         The length of the target word.
+     * @param costModel The costs of the {@link EditOperation}s.
+     * @return the edit distance.
+     */
+    private int computeWithRollingRows(final int n, final int m, @NotNull final EditCostModel costModel) {
+        // transposed: rows refer to the target word, hence insertions and deletions are swapped
+        final boolean transposed = n < m;
+        final int numberOfColumns = (transposed ? n : m) + 1;
+        prepareRowFilling(costModel, transposed, transposed ? startingWord : targetWord, numberOfColumns - 1);
+        final int[] rows = getRows(numberOfColumns);
+        for (int j = 0; j < numberOfColumns; j++) {
+            rows[numberOfColumns + j] = j * costOfMovingAlongRow;
+        }
+        return fillRollingRows(n, m, transposed, costModel);
+    }
+
+    /**
+     * Fills the rows of the cost matrix for {@link #computeWithRollingRows(int, int, EditCostModel)}.
+     * The costs must have been saved by {@link #prepareRowFilling(EditCostModel, boolean, int[], int)}
+     * and the first row must be in {@link #rows} at the offset equal to the number of columns.
+     *
+     * @param n          The length of the starting word.
+     * @param m          The length of the target word.
+     * @param transposed true if the rows refer to the target word.
+     * @param costModel  The costs of the {@link EditOperation}s.
+     * @return the edit distance.
+     */
+    private int fillRollingRows(final int n, final int m, final boolean transposed,
+                                @NotNull final EditCostModel costModel) {
+        final int[] wordAlongRows = transposed ? targetWord : startingWord;
+        final int[] wordAlongColumns = transposed ? startingWord : targetWord;
+        final int numberOfRows = (transposed ? m : n) + 1;
+        final int numberOfColumns = (transposed ? n : m) + 1;
+        final int[] rows = getRows(numberOfColumns);
+
+        // offsets of the rolling rows in the buffer
+        int twoRowsAbove = 0;
+        int previousRow = numberOfColumns;
+        int currentRow = 2 * numberOfColumns;
+
+        // cheapest cost of the cells from which the starting word can be killed
+        int minCostOfCellsFromWhichToKill = INFINITY;
+        if (!transposed && numberOfRows > 1) {
+            minCostOfCellsFromWhichToKill = rows[previousRow + numberOfColumns - 1];
+        }
+
+        for (int i = 1; i < numberOfRows; i++) {
+            rows[currentRow] = i * costOfMovingAlongColumn;
+            fillRow(currentRow, previousRow, twoRowsAbove, wordAlongColumns,
+                    wordAlongRows[i - 1], i >= 2 ? wordAlongRows[i - 2] : -1, 1, numberOfColumns - 1, INFINITY);
+            if (!transposed && i < numberOfRows - 1) {
+                minCostOfCellsFromWhichToKill =
+                        Math.min(minCostOfCellsFromWhichToKill, rows[currentRow + numberOfColumns - 1]);
+            }
+            int tmp = twoRowsAbove;
+            twoRowsAbove = previousRow;
+            previousRow = currentRow;
+            currentRow = tmp;
+        }
+        if (transposed) {    // the last row of the transposed matrix is the last column
+            for (int j = 0; j < numberOfColumns - 1; j++) {
+                minCostOfCellsFromWhichToKill = Math.min(minCostOfCellsFromWhichToKill, rows[previousRow + j]);
+            }
+        }
+
+        int editDistance = rows[previousRow + numberOfColumns - 1];
+        if (costModel.isKillEnabled() && minCostOfCellsFromWhichToKill != INFINITY) {
+            editDistance =
+                    Math.min(editDistance, minCostOfCellsFromWhichToKill + costModel.getCost(EditOperation.KILL));
+        }
+        return editDistance;
+    }
+
+    /**
+     * Computes the edit distance filling only the diagonal band of the (virtual) cost matrix
+     * which can be reached with a cost not greater than the threshold, and stops as soon as
+     * no cell can lead to a distance within the threshold.
+     *
+     * @param n           The length of the starting word.
+     * @param m           The length of the target word.
+     * @param maxDistance The threshold (non-negative and far from overflowing).
+     * @param costModel   The costs of the {@link EditOperation}s.
+     * @return the edit distance if it is not greater than the given threshold,
+     * <code>maxDistance + 1</code> otherwise.
+     */
+    private int computeWithinBand(final int n, final int m, final int maxDistance,
+                                  @NotNull final EditCostModel costModel) {
+        final int[] startingWord = this.startingWord;
+        final int[] targetWord = this.targetWord;
+        prepareRowFilling(costModel, false, targetWord, m);
+        final int deleteCost = costOfMovingAlongColumn;
+        final int insertCost = costOfMovingAlongRow;
+        final int killCost = costModel.isKillEnabled() ? costModel.getCost(EditOperation.KILL) : INFINITY;
+        final int exceeded = maxDistance + 1;  // all the costs greater than the threshold are saturated to this value
+
+        // cell (i,j) can be reached with a cost within the threshold only if lowestCol(i) <= j <= highestCol(i)
+        final int maxDistanceBelowDiagonal = deleteCost == 0 ? n : maxDistance / deleteCost;
+        final int maxDistanceAboveDiagonal = insertCost == 0 ? m : maxDistance / insertCost;
+        filledCellsOfBand = 0;
+        bandExitedEarly = true;
+        if (m - n > maxDistanceAboveDiagonal) {
+            return exceeded;    // too many insertions and killing the starting word cannot help
+        }
+        if (n - m > maxDistanceBelowDiagonal && killCost > maxDistance) {
+            return exceeded;    // too many deletions and killing the starting word costs too much
+        }
+
+        final int numberOfColumns = m + 1;
+        final int[] rows = getRows(numberOfColumns);
+        int twoRowsAbove = 0;
+        int previousRow = numberOfColumns;
+        int currentRow = 2 * numberOfColumns;
+        int highestColOfPreviousRow = Math.min(m, maxDistanceAboveDiagonal);
+        for (int j = 0; j <= highestColOfPreviousRow; j++) {
+            rows[previousRow + j] = (int) Math.min((long) j * insertCost, exceeded);
+        }
+        int minCostOfPreviousRow = rows[previousRow];
+
+        int minCostOfCellsFromWhichToKill = exceeded;
+        if (n > 0 && m <= highestColOfPreviousRow) {
+            minCostOfCellsFromWhichToKill = rows[previousRow + m];
+        }
+
+        final int lastRowToCompute = (int) Math.min(n, (long) m + maxDistanceBelowDiagonal);
+        boolean lastCellHasBeenComputed = n == 0;
+        int lastComputedRow = 0;
+        long filledCells = 0;
+        for (int i = 1; i <= lastRowToCompute; i++) {
+            final int lowestCol = Math.max(0, i - maxDistanceBelowDiagonal);
+            final int highestCol = (int) Math.min(m, (long) i + maxDistanceAboveDiagonal);
+            int minCostOfCurrentRow = exceeded;
+            if (lowestCol == 0) {
+                rows[currentRow] = (int) Math.min((long) i * deleteCost, exceeded);
+                minCostOfCurrentRow = rows[currentRow];
+            } else {
+                rows[currentRow + lowestCol - 1] = exceeded;    // outside the band: no insertion from there
+            }
+            if (highestColOfPreviousRow < highestCol) {
+                rows[previousRow + highestCol] = exceeded;      // outside the band: no deletion from there
+            }
+            minCostOfCurrentRow = Math.min(minCostOfCurrentRow,
+                    fillRow(currentRow, previousRow, twoRowsAbove, targetWord,
+                            startingWord[i - 1], i >= 2 ? startingWord[i - 2] : -1,
+                            Math.max(1, lowestCol), highestCol, exceeded));
+            filledCells += highestCol - Math.max(1, lowestCol) + 1;
+            lastComputedRow = i;
+            if (i < n && highestCol == m) {
+                minCostOfCellsFromWhichToKill = Math.min(minCostOfCellsFromWhichToKill, rows[currentRow + m]);
+            }
+            lastCellHasBeenComputed = i == n && highestCol == m;
+
+            boolean noCellOfNextRowsCanBeWithinTheThreshold =
+                    minCostOfCurrentRow > maxDistance
+                            && (!useTwiddle || (long) minCostOfPreviousRow + twiddleCost > maxDistance);
+            if (noCellOfNextRowsCanBeWithinTheThreshold) {
+                lastCellHasBeenComputed = false;
+                break;  // early exit
+            }
+
+            int tmp = twoRowsAbove;
+            twoRowsAbove = previousRow;
+            previousRow = currentRow;
+            currentRow = tmp;
+            highestColOfPreviousRow = highestCol;
+            minCostOfPreviousRow = minCostOfCurrentRow;
+        }
+
+        filledCellsOfBand = filledCells;
+        bandExitedEarly = lastComputedRow < n;
+
+        int editDistance = lastCellHasBeenComputed ? rows[previousRow + m] : exceeded;
+        if (costModel.isKillEnabled() && minCostOfCellsFromWhichToKill <= maxDistance) {
+            editDistance = (int) Math.min(editDistance, (long) minCostOfCellsFromWhichToKill + killCost);
+        }
+        return Math.min(editDistance, exceeded);
+    }
+
+    /**
+     * Computes the edit distance with {@link BitParallelEditDistanceCalculator}, encoding the shorter word.
+     *
+     * @param n         The length of the starting word.
+     * @param m         The length of the target word.
+     * @param costModel The costs of the {@link EditOperation}s.
+     * @return the edit distance.
+     */
+    private int computeWithBitParallelism(final int n, final int m, @NotNull final EditCostModel costModel) {
+        final boolean transposed = n > m;
+        final int[] encodedWord = transposed ? targetWord : startingWord;
+        final int lengthOfEncodedWord = transposed ? m : n;
+        final int[] scannedWord = transposed ? startingWord : targetWord;
+        final int lengthOfScannedWord = transposed ? n : m;
+        if (lengthOfEncodedWord == 0) {
+            return transposed ? BitParallelEditDistanceCalculator.costOfDeletingOrKilling(n, costModel) : m;
+        }
+        patternMasks.encode(encodedWord, lengthOfEncodedWord);
+        if (patternMasks.getNumberOfBlocks() == 1) {
+            return BitParallelEditDistanceCalculator.computeEditDistanceSingleBlock(
+                    patternMasks, scannedWord, lengthOfScannedWord, transposed, costModel);
+        }
+        final int requiredBitVectors =
+                BitParallelEditDistanceCalculator.NUMBER_OF_BIT_VECTORS * patternMasks.getNumberOfBlocks();
+        if (bitVectors.length < requiredBitVectors) {
+            bitVectors = new long[Math.max(requiredBitVectors, 2 * bitVectors.length)];
+        }
+        return BitParallelEditDistanceCalculator.computeEditDistanceMultipleBlocks(
+                patternMasks, scannedWord, lengthOfScannedWord, transposed, bitVectors, costModel);
+    }
+}
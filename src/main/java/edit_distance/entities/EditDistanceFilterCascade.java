@@ -0,0 +1,580 @@
+package edit_distance.entities;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Unmodifiable;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * An instance of this class computes edit distances within a threshold (like
+ * {@link EditDistanceCalculator#distanceWithin(String, String, int, EditCostModel)}) for batches of pairs,
+ * rejecting most of the pairs beyond the threshold before the dynamic programming runs.
+ * Each pair goes through:
+ * <ol>
+ *     <li>
+ *         the stripping of the common prefix and suffix, which do not change the edit distance if the
+ *         {@link EditOperation#COPY} is free (the suffix is not stripped if the {@link EditOperation#KILL}
+ *         is enabled, because it must be the last operation);
+ *     </li>
+ *     <li>
+ *         a cascade of {@link Stage}s, each one computing a lower bound of the edit distance: the first
+ *         bound greater than the threshold rejects the pair; cheap stages should come first;
+ *     </li>
+ *     <li>
+ *         the dynamic programming restricted to the diagonal band within the threshold
+ *         (see {@link EditDistanceEngine#computeWithin(CharSequence, CharSequence, int)}), for the survivors.
+ *     </li>
+ * </ol>
+ * Since the bounds are lower bounds, the results are identical to the ones of the unfiltered computation.
+ * The stages provided by this class ({@link #lengthDifference(EditCostModel)},
+ * {@link #letterHistogram(EditCostModel)} and {@link #qGrams(EditCostModel, int)}) do not allocate anything
+ * once their workspaces are large enough, and the number of pairs evaluated and rejected by each stage is
+ * counted (see {@link #getRejectionRate(int)}).
+ * <p/>
+ * Instances are <strong>not</strong> thread-safe, because the stages reuse their workspaces: use one
+ * instance per thread.
+ */
+public final class EditDistanceFilterCascade {
+
+    /**
+     * A stage of the cascade, computing a lower bound of the edit distance of a pair of words.
+     */
+    public interface Stage {
+
+        /**
+         * @return the name of this stage.
+         */
+        @NotNull
+        String getName();
+
+        /**
+         * Computes a lower bound of the edit distance between the given words: the bound can be any value
+         * greater than the threshold if the edit distance is greater than the threshold.
+         *
+         * @param startingWord   The sequence containing the starting word.
+         * @param startingOffset The index of the first letter of the starting word.
+         * @param startingLength The length of the starting word.
+         * @param targetWord     The sequence containing the target word.
+         * @param targetOffset   The index of the first letter of the target word.
+         * @param targetLength   The length of the target word.
+         * @param maxDistance    The threshold (non-negative).
+         * @return a lower bound of the edit distance from the starting word to the target word.
+         */
+        int lowerBound(@NotNull final CharSequence startingWord, final int startingOffset, final int startingLength,
+                       @NotNull final CharSequence targetWord, final int targetOffset, final int targetLength,
+                       final int maxDistance);
+    }
+
+    /**
+     * The greatest supported length of the q-grams: the letters of a q-gram are packed in a long.
+     */
+    public static final int MAX_Q = Long.SIZE / Character.SIZE;
+
+    /**
+     * The length of the q-grams of the stages used by {@link #EditDistanceFilterCascade(EditCostModel)}.
+     */
+    public static final int DEFAULT_Q = 2;
+
+    /**
+     * The costs of the {@link EditOperation}s.
+     */
+    @NotNull
+    private final EditCostModel costModel;
+
+    /**
+     * The stages, in order of evaluation.
+     */
+    @NotNull
+    private final Stage[] stages;
+
+    /**
+     * Flag set if the common prefix of the words is stripped.
+     */
+    private final boolean stripCommonPrefix;
+
+    /**
+     * Flag set if the common suffix of the words is stripped.
+     */
+    private final boolean stripCommonSuffix;
+
+    /**
+     * The number of pairs evaluated by each stage.
+     */
+    private final long[] evaluatedCounts;
+
+    /**
+     * The number of pairs rejected by each stage.
+     */
+    private final long[] rejectedCounts;
+
+    /**
+     * The number of pairs which survived all the stages (hence whose edit distance has been computed).
+     */
+    private long computedCount = 0;
+
+    /**
+     * The number of letters stripped from the words (as common prefix or suffix).
+     */
+    private long strippedLetterCount = 0;
+
+    /**
+     * Creates an instance with the stages {@link #lengthDifference(EditCostModel)},
+     * {@link #letterHistogram(EditCostModel)} and {@link #qGrams(EditCostModel, int)} (of length
+     * {@link #DEFAULT_Q}), stripping the common prefix and suffix if this does not change the edit distance.
+     *
+     * @param costModel The costs of the {@link EditOperation}s.
+     */
+    public EditDistanceFilterCascade(@NotNull final EditCostModel costModel) {
+        this(costModel,
+                List.of(lengthDifference(costModel), letterHistogram(costModel), qGrams(costModel, DEFAULT_Q)),
+                canStripCommonAffixes(costModel));
+    }
+
+    /**
+     * Creates an instance with the given stages.
+     *
+     * @param costModel          The costs of the {@link EditOperation}s.
+     * @param stages             The stages, in order of evaluation (they must compute lower bounds
+     *                           for the given costs).
+     * @param stripCommonAffixes true to strip the common prefix and suffix of the words
+     *                           (the suffix is not stripped if the {@link EditOperation#KILL} is enabled).
+     * @throws IllegalArgumentException if the common affixes must be stripped but the
+     *                                  {@link EditOperation#COPY} is not free.
+     */
+    public EditDistanceFilterCascade(@NotNull final EditCostModel costModel, @NotNull final List<Stage> stages,
+                                     final boolean stripCommonAffixes) {
+        this.costModel = Objects.requireNonNull(costModel);
+        this.stages = Objects.requireNonNull(stages).toArray(new Stage[0]);
+        for (Stage stage : this.stages) {
+            Objects.requireNonNull(stage);
+        }
+        if (stripCommonAffixes && !canStripCommonAffixes(costModel)) {
+            throw new IllegalArgumentException("Common affixes cannot be stripped if the copy is not free.");
+        }
+        this.stripCommonPrefix = stripCommonAffixes;
+        this.stripCommonSuffix = stripCommonAffixes && !costModel.isKillEnabled();
+        this.evaluatedCounts = new long[this.stages.length];
+        this.rejectedCounts = new long[this.stages.length];
+    }
+
+    /**
+     * @param costModel The costs of the {@link EditOperation}s.
+     * @return true if stripping the common prefix of two words does not change their edit distance.
+     */
+    public static boolean canStripCommonAffixes(@NotNull final EditCostModel costModel) {
+        return costModel.getCost(EditOperation.COPY) == 0;
+    }
+
+    /**
+     * Computes the edit distance between two words if it does not exceed the given threshold.
+     *
+     * @param startingWord The starting word.
+     * @param targetWord   The target word.
+     * @param maxDistance  The threshold for the edit distance (must be non-negative).
+     * @return the edit distance if it is not greater than the given threshold,
+     * <code>maxDistance + 1</code> otherwise (as {@link EditDistanceCalculator#distanceWithin}).
+     * @throws IllegalArgumentException if the given threshold is negative.
+     */
+    public int computeWithin(@NotNull final CharSequence startingWord, @NotNull final CharSequence targetWord,
+                             final int maxDistance) {
+        if (maxDistance < 0) {
+            throw new IllegalArgumentException("The threshold cannot be negative, but " + maxDistance + " found.");
+        }
+        int startingOffset = 0;
+        int targetOffset = 0;
+        int startingLength = startingWord.length();
+        int targetLength = targetWord.length();
+        if (stripCommonPrefix) {
+            final int maxLength = Math.min(startingLength, targetLength);
+            int prefixLength = 0;
+            while (prefixLength < maxLength && startingWord.charAt(prefixLength) == targetWord.charAt(prefixLength)) {
+                prefixLength++;
+            }
+            startingOffset = prefixLength;
+            targetOffset = prefixLength;
+            startingLength -= prefixLength;
+            targetLength -= prefixLength;
+            strippedLetterCount += prefixLength;
+        }
+        if (stripCommonSuffix) {
+            final int maxLength = Math.min(startingLength, targetLength);
+            int suffixLength = 0;
+            while (suffixLength < maxLength && startingWord.charAt(startingOffset + startingLength - 1 - suffixLength)
+                    == targetWord.charAt(targetOffset + targetLength - 1 - suffixLength)) {
+                suffixLength++;
+            }
+            startingLength -= suffixLength;
+            targetLength -= suffixLength;
+            strippedLetterCount += suffixLength;
+        }
+        for (int k = 0; k < stages.length; k++) {
+            evaluatedCounts[k]++;
+            if (stages[k].lowerBound(startingWord, startingOffset, startingLength,
+                    targetWord, targetOffset, targetLength, maxDistance) > maxDistance) {
+                rejectedCounts[k]++;
+                return maxDistance + 1;
+            }
+        }
+        computedCount++;
+        return EditDistanceEngine.getThreadLocalInstance().computeWithin(startingWord, startingOffset, startingLength,
+                targetWord, targetOffset, targetLength, maxDistance, costModel);
+    }
+
+    /**
+     * Computes the edit distances from the given query to each of the given candidates, if they
+     * do not exceed the given threshold.
+     *
+     * @param query       The starting word.
+     * @param candidates  The target words.
+     * @param maxDistance The threshold for the edit distance (must be non-negative).
+     * @return the array whose i-th element is the result of {@link #computeWithin(CharSequence, CharSequence, int)}
+     * for the query and the i-th candidate.
+     * @throws IllegalArgumentException if the given threshold is negative.
+     */
+    @NotNull
+    public int[] computeAllWithin(@NotNull final CharSequence query,
+                                  @NotNull final List<? extends CharSequence> candidates, final int maxDistance) {
+        Objects.requireNonNull(query);
+        final int[] editDistances = new int[candidates.size()];
+        int i = 0;
+        for (CharSequence candidate : candidates) {
+            editDistances[i++] = computeWithin(query, Objects.requireNonNull(candidate), maxDistance);
+        }
+        return editDistances;
+    }
+
+    /**
+     * @return the costs of the {@link EditOperation}s.
+     */
+    @NotNull
+    public EditCostModel getCostModel() {
+        return costModel;
+    }
+
+    /**
+     * @return the stages, in order of evaluation.
+     */
+    @NotNull
+    @Unmodifiable
+    public List<Stage> getStages() {
+        return List.of(stages);
+    }
+
+    /**
+     * @param indexOfStage The index of a stage.
+     * @return the number of pairs evaluated by the stage (i.e., not rejected by the previous ones).
+     */
+    public long getEvaluatedCount(final int indexOfStage) {
+        return evaluatedCounts[indexOfStage];
+    }
+
+    /**
+     * @param indexOfStage The index of a stage.
+     * @return the number of pairs rejected by the stage.
+     */
+    public long getRejectedCount(final int indexOfStage) {
+        return rejectedCounts[indexOfStage];
+    }
+
+    /**
+     * @param indexOfStage The index of a stage.
+     * @return the fraction of the pairs evaluated by the stage which have been rejected
+     * (0 if no pair has been evaluated).
+     */
+    public double getRejectionRate(final int indexOfStage) {
+        final long evaluated = evaluatedCounts[indexOfStage];
+        return evaluated == 0 ? 0 : (double) rejectedCounts[indexOfStage] / evaluated;
+    }
+
+    /**
+     * @return the number of pairs which survived all the stages, hence whose edit distance has been computed.
+     */
+    public long getComputedCount() {
+        return computedCount;
+    }
+
+    /**
+     * @return the number of letters stripped from the words as common prefix or suffix (once per pair).
+     */
+    public long getStrippedLetterCount() {
+        return strippedLetterCount;
+    }
+
+    /**
+     * Resets the counters of the stages.
+     */
+    public void resetStatistics() {
+        Arrays.fill(evaluatedCounts, 0);
+        Arrays.fill(rejectedCounts, 0);
+        computedCount = 0;
+        strippedLetterCount = 0;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder description = new StringBuilder("EditDistanceFilterCascade{");
+        for (int k = 0; k < stages.length; k++) {
+            description.append(stages[k].getName()).append(": ").append(rejectedCounts[k]).append('/')
+                    .append(evaluatedCounts[k]).append(" rejected, ");
+        }
+        return description.append("computed=").append(computedCount)
+                .append(", strippedLetters=").append(strippedLetterCount).append('}').toString();
+    }
+
+    /**
+     * @param lowerBound A lower bound.
+     * @return the given bound, saturated to {@link Integer#MAX_VALUE}.
+     */
+    private static int saturate(final long lowerBound) {
+        return (int) Math.min(lowerBound, Integer.MAX_VALUE);
+    }
+
+    /**
+     * The difference of the lengths of the words must be filled by insertions (if the target word is longer)
+     * or by deletions or a {@link EditOperation#KILL} (if the starting word is longer).
+     *
+     * @param costModel The costs of the {@link EditOperation}s.
+     * @return a stage whose lower bound is the cost of adjusting the length of the starting word.
+     */
+    @NotNull
+    public static Stage lengthDifference(@NotNull final EditCostModel costModel) {
+        final int insertCost = costModel.getCost(EditOperation.INSERT);
+        final int deleteCost = costModel.getCost(EditOperation.DELETE);
+        final long killCost = costModel.isKillEnabled() ? costModel.getCost(EditOperation.KILL) : Long.MAX_VALUE;
+        return new Stage() {
+            @NotNull
+            @Override
+            public String getName() {
+                return "length difference";
+            }
+
+            @Override
+            public int lowerBound(@NotNull final CharSequence startingWord, final int startingOffset,
+                                  final int startingLength, @NotNull final CharSequence targetWord,
+                                  final int targetOffset, final int targetLength, final int maxDistance) {
+                return startingLength <= targetLength
+                        ? saturate((long) (targetLength - startingLength) * insertCost)
+                        : saturate(Math.min((long) (startingLength - targetLength) * deleteCost, killCost));
+            }
+        };
+    }
+
+    /**
+     * Comparing the number of occurrences of each letter in the two words, each letter of the starting word
+     * in excess must be deleted or replaced and each letter of the target word in excess must be inserted
+     * or must replace another letter ({@link EditOperation#TWIDDLE} does not change the occurrences);
+     * if the {@link EditOperation#KILL} is enabled, it can remove all the letters in excess of the starting
+     * word, but the ones in excess of the target word are still missing.
+     *
+     * @param costModel The costs of the {@link EditOperation}s.
+     * @return a stage whose lower bound is the cheapest way to balance the occurrences of the letters.
+     */
+    @NotNull
+    public static Stage letterHistogram(@NotNull final EditCostModel costModel) {
+        final int insertCost = costModel.getCost(EditOperation.INSERT);
+        final int deleteCost = costModel.getCost(EditOperation.DELETE);
+        final int replaceCost = costModel.getMinimumReplaceCost();
+        final boolean killEnabled = costModel.isKillEnabled();
+        final int killCost = costModel.getCost(EditOperation.KILL);
+        final GramCounts letterCounts = new GramCounts();
+        return new Stage() {
+            @NotNull
+            @Override
+            public String getName() {
+                return "letter histogram";
+            }
+
+            @Override
+            public int lowerBound(@NotNull final CharSequence startingWord, final int startingOffset,
+                                  final int startingLength, @NotNull final CharSequence targetWord,
+                                  final int targetOffset, final int targetLength, final int maxDistance) {
+                letterCounts.clear(startingLength);
+                for (int i = 0; i < startingLength; i++) {
+                    letterCounts.add(startingWord.charAt(startingOffset + i));
+                }
+                int matchedLetters = 0;
+                for (int j = 0; j < targetLength; j++) {
+                    if (letterCounts.remove(targetWord.charAt(targetOffset + j))) {
+                        matchedLetters++;
+                    }
+                }
+                final long lettersInExcessInStartingWord = startingLength - matchedLetters;
+                final long lettersInExcessInTargetWord = targetLength - matchedLetters;
+                final long replacements = Math.min(lettersInExcessInStartingWord, lettersInExcessInTargetWord);
+                long lowerBound = Math.min(   // the cost is linear in the number of replacements
+                        lettersInExcessInStartingWord * deleteCost + lettersInExcessInTargetWord * insertCost,
+                        replacements * replaceCost
+                                + (lettersInExcessInStartingWord - replacements) * deleteCost
+                                + (lettersInExcessInTargetWord - replacements) * insertCost);
+                if (killEnabled) {
+                    lowerBound = Math.min(lowerBound,
+                            killCost + lettersInExcessInTargetWord * Math.min(insertCost, replaceCost));
+                }
+                return saturate(lowerBound);
+            }
+        };
+    }
+
+    /**
+     * The q-gram lemma: each {@link EditOperation} other than the {@link EditOperation#COPY} destroys
+     * (and creates) at most <i>q</i> of the <i>n-q+1</i> q-grams (substrings of length <i>q</i>) of a word
+     * of length <i>n</i>, or <i>q+1</i> for the {@link EditOperation#TWIDDLE}, hence the number of q-grams
+     * which are not shared by the two words bounds from below the number of operations; a
+     * {@link EditOperation#KILL}, if enabled, can destroy all of them.
+     *
+     * @param costModel The costs of the {@link EditOperation}s.
+     * @param q         The length of the q-grams, at least 1 and at most {@link #MAX_Q}.
+     * @return a stage whose lower bound is the minimum number of operations multiplied by the cheapest one.
+     * @throws IllegalArgumentException if the given length of the q-grams is not supported.
+     */
+    @NotNull
+    public static Stage qGrams(@NotNull final EditCostModel costModel, final int q) {
+        if (q < 1 || q > MAX_Q) {
+            throw new IllegalArgumentException("The length of the q-grams must be between 1 and " + MAX_Q
+                    + ", but " + q + " found.");
+        }
+        final long cheapestOperationCost = Math.min(costModel.getMinimumReplaceCost(), Math.min(
+                costModel.getCost(EditOperation.INSERT), Math.min(costModel.getCost(EditOperation.DELETE),
+                        costModel.isTwiddleEnabled() ? costModel.getCost(EditOperation.TWIDDLE) : Integer.MAX_VALUE)));
+        final int qGramsPerOperation = costModel.isTwiddleEnabled() ? q + 1 : q;
+        final long killCost = costModel.isKillEnabled() ? costModel.getCost(EditOperation.KILL) : Long.MAX_VALUE;
+        final long maskOfQGram = q == MAX_Q ? -1L : (1L << (Character.SIZE * q)) - 1;
+        final GramCounts qGramCounts = new GramCounts();
+        return new Stage() {
+            @NotNull
+            @Override
+            public String getName() {
+                return q + "-grams";
+            }
+
+            @Override
+            public int lowerBound(@NotNull final CharSequence startingWord, final int startingOffset,
+                                  final int startingLength, @NotNull final CharSequence targetWord,
+                                  final int targetOffset, final int targetLength, final int maxDistance) {
+                final int qGramsOfStartingWord = Math.max(0, startingLength - q + 1);
+                final int qGramsOfTargetWord = Math.max(0, targetLength - q + 1);
+                qGramCounts.clear(qGramsOfStartingWord);
+                long qGram = 0;
+                for (int i = 0; i < startingLength; i++) {
+                    qGram = (qGram << Character.SIZE | startingWord.charAt(startingOffset + i)) & maskOfQGram;
+                    if (i >= q - 1) {
+                        qGramCounts.add(qGram);
+                    }
+                }
+                int sharedQGrams = 0;
+                qGram = 0;
+                for (int j = 0; j < targetLength; j++) {
+                    qGram = (qGram << Character.SIZE | targetWord.charAt(targetOffset + j)) & maskOfQGram;
+                    if (j >= q - 1 && qGramCounts.remove(qGram)) {
+                        sharedQGrams++;
+                    }
+                }
+                final int lostQGrams = Math.max(qGramsOfStartingWord, qGramsOfTargetWord) - sharedQGrams;
+                final long minNumberOfOperations = (lostQGrams + qGramsPerOperation - 1) / qGramsPerOperation;
+                return saturate(Math.min(minNumberOfOperations * cheapestOperationCost, killCost));
+            }
+        };
+    }
+
+    /**
+     * A multiset of q-grams (packed in longs), implemented as a hash table with linear probing which is
+     * cleared in constant time (the slots of the previous uses are recognized by their generation).
+     */
+    private static final class GramCounts {
+
+        /**
+         * The initial number of slots.
+         */
+        private static final int INITIAL_CAPACITY = 64;
+
+        /**
+         * The keys of the slots.
+         */
+        private long[] keys = new long[INITIAL_CAPACITY];
+
+        /**
+         * The numbers of occurrences of the keys of the slots.
+         */
+        private int[] counts = new int[INITIAL_CAPACITY];
+
+        /**
+         * The generation in which each slot has been used: a slot is empty unless its generation is the current one.
+         */
+        private int[] generations = new int[INITIAL_CAPACITY];
+
+        /**
+         * The current generation.
+         */
+        private int generation = 1;
+
+        /**
+         * The shift of the hash of a key giving its slot.
+         */
+        private int shift = Long.SIZE - Integer.numberOfTrailingZeros(INITIAL_CAPACITY);
+
+        /**
+         * Empties the multiset, growing the table if needed.
+         *
+         * @param maxNumberOfKeys The maximum number of keys which will be added.
+         */
+        void clear(final int maxNumberOfKeys) {
+            if (keys.length < 2 * maxNumberOfKeys) {    // load factor at most 1/2
+                final int capacity = Integer.highestOneBit(2 * maxNumberOfKeys - 1) << 1;
+                keys = new long[capacity];
+                counts = new int[capacity];
+                generations = new int[capacity];
+                generation = 0;
+                shift = Long.SIZE - Integer.numberOfTrailingZeros(capacity);
+            }
+            if (++generation == Integer.MAX_VALUE) {
+                Arrays.fill(generations, 0);
+                generation = 1;
+            }
+        }
+
+        /**
+         * @param key A key.
+         * @return the slot of the given key, or the empty slot where it would be added.
+         */
+        private int findSlot(final long key) {
+            final int mask = keys.length - 1;
+            int slot = (int) ((key * 0x9E3779B97F4A7C15L) >>> shift);
+            while (generations[slot] == generation && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        /**
+         * Adds an occurrence of the given key.
+         *
+         * @param key A key.
+         */
+        void add(final long key) {
+            final int slot = findSlot(key);
+            if (generations[slot] != generation) {
+                generations[slot] = generation;
+                keys[slot] = key;
+                counts[slot] = 0;
+            }
+            counts[slot]++;
+        }
+
+        /**
+         * Removes an occurrence of the given key, if any.
+         *
+         * @param key A key.
+         * @return true if an occurrence has been removed.
+         */
+        boolean remove(final long key) {
+            final int slot = findSlot(key);
+            if (generations[slot] == generation && counts[slot] > 0) {
+                counts[slot]--;
+                return true;
+            }
+            return false;
+        }
+    }
+}
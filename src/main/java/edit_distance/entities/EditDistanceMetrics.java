@@ -0,0 +1,326 @@
+package edit_distance.entities;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Instrumentation of the computations of edit distances, which can be left in the hot path because
+ * it costs almost nothing while it is disabled. Two independent surfaces are available:
+ * <ul>
+ *     <li>
+ *         counters and duration histograms for each {@link Engine}, accumulated in {@link LongAdder}s
+ *         (hence without contention among threads) while they are {@link #setEnabled(boolean) enabled}
+ *         and exposed by the getters of this class and by {@link #getMetricsAsText()}, in the text
+ *         format which is scraped by Prometheus; while they are disabled, a computation only reads a
+ *         volatile flag;
+ *     </li>
+ *     <li>
+ *         JDK Flight Recorder events named <code>edit_distance.Computation</code>, with the lengths of the
+ *         words, the filled cells, the engine, the duration and whether the result came from a cache or
+ *         from an early exit; they are emitted only while a recording is running.
+ *     </li>
+ * </ul>
+ * Computations are recorded by {@link EditDistanceEngine} (hence also by the static methods of
+ * {@link EditDistanceCalculator} and by the indexes using it), by the constructor of
+ * {@link EditDistanceCalculator} and by {@link EditDistanceCache} (for its hits).
+ */
+public final class EditDistanceMetrics {
+
+    /**
+     * The engines which can produce an edit distance.
+     */
+    public enum Engine {
+        /**
+         * {@link EditDistanceAlgorithm#DYNAMIC_PROGRAMMING} with rolling rows.
+         */
+        DYNAMIC_PROGRAMMING,
+        /**
+         * {@link EditDistanceAlgorithm#BIT_PARALLEL}.
+         */
+        BIT_PARALLEL,
+        /**
+         * {@link EditDistanceAlgorithm#WAVEFRONT}.
+         */
+        WAVEFRONT,
+        /**
+         * Dynamic programming restricted to the diagonal band within a threshold
+         * (see {@link EditDistanceEngine#computeWithin(CharSequence, CharSequence, int)}).
+         */
+        BANDED,
+        /**
+         * The full cost matrix and operation matrix of {@link EditDistanceCalculator}.
+         */
+        FULL_MATRIX,
+        /**
+         * A hit of an {@link EditDistanceCache}.
+         */
+        CACHE;
+
+        /**
+         * @param algorithm An algorithm.
+         * @return the engine of the given algorithm.
+         */
+        @NotNull
+        static Engine of(@NotNull final EditDistanceAlgorithm algorithm) {
+            switch (algorithm) {
+                case BIT_PARALLEL:
+                    return BIT_PARALLEL;
+                case WAVEFRONT:
+                    return WAVEFRONT;
+                default:
+                    return DYNAMIC_PROGRAMMING;
+            }
+        }
+    }
+
+    /**
+     * The number of buckets of the duration histograms: the i-th bucket counts the durations
+     * shorter than <i>2<sup>i</sup></i> nanoseconds and not shorter than <i>2<sup>i-1</sup></i>
+     * (the last bucket counts also the longer ones).
+     */
+    public static final int NUMBER_OF_DURATION_BUCKETS = 40;
+
+    /**
+     * The start time returned by {@link #startMeasurement()} while the counters are disabled.
+     */
+    static final long NOT_MEASURED = Long.MIN_VALUE;
+
+    /**
+     * The name of the engine label in {@link #getMetricsAsText()}.
+     */
+    private static final String ENGINE_LABEL = "{engine=\"";
+
+    /**
+     * Flag set if the counters are enabled.
+     */
+    private static volatile boolean enabled = false;
+
+    /**
+     * The number of computations of each {@link Engine} (by ordinal).
+     */
+    private static final LongAdder[] COMPUTATIONS = newAdders(Engine.values().length);
+
+    /**
+     * The number of filled cells of each {@link Engine} (by ordinal).
+     */
+    private static final LongAdder[] FILLED_CELLS = newAdders(Engine.values().length);
+
+    /**
+     * The sum of the durations in nanoseconds of each {@link Engine} (by ordinal).
+     */
+    private static final LongAdder[] DURATION_SUMS = newAdders(Engine.values().length);
+
+    /**
+     * The duration histogram of each {@link Engine}, one after the other.
+     */
+    private static final LongAdder[] DURATION_BUCKETS =
+            newAdders(Engine.values().length * NUMBER_OF_DURATION_BUCKETS);
+
+    /**
+     * The number of computations which stopped because the distance exceeded a threshold.
+     */
+    private static final LongAdder EARLY_EXITS = new LongAdder();
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private EditDistanceMetrics() {
+    }
+
+    /**
+     * @param length The number of adders.
+     * @return an array of new adders.
+     */
+    @NotNull
+    private static LongAdder[] newAdders(final int length) {
+        final LongAdder[] adders = new LongAdder[length];
+        for (int i = 0; i < length; i++) {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+
+    /**
+     * Enables or disables the counters and the histograms (the JFR events do not depend on this flag).
+     *
+     * @param enabled true to enable the counters.
+     */
+    public static void setEnabled(final boolean enabled) {
+        EditDistanceMetrics.enabled = enabled;
+    }
+
+    /**
+     * @return true if the counters and the histograms are enabled.
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @return the current time in nanoseconds if the counters are enabled, {@link #NOT_MEASURED} otherwise.
+     */
+    static long startMeasurement() {
+        return enabled ? System.nanoTime() : NOT_MEASURED;
+    }
+
+    /**
+     * Records a computation in the counters (if they were enabled when it started) and
+     * commits the given event (if it is enabled).
+     * The event must have been created and begun before the computation, as follows:
+     * <pre>
+     *     final ComputationEvent event = new ComputationEvent();
+     *     event.begin();
+     *     final long startTime = EditDistanceMetrics.startMeasurement();
+     *     // computation
+     *     EditDistanceMetrics.record(event, startTime, ...);
+     * </pre>
+     *
+     * @param event              The event begun before the computation.
+     * @param startTime          The value returned by {@link #startMeasurement()} before the computation.
+     * @param engine             The engine which produced the result.
+     * @param startingWordLength The length of the starting word.
+     * @param targetWordLength   The length of the target word.
+     * @param filledCells        The number of cells of the cost matrix which have been filled.
+     * @param earlyExit          true if the computation stopped because the distance exceeded a threshold.
+     * @param editDistance       The result.
+     */
+    static void record(@NotNull final ComputationEvent event, final long startTime, @NotNull final Engine engine,
+                       final int startingWordLength, final int targetWordLength, final long filledCells,
+                       final boolean earlyExit, final int editDistance) {
+        if (startTime != NOT_MEASURED) {
+            final long duration = System.nanoTime() - startTime;
+            final int e = engine.ordinal();
+            COMPUTATIONS[e].increment();
+            FILLED_CELLS[e].add(filledCells);
+            DURATION_SUMS[e].add(duration);
+            DURATION_BUCKETS[e * NUMBER_OF_DURATION_BUCKETS + bucketOf(duration)].increment();
+            if (earlyExit) {
+                EARLY_EXITS.increment();
+            }
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.startingWordLength = startingWordLength;
+            event.targetWordLength = targetWordLength;
+            event.filledCells = filledCells;
+            event.engine = engine.name();
+            event.cached = engine == Engine.CACHE;
+            event.earlyExit = earlyExit;
+            event.editDistance = editDistance;
+            event.commit();
+        }
+    }
+
+    /**
+     * @param duration A duration in nanoseconds.
+     * @return the index of the bucket of the given duration in a histogram.
+     */
+    private static int bucketOf(final long duration) {
+        return duration <= 0 ? 0 : Math.min(64 - Long.numberOfLeadingZeros(duration), NUMBER_OF_DURATION_BUCKETS - 1);
+    }
+
+    /**
+     * @param engine An engine.
+     * @return the number of computations of the given engine recorded while the counters were enabled.
+     */
+    public static long getComputationCount(@NotNull final Engine engine) {
+        return COMPUTATIONS[engine.ordinal()].sum();
+    }
+
+    /**
+     * @param engine An engine.
+     * @return the number of cells of the cost matrices filled by the given engine while the
+     * counters were enabled (the cells covered by a bit-vector count one each).
+     */
+    public static long getFilledCellCount(@NotNull final Engine engine) {
+        return FILLED_CELLS[engine.ordinal()].sum();
+    }
+
+    /**
+     * @param engine An engine.
+     * @return the histogram of the durations of the computations of the given engine recorded while the
+     * counters were enabled, with {@link #NUMBER_OF_DURATION_BUCKETS} buckets.
+     */
+    @NotNull
+    public static long[] getDurationHistogram(@NotNull final Engine engine) {
+        final long[] histogram = new long[NUMBER_OF_DURATION_BUCKETS];
+        for (int b = 0; b < NUMBER_OF_DURATION_BUCKETS; b++) {
+            histogram[b] = DURATION_BUCKETS[engine.ordinal() * NUMBER_OF_DURATION_BUCKETS + b].sum();
+        }
+        return histogram;
+    }
+
+    /**
+     * @return the number of computations which stopped because the distance exceeded a threshold,
+     * recorded while the counters were enabled.
+     */
+    public static long getEarlyExitCount() {
+        return EARLY_EXITS.sum();
+    }
+
+    /**
+     * Resets all the counters and the histograms.
+     */
+    public static void reset() {
+        for (LongAdder[] adders : new LongAdder[][]{COMPUTATIONS, FILLED_CELLS, DURATION_SUMS, DURATION_BUCKETS}) {
+            for (LongAdder adder : adders) {
+                adder.reset();
+            }
+        }
+        EARLY_EXITS.reset();
+    }
+
+    /**
+     * Returns the counters and the histograms in the text format of Prometheus:
+     * <code>edit_distance_computations_total</code>, <code>edit_distance_filled_cells_total</code> and
+     * <code>edit_distance_duration_nanoseconds</code> (a histogram with cumulative buckets) are labelled by
+     * engine (those without computations are omitted), while <code>edit_distance_early_exits_total</code>
+     * is global. Counters are read one after the other, hence they might be not consistent with each other
+     * while computations are running.
+     *
+     * @return the counters and the histograms in the text format of Prometheus.
+     */
+    @NotNull
+    public static String getMetricsAsText() {
+        final StringBuilder text = new StringBuilder();
+        text.append("# TYPE edit_distance_computations_total counter\n");
+        for (Engine engine : Engine.values()) {
+            final long computations = getComputationCount(engine);
+            if (computations > 0) {
+                text.append("edit_distance_computations_total").append(ENGINE_LABEL).append(engine).append("\"} ")
+                        .append(computations).append('\n');
+            }
+        }
+        text.append("# TYPE edit_distance_filled_cells_total counter\n");
+        for (Engine engine : Engine.values()) {
+            if (getComputationCount(engine) > 0) {
+                text.append("edit_distance_filled_cells_total").append(ENGINE_LABEL).append(engine).append("\"} ")
+                        .append(getFilledCellCount(engine)).append('\n');
+            }
+        }
+        text.append("# TYPE edit_distance_early_exits_total counter\n")
+                .append("edit_distance_early_exits_total ").append(getEarlyExitCount()).append('\n');
+        text.append("# TYPE edit_distance_duration_nanoseconds histogram\n");
+        for (Engine engine : Engine.values()) {
+            if (getComputationCount(engine) == 0) {
+                continue;
+            }
+            final long[] histogram = getDurationHistogram(engine);
+            long cumulativeCount = 0;
+            for (int b = 0; b < NUMBER_OF_DURATION_BUCKETS - 1; b++) {
+                cumulativeCount += histogram[b];
+                text.append("edit_distance_duration_nanoseconds_bucket").append(ENGINE_LABEL).append(engine)
+                        .append("\",le=\"").append((1L << b) - 1).append("\"} ").append(cumulativeCount).append('\n');
+            }
+            cumulativeCount += histogram[NUMBER_OF_DURATION_BUCKETS - 1];
+            text.append("edit_distance_duration_nanoseconds_bucket").append(ENGINE_LABEL).append(engine)
+                    .append("\",le=\"+Inf\"} ").append(cumulativeCount).append('\n');
+            text.append("edit_distance_duration_nanoseconds_sum").append(ENGINE_LABEL).append(engine).append("\"} ")
+                    .append(DURATION_SUMS[engine.ordinal()].sum()).append('\n');
+            text.append("edit_distance_duration_nanoseconds_count").append(ENGINE_LABEL).append(engine).append("\"} ")
+                    .append(cumulativeCount).append('\n');
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,228 @@
+package edit_distance.entities;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+
+/**
+ * The cost matrix and the operation matrix of an {@link EditDistanceCalculator}, saved in compact form:
+ * <ul>
+ *     <li>
+ *         the costs are saved row by row in a flat {@link MatrixStorage}, with 2 bytes per cell if
+ *         all the costs fit in a <code>short</code>, otherwise with 4 bytes;
+ *     </li>
+ *     <li>
+ *         the {@link EditOperation}s are packed row by row with {@link #BITS_PER_OPERATION} bits per cell
+ *         in <code>long</code>s ({@link #OPERATIONS_PER_WORD} cells per <code>long</code>, so that no cell
+ *         spans two of them).
+ *     </li>
+ * </ul>
+ * A cell costs 2 bytes and 3 bits instead of the 4 bytes of an <code>int</code> and the reference to an
+ * {@link EditOperation} (4 or 8 bytes) of the jagged arrays, without the header of each row.
+ * Only if a spill directory is given, the matrices with more than {@link #MAX_CELLS_ON_HEAP} cells are saved
+ * off-heap, in a temporary memory-mapped file of that directory
+ * (see {@link MatrixStorage.Mapped#temporary(Path, long, int)}); otherwise they are always saved in the heap.
+ */
+final class EditMatrices {
+
+    /**
+     * Number of bits used to encode an {@link EditOperation} (its ordinal).
+     */
+    static final int BITS_PER_OPERATION = 3;
+
+    /**
+     * Number of {@link EditOperation}s packed in a <code>long</code>.
+     */
+    static final int OPERATIONS_PER_WORD = Long.SIZE / BITS_PER_OPERATION;
+
+    /**
+     * Default maximum number of cells of matrices saved in the heap, if a spill directory is given.
+     */
+    static final long MAX_CELLS_ON_HEAP = 1L << 26;
+
+    /**
+     * Mask to extract an {@link EditOperation} from a <code>long</code>.
+     */
+    private static final long OPERATION_MASK = (1L << BITS_PER_OPERATION) - 1;
+
+    /**
+     * The values of {@link EditOperation}, cached to avoid the copy made by {@link EditOperation#values()}.
+     */
+    private static final EditOperation[] OPERATIONS = EditOperation.values();
+
+    /**
+     * The number of rows.
+     */
+    private final int numberOfRows;
+
+    /**
+     * The number of columns.
+     */
+    private final int numberOfColumns;
+
+    /**
+     * The costs, row by row.
+     */
+    @NotNull
+    private final MatrixStorage costs;
+
+    /**
+     * The packed operations, if they are saved in the heap (null otherwise).
+     */
+    private final long[] operations;
+
+    /**
+     * The packed operations, if they are saved off-heap (null otherwise).
+     */
+    private final MatrixStorage.Mapped mappedOperations;
+
+    /**
+     * Allocates the matrices, whose costs are initially 0 and whose operations are initially
+     * {@link EditOperation#COPY}.
+     *
+     * @param numberOfRows    The number of rows.
+     * @param numberOfColumns The number of columns.
+     * @param maxCost         An upper bound of the costs which will be saved.
+     * @param maxCellsOnHeap  The maximum number of cells of matrices saved in the heap, if a spill directory
+     *                        is given (larger ones are saved in a temporary memory-mapped file).
+     * @param spillDirectory  The directory of the temporary files, or null to save the matrices in the heap.
+     * @throws IllegalArgumentException if no spill directory is given and the matrices are too big for
+     *                                  an array.
+     * @throws UncheckedIOException     if the temporary file cannot be created.
+     */
+    EditMatrices(final int numberOfRows, final int numberOfColumns, final long maxCost, final long maxCellsOnHeap,
+                 @Nullable final Path spillDirectory) {
+        this.numberOfRows = numberOfRows;
+        this.numberOfColumns = numberOfColumns;
+        final long numberOfCells = (long) numberOfRows * numberOfColumns;
+        final long numberOfWords = (numberOfCells + OPERATIONS_PER_WORD - 1) / OPERATIONS_PER_WORD;
+        final int bytesPerCost = maxCost <= Short.MAX_VALUE ? Short.BYTES : Integer.BYTES;
+        if (spillDirectory == null && numberOfCells > MatrixStorage.MAX_ARRAY_LENGTH) {
+            throw new IllegalArgumentException("The matrices of " + numberOfCells
+                    + " cells are too big for the heap, a spill directory is required.");
+        }
+        if (spillDirectory == null || numberOfCells <= Math.min(maxCellsOnHeap, MatrixStorage.MAX_ARRAY_LENGTH)) {
+            costs = bytesPerCost == Short.BYTES
+                    ? new MatrixStorage.ShortArray((int) numberOfCells)
+                    : new MatrixStorage.IntArray((int) numberOfCells);
+            operations = new long[(int) numberOfWords];
+            mappedOperations = null;
+        } else {
+            try {
+                costs = MatrixStorage.Mapped.temporary(spillDirectory, numberOfCells, bytesPerCost);
+                mappedOperations = MatrixStorage.Mapped.temporary(spillDirectory, numberOfWords, Long.BYTES);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            operations = null;
+        }
+    }
+
+    /**
+     * @param i The index of the row.
+     * @param j The index of the column.
+     * @return the index of the cell in the storage.
+     */
+    private long indexOf(final int i, final int j) {
+        return (long) i * numberOfColumns + j;
+    }
+
+    /**
+     * @param i The index of the row.
+     * @param j The index of the column.
+     * @return the cost of the cell.
+     */
+    int getCost(final int i, final int j) {
+        return costs.get(indexOf(i, j));
+    }
+
+    /**
+     * @param i    The index of the row.
+     * @param j    The index of the column.
+     * @param cost The cost of the cell.
+     */
+    void setCost(final int i, final int j, final int cost) {
+        costs.set(indexOf(i, j), cost);
+    }
+
+    /**
+     * @param i The index of the row.
+     * @param j The index of the column.
+     * @return the operation of the cell.
+     */
+    @NotNull
+    EditOperation getOperation(final int i, final int j) {
+        final long word;
+        final int shift;
+        if (operations != null) {   // the index fits in an int
+            final int index = i * numberOfColumns + j;
+            word = operations[index / OPERATIONS_PER_WORD];
+            shift = index % OPERATIONS_PER_WORD * BITS_PER_OPERATION;
+        } else {
+            final long index = indexOf(i, j);
+            word = mappedOperations.getLong(index / OPERATIONS_PER_WORD);
+            shift = (int) (index % OPERATIONS_PER_WORD) * BITS_PER_OPERATION;
+        }
+        return OPERATIONS[(int) (word >>> shift & OPERATION_MASK)];
+    }
+
+    /**
+     * @param i         The index of the row.
+     * @param j         The index of the column.
+     * @param operation The operation of the cell.
+     */
+    void setOperation(final int i, final int j, @NotNull final EditOperation operation) {
+        if (operations != null) {   // the index fits in an int
+            final int index = i * numberOfColumns + j;
+            final int shift = index % OPERATIONS_PER_WORD * BITS_PER_OPERATION;
+            final int w = index / OPERATIONS_PER_WORD;
+            operations[w] = operations[w] & ~(OPERATION_MASK << shift) | (long) operation.ordinal() << shift;
+        } else {
+            final long index = indexOf(i, j);
+            final int shift = (int) (index % OPERATIONS_PER_WORD) * BITS_PER_OPERATION;
+            final long w = index / OPERATIONS_PER_WORD;
+            mappedOperations.setLong(w,
+                    mappedOperations.getLong(w) & ~(OPERATION_MASK << shift) | (long) operation.ordinal() << shift);
+        }
+    }
+
+    /**
+     * @return the number of rows.
+     */
+    int getNumberOfRows() {
+        return numberOfRows;
+    }
+
+    /**
+     * @return the number of columns.
+     */
+    int getNumberOfColumns() {
+        return numberOfColumns;
+    }
+
+    /**
+     * @return the number of bytes used to save each cost.
+     */
+    int getBytesPerCost() {
+        return costs.getBytesPerValue();
+    }
+
+    /**
+     * @return true if the matrices are saved off-heap, in a memory-mapped file.
+     */
+    boolean isOffHeap() {
+        return operations == null;
+    }
+
+    /**
+     * @return the number of bytes used to save the matrices (headers of the arrays excluded).
+     */
+    long getNumberOfBytes() {
+        final long numberOfCells = (long) numberOfRows * numberOfColumns;
+        return numberOfCells * getBytesPerCost()
+                + (numberOfCells + OPERATIONS_PER_WORD - 1) / OPERATIONS_PER_WORD * Long.BYTES;
+    }
+}
@@ -0,0 +1,456 @@
+package edit_distance.entities;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * An instance of this class represents, in a compact form, the sequence of
+ * {@link EditOperation}s applied to transform a starting word into a target word.
+ * Consecutive equal operations are run-length encoded in a <code>long</code>
+ * (operation and run length), hence a script costs a few bytes per run instead
+ * of an {@link AppliedEditOperation} per operation. The {@link AppliedEditOperation}s
+ * are created lazily, only if they are iterated.
+ * <p/>
+ * The initial {@link EditOperation#COPY} of the empty word symbol (the first element
+ * of the list returned by
+ * {@link EditDistanceCalculator#getSequenceOfOperationComputedToTransformStartingWordToTargetWord()})
+ * is not part of the runs: it is only returned by {@link #iterator()}.
+ */
+public final class EditScript implements Iterable<AppliedEditOperation> {
+
+    /**
+     * Number of bits used to encode the {@link EditOperation} in a run.
+     */
+    private static final int BITS_FOR_OPERATION = 3;
+
+    /**
+     * Mask to extract the {@link EditOperation} from a run.
+     */
+    private static final long OPERATION_MASK = (1L << BITS_FOR_OPERATION) - 1;
+
+    /**
+     * The values of {@link EditOperation}, cached to avoid the copy made by {@link EditOperation#values()}.
+     */
+    private static final EditOperation[] OPERATIONS = EditOperation.values();
+
+    /**
+     * Symbols used for the CIGAR-like representation, indexed by the ordinal of the {@link EditOperation}.
+     */
+    private static final char[] CIGAR_SYMBOLS = new char[OPERATIONS.length];
+
+    static {
+        CIGAR_SYMBOLS[EditOperation.COPY.ordinal()] = '=';
+        CIGAR_SYMBOLS[EditOperation.REPLACE.ordinal()] = 'X';
+        CIGAR_SYMBOLS[EditOperation.TWIDDLE.ordinal()] = 'T';
+        CIGAR_SYMBOLS[EditOperation.DELETE.ordinal()] = 'D';
+        CIGAR_SYMBOLS[EditOperation.INSERT.ordinal()] = 'I';
+        CIGAR_SYMBOLS[EditOperation.KILL.ordinal()] = 'K';
+    }
+
+    /**
+     * The runs of operations, in order of application.
+     */
+    private final long[] runs;
+
+    /**
+     * The length of the starting word (needed to know the position reached after a {@link EditOperation#KILL}).
+     */
+    private final int lengthOfStartingWord;
+
+    /**
+     * The {@link EditCostModel} used to compute the costs of the {@link AppliedEditOperation}s,
+     * or null to use the costs of {@link EditOperation}.
+     */
+    @Nullable
+    private final EditCostModel costModel;
+
+    /**
+     * The starting word, with an additional symbol at the beginning (i.e., the i-th letter is
+     * at index i), or null if {@link #costModel} is null.
+     */
+    @Nullable
+    private final char[] startingWord;
+
+    /**
+     * The target word, with an additional symbol at the beginning, or null if {@link #costModel} is null.
+     */
+    @Nullable
+    private final char[] targetWord;
+
+    /**
+     * Constructor.
+     *
+     * @param runs                 The runs of operations, in order of application.
+     * @param lengthOfStartingWord The length of the starting word.
+     * @param costModel            The {@link EditCostModel}, or null to use the costs of {@link EditOperation}.
+     * @param startingWord         The starting word (see {@link #startingWord}).
+     * @param targetWord           The target word (see {@link #targetWord}).
+     */
+    private EditScript(final long[] runs, final int lengthOfStartingWord, @Nullable final EditCostModel costModel,
+                       @Nullable final char[] startingWord, @Nullable final char[] targetWord) {
+        this.runs = runs;
+        this.lengthOfStartingWord = lengthOfStartingWord;
+        this.costModel = costModel;
+        this.startingWord = startingWord;
+        this.targetWord = targetWord;
+    }
+
+    /**
+     * Creates an instance by walking back iteratively (i.e., without recursion) through
+     * the matrix of the operations, from the last cell to the first one.
+     *
+     * @param operations Matrix which saves at position (i,j) the operation to transform the
+     *                   i-th letter of the starting word into the j-th letter of the target word
+     *                   (first row and first column refer to the empty word).
+     * @return the script corresponding to the given matrix.
+     */
+    @NotNull
+    public static EditScript fromOperationMatrix(@NotNull final EditOperation[][] operations) {
+        return fromOperationMatrix(operations, null, null, null);
+    }
+
+    /**
+     * Like {@link #fromOperationMatrix(EditOperation[][])}, but the costs of the {@link AppliedEditOperation}s
+     * are given by an {@link EditCostModel}.
+     *
+     * @param operations   See {@link #fromOperationMatrix(EditOperation[][])}.
+     * @param startingWord The starting word, with an additional symbol at the beginning (i.e., the i-th
+     *                     letter is at index i), or null if the cost model is null.
+     * @param targetWord   The target word, with an additional symbol at the beginning, or null if the cost
+     *                     model is null.
+     * @param costModel    The {@link EditCostModel}, or null to use the costs of {@link EditOperation}.
+     * @return the script corresponding to the given matrix.
+     */
+    @NotNull
+    static EditScript fromOperationMatrix(
+            @NotNull final EditOperation[][] operations, @Nullable final char[] startingWord,
+            @Nullable final char[] targetWord, @Nullable final EditCostModel costModel) {
+        Objects.requireNonNull(operations);
+        if (operations.length == 0 || operations[0].length == 0) {
+            return new EditScript(new long[0], 0, costModel, startingWord, targetWord);
+        }
+        return fromOperations((i, j) -> operations[i][j], operations.length, operations[0].length,
+                startingWord, targetWord, costModel);
+    }
+
+    /**
+     * Like {@link #fromOperationMatrix(EditOperation[][], char[], char[], EditCostModel)}, but the
+     * operations are read from the compact matrices of an {@link EditDistanceCalculator}.
+     *
+     * @param editMatrices The matrices of the costs and of the operations.
+     * @param startingWord See {@link #fromOperationMatrix(EditOperation[][], char[], char[], EditCostModel)}.
+     * @param targetWord   See {@link #fromOperationMatrix(EditOperation[][], char[], char[], EditCostModel)}.
+     * @param costModel    See {@link #fromOperationMatrix(EditOperation[][], char[], char[], EditCostModel)}.
+     * @return the script corresponding to the given matrices.
+     */
+    @NotNull
+    static EditScript fromEditMatrices(
+            @NotNull final EditMatrices editMatrices, @Nullable final char[] startingWord,
+            @Nullable final char[] targetWord, @Nullable final EditCostModel costModel) {
+        return fromOperations(editMatrices::getOperation, editMatrices.getNumberOfRows(),
+                editMatrices.getNumberOfColumns(), startingWord, targetWord, costModel);
+    }
+
+    /**
+     * The operation at a cell of a matrix of operations.
+     */
+    private interface OperationMatrix {
+
+        /**
+         * @param i The index of the row.
+         * @param j The index of the column.
+         * @return the operation at the given cell (null is considered as {@link EditOperation#KILL}).
+         */
+        @Nullable
+        EditOperation get(int i, int j);
+    }
+
+    /**
+     * Walks back iteratively through the given matrix of operations, from the last cell to the first one.
+     *
+     * @param operations      The matrix of operations.
+     * @param numberOfRows    The number of rows of the matrix (positive).
+     * @param numberOfColumns The number of columns of the matrix (positive).
+     * @param startingWord    See {@link #fromOperationMatrix(EditOperation[][], char[], char[], EditCostModel)}.
+     * @param targetWord      See {@link #fromOperationMatrix(EditOperation[][], char[], char[], EditCostModel)}.
+     * @param costModel       See {@link #fromOperationMatrix(EditOperation[][], char[], char[], EditCostModel)}.
+     * @return the script corresponding to the given matrix.
+     */
+    @NotNull
+    private static EditScript fromOperations(
+            @NotNull final OperationMatrix operations, final int numberOfRows, final int numberOfColumns,
+            @Nullable final char[] startingWord, @Nullable final char[] targetWord,
+            @Nullable final EditCostModel costModel) {
+        final int lengthOfStartingWord = numberOfRows - 1;
+        long[] runsInReverseOrder = new long[8];
+        int numberOfRuns = 0;
+        EditOperation operationOfCurrentRun = null;
+        long lengthOfCurrentRun = 0;
+
+        int i = numberOfRows - 1;
+        int j = numberOfColumns - 1;
+        while (i > 0 || j > 0) {
+            EditOperation operation = operations.get(i, j);
+            switch (operation == null ? EditOperation.KILL : operation) {
+                case COPY:
+                case REPLACE:
+                    i--;
+                    j--;
+                    break;
+                case TWIDDLE:
+                    i -= 2;
+                    j -= 2;
+                    break;
+                case DELETE:
+                    i--;
+                    break;
+                case INSERT:
+                    j--;
+                    break;
+                default /*KILL*/:
+                    operation = EditOperation.KILL;
+                    do {    // a single KILL removes all the cells marked with KILL in the last column
+                        i--;
+                    } while (operations.get(i, j) == EditOperation.KILL);
+                    break;
+            }
+            if (operation == operationOfCurrentRun) {
+                lengthOfCurrentRun++;
+            } else {
+                if (operationOfCurrentRun != null) {
+                    if (numberOfRuns == runsInReverseOrder.length) {
+                        runsInReverseOrder = Arrays.copyOf(runsInReverseOrder, 2 * numberOfRuns);
+                    }
+                    runsInReverseOrder[numberOfRuns++] = encodeRun(operationOfCurrentRun, lengthOfCurrentRun);
+                }
+                operationOfCurrentRun = operation;
+                lengthOfCurrentRun = 1;
+            }
+        }
+        if (operationOfCurrentRun != null) {
+            if (numberOfRuns == runsInReverseOrder.length) {
+                runsInReverseOrder = Arrays.copyOf(runsInReverseOrder, numberOfRuns + 1);
+            }
+            runsInReverseOrder[numberOfRuns++] = encodeRun(operationOfCurrentRun, lengthOfCurrentRun);
+        }
+
+        final long[] runs = new long[numberOfRuns];
+        for (int k = 0; k < numberOfRuns; k++) {
+            runs[k] = runsInReverseOrder[numberOfRuns - 1 - k];
+        }
+        return new EditScript(runs, lengthOfStartingWord, costModel, startingWord, targetWord);
+    }
+
+    /**
+     * @param operation The operation of the run.
+     * @param length    The number of consecutive operations in the run.
+     * @return the run encoded in a <code>long</code>.
+     */
+    private static long encodeRun(@NotNull final EditOperation operation, long length) {
+        return (length << BITS_FOR_OPERATION) | operation.ordinal();
+    }
+
+    /**
+     * @param run A run obtained from {@link #toRunLengthEncoding()}.
+     * @return the {@link EditOperation} of the given run.
+     */
+    @NotNull
+    public static EditOperation getOperationOfRun(long run) {
+        return OPERATIONS[(int) (run & OPERATION_MASK)];
+    }
+
+    /**
+     * @param run A run obtained from {@link #toRunLengthEncoding()}.
+     * @return the number of consecutive operations in the given run.
+     */
+    public static long getLengthOfRun(long run) {
+        return run >>> BITS_FOR_OPERATION;
+    }
+
+    /**
+     * @return a copy of the runs of operations, in order of application. Each run can be decoded
+     * with {@link #getOperationOfRun(long)} and {@link #getLengthOfRun(long)}.
+     */
+    public long[] toRunLengthEncoding() {
+        return Arrays.copyOf(runs, runs.length);
+    }
+
+    /**
+     * @param editOperation An {@link EditOperation}.
+     * @return the number of times the given operation is applied.
+     */
+    public long countOf(@NotNull final EditOperation editOperation) {
+        Objects.requireNonNull(editOperation);
+        long count = 0;
+        for (long run : runs) {
+            if (getOperationOfRun(run) == editOperation) {
+                count += getLengthOfRun(run);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return the number of operations applied.
+     */
+    public long getNumberOfOperations() {
+        long count = 0;
+        for (long run : runs) {
+            count += getLengthOfRun(run);
+        }
+        return count;
+    }
+
+    /**
+     * @return the first applied operation which is not a {@link EditOperation#COPY} (i.e., the
+     * first difference between the words), or null if the words are equal.
+     */
+    @Nullable
+    public AppliedEditOperation getFirstOperationDifferentFromCopy() {
+        Iterator<AppliedEditOperation> iterator = iterator();
+        iterator.next();    // copy of the empty word symbol
+        while (iterator.hasNext()) {
+            AppliedEditOperation operation = iterator.next();
+            if (operation.getEditOperation() != EditOperation.COPY) {
+                return operation;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the CIGAR-like representation of this instance, where each run is represented by
+     * its length followed by the symbol of the operation ('=' for {@link EditOperation#COPY},
+     * 'X' for {@link EditOperation#REPLACE}, 'T' for {@link EditOperation#TWIDDLE}, 'D' for
+     * {@link EditOperation#DELETE}, 'I' for {@link EditOperation#INSERT} and 'K' for
+     * {@link EditOperation#KILL}), e.g.: "3=1X1I1=".
+     */
+    @NotNull
+    public String toCigarString() {
+        StringBuilder stringBuilder = new StringBuilder(4 * runs.length);
+        for (long run : runs) {
+            stringBuilder.append(getLengthOfRun(run)).append(CIGAR_SYMBOLS[(int) (run & OPERATION_MASK)]);
+        }
+        return stringBuilder.toString();
+    }
+
+    /**
+     * @return the iterator over the {@link AppliedEditOperation}s, which are created lazily and are
+     * the same contained in the list returned by
+     * {@link EditDistanceCalculator#getSequenceOfOperationComputedToTransformStartingWordToTargetWord()}
+     * (the initial copy of the empty word symbol included).
+     */
+    @NotNull
+    @Override
+    public Iterator<AppliedEditOperation> iterator() {
+        return new Iterator<>() {
+
+            /**
+             * Index of the current run, or -1 before the copy of the empty word symbol.
+             */
+            private int indexOfRun = -1;
+
+            /**
+             * Number of operations of the current run still to be returned.
+             */
+            private long remainingOfRun = 1;
+
+            /**
+             * Current position in the starting word.
+             */
+            private int i = 0;
+
+            /**
+             * Current position in the target word.
+             */
+            private int j = 0;
+
+            @Override
+            public boolean hasNext() {
+                return remainingOfRun > 0 || indexOfRun + 1 < runs.length;
+            }
+
+            @Override
+            public AppliedEditOperation next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                if (indexOfRun < 0) {
+                    indexOfRun = 0;
+                    remainingOfRun = runs.length > 0 ? getLengthOfRun(runs[0]) : 0;
+                    // the copy of the empty word symbol does not edit any letter: it costs nothing with any model
+                    return costModel == null
+                            ? new AppliedEditOperation(EditOperation.COPY, 0, 0)
+                            : new AppliedEditOperation(EditOperation.COPY, 0, 0, 0);
+                }
+                if (remainingOfRun == 0) {
+                    remainingOfRun = getLengthOfRun(runs[++indexOfRun]);
+                }
+                remainingOfRun--;
+                final EditOperation operation = getOperationOfRun(runs[indexOfRun]);
+                switch (operation) {
+                    case COPY:
+                    case REPLACE:
+                        i++;
+                        j++;
+                        break;
+                    case TWIDDLE:
+                        i += 2;
+                        j += 2;
+                        break;
+                    case DELETE:
+                        i++;
+                        break;
+                    case INSERT:
+                        j++;
+                        break;
+                    default /*KILL*/:
+                        i = lengthOfStartingWord;
+                        break;
+                }
+                return new AppliedEditOperation(operation, i, j, getCostOfOperationEndingAt(operation, i, j));
+            }
+
+            /**
+             * @param operation The applied operation.
+             * @param i         The position reached in the starting word.
+             * @param j         The position reached in the target word.
+             * @return the cost of the given operation.
+             */
+            private int getCostOfOperationEndingAt(@NotNull final EditOperation operation, int i, int j) {
+                if (costModel == null) {
+                    return operation.getCost();
+                }
+                if (operation == EditOperation.COPY || operation == EditOperation.REPLACE) {
+                    assert startingWord != null && targetWord != null;
+                    return costModel.getCostOfReplacing(startingWord[i], targetWord[j]);
+                }
+                return costModel.getCost(operation);
+            }
+        };
+    }
+
+    /**
+     * @return the sequential {@link Stream} of the {@link AppliedEditOperation}s returned by {@link #iterator()}.
+     */
+    @NotNull
+    public Stream<AppliedEditOperation> stream() {
+        final int characteristics = Spliterator.ORDERED | Spliterator.NONNULL | Spliterator.IMMUTABLE;
+        return StreamSupport.stream(
+                Spliterators.spliterator(iterator(), getNumberOfOperations() + 1, characteristics), false);
+    }
+
+    @Override
+    public String toString() {
+        return toCigarString();
+    }
+}
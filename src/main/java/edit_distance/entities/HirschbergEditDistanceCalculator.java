@@ -0,0 +1,465 @@
+package edit_distance.entities;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.Unmodifiable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * This class computes the sequence of operations to transform a word into
+ * another one with the divide-and-conquer algorithm by Hirschberg ("A linear
+ * space algorithm for computing maximal common subsequences", 1975): the
+ * starting word is split in two halves and the cell of the middle row through
+ * which an optimal sequence of operations passes is found by computing only
+ * the rows of the cost matrix of the two halves (the one of the first half
+ * top-down and the one of the second half bottom-up), then the two sub-problems
+ * are solved recursively. A {@link EditOperation#TWIDDLE} crossing the middle
+ * row is taken into account explicitly.
+ * <p/>
+ * The memory requirement is <i>O(n+m)</i> (instead of <i>O(n*m)</i> needed by
+ * {@link EditDistanceCalculator}), hence this class can be used for long words.
+ * Sub-problems are solved in parallel on a {@link ForkJoinPool} when they are large enough.
+ */
+public final class HirschbergEditDistanceCalculator {
+
+    /**
+     * Sub-problems with at most this number of cells are solved directly by filling
+     * their whole cost matrix.
+     */
+    private static final int MAX_CELLS_OF_BASE_CASE = 1 << 12;
+
+    /**
+     * Sub-problems with at least this number of cells are split in parallel tasks.
+     */
+    private static final long MIN_CELLS_TO_FORK = 1L << 18;
+
+    /**
+     * Value considered as "infinity".
+     */
+    private static final int INFINITY = Integer.MAX_VALUE / 2;
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private HirschbergEditDistanceCalculator() {
+    }
+
+    /**
+     * Computes the sequence of operations with the {@link ForkJoinPool#commonPool() common pool}.
+     *
+     * @param startingWord The starting word.
+     * @param targetWord   The target word.
+     * @return the unmodifiable {@link List} of {@link AppliedEditOperation} applied to transform
+     * the starting word into the target word, equivalent (in terms of edit distance) to the one
+     * returned by {@link EditDistanceCalculator#getSequenceOfOperationComputedToTransformStartingWordToTargetWord()}.
+     */
+    public static @Unmodifiable List<AppliedEditOperation> getSequenceOfOperationComputedToTransformStartingWordToTargetWord(
+            @NotNull final String startingWord, @NotNull final String targetWord) {
+        return getSequenceOfOperationComputedToTransformStartingWordToTargetWord(
+                startingWord, targetWord, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param startingWord The starting word.
+     * @param targetWord   The target word.
+     * @param forkJoinPool The {@link ForkJoinPool} where sub-problems are solved.
+     * @return See {@link #getSequenceOfOperationComputedToTransformStartingWordToTargetWord(String, String)}.
+     */
+    public static @Unmodifiable List<AppliedEditOperation> getSequenceOfOperationComputedToTransformStartingWordToTargetWord(
+            @NotNull final String startingWord, @NotNull final String targetWord,
+            @NotNull final ForkJoinPool forkJoinPool) {
+        return getSequenceOfOperationComputedToTransformStartingWordToTargetWord(
+                startingWord, targetWord, EditCostModel.DEFAULT, forkJoinPool);
+    }
+
+    /**
+     * Computes the sequence of operations with the given costs and the
+     * {@link ForkJoinPool#commonPool() common pool}.
+     *
+     * @param startingWord The starting word.
+     * @param targetWord   The target word.
+     * @param costModel    The costs of the {@link EditOperation}s.
+     * @return See {@link #getSequenceOfOperationComputedToTransformStartingWordToTargetWord(String, String)}.
+     */
+    public static @Unmodifiable List<AppliedEditOperation> getSequenceOfOperationComputedToTransformStartingWordToTargetWord(
+            @NotNull final String startingWord, @NotNull final String targetWord,
+            @NotNull final EditCostModel costModel) {
+        return getSequenceOfOperationComputedToTransformStartingWordToTargetWord(
+                startingWord, targetWord, costModel, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param startingWord The starting word.
+     * @param targetWord   The target word.
+     * @param costModel    The costs of the {@link EditOperation}s.
+     * @param forkJoinPool The {@link ForkJoinPool} where sub-problems are solved.
+     * @return See {@link #getSequenceOfOperationComputedToTransformStartingWordToTargetWord(String, String)}.
+     */
+    public static @Unmodifiable List<AppliedEditOperation> getSequenceOfOperationComputedToTransformStartingWordToTargetWord(
+            @NotNull final String startingWord, @NotNull final String targetWord,
+            @NotNull final EditCostModel costModel, @NotNull final ForkJoinPool forkJoinPool) {
+        Objects.requireNonNull(costModel);
+        Objects.requireNonNull(forkJoinPool);
+        final char[] x = Objects.requireNonNull(startingWord).toCharArray();
+        final char[] y = Objects.requireNonNull(targetWord).toCharArray();
+
+        // The KILL (if convenient) is the last operation: the starting word is aligned till the row of the
+        // last column from which the killing is cheapest
+        int rowFromWhichToKill = x.length;
+        if (costModel.isKillEnabled() && x.length > 0) {
+            final int[] lastColumn = new int[x.length + 1];
+            computeLastTwoRows(x, 0, x.length, y, 0, y.length,
+                    new int[y.length + 1], new int[y.length + 1], lastColumn, costModel);
+            int cheapestRow = 0;
+            for (int i = 1; i < x.length; i++) {
+                if (lastColumn[i] < lastColumn[cheapestRow]) {
+                    cheapestRow = i;
+                }
+            }
+            if (lastColumn[cheapestRow] + costModel.getCost(EditOperation.KILL) < lastColumn[x.length]) {
+                rowFromWhichToKill = cheapestRow;
+            }
+        }
+
+        List<AppliedEditOperation> operations = new ArrayList<>(x.length + y.length + 2);
+        operations.add(new AppliedEditOperation(EditOperation.COPY, 0, 0, 0));   // copy of the empty word symbol
+        operations.addAll(
+                forkJoinPool.invoke(new AlignmentTask(x, 0, rowFromWhichToKill, y, 0, y.length, costModel)));
+        if (rowFromWhichToKill < x.length) {
+            operations.add(new AppliedEditOperation(
+                    EditOperation.KILL, x.length, y.length, costModel.getCost(EditOperation.KILL)));
+        }
+        return Collections.unmodifiableList(operations);
+    }
+
+    /**
+     * Computes the last two rows of the cost matrix to transform <code>x[xFrom..xTo)</code>
+     * into <code>y[yFrom..yTo)</code>, keeping only three rolling rows.
+     *
+     * @param x                 The starting word.
+     * @param xFrom             The index (included) of the starting word where the sub-problem starts.
+     * @param xTo               The index (excluded) of the starting word where the sub-problem ends.
+     * @param y                 The target word.
+     * @param yFrom             The index (included) of the target word where the sub-problem starts.
+     * @param yTo               The index (excluded) of the target word where the sub-problem ends.
+     * @param lastRow           Output parameter: the last row of the cost matrix (length: <code>yTo-yFrom+1</code>).
+     * @param secondToLastRow   Output parameter: the second-to-last row of the cost matrix (meaningless if the
+     *                          sub-problem has no rows), same length of the last row.
+     * @param lastColumnOrNull  Output parameter, if not null: the last column of the cost matrix
+     *                          (length: <code>xTo-xFrom+1</code>).
+     * @param costModel         The costs of the {@link EditOperation}s.
+     */
+    private static void computeLastTwoRows(
+            final char[] x, final int xFrom, final int xTo, final char[] y, final int yFrom, final int yTo,
+            final int[] lastRow, final int[] secondToLastRow, @Nullable final int[] lastColumnOrNull,
+            @NotNull final EditCostModel costModel) {
+
+        final int numberOfRows = xTo - xFrom + 1;
+        final int numberOfColumns = yTo - yFrom + 1;
+        final boolean useTwiddle = costModel.isTwiddleEnabled();
+        final int twiddleCost = costModel.getCost(EditOperation.TWIDDLE);
+        final int deleteCost = costModel.getCost(EditOperation.DELETE);
+        final int insertCost = costModel.getCost(EditOperation.INSERT);
+
+        int[] twoRowsAbove = new int[numberOfColumns];
+        int[] previousRow = secondToLastRow;
+        int[] currentRow = lastRow;
+        for (int j = 0; j < numberOfColumns; j++) {
+            currentRow[j] = j * insertCost;
+        }
+        if (lastColumnOrNull != null) {
+            lastColumnOrNull[0] = currentRow[numberOfColumns - 1];
+        }
+        for (int i = 1; i < numberOfRows; i++) {
+            int[] tmp = twoRowsAbove;
+            twoRowsAbove = previousRow;
+            previousRow = currentRow;
+            currentRow = tmp;
+
+            final char letterOfX = x[xFrom + i - 1];
+            currentRow[0] = i * deleteCost;
+            for (int j = 1; j < numberOfColumns; j++) {
+                final char letterOfY = y[yFrom + j - 1];
+                int cost = previousRow[j - 1] + costModel.getCostOfReplacing(letterOfX, letterOfY);
+                if (useTwiddle
+                        && i >= 2 && j >= 2
+                        && letterOfX == y[yFrom + j - 2]
+                        && x[xFrom + i - 2] == letterOfY) {
+                    cost = Math.min(cost, twoRowsAbove[j - 2] + twiddleCost);
+                }
+                cost = Math.min(cost, previousRow[j] + deleteCost);
+                cost = Math.min(cost, currentRow[j - 1] + insertCost);
+                currentRow[j] = cost;
+            }
+            if (lastColumnOrNull != null) {
+                lastColumnOrNull[i] = currentRow[numberOfColumns - 1];
+            }
+        }
+        if (currentRow != lastRow) {    // rolling rows must be copied in the output parameters
+            final int[] valuesOfLastRow = Arrays.copyOf(currentRow, numberOfColumns);
+            final int[] valuesOfSecondToLastRow = Arrays.copyOf(previousRow, numberOfColumns);
+            System.arraycopy(valuesOfLastRow, 0, lastRow, 0, numberOfColumns);
+            System.arraycopy(valuesOfSecondToLastRow, 0, secondToLastRow, 0, numberOfColumns);
+        }
+    }
+
+    /**
+     * @param word The word.
+     * @param from The index (included) where the portion to reverse starts.
+     * @param to   The index (excluded) where the portion to reverse ends.
+     * @return a new array with the letters of the given portion of the word in reverse order.
+     */
+    private static char[] reversedCopyOf(final char[] word, final int from, final int to) {
+        final char[] reversed = new char[to - from];
+        for (int i = 0; i < reversed.length; i++) {
+            reversed[i] = word[to - 1 - i];
+        }
+        return reversed;
+    }
+
+    /**
+     * An instance of this class computes the sequence of operations to transform
+     * <code>x[xFrom..xTo)</code> into <code>y[yFrom..yTo)</code>. The positions of
+     * the returned operations refer to the whole words.
+     */
+    private static final class AlignmentTask extends RecursiveTask<List<AppliedEditOperation>> {
+
+        /**
+         * The version of the serialized form, required by {@link RecursiveTask} (the tasks are never serialized).
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * The starting word.
+         */
+        private final char[] x;
+        /**
+         * The index (included) of the starting word where the sub-problem starts.
+         */
+        private final int xFrom;
+        /**
+         * The index (excluded) of the starting word where the sub-problem ends.
+         */
+        private final int xTo;
+        /**
+         * The target word.
+         */
+        private final char[] y;
+        /**
+         * The index (included) of the target word where the sub-problem starts.
+         */
+        private final int yFrom;
+        /**
+         * The index (excluded) of the target word where the sub-problem ends.
+         */
+        private final int yTo;
+        /**
+         * The costs of the {@link EditOperation}s.
+         */
+        @NotNull
+        private final EditCostModel costModel;
+
+        /**
+         * Constructor.
+         *
+         * @param x         The starting word.
+         * @param xFrom     The index (included) of the starting word where the sub-problem starts.
+         * @param xTo       The index (excluded) of the starting word where the sub-problem ends.
+         * @param y         The target word.
+         * @param yFrom     The index (included) of the target word where the sub-problem starts.
+         * @param yTo       The index (excluded) of the target word where the sub-problem ends.
+         * @param costModel The costs of the {@link EditOperation}s.
+         */
+        AlignmentTask(final char[] x, final int xFrom, final int xTo, final char[] y, final int yFrom, final int yTo,
+                      @NotNull final EditCostModel costModel) {
+            this.x = x;
+            this.xFrom = xFrom;
+            this.xTo = xTo;
+            this.y = y;
+            this.yFrom = yFrom;
+            this.yTo = yTo;
+            this.costModel = costModel;
+        }
+
+        @Override
+        protected List<AppliedEditOperation> compute() {
+            final int numberOfRows = xTo - xFrom;
+            final int numberOfColumns = yTo - yFrom;
+            final long numberOfCells = (numberOfRows + 1L) * (numberOfColumns + 1L);
+            if (numberOfRows <= 1 || numberOfColumns <= 1 || numberOfCells <= MAX_CELLS_OF_BASE_CASE) {
+                return solveByFillingTheWholeCostMatrix();
+            }
+            final boolean inParallel = numberOfCells >= MIN_CELLS_TO_FORK;
+
+            // Costs of the top half (top-down) and of the bottom half (bottom-up)
+            final int middleRow = xFrom + numberOfRows / 2;
+            final int[] topLastRow = new int[numberOfColumns + 1];
+            final int[] topSecondToLastRow = new int[numberOfColumns + 1];
+            final int[] bottomFirstRowReversed = new int[numberOfColumns + 1];
+            final int[] bottomSecondRowReversed = new int[numberOfColumns + 1];
+            final Runnable bottomUp = () -> {
+                final char[] xReversed = reversedCopyOf(x, middleRow, xTo);
+                final char[] yReversed = reversedCopyOf(y, yFrom, yTo);
+                computeLastTwoRows(xReversed, 0, xReversed.length, yReversed, 0, yReversed.length,
+                        bottomFirstRowReversed, bottomSecondRowReversed, null, costModel);
+            };
+            if (inParallel) {
+                ForkJoinTask<?> bottomUpTask = ForkJoinTask.adapt(bottomUp).fork();
+                computeLastTwoRows(x, xFrom, middleRow, y, yFrom, yTo, topLastRow, topSecondToLastRow, null,
+                        costModel);
+                bottomUpTask.join();
+            } else {
+                bottomUp.run();
+                computeLastTwoRows(x, xFrom, middleRow, y, yFrom, yTo, topLastRow, topSecondToLastRow, null,
+                        costModel);
+            }
+
+            // Cell of the middle row where the cheapest sequence of operations passes
+            int bestColumn = 0; // relative to yFrom
+            int bestCost = INFINITY;
+            boolean bestIsTwiddleCrossingMiddleRow = false;
+            for (int j = 0; j <= numberOfColumns; j++) {
+                final int cost = topLastRow[j] + bottomFirstRowReversed[numberOfColumns - j];
+                if (cost < bestCost) {
+                    bestCost = cost;
+                    bestColumn = j;
+                }
+            }
+            if (costModel.isTwiddleEnabled()) {
+                // twiddle from (middleRow-1, j-2) to (middleRow+1, j), without passing through the middle row
+                for (int j = 2; j <= numberOfColumns; j++) {
+                    if (x[middleRow] == y[yFrom + j - 2] && x[middleRow - 1] == y[yFrom + j - 1]) {
+                        final int cost = topSecondToLastRow[j - 2] + costModel.getCost(EditOperation.TWIDDLE)
+                                + bottomSecondRowReversed[numberOfColumns - j];
+                        if (cost < bestCost) {
+                            bestCost = cost;
+                            bestColumn = j;
+                            bestIsTwiddleCrossingMiddleRow = true;
+                        }
+                    }
+                }
+            }
+
+            final AlignmentTask top;
+            final AlignmentTask bottom;
+            final List<AppliedEditOperation> middle;
+            if (bestIsTwiddleCrossingMiddleRow) {
+                top = new AlignmentTask(x, xFrom, middleRow - 1, y, yFrom, yFrom + bestColumn - 2, costModel);
+                middle = List.of(new AppliedEditOperation(EditOperation.TWIDDLE, middleRow + 1, yFrom + bestColumn,
+                        costModel.getCost(EditOperation.TWIDDLE)));
+                bottom = new AlignmentTask(x, middleRow + 1, xTo, y, yFrom + bestColumn, yTo, costModel);
+            } else {
+                top = new AlignmentTask(x, xFrom, middleRow, y, yFrom, yFrom + bestColumn, costModel);
+                middle = List.of();
+                bottom = new AlignmentTask(x, middleRow, xTo, y, yFrom + bestColumn, yTo, costModel);
+            }
+            final List<AppliedEditOperation> topOperations;
+            final List<AppliedEditOperation> bottomOperations;
+            if (inParallel) {
+                top.fork();
+                bottomOperations = bottom.compute();
+                topOperations = top.join();
+            } else {
+                topOperations = top.compute();
+                bottomOperations = bottom.compute();
+            }
+            topOperations.addAll(middle);
+            topOperations.addAll(bottomOperations);
+            return topOperations;
+        }
+
+        /**
+         * Solves the sub-problem by filling the whole cost matrix, choosing the operations
+         * in the same order of {@link EditDistanceCalculator}.
+         *
+         * @return the (modifiable) list of operations of the sub-problem.
+         */
+        private List<AppliedEditOperation> solveByFillingTheWholeCostMatrix() {
+            final int numberOfRows = xTo - xFrom + 1;
+            final int numberOfColumns = yTo - yFrom + 1;
+            final int[] costs = new int[numberOfRows * numberOfColumns];
+            final EditOperation[] operationsMatrix = new EditOperation[numberOfRows * numberOfColumns];
+            final int twiddleCostOfModel = costModel.getCost(EditOperation.TWIDDLE);
+            final int deleteCostOfModel = costModel.getCost(EditOperation.DELETE);
+            final int insertCostOfModel = costModel.getCost(EditOperation.INSERT);
+            for (int j = 1; j < numberOfColumns; j++) {
+                costs[j] = j * insertCostOfModel;
+                operationsMatrix[j] = EditOperation.INSERT;
+            }
+            for (int i = 1; i < numberOfRows; i++) {
+                final int rowOffset = i * numberOfColumns;
+                final int previousRowOffset = rowOffset - numberOfColumns;
+                final char letterOfX = x[xFrom + i - 1];
+                costs[rowOffset] = i * deleteCostOfModel;
+                operationsMatrix[rowOffset] = EditOperation.DELETE;
+                for (int j = 1; j < numberOfColumns; j++) {
+                    final char letterOfY = y[yFrom + j - 1];
+                    EditOperation operation = letterOfX == letterOfY ? EditOperation.COPY : EditOperation.REPLACE;
+                    int cost = costs[previousRowOffset + j - 1] + costModel.getCostOfReplacing(letterOfX, letterOfY);
+                    if (costModel.isTwiddleEnabled()
+                            && i >= 2 && j >= 2
+                            && letterOfX == y[yFrom + j - 2]
+                            && x[xFrom + i - 2] == letterOfY) {
+                        final int twiddleCost =
+                                costs[previousRowOffset - numberOfColumns + j - 2] + twiddleCostOfModel;
+                        if (twiddleCost < cost) {
+                            cost = twiddleCost;
+                            operation = EditOperation.TWIDDLE;
+                        }
+                    }
+                    final int deleteCost = costs[previousRowOffset + j] + deleteCostOfModel;
+                    if (deleteCost < cost) {
+                        cost = deleteCost;
+                        operation = EditOperation.DELETE;
+                    }
+                    final int insertCost = costs[rowOffset + j - 1] + insertCostOfModel;
+                    if (insertCost < cost) {
+                        cost = insertCost;
+                        operation = EditOperation.INSERT;
+                    }
+                    costs[rowOffset + j] = cost;
+                    operationsMatrix[rowOffset + j] = operation;
+                }
+            }
+
+            // traceback (iterative), from the last cell to the first one
+            final ArrayList<AppliedEditOperation> operations = new ArrayList<>(numberOfRows + numberOfColumns);
+            int i = numberOfRows - 1;
+            int j = numberOfColumns - 1;
+            while (i > 0 || j > 0) {
+                final EditOperation operation = operationsMatrix[i * numberOfColumns + j];
+                final int costOfOperation = operation == EditOperation.COPY || operation == EditOperation.REPLACE
+                        ? costModel.getCostOfReplacing(x[xFrom + i - 1], y[yFrom + j - 1])
+                        : costModel.getCost(operation);
+                operations.add(new AppliedEditOperation(operation, xFrom + i, yFrom + j, costOfOperation));
+                switch (operation) {
+                    case COPY:
+                    case REPLACE:
+                        i--;
+                        j--;
+                        break;
+                    case TWIDDLE:
+                        i -= 2;
+                        j -= 2;
+                        break;
+                    case DELETE:
+                        i--;
+                        break;
+                    default /*INSERT*/:
+                        j--;
+                        break;
+                }
+            }
+            Collections.reverse(operations);
+            return operations;
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package edit_distance.entities;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Unmodifiable;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * An instance of this class keeps the edit distances from a query which is typed one letter at a time
+ * (the starting word) to a fixed list of candidates (the target words), e.g., for a type-ahead search.
+ * <p/>
+ * The cost matrix from the query to a candidate has one row for each letter of the query (plus the one
+ * for the empty query) and the rows of the current query are kept for each candidate, hence:
+ * <ul>
+ *     <li>{@link #append(char)} fills only one new row for each candidate, i.e., it takes <i>O(m)</i>
+ *     time for a candidate of length <i>m</i>, instead of <i>O(n&middot;m)</i> for rebuilding the whole
+ *     matrix of a query of length <i>n</i> (as {@link EditDistanceCalculator} does);</li>
+ *     <li>{@link #removeLastLetter()} (i.e., a backspace) discards the last row, in constant time.</li>
+ * </ul>
+ * Any {@link EditCostModel} can be used: the {@link EditOperation#KILL} of the rest of the query is
+ * considered through the cheapest cost of the last column among the rows of the current query, which
+ * is kept for each row.
+ * <p/>
+ * Each candidate has its own {@link EditDistanceEngine workspace}, whose memory grows with the product of
+ * the length of the query and the length of the candidate. Instances are <strong>not</strong> thread-safe.
+ */
+public final class IncrementalEditDistanceCalculator {
+
+    /**
+     * Initial capacity of the query (number of letters).
+     */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * The costs of the {@link EditOperation}s.
+     */
+    @NotNull
+    private final EditCostModel costModel;
+
+    /**
+     * The target words.
+     */
+    @NotNull
+    @Unmodifiable
+    private final List<String> candidates;
+
+    /**
+     * The workspace of each candidate, whose rows are the ones of the current query.
+     */
+    @NotNull
+    private final EditDistanceEngine[] workspaces;
+
+    /**
+     * The letters of the current query, in the first {@link #length} positions.
+     */
+    private char[] query = new char[INITIAL_CAPACITY];
+
+    /**
+     * The length of the current query.
+     */
+    private int length = 0;
+
+    /**
+     * If the {@link EditOperation#KILL} is enabled, the element at
+     * <code>[c][i]</code> is the cheapest cost of the last column of the cost matrix of the c-th candidate
+     * among the rows before the i-th one (from which the rest of the query can be killed), null otherwise.
+     */
+    private final int[][] minCostsOfLastColumn;
+
+    /**
+     * Creates an instance with an empty query and the {@link EditCostModel#DEFAULT default costs}.
+     *
+     * @param candidates The target words.
+     */
+    public IncrementalEditDistanceCalculator(@NotNull final List<String> candidates) {
+        this(candidates, EditCostModel.DEFAULT);
+    }
+
+    /**
+     * Creates an instance with an empty query.
+     *
+     * @param candidates The target words.
+     * @param costModel  The costs of the {@link EditOperation}s.
+     */
+    public IncrementalEditDistanceCalculator(@NotNull final List<String> candidates,
+                                             @NotNull final EditCostModel costModel) {
+        this.costModel = Objects.requireNonNull(costModel);
+        this.candidates = List.copyOf(candidates);
+        this.workspaces = new EditDistanceEngine[this.candidates.size()];
+        for (int c = 0; c < workspaces.length; c++) {
+            workspaces[c] = new EditDistanceEngine(costModel);
+            workspaces[c].prepareRowsOfTargetWord(this.candidates.get(c), costModel, INITIAL_CAPACITY + 1);
+        }
+        this.minCostsOfLastColumn = costModel.isKillEnabled() ? new int[workspaces.length][INITIAL_CAPACITY + 1] : null;
+    }
+
+    /**
+     * Appends a letter to the query, filling one row of the cost matrix of each candidate.
+     *
+     * @param letter The letter typed at the end of the query.
+     */
+    public void append(final char letter) {
+        final int i = length + 1;   // the row of the new letter
+        if (query.length < i) {
+            query = Arrays.copyOf(query, 2 * query.length);
+            for (EditDistanceEngine workspace : workspaces) {
+                workspace.growRowsOfQuery(query.length + 1);
+            }
+            if (minCostsOfLastColumn != null) {
+                for (int c = 0; c < minCostsOfLastColumn.length; c++) {
+                    minCostsOfLastColumn[c] = Arrays.copyOf(minCostsOfLastColumn[c], query.length + 1);
+                }
+            }
+        }
+        query[length] = letter;
+        final int previousLetter = length > 0 ? query[length - 1] : -1;
+        for (int c = 0; c < workspaces.length; c++) {
+            final EditDistanceEngine workspace = workspaces[c];
+            if (minCostsOfLastColumn != null) {
+                final int costOfLastColumnOfPreviousRow = workspace.getEditDistanceOfRowOfQuery(i - 1);
+                minCostsOfLastColumn[c][i] = i == 1
+                        ? costOfLastColumnOfPreviousRow
+                        : Math.min(minCostsOfLastColumn[c][i - 1], costOfLastColumnOfPreviousRow);
+            }
+            workspace.fillRowOfQuery(i, letter, previousLetter, Integer.MAX_VALUE);
+        }
+        length = i;
+    }
+
+    /**
+     * Appends the letters of the given sequence to the query, one at a time.
+     *
+     * @param letters The letters typed at the end of the query.
+     */
+    public void append(@NotNull final CharSequence letters) {
+        for (int k = 0, numberOfLetters = letters.length(); k < numberOfLetters; k++) {
+            append(letters.charAt(k));
+        }
+    }
+
+    /**
+     * Removes the last letter of the query (e.g., on backspace), discarding the last row of the cost
+     * matrix of each candidate.
+     *
+     * @throws IllegalStateException if the query is empty.
+     */
+    public void removeLastLetter() {
+        if (length == 0) {
+            throw new IllegalStateException("The query is empty.");
+        }
+        length--;
+    }
+
+    /**
+     * Removes all the letters of the query.
+     */
+    public void clear() {
+        length = 0;
+    }
+
+    /**
+     * @return the current query.
+     */
+    @NotNull
+    public String getQuery() {
+        return new String(query, 0, length);
+    }
+
+    /**
+     * @return the target words.
+     */
+    @NotNull
+    @Unmodifiable
+    public List<String> getCandidates() {
+        return candidates;
+    }
+
+    /**
+     * @return the costs of the {@link EditOperation}s.
+     */
+    @NotNull
+    public EditCostModel getCostModel() {
+        return costModel;
+    }
+
+    /**
+     * @param indexOfCandidate The index of a candidate.
+     * @return the edit distance from the current query to the candidate, which is the same which would be
+     * returned by {@link EditDistanceCalculator#getEditDistance()} on a new instance with the same costs.
+     * @throws IndexOutOfBoundsException if the index is not the one of a candidate.
+     */
+    public int getEditDistance(final int indexOfCandidate) {
+        Objects.checkIndex(indexOfCandidate, workspaces.length);
+        int editDistance = workspaces[indexOfCandidate].getEditDistanceOfRowOfQuery(length);
+        if (minCostsOfLastColumn != null && length > 0) {
+            editDistance = (int) Math.min(editDistance,
+                    (long) minCostsOfLastColumn[indexOfCandidate][length] + costModel.getCost(EditOperation.KILL));
+        }
+        return editDistance;
+    }
+
+    /**
+     * @return the array whose i-th element is the edit distance from the current query to the i-th candidate.
+     */
+    @NotNull
+    public int[] getEditDistances() {
+        final int[] editDistances = new int[workspaces.length];
+        for (int c = 0; c < workspaces.length; c++) {
+            editDistances[c] = getEditDistance(c);
+        }
+        return editDistances;
+    }
+
+    @Override
+    public String toString() {
+        return "IncrementalEditDistanceCalculator{query='" + getQuery() + "', candidates=" + candidates.size() + '}';
+    }
+}
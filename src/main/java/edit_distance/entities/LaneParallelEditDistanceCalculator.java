@@ -0,0 +1,500 @@
+package edit_distance.entities;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.reflect.Constructor;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * This class computes the edit distances of many independent pairs of short words,
+ * like tokens of 5-20 letters, where the per-pair overhead of the scalar algorithm dominates.
+ * <p/>
+ * The pairs are processed in batches of {@link #LANES} and the cost matrices of the pairs of a batch
+ * are filled together, cell by cell: the letters and the rows of the cost matrices are interleaved, so that
+ * the value of the same cell of all the pairs are adjacent in memory and the innermost loop runs over the
+ * pairs (the <i>lanes</i>) with the same recurrence of {@link EditDistanceCalculator}
+ * (<code>findCheapestOperationToTransformIthLetterOfStartingWordIntoJthOfTargetWordAndSetInstanceVariables</code>).
+ * Each row is filled by two flat loops without branches (comparisons of letters are turned into arithmetic):
+ * the first one considers the operations coming from the rows above, which do not depend on the other cells
+ * of the row, the second one the insertions, which depend on the cell on the left, hence on the same lane
+ * {@link #LANES} elements before. Such loops can be compiled to SIMD instructions by the JIT.
+ * <p/>
+ * If the module <code>jdk.incubator.vector</code> is available at runtime (Java 17 or later, started with
+ * <code>--add-modules jdk.incubator.vector</code>), the rows are filled instead by a kernel written with the
+ * Vector API (<code>VectorLanes</code>, compiled only by a JDK 17 or later), which keeps the cell on the left in a
+ * register and checks the letters with vector masks, without repeating the letters of the rows.
+ * The kernel is detected and loaded by reflection, so this class still runs on Java 11,
+ * with the scalar loops as fallback.
+ * <p/>
+ * Pairs of different lengths are handled by
+ * filling the cost matrix of the longest pair of the batch: cells beyond the lengths of a pair are never
+ * read by the cells within its lengths, and the result of each pair is taken at its own last cell.
+ * Pairs are sorted by length before being split in batches, to limit such padding.
+ * <p/>
+ * The scalar {@link EditDistanceEngine} is used as fallback for the pairs with a word longer than
+ * {@link #MAX_LENGTH_OF_LANE_WORDS}, for the cost models with a {@link EditCostModel.SubstitutionMatrix
+ * substitution matrix} and for costs so large that the cells might overflow.
+ */
+public final class LaneParallelEditDistanceCalculator {
+
+    /**
+     * The number of pairs whose cost matrices are filled together (16 <code>int</code>s fill
+     * a 512-bit register).
+     */
+    static final int LANES = 16;
+
+    /**
+     * The maximum length of a word of a pair computed in lanes: longer words would
+     * make the padding of the other pairs of the batch too expensive.
+     */
+    static final int MAX_LENGTH_OF_LANE_WORDS = 64;
+
+    /**
+     * Cost added to the {@link EditOperation#TWIDDLE} when it is not applicable, to discard it without branches.
+     */
+    static final int NOT_APPLICABLE_PENALTY = Integer.MAX_VALUE / 4;
+
+    /**
+     * Padding letter of the starting words (also before their first letter).
+     */
+    private static final int PADDING_OF_STARTING_WORDS = -1;
+
+    /**
+     * Padding letter of the target words (also before their first letter).
+     * It differs from {@link #PADDING_OF_STARTING_WORDS}, so paddings never match.
+     */
+    private static final int PADDING_OF_TARGET_WORDS = -2;
+
+    /**
+     * The name of the module of the Vector API.
+     */
+    private static final String VECTOR_MODULE = "jdk.incubator.vector";
+
+    /**
+     * The name of the class of the lanes filled with the Vector API.
+     */
+    private static final String VECTOR_LANES_CLASS = "edit_distance.entities.VectorLanes";
+
+    /**
+     * The constructor of the lanes filled with the Vector API (taking the {@link EditCostModel}),
+     * or null if they are not available at runtime.
+     */
+    @Nullable
+    private static final Constructor<? extends Lanes> VECTOR_LANES_CONSTRUCTOR = findVectorLanesConstructor();
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private LaneParallelEditDistanceCalculator() {
+    }
+
+    /**
+     * Computes the edit distance of each pair with the {@link EditCostModel#DEFAULT default costs}.
+     *
+     * @param startingWords The starting words.
+     * @param targetWords   The target words (the i-th one is paired with the i-th starting word).
+     * @return the array whose i-th element is the edit distance from the i-th starting word to the i-th target
+     * word, which is the same which would be returned by {@link EditDistanceCalculator#getEditDistance()}.
+     * @throws IllegalArgumentException if the lists have different sizes.
+     */
+    @NotNull
+    public static int[] computeAll(@NotNull final List<? extends CharSequence> startingWords,
+                                   @NotNull final List<? extends CharSequence> targetWords) {
+        return computeAll(startingWords, targetWords, EditCostModel.DEFAULT);
+    }
+
+    /**
+     * Like {@link #computeAll(List, List)}, but with the given costs.
+     *
+     * @param startingWords The starting words.
+     * @param targetWords   The target words (the i-th one is paired with the i-th starting word).
+     * @param costModel     The costs of the {@link EditOperation}s.
+     * @return See {@link #computeAll(List, List)}.
+     * @throws IllegalArgumentException if the lists have different sizes.
+     */
+    @NotNull
+    public static int[] computeAll(@NotNull final List<? extends CharSequence> startingWords,
+                                   @NotNull final List<? extends CharSequence> targetWords,
+                                   @NotNull final EditCostModel costModel) {
+        return computeAll(startingWords, targetWords, costModel, isVectorized());
+    }
+
+    /**
+     * Like {@link #computeAll(List, List, EditCostModel)}, but with the given kernel.
+     *
+     * @param startingWords  The starting words.
+     * @param targetWords    The target words (the i-th one is paired with the i-th starting word).
+     * @param costModel      The costs of the {@link EditOperation}s.
+     * @param useVectorLanes True to fill the rows with the Vector API, false to use the scalar loops.
+     * @return See {@link #computeAll(List, List)}.
+     * @throws IllegalArgumentException if the lists have different sizes.
+     * @throws IllegalStateException    if the Vector API is requested, but it is not available.
+     */
+    @NotNull
+    static int[] computeAll(@NotNull final List<? extends CharSequence> startingWords,
+                            @NotNull final List<? extends CharSequence> targetWords,
+                            @NotNull final EditCostModel costModel, final boolean useVectorLanes) {
+        Objects.requireNonNull(costModel);
+        if (useVectorLanes && !isVectorized()) {
+            throw new IllegalStateException("The module " + VECTOR_MODULE + " is not available.");
+        }
+        final int numberOfPairs = Objects.requireNonNull(startingWords).size();
+        if (Objects.requireNonNull(targetWords).size() != numberOfPairs) {
+            throw new IllegalArgumentException("The number of starting words (" + numberOfPairs
+                    + ") differs from the number of target words (" + targetWords.size() + ").");
+        }
+        final int[] editDistances = new int[numberOfPairs];
+        final boolean lanesApplicable = isApplicable(costModel);
+
+        // pairs computed in lanes sorted by lengths (in the high bits), followed by their index
+        final long[] sortedPairs = new long[numberOfPairs];
+        int numberOfLanePairs = 0;
+        final EditDistanceEngine engine = EditDistanceEngine.getThreadLocalInstance();
+        final EditDistanceAlgorithm scalarAlgorithm = EditDistanceAlgorithm.getFastestApplicable(costModel);
+        for (int p = 0; p < numberOfPairs; p++) {
+            final CharSequence startingWord = Objects.requireNonNull(startingWords.get(p));
+            final CharSequence targetWord = Objects.requireNonNull(targetWords.get(p));
+            final int n = startingWord.length();
+            final int m = targetWord.length();
+            if (lanesApplicable && n <= MAX_LENGTH_OF_LANE_WORDS && m <= MAX_LENGTH_OF_LANE_WORDS) {
+                sortedPairs[numberOfLanePairs++] = ((long) (n << 8 | m) << 32) | p;
+            } else {
+                editDistances[p] = engine.compute(startingWord, targetWord, costModel, scalarAlgorithm);
+            }
+        }
+        Arrays.sort(sortedPairs, 0, numberOfLanePairs);
+
+        final Lanes lanes = useVectorLanes ? newVectorLanes(costModel) : new ScalarLanes(costModel);
+        final int[] indexesOfPairs = new int[LANES];
+        for (int from = 0; from < numberOfLanePairs; from += LANES) {
+            final int numberOfLanes = Math.min(LANES, numberOfLanePairs - from);
+            for (int lane = 0; lane < numberOfLanes; lane++) {
+                indexesOfPairs[lane] = (int) sortedPairs[from + lane];
+            }
+            lanes.computeBatch(startingWords, targetWords, indexesOfPairs, numberOfLanes, editDistances);
+        }
+        return editDistances;
+    }
+
+    /**
+     * @return true if the rows of the lanes are filled with the Vector API, false if with the scalar loops.
+     */
+    public static boolean isVectorized() {
+        return VECTOR_LANES_CONSTRUCTOR != null;
+    }
+
+    /**
+     * Looks for the lanes filled with the Vector API: the module must be in the boot layer, then it is
+     * read by the module of this class (no-op if this class is not in a named module) and the class of the
+     * lanes is loaded (it fails on the runtimes older than the one which compiled it).
+     *
+     * @return the constructor of the lanes filled with the Vector API, or null if they are not available.
+     */
+    @Nullable
+    private static Constructor<? extends Lanes> findVectorLanesConstructor() {
+        final Optional<Module> vectorModule = ModuleLayer.boot().findModule(VECTOR_MODULE);
+        if (vectorModule.isEmpty()) {
+            return null;
+        }
+        try {
+            LaneParallelEditDistanceCalculator.class.getModule().addReads(vectorModule.get());
+            final Constructor<? extends Lanes> constructor = Class.forName(VECTOR_LANES_CLASS)
+                    .asSubclass(Lanes.class).getDeclaredConstructor(EditCostModel.class);
+            constructor.newInstance(EditCostModel.DEFAULT);  // fails now if the species is not supported
+            return constructor;
+        } catch (ReflectiveOperationException | LinkageError | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @param costModel The costs of the {@link EditOperation}s.
+     * @return new lanes filled with the Vector API.
+     */
+    @NotNull
+    private static Lanes newVectorLanes(@NotNull final EditCostModel costModel) {
+        try {
+            return Objects.requireNonNull(VECTOR_LANES_CONSTRUCTOR).newInstance(costModel);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("The lanes of the Vector API cannot be created.", e);
+        }
+    }
+
+    /**
+     * @param costModel The costs of the {@link EditOperation}s.
+     * @return true if the pairs can be computed in lanes with the given costs, false if the
+     * scalar algorithm must be used.
+     */
+    static boolean isApplicable(@NotNull final EditCostModel costModel) {
+        if (costModel.getKernel() == EditCostModel.Kernel.SUBSTITUTION_MATRIX) {
+            return false;
+        }
+        int maxCost = 0;
+        for (EditOperation editOperation : EditOperation.values()) {
+            if (editOperation != EditOperation.KILL) {
+                maxCost = Math.max(maxCost, costModel.getCost(editOperation));
+            }
+        }
+        // no cell can exceed the cost of deleting and inserting all letters, plus the penalty
+        return (long) 2 * (MAX_LENGTH_OF_LANE_WORDS + 1) * maxCost < NOT_APPLICABLE_PENALTY;
+    }
+
+    /**
+     * Workspace for the interleaved cost matrices of a batch of pairs.
+     * The value for the lane <code>l</code> of the element at index <code>k</code>
+     * of a row or of a word is at index <code>k*LANES + l</code>.
+     * Subclasses fill the rows.
+     */
+    abstract static class Lanes {
+
+        /**
+         * Cost of the {@link EditOperation#COPY}.
+         */
+        final int copyCost;
+        /**
+         * Difference between the costs of the {@link EditOperation#REPLACE} and of the {@link EditOperation#COPY}.
+         */
+        final int extraCostOfReplace;
+        /**
+         * Cost of the {@link EditOperation#TWIDDLE}, or {@link #NOT_APPLICABLE_PENALTY} if it is not enabled.
+         */
+        final int twiddleCost;
+        /**
+         * Cost of the {@link EditOperation#DELETE} (moving from a row to the next one).
+         */
+        final int deleteCost;
+        /**
+         * Cost of the {@link EditOperation#INSERT} (moving from a column to the next one).
+         */
+        final int insertCost;
+        /**
+         * Flag set if the {@link EditOperation#KILL} is enabled.
+         */
+        private final boolean killEnabled;
+        /**
+         * Cost of the {@link EditOperation#KILL}.
+         */
+        private final int killCost;
+
+        /**
+         * The letters of the starting words (index 0 is the padding before the first letter, then the
+         * positions after the end of a word, up to the longest one of the batch, are padded as well).
+         */
+        final int[] startingWords = new int[(MAX_LENGTH_OF_LANE_WORDS + 1) * LANES];
+        /**
+         * The letters of the target words (index 0 is the padding before the first letter).
+         */
+        final int[] targetWords = new int[(MAX_LENGTH_OF_LANE_WORDS + 1) * LANES];
+        /**
+         * Three rolling rows of the cost matrices. The columns are shifted by one, so that index 0
+         * is the (never applicable) column before the first one, read by the {@link EditOperation#TWIDDLE}.
+         */
+        private final int[][] rows = new int[3][(MAX_LENGTH_OF_LANE_WORDS + 2) * LANES];
+        /**
+         * The lengths of the starting words of the batch.
+         */
+        private final int[] lengthsOfStartingWords = new int[LANES];
+        /**
+         * The lengths of the target words of the batch.
+         */
+        private final int[] lengthsOfTargetWords = new int[LANES];
+        /**
+         * The minimum among the cells of the last column of each pair, excluding the last row.
+         */
+        private final int[] minCostsOfLastColumn = new int[LANES];
+
+        /**
+         * @param costModel The costs of the {@link EditOperation}s (without substitution matrix).
+         */
+        Lanes(@NotNull final EditCostModel costModel) {
+            this.copyCost = costModel.getCost(EditOperation.COPY);
+            this.extraCostOfReplace = costModel.getCost(EditOperation.REPLACE) - copyCost;
+            this.twiddleCost = costModel.isTwiddleEnabled()
+                    ? costModel.getCost(EditOperation.TWIDDLE) : NOT_APPLICABLE_PENALTY;
+            this.deleteCost = costModel.getCost(EditOperation.DELETE);
+            this.insertCost = costModel.getCost(EditOperation.INSERT);
+            this.killEnabled = costModel.isKillEnabled();
+            this.killCost = killEnabled ? costModel.getCost(EditOperation.KILL) : 0;
+        }
+
+        /**
+         * Computes the edit distances of a batch of pairs.
+         *
+         * @param startingWords  The starting words.
+         * @param targetWords    The target words.
+         * @param indexesOfPairs The indexes of the pairs of the batch.
+         * @param numberOfLanes  The number of pairs of the batch (the other lanes are empty pairs).
+         * @param editDistances  The array where the results are saved, at the indexes of the pairs.
+         */
+        void computeBatch(@NotNull final List<? extends CharSequence> startingWords,
+                          @NotNull final List<? extends CharSequence> targetWords,
+                          final int[] indexesOfPairs, final int numberOfLanes, final int[] editDistances) {
+            int maxN = 0;
+            int maxM = 0;
+            for (int lane = 0; lane < LANES; lane++) {
+                final int n = lane < numberOfLanes ? startingWords.get(indexesOfPairs[lane]).length() : 0;
+                final int m = lane < numberOfLanes ? targetWords.get(indexesOfPairs[lane]).length() : 0;
+                lengthsOfStartingWords[lane] = n;
+                lengthsOfTargetWords[lane] = m;
+                maxN = Math.max(maxN, n);
+                maxM = Math.max(maxM, m);
+            }
+            Arrays.fill(this.startingWords, 0, (maxN + 1) * LANES, PADDING_OF_STARTING_WORDS);
+            Arrays.fill(this.targetWords, 0, (maxM + 1) * LANES, PADDING_OF_TARGET_WORDS);
+            for (int lane = 0; lane < numberOfLanes; lane++) {
+                interleave(startingWords.get(indexesOfPairs[lane]), this.startingWords, lane);
+                interleave(targetWords.get(indexesOfPairs[lane]), this.targetWords, lane);
+            }
+
+            // first row
+            int[] twoRowsAbove = rows[0];
+            int[] previousRow = rows[1];
+            int[] currentRow = rows[2];
+            for (int j = 0; j <= maxM; j++) {
+                Arrays.fill(previousRow, (j + 1) * LANES, (j + 2) * LANES, j * insertCost);
+            }
+            Arrays.fill(minCostsOfLastColumn, Integer.MAX_VALUE);
+            collectResults(0, previousRow, indexesOfPairs, numberOfLanes, editDistances);
+
+            for (int i = 1; i <= maxN; i++) {
+                fillRow(i, maxM, currentRow, previousRow, twoRowsAbove);
+                collectResults(i, currentRow, indexesOfPairs, numberOfLanes, editDistances);
+                final int[] rowToReuse = twoRowsAbove;
+                twoRowsAbove = previousRow;
+                previousRow = currentRow;
+                currentRow = rowToReuse;
+            }
+        }
+
+        /**
+         * Copies the letters of a word in the given lane (after the padding before the first letter).
+         *
+         * @param word    The word.
+         * @param letters The interleaved letters.
+         * @param lane    The lane.
+         */
+        private static void interleave(@NotNull final CharSequence word, final int[] letters, final int lane) {
+            for (int k = 0, length = word.length(); k < length; k++) {
+                letters[(k + 1) * LANES + lane] = word.charAt(k);
+            }
+        }
+
+        /**
+         * Fills the i-th row of the cost matrices of all the lanes, from the column 1 (index
+         * <code>LANES</code>) to the column of the longest target word, with the recurrence of
+         * {@link EditDistanceCalculator}, apart from the {@link EditOperation#KILL}.
+         *
+         * @param i            The index of the row (positive).
+         * @param maxM         The length of the longest target word of the batch.
+         * @param currentRow   The row to fill.
+         * @param previousRow  The row above.
+         * @param twoRowsAbove The row two rows above (meaningless if <code>i==1</code>).
+         */
+        abstract void fillRow(int i, int maxM, int[] currentRow, int[] previousRow, int[] twoRowsAbove);
+
+        /**
+         * Saves the results of the lanes whose starting word ends at the given row, and
+         * updates the minimum cost of the last column for the others.
+         *
+         * @param i              The index of the row.
+         * @param row            The row.
+         * @param indexesOfPairs The indexes of the pairs of the batch.
+         * @param numberOfLanes  The number of pairs of the batch.
+         * @param editDistances  The array where the results are saved, at the indexes of the pairs.
+         */
+        private void collectResults(final int i, final int[] row, final int[] indexesOfPairs,
+                                    final int numberOfLanes, final int[] editDistances) {
+            for (int lane = 0; lane < numberOfLanes; lane++) {
+                final int n = lengthsOfStartingWords[lane];
+                final int lastCell = row[(lengthsOfTargetWords[lane] + 1) * LANES + lane];
+                if (i < n) {
+                    minCostsOfLastColumn[lane] = Math.min(minCostsOfLastColumn[lane], lastCell);
+                } else if (i == n) {
+                    editDistances[indexesOfPairs[lane]] = killEnabled && n > 0
+                            ? (int) Math.min(lastCell, (long) minCostsOfLastColumn[lane] + killCost)
+                            : lastCell;
+                }
+            }
+        }
+    }
+
+    /**
+     * Lanes whose rows are filled by two flat loops without branches, which the JIT may compile to SIMD
+     * instructions.
+     */
+    private static final class ScalarLanes extends Lanes {
+
+        /**
+         * The letters of the starting words of the rows with even and odd index, repeated for each column
+         * (with the same indexes of the rows), so that the cells of a row can be filled by a flat loop.
+         */
+        private final int[][] lettersOfRows = new int[2][(MAX_LENGTH_OF_LANE_WORDS + 2) * LANES];
+
+        /**
+         * @param costModel The costs of the {@link EditOperation}s (without substitution matrix).
+         */
+        ScalarLanes(@NotNull final EditCostModel costModel) {
+            super(costModel);
+        }
+
+        /**
+         * Repeats the letters of the starting words at the given row for each column
+         * of the cost matrix, doubling the copied part at each step.
+         *
+         * @param i           The index of the row.
+         * @param maxM        The length of the longest target word of the batch.
+         * @param destination The array where letters are repeated.
+         */
+        private void repeatLettersOfRow(final int i, final int maxM, final int[] destination) {
+            final int length = (maxM + 2) * LANES;
+            System.arraycopy(startingWords, i * LANES, destination, 0, LANES);
+            for (int copied = LANES; copied < length; copied *= 2) {
+                System.arraycopy(destination, 0, destination, copied, Math.min(copied, length - copied));
+            }
+        }
+
+        @Override
+        void fillRow(final int i, final int maxM,
+                     final int[] currentRow, final int[] previousRow, final int[] twoRowsAbove) {
+            if (i == 1) {
+                repeatLettersOfRow(0, maxM, lettersOfRows[0]);
+            }
+            final int[] lettersOfPreviousRow = lettersOfRows[(i - 1) & 1];
+            final int[] lettersOfCurrentRow = lettersOfRows[i & 1];
+            repeatLettersOfRow(i, maxM, lettersOfCurrentRow);
+            final int[] targetWords = this.targetWords;
+            final int copyCost = this.copyCost;
+            final int extraCostOfReplace = this.extraCostOfReplace;
+            final int twiddleCost = this.twiddleCost;
+            final int deleteCost = this.deleteCost;
+            final int insertCost = this.insertCost;
+            final int endOfRow = (maxM + 2) * LANES;
+            Arrays.fill(currentRow, LANES, 2 * LANES, i * deleteCost);
+            // operations from the rows above (the target letters are one column before the cells)
+            for (int cell = 2 * LANES; cell < endOfRow; cell++) {
+                final int letter = lettersOfCurrentRow[cell];
+                final int previousLetter = lettersOfPreviousRow[cell];
+                final int letterAlongColumns = targetWords[cell - LANES];
+                final int previousLetterAlongColumns = targetWords[cell - 2 * LANES];
+                // 1 if the letters differ, 0 otherwise
+                final int difference = letter ^ letterAlongColumns;
+                final int isReplace = (difference | -difference) >>> 31;
+                final int twiddleMismatch =
+                        (letter ^ previousLetterAlongColumns) | (previousLetter ^ letterAlongColumns);
+                final int isTwiddleNotApplicable = (twiddleMismatch | -twiddleMismatch) >>> 31;
+                int cost = previousRow[cell - LANES] + copyCost + isReplace * extraCostOfReplace;
+                cost = Math.min(cost, twoRowsAbove[cell - 2 * LANES]
+                        + twiddleCost + isTwiddleNotApplicable * NOT_APPLICABLE_PENALTY);
+                currentRow[cell] = Math.min(cost, previousRow[cell] + deleteCost);
+            }
+            // insertions, from left to right
+            for (int cell = 2 * LANES; cell < endOfRow; cell++) {
+                currentRow[cell] = Math.min(currentRow[cell], currentRow[cell - LANES] + insertCost);
+            }
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package edit_distance.entities;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The values of a matrix saved row by row, with 2 or 4 bytes per value, in a primitive array or,
+ * for matrices too big for the heap, in a memory-mapped file (little-endian, without header).
+ * Used by {@link DistanceMatrix} and by the matrices of {@link EditDistanceCalculator}.
+ */
+interface MatrixStorage {
+
+    /**
+     * Maximum number of elements of an array.
+     */
+    long MAX_ARRAY_LENGTH = Integer.MAX_VALUE - 8;
+
+    /**
+     * @param index The index of an element.
+     * @return the value of the element.
+     */
+    int get(long index);
+
+    /**
+     * @param index The index of an element.
+     * @param value The value of the element.
+     */
+    void set(long index, int value);
+
+    /**
+     * @return the number of bytes used to save each value.
+     */
+    int getBytesPerValue();
+
+    /**
+     * Values saved in an <code>int[]</code>.
+     */
+    final class IntArray implements MatrixStorage {
+
+        /**
+         * The values.
+         */
+        private final int[] values;
+
+        /**
+         * @param numberOfElements The number of elements.
+         */
+        IntArray(final int numberOfElements) {
+            values = new int[numberOfElements];
+        }
+
+        @Override
+        public int get(final long index) {
+            return values[(int) index];
+        }
+
+        @Override
+        public void set(final long index, final int value) {
+            values[(int) index] = value;
+        }
+
+        @Override
+        public int getBytesPerValue() {
+            return Integer.BYTES;
+        }
+    }
+
+    /**
+     * Values saved in a <code>short[]</code>.
+     */
+    final class ShortArray implements MatrixStorage {
+
+        /**
+         * The values.
+         */
+        private final short[] values;
+
+        /**
+         * @param numberOfElements The number of elements.
+         */
+        ShortArray(final int numberOfElements) {
+            values = new short[numberOfElements];
+        }
+
+        @Override
+        public int get(final long index) {
+            return values[(int) index];
+        }
+
+        @Override
+        public void set(final long index, final int value) {
+            values[(int) index] = (short) value;
+        }
+
+        @Override
+        public int getBytesPerValue() {
+            return Short.BYTES;
+        }
+    }
+
+    /**
+     * Values saved in a memory-mapped file, mapped in regions of {@link #BYTES_PER_MAPPED_REGION} bytes.
+     * Values are written with absolute puts, hence different threads can write different values.
+     * Besides the values of 2 or 4 bytes, the file can hold values of 8 bytes
+     * (see {@link #getLong(long)} and {@link #setLong(long, long)}).
+     */
+    final class Mapped implements MatrixStorage {
+
+        /**
+         * Number of bytes of each memory-mapped region of a file (a multiple of the size of the values).
+         */
+        private static final long BYTES_PER_MAPPED_REGION = 1L << 30;
+
+        /**
+         * The mapped regions of the file.
+         */
+        private final MappedByteBuffer[] regions;
+
+        /**
+         * The number of bytes used to save each value (2, 4 or 8).
+         */
+        private final int bytesPerValue;
+
+        /**
+         * @param file             The file (created or overwritten).
+         * @param numberOfElements The number of elements.
+         * @param bytesPerValue    The number of bytes used to save each value (2, 4 or 8).
+         * @throws IOException if the file cannot be mapped.
+         */
+        Mapped(@NotNull final Path file, final long numberOfElements, final int bytesPerValue) throws IOException {
+            this(file, numberOfElements, bytesPerValue, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        }
+
+        /**
+         * @param file             The file.
+         * @param numberOfElements The number of elements.
+         * @param bytesPerValue    The number of bytes used to save each value (2, 4 or 8).
+         * @param options          The options to open the file (reading and writing included).
+         * @throws IOException if the file cannot be mapped.
+         */
+        private Mapped(@NotNull final Path file, final long numberOfElements, final int bytesPerValue,
+                       @NotNull final OpenOption... options) throws IOException {
+            this.bytesPerValue = bytesPerValue;
+            final long numberOfBytes = numberOfElements * bytesPerValue;
+            regions = new MappedByteBuffer[(int) ((numberOfBytes + BYTES_PER_MAPPED_REGION - 1)
+                    / BYTES_PER_MAPPED_REGION)];
+            try (FileChannel channel = FileChannel.open(file, options)) {
+                for (int r = 0; r < regions.length; r++) {
+                    final long position = r * BYTES_PER_MAPPED_REGION;
+                    regions[r] = channel.map(FileChannel.MapMode.READ_WRITE, position,
+                            Math.min(BYTES_PER_MAPPED_REGION, numberOfBytes - position));
+                    regions[r].order(ByteOrder.LITTLE_ENDIAN);
+                }
+            }   // mapped regions remain valid after closing the channel
+        }
+
+        /**
+         * Creates a storage in a new temporary file of the given directory, which is deleted when the channel
+         * used to map it is closed (i.e., before this method returns, on the systems which allow deleting
+         * mapped files): its disk space and its pages are released only when the regions are
+         * garbage-collected, since mapped regions cannot be unmapped explicitly.
+         *
+         * @param directory        The directory of the file.
+         * @param numberOfElements The number of elements.
+         * @param bytesPerValue    The number of bytes used to save each value (2, 4 or 8).
+         * @return the storage, whose values are initially 0.
+         * @throws IOException if the file cannot be created or mapped.
+         */
+        @NotNull
+        static Mapped temporary(@NotNull final Path directory, final long numberOfElements, final int bytesPerValue)
+                throws IOException {
+            final Path file = Files.createTempFile(directory, "edit-distance", ".matrix");
+            try {
+                return new Mapped(file, numberOfElements, bytesPerValue, StandardOpenOption.READ,
+                        StandardOpenOption.WRITE, StandardOpenOption.DELETE_ON_CLOSE);
+            } catch (IOException | RuntimeException e) {
+                Files.deleteIfExists(file);
+                throw e;
+            }
+        }
+
+        /**
+         * @param position The position of a value in the file.
+         * @return the region containing the given position.
+         */
+        private MappedByteBuffer regionOf(final long position) {
+            return regions[(int) (position / BYTES_PER_MAPPED_REGION)];
+        }
+
+        @Override
+        public int get(final long index) {
+            final long position = index * bytesPerValue;
+            final MappedByteBuffer region = regionOf(position);
+            final int offset = (int) (position % BYTES_PER_MAPPED_REGION);
+            return bytesPerValue == Short.BYTES ? region.getShort(offset) : region.getInt(offset);
+        }
+
+        @Override
+        public void set(final long index, final int value) {
+            final long position = index * bytesPerValue;
+            final MappedByteBuffer region = regionOf(position);
+            final int offset = (int) (position % BYTES_PER_MAPPED_REGION);
+            if (bytesPerValue == Short.BYTES) {
+                region.putShort(offset, (short) value);
+            } else {
+                region.putInt(offset, value);
+            }
+        }
+
+        /**
+         * @param index The index of an element of 8 bytes.
+         * @return the value of the element.
+         */
+        long getLong(final long index) {
+            final long position = index * Long.BYTES;
+            return regionOf(position).getLong((int) (position % BYTES_PER_MAPPED_REGION));
+        }
+
+        /**
+         * @param index The index of an element of 8 bytes.
+         * @param value The value of the element.
+         */
+        void setLong(final long index, final long value) {
+            final long position = index * Long.BYTES;
+            regionOf(position).putLong((int) (position % BYTES_PER_MAPPED_REGION), value);
+        }
+
+        @Override
+        public int getBytesPerValue() {
+            return bytesPerValue;
+        }
+
+        /**
+         * Writes the values to the file.
+         */
+        void force() {
+            for (MappedByteBuffer region : regions) {
+                region.force();
+            }
+        }
+    }
+}
@@ -0,0 +1,458 @@
+package edit_distance.entities;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * An instance of this class is an index over a dictionary of words to find the words whose edit
+ * distance from a query does not exceed a small threshold (1 or 2, typically), with the
+ * <i>symmetric delete</i> technique (as in SymSpell).
+ * <p/>
+ * If each {@link EditOperation} which can be used within the threshold <i>k</i> costs at least 1,
+ * a word within the threshold from the query can be obtained from it with at most <i>k</i> operations,
+ * hence deleting at most <i>k</i> letters from the query and at most <i>k</i> letters from the word
+ * gives the same string (a replacement is undone deleting the letter from both, an insertion deleting
+ * it from the word, and so on). The index maps each string obtained deleting up to <i>k</i> letters from
+ * a word of the dictionary (<i>deletion variant</i>) to that word: a search looks up the deletion variants
+ * of the query and only the words found are verified
+ * {@link EditDistanceCalculator#distanceWithin(String, String, int) within the threshold}.
+ * <p/>
+ * The number of deletion variants is large, hence the index does not save them: each variant is
+ * identified by a 64-bit hash, saved in an open-addressing table, and the indexes of the words with
+ * that variant are saved contiguously in a single array. Words are saved as the letters of a single
+ * array. A collision of hashes only adds words to verify, never removes them.
+ * The index is immutable and can be used concurrently by many threads.
+ */
+public final class SymmetricDeleteIndex {
+
+    /**
+     * Key of the empty slots of the table of the deletion variants.
+     */
+    private static final long EMPTY_KEY = 0L;
+
+    /**
+     * Maximum fraction of used slots of the table of the deletion variants.
+     */
+    private static final double MAX_LOAD_FACTOR = 0.5;
+
+    /**
+     * The costs of the {@link EditOperation}s.
+     */
+    @NotNull
+    private final EditCostModel costModel;
+
+    /**
+     * The maximum threshold which can be used in searches (i.e., the maximum number of deleted letters).
+     */
+    private final int maxEditDistance;
+
+    /**
+     * The letters of all the words, one word after the other.
+     */
+    private final char[] lettersOfWords;
+
+    /**
+     * The index in {@link #lettersOfWords} of the first letter of each word (with one more element
+     * for the end of the last word).
+     */
+    private final int[] startsOfWords;
+
+    /**
+     * The hashes of the deletion variants, in an open-addressing table (with linear probing)
+     * whose capacity is a power of two.
+     */
+    private final long[] keys;
+
+    /**
+     * The indexes of the words, grouped by deletion variant.
+     */
+    private final int[] postings;
+
+    /**
+     * The index in {@link #postings} of the first word of the variant in each slot of {@link #keys}
+     * (with one more element for the end of the last slot): slot s holds the words
+     * from <code>startsOfPostings[s]</code> (included) to <code>startsOfPostings[s+1]</code> (excluded).
+     */
+    private final int[] startsOfPostings;
+
+    /**
+     * The number of distinct deletion variants.
+     */
+    private final int numberOfDeletionVariants;
+
+    /**
+     * The time, in nanoseconds, spent to build this index.
+     */
+    private final long buildTimeInNanoseconds;
+
+    /**
+     * Creates the index of the given words using the {@link EditCostModel#DEFAULT default costs}.
+     *
+     * @param words           The words of the dictionary.
+     * @param maxEditDistance The maximum threshold which can be used in searches.
+     * @throws IllegalArgumentException if the maximum threshold is negative.
+     */
+    public SymmetricDeleteIndex(@NotNull final Collection<String> words, final int maxEditDistance) {
+        this(words, maxEditDistance, EditCostModel.DEFAULT);
+    }
+
+    /**
+     * Creates the index of the given words using the given costs.
+     *
+     * @param words           The words of the dictionary.
+     * @param maxEditDistance The maximum threshold which can be used in searches.
+     * @param costModel       The costs of the {@link EditOperation}s.
+     * @throws IllegalArgumentException if the maximum threshold is negative or if some {@link EditOperation}
+     *                                  different from {@link EditOperation#COPY} can be used within the
+     *                                  threshold for free, or if the {@link EditOperation#KILL} can be used within
+     *                                  the threshold (the deletion variants would not find all the words).
+     */
+    public SymmetricDeleteIndex(@NotNull final Collection<String> words, final int maxEditDistance,
+                                @NotNull final EditCostModel costModel) {
+        final long startTime = System.nanoTime();
+        Objects.requireNonNull(words);
+        if (maxEditDistance < 0) {
+            throw new IllegalArgumentException("The threshold cannot be negative, but " + maxEditDistance + " found.");
+        }
+        if (!isApplicable(Objects.requireNonNull(costModel), maxEditDistance)) {
+            throw new IllegalArgumentException("The deletion variants up to " + maxEditDistance
+                    + " letters do not find all the words within the threshold with " + costModel + ".");
+        }
+        this.costModel = costModel;
+        this.maxEditDistance = maxEditDistance;
+
+        // copy the words in a single array
+        int numberOfWords = words.size();
+        long numberOfLetters = 0;
+        for (String word : words) {
+            numberOfLetters += Objects.requireNonNull(word).length();
+        }
+        lettersOfWords = new char[Math.toIntExact(numberOfLetters)];
+        startsOfWords = new int[numberOfWords + 1];
+        int numberOfCopiedWords = 0;
+        for (String word : words) {
+            final int start = startsOfWords[numberOfCopiedWords];
+            word.getChars(0, word.length(), lettersOfWords, start);
+            startsOfWords[++numberOfCopiedWords] = start + word.length();
+        }
+
+        // first pass: count the words of each deletion variant
+        final DeletionVariants deletionVariants = new DeletionVariants(maxEditDistance);
+        long[] keys = new long[Integer.highestOneBit(Math.max(16, Math.min(numberOfWords, 1 << 28))) << 1];
+        int[] counts = new int[keys.length];
+        int numberOfUsedSlots = 0;
+        for (int w = 0; w < numberOfWords; w++) {
+            final int numberOfVariants = deletionVariants.generate(
+                    lettersOfWords, startsOfWords[w], startsOfWords[w + 1] - startsOfWords[w]);
+            for (int v = 0; v < numberOfVariants; v++) {
+                final long key = deletionVariants.hashes[v];
+                int slot = findSlot(keys, key);
+                if (keys[slot] == EMPTY_KEY) {
+                    if (numberOfUsedSlots + 1 > MAX_LOAD_FACTOR * keys.length) {
+                        final long[] oldKeys = keys;
+                        final int[] oldCounts = counts;
+                        keys = new long[2 * oldKeys.length];
+                        counts = new int[keys.length];
+                        for (int s = 0; s < oldKeys.length; s++) {
+                            if (oldKeys[s] != EMPTY_KEY) {
+                                final int newSlot = findSlot(keys, oldKeys[s]);
+                                keys[newSlot] = oldKeys[s];
+                                counts[newSlot] = oldCounts[s];
+                            }
+                        }
+                        slot = findSlot(keys, key);
+                    }
+                    keys[slot] = key;
+                    numberOfUsedSlots++;
+                }
+                counts[slot]++;
+            }
+        }
+
+        // second pass: save the words of each deletion variant
+        startsOfPostings = new int[keys.length + 1];
+        for (int s = 0; s < keys.length; s++) {
+            startsOfPostings[s + 1] = Math.addExact(startsOfPostings[s], counts[s]);
+        }
+        postings = new int[startsOfPostings[keys.length]];
+        final int[] nextPositions = counts;   // reused
+        System.arraycopy(startsOfPostings, 0, nextPositions, 0, keys.length);
+        for (int w = 0; w < numberOfWords; w++) {
+            final int numberOfVariants = deletionVariants.generate(
+                    lettersOfWords, startsOfWords[w], startsOfWords[w + 1] - startsOfWords[w]);
+            for (int v = 0; v < numberOfVariants; v++) {
+                postings[nextPositions[findSlot(keys, deletionVariants.hashes[v])]++] = w;
+            }
+        }
+        this.keys = keys;
+        this.numberOfDeletionVariants = numberOfUsedSlots;
+        this.buildTimeInNanoseconds = System.nanoTime() - startTime;
+    }
+
+    /**
+     * @param costModel       The costs of the {@link EditOperation}s.
+     * @param maxEditDistance The maximum threshold.
+     * @return true if each {@link EditOperation} which can be used within the threshold
+     * (except the {@link EditOperation#COPY}) costs at least 1 and the {@link EditOperation#KILL}
+     * cannot be used within the threshold.
+     */
+    public static boolean isApplicable(@NotNull final EditCostModel costModel, final int maxEditDistance) {
+        final EditCostModel.SubstitutionMatrix substitutionMatrix = costModel.getSubstitutionMatrix();
+        return costModel.getCost(EditOperation.DELETE) > 0 && costModel.getCost(EditOperation.INSERT) > 0
+                && (substitutionMatrix == null
+                ? costModel.getCost(EditOperation.REPLACE) > 0
+                : substitutionMatrix.hasOnlyPositiveCosts())
+                && (!costModel.isTwiddleEnabled() || costModel.getCost(EditOperation.TWIDDLE) > 0)
+                && (!costModel.isKillEnabled() || costModel.getCost(EditOperation.KILL) > maxEditDistance);
+    }
+
+    /**
+     * Finds the words of the index whose edit distance from the query does not exceed the given threshold.
+     *
+     * @param query       The query, which is the starting word for the edit distance.
+     * @param maxDistance The threshold for the edit distance (non-negative and not greater than the
+     *                    maximum threshold of this index).
+     * @return the words within the threshold with their edit distance from the query,
+     * sorted by increasing edit distance and then alphabetically (duplicated words of the dictionary
+     * are reported once).
+     * @throws IllegalArgumentException if the given threshold is negative or greater than the maximum
+     *                                  threshold of this index.
+     */
+    @NotNull
+    public List<DictionaryMatch> search(@NotNull final String query, final int maxDistance) {
+        Objects.requireNonNull(query);
+        if (maxDistance < 0 || maxDistance > maxEditDistance) {
+            throw new IllegalArgumentException("The threshold must be between 0 and "
+                    + maxEditDistance + ", but " + maxDistance + " found.");
+        }
+        final DeletionVariants deletionVariants = new DeletionVariants(maxDistance);
+        final int numberOfVariants = deletionVariants.generate(query.toCharArray(), 0, query.length());
+        int[] candidates = new int[16];
+        int numberOfCandidates = 0;
+        for (int v = 0; v < numberOfVariants; v++) {
+            final int slot = findSlot(keys, deletionVariants.hashes[v]);
+            if (keys[slot] == EMPTY_KEY) {
+                continue;
+            }
+            final int from = startsOfPostings[slot];
+            final int to = startsOfPostings[slot + 1];
+            if (candidates.length < numberOfCandidates + to - from) {
+                candidates = Arrays.copyOf(candidates, Math.max(numberOfCandidates + to - from, 2 * candidates.length));
+            }
+            System.arraycopy(postings, from, candidates, numberOfCandidates, to - from);
+            numberOfCandidates += to - from;
+        }
+
+        // verify each candidate once
+        Arrays.sort(candidates, 0, numberOfCandidates);
+        final EditDistanceEngine engine = EditDistanceEngine.getThreadLocalInstance();
+        final List<DictionaryMatch> matches = new ArrayList<>();
+        for (int c = 0; c < numberOfCandidates; c++) {
+            final int w = candidates[c];
+            if (c > 0 && w == candidates[c - 1]) {
+                continue;
+            }
+            final String word = new String(lettersOfWords, startsOfWords[w], startsOfWords[w + 1] - startsOfWords[w]);
+            final int editDistance = engine.computeWithin(query, word, maxDistance, costModel);
+            if (editDistance <= maxDistance) {
+                matches.add(new DictionaryMatch(word, editDistance));
+            }
+        }
+        matches.sort(null);
+        for (int i = matches.size() - 1; i > 0; i--) {  // duplicated words of the dictionary
+            if (matches.get(i).equals(matches.get(i - 1))) {
+                matches.remove(i);
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * @return the number of words in the index (including duplicates).
+     */
+    public int size() {
+        return startsOfWords.length - 1;
+    }
+
+    /**
+     * @return the maximum threshold which can be used in searches.
+     */
+    public int getMaxEditDistance() {
+        return maxEditDistance;
+    }
+
+    /**
+     * @return the costs of the {@link EditOperation}s used by this index.
+     */
+    @NotNull
+    public EditCostModel getCostModel() {
+        return costModel;
+    }
+
+    /**
+     * @return the number of distinct deletion variants of the words (up to collisions of hashes).
+     */
+    public int getNumberOfDeletionVariants() {
+        return numberOfDeletionVariants;
+    }
+
+    /**
+     * @return the number of pairs (deletion variant, word) saved in the index.
+     */
+    public int getNumberOfPostings() {
+        return postings.length;
+    }
+
+    /**
+     * @return the approximated number of bytes used by the arrays of this index.
+     */
+    public long getMemoryFootprintInBytes() {
+        return (long) Character.BYTES * lettersOfWords.length
+                + (long) Integer.BYTES * startsOfWords.length
+                + (long) Long.BYTES * keys.length
+                + (long) Integer.BYTES * postings.length
+                + (long) Integer.BYTES * startsOfPostings.length;
+    }
+
+    /**
+     * @return the time, in nanoseconds, spent to build this index.
+     */
+    public long getBuildTimeInNanoseconds() {
+        return buildTimeInNanoseconds;
+    }
+
+    @Override
+    public String toString() {
+        return "SymmetricDeleteIndex{" +
+                "words=" + size() +
+                ", maxEditDistance=" + maxEditDistance +
+                ", deletionVariants=" + numberOfDeletionVariants +
+                ", postings=" + postings.length +
+                ", memoryFootprint=" + getMemoryFootprintInBytes() + "B" +
+                ", buildTime=" + buildTimeInNanoseconds / 1_000_000 + "ms" +
+                '}';
+    }
+
+    /**
+     * @param keys The table of the hashes of the deletion variants.
+     * @param key  A hash.
+     * @return the slot holding the given hash, or the empty slot where it would be inserted.
+     */
+    private static int findSlot(final long[] keys, final long key) {
+        final int mask = keys.length - 1;
+        int slot = (int) (key ^ (key >>> 32)) & mask;
+        while (keys[slot] != EMPTY_KEY && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * An instance of this class generates the hashes of the deletion variants of a word,
+     * without duplicates, reusing its buffers.
+     */
+    private static final class DeletionVariants {
+
+        /**
+         * The maximum number of deleted letters.
+         */
+        private final int maxDeletions;
+
+        /**
+         * The hashes of the deletion variants of the last word (the first ones are valid).
+         */
+        private long[] hashes = new long[64];
+
+        /**
+         * The number of valid hashes in {@link #hashes} while generating.
+         */
+        private int numberOfHashes;
+
+        /**
+         * One buffer for each number of deleted letters: the i-th buffer holds a variant with i deletions.
+         */
+        private final char[][] buffers;
+
+        /**
+         * @param maxDeletions The maximum number of deleted letters.
+         */
+        DeletionVariants(final int maxDeletions) {
+            this.maxDeletions = maxDeletions;
+            this.buffers = new char[maxDeletions + 1][];
+        }
+
+        /**
+         * Generates the hashes of the distinct deletion variants of a word, saved in the first
+         * elements of {@link #hashes}.
+         *
+         * @param letters The array holding the letters of the word.
+         * @param start   The index of the first letter of the word.
+         * @param length  The length of the word.
+         * @return the number of distinct deletion variants.
+         */
+        int generate(final char[] letters, final int start, final int length) {
+            for (int i = 0; i <= maxDeletions; i++) {
+                if (buffers[i] == null || buffers[i].length < length) {
+                    buffers[i] = new char[Math.max(length, 16)];
+                }
+            }
+            System.arraycopy(letters, start, buffers[0], 0, length);
+            numberOfHashes = 0;
+            generate(0, length, 0);
+            Arrays.sort(hashes, 0, numberOfHashes);
+            int numberOfDistinctHashes = 0;
+            for (int i = 0; i < numberOfHashes; i++) {
+                if (i == 0 || hashes[i] != hashes[i - 1]) {
+                    hashes[numberOfDistinctHashes++] = hashes[i];
+                }
+            }
+            return numberOfDistinctHashes;
+        }
+
+        /**
+         * Saves the hash of the variant in the given buffer, then deletes one more letter
+         * at each position not before the given one (so that each set of positions is generated once).
+         *
+         * @param deletions The number of deleted letters (the index of the buffer holding the variant).
+         * @param length    The length of the variant.
+         * @param from      The first position where a letter can be deleted.
+         */
+        private void generate(final int deletions, final int length, final int from) {
+            if (numberOfHashes == hashes.length) {
+                hashes = Arrays.copyOf(hashes, 2 * hashes.length);
+            }
+            hashes[numberOfHashes++] = hash(buffers[deletions], length);
+            if (deletions == maxDeletions) {
+                return;
+            }
+            final char[] variant = buffers[deletions];
+            final char[] shorterVariant = buffers[deletions + 1];
+            for (int p = from; p < length; p++) {
+                System.arraycopy(variant, 0, shorterVariant, 0, p);
+                System.arraycopy(variant, p + 1, shorterVariant, p, length - p - 1);
+                generate(deletions + 1, length - 1, p);
+            }
+        }
+
+        /**
+         * @param letters The letters.
+         * @param length  The number of letters to hash.
+         * @return a 64-bit hash of the given letters, different from {@link #EMPTY_KEY}.
+         */
+        private static long hash(final char[] letters, final int length) {
+            long hash = 0x9E3779B97F4A7C15L ^ length;
+            for (int i = 0; i < length; i++) {
+                hash = (hash ^ letters[i]) * 0x100000001B3L;
+            }
+            hash ^= hash >>> 33;    // final mix (from MurmurHash3)
+            hash *= 0xFF51AFD7ED558CCDL;
+            hash ^= hash >>> 33;
+            return hash == EMPTY_KEY ? 1L : hash;
+        }
+    }
+}
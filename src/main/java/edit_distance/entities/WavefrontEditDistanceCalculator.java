@@ -0,0 +1,291 @@
+package edit_distance.entities;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * This class computes the edit distance between two (very long) words using many threads.
+ * <p/>
+ * A cell of the cost matrix depends only on the cells of the two previous rows and of the
+ * two previous columns (the farthest is read by the {@link EditOperation#TWIDDLE}), hence,
+ * dividing the cost matrix in square blocks, the blocks on the same anti-diagonal are independent
+ * once the ones of the previous anti-diagonals have been computed. The anti-diagonals of blocks are
+ * computed one after the other (<i>wavefront</i>) and the blocks of each anti-diagonal in parallel
+ * on a {@link ForkJoinPool}: threads synchronize only once per anti-diagonal, not per cell.
+ * <p/>
+ * Each block is filled by {@link EditDistanceEngine#fillBlock} of the
+ * {@link EditDistanceEngine#getThreadLocalInstance() workspace of its thread} and the blocks exchange
+ * only their boundaries: the last two rows of each row of blocks (kept for three rows of blocks, because
+ * the block two anti-diagonals below reads the corner of a block) and the last two columns computed for each
+ * row. The memory requirement is <i>O(n+m)</i>.
+ */
+public final class WavefrontEditDistanceCalculator {
+
+    /**
+     * Default number of rows and columns of a block.
+     */
+    static final int DEFAULT_BLOCK_SIZE = 512;
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private WavefrontEditDistanceCalculator() {
+    }
+
+    /**
+     * Computes the edit distance with the {@link EditCostModel#DEFAULT default costs} on the
+     * {@link ForkJoinPool#commonPool() common pool}.
+     *
+     * @param startingWord The starting word.
+     * @param targetWord   The target word.
+     * @return the edit distance from the starting word to the target word, which is the same which would
+     * be returned by {@link EditDistanceCalculator#getEditDistance()} on a new instance.
+     */
+    public static int computeEditDistance(@NotNull final String startingWord, @NotNull final String targetWord) {
+        return computeEditDistance(startingWord, targetWord, EditCostModel.DEFAULT);
+    }
+
+    /**
+     * Like {@link #computeEditDistance(String, String)}, but with the given costs.
+     *
+     * @param startingWord The starting word.
+     * @param targetWord   The target word.
+     * @param costModel    The costs of the {@link EditOperation}s.
+     * @return the edit distance from the starting word to the target word.
+     */
+    public static int computeEditDistance(
+            @NotNull final String startingWord, @NotNull final String targetWord,
+            @NotNull final EditCostModel costModel) {
+        return computeEditDistance(startingWord, targetWord, costModel, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Like {@link #computeEditDistance(String, String)}, but with the given costs and the given {@link ForkJoinPool}.
+     *
+     * @param startingWord The starting word.
+     * @param targetWord   The target word.
+     * @param costModel    The costs of the {@link EditOperation}s.
+     * @param forkJoinPool The {@link ForkJoinPool} where the blocks are computed.
+     * @return the edit distance from the starting word to the target word.
+     */
+    public static int computeEditDistance(
+            @NotNull final String startingWord, @NotNull final String targetWord,
+            @NotNull final EditCostModel costModel, @NotNull final ForkJoinPool forkJoinPool) {
+        return computeEditDistance(Objects.requireNonNull(startingWord).chars().toArray(),
+                Objects.requireNonNull(targetWord).chars().toArray(), costModel, forkJoinPool, DEFAULT_BLOCK_SIZE);
+    }
+
+    /**
+     * @param startingWord The letters of the starting word.
+     * @param targetWord   The letters of the target word.
+     * @param costModel    The costs of the {@link EditOperation}s.
+     * @param forkJoinPool The {@link ForkJoinPool} where the blocks are computed.
+     * @param blockSize    The number of rows and columns of a block (at least 2: the corner of a block is read
+     *                     two columns to its left, where a block of one column three rows of blocks below,
+     *                     on the same anti-diagonal, would write in the same buffer of rows).
+     * @return the edit distance from the starting word to the target word.
+     */
+    static int computeEditDistance(final int[] startingWord, final int[] targetWord,
+                                   @NotNull final EditCostModel costModel, @NotNull final ForkJoinPool forkJoinPool,
+                                   final int blockSize) {
+        Objects.requireNonNull(costModel);
+        Objects.requireNonNull(forkJoinPool);
+        if (blockSize < 2) {
+            throw new IllegalArgumentException("The size of blocks must be at least 2, but " + blockSize + " found.");
+        }
+        final int n = startingWord.length;
+        final int m = targetWord.length;
+        final int insertCost = costModel.getCost(EditOperation.INSERT);
+        final int deleteCost = costModel.getCost(EditOperation.DELETE);
+        if (n == 0 || m == 0) {
+            int editDistance = n * deleteCost + m * insertCost;
+            if (n > 0 && costModel.isKillEnabled()) {
+                editDistance = Math.min(editDistance, costModel.getCost(EditOperation.KILL));
+            }
+            return editDistance;
+        }
+
+        final Wavefront wavefront = new Wavefront(startingWord, targetWord, costModel, blockSize);
+        final int[] rowAboveFirstRowOfBlocks = wavefront.lastTwoRowsOfRowsOfBlocks[2][1];
+        for (int j = 0; j <= m; j++) {
+            rowAboveFirstRowOfBlocks[j + 1] = j * insertCost;
+        }
+        for (int i = 0; i <= n; i++) {
+            wavefront.lastTwoColumns[1][i] = i * deleteCost;
+        }
+        forkJoinPool.invoke(wavefront);
+
+        int editDistance = wavefront.lastTwoRowsOfRowsOfBlocks[(wavefront.numberOfRowsOfBlocks - 1) % 3][1][m + 1];
+        if (costModel.isKillEnabled()) {
+            int minCostOfCellsFromWhichToKill = m * insertCost;     // first row
+            for (int minCostOfLastColumn : wavefront.minCostsOfLastColumnOfRowsOfBlocks) {
+                minCostOfCellsFromWhichToKill = Math.min(minCostOfCellsFromWhichToKill, minCostOfLastColumn);
+            }
+            editDistance = Math.min(editDistance,
+                    minCostOfCellsFromWhichToKill + costModel.getCost(EditOperation.KILL));
+        }
+        return editDistance;
+    }
+
+    /**
+     * An instance of this class computes the anti-diagonals of blocks one after the other,
+     * and holds the boundaries exchanged by the blocks.
+     */
+    private static final class Wavefront extends RecursiveAction {
+
+        /**
+         * The version of the serialized form, required by {@link RecursiveAction} (never serialized).
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * The letters of the starting word.
+         */
+        private final int[] startingWord;
+        /**
+         * The letters of the target word.
+         */
+        private final int[] targetWord;
+        /**
+         * The costs of the {@link EditOperation}s.
+         */
+        @NotNull
+        private final EditCostModel costModel;
+        /**
+         * The number of rows and columns of a block.
+         */
+        private final int blockSize;
+        /**
+         * The number of rows of blocks.
+         */
+        private final int numberOfRowsOfBlocks;
+        /**
+         * The number of columns of blocks.
+         */
+        private final int numberOfColumnsOfBlocks;
+        /**
+         * The last two rows of the cost matrix computed by the blocks of the row of blocks i, at index <code>i%3</code>
+         * (the index 2 initially holds the first row of the cost matrix). Rows are indexed by the column plus 1.
+         */
+        private final int[][][] lastTwoRowsOfRowsOfBlocks;
+        /**
+         * The last two columns of the cost matrix computed for each row (initially, the first column).
+         */
+        private final int[][] lastTwoColumns;
+        /**
+         * The minimum among the cells of the last column of each row of blocks, excluding the last row
+         * of the cost matrix.
+         */
+        private final int[] minCostsOfLastColumnOfRowsOfBlocks;
+
+        /**
+         * Constructor.
+         *
+         * @param startingWord The letters of the starting word.
+         * @param targetWord   The letters of the target word.
+         * @param costModel    The costs of the {@link EditOperation}s.
+         * @param blockSize    The number of rows and columns of a block.
+         */
+        Wavefront(final int[] startingWord, final int[] targetWord, @NotNull final EditCostModel costModel,
+                  final int blockSize) {
+            this.startingWord = startingWord;
+            this.targetWord = targetWord;
+            this.costModel = costModel;
+            this.blockSize = blockSize;
+            this.numberOfRowsOfBlocks = (startingWord.length + blockSize - 1) / blockSize;
+            this.numberOfColumnsOfBlocks = (targetWord.length + blockSize - 1) / blockSize;
+            this.lastTwoRowsOfRowsOfBlocks = new int[3][2][targetWord.length + 2];
+            this.lastTwoColumns = new int[2][startingWord.length + 1];
+            this.minCostsOfLastColumnOfRowsOfBlocks = new int[numberOfRowsOfBlocks];
+        }
+
+        @Override
+        protected void compute() {
+            for (int antiDiagonal = 0; antiDiagonal < numberOfRowsOfBlocks + numberOfColumnsOfBlocks - 1;
+                 antiDiagonal++) {
+                new BlocksTask(this, antiDiagonal,
+                        Math.max(0, antiDiagonal - numberOfColumnsOfBlocks + 1),
+                        Math.min(antiDiagonal, numberOfRowsOfBlocks - 1) + 1).invoke();
+            }
+        }
+
+        /**
+         * Computes a block.
+         *
+         * @param rowOfBlocks    The index of the row of blocks.
+         * @param columnOfBlocks The index of the column of blocks.
+         */
+        void computeBlock(final int rowOfBlocks, final int columnOfBlocks) {
+            final int[][] rowsAboveBlock = lastTwoRowsOfRowsOfBlocks[(rowOfBlocks + 2) % 3];
+            final int[][] lastRowsOfBlock = lastTwoRowsOfRowsOfBlocks[rowOfBlocks % 3];
+            final int minCostOfLastColumn = EditDistanceEngine.getThreadLocalInstance().fillBlock(
+                    costModel, startingWord, targetWord, rowsAboveBlock[0], rowsAboveBlock[1],
+                    lastRowsOfBlock[0], lastRowsOfBlock[1], lastTwoColumns[0], lastTwoColumns[1],
+                    rowOfBlocks * blockSize + 1, Math.min(startingWord.length, (rowOfBlocks + 1) * blockSize) + 1,
+                    columnOfBlocks * blockSize + 1, Math.min(targetWord.length, (columnOfBlocks + 1) * blockSize) + 1);
+            if (columnOfBlocks == numberOfColumnsOfBlocks - 1) {
+                minCostsOfLastColumnOfRowsOfBlocks[rowOfBlocks] = minCostOfLastColumn;
+            }
+        }
+    }
+
+    /**
+     * An instance of this class computes the blocks of an anti-diagonal whose rows of blocks are in a range,
+     * splitting the range in halves until a single block remains.
+     */
+    private static final class BlocksTask extends RecursiveAction {
+
+        /**
+         * The version of the serialized form, required by {@link RecursiveAction} (never serialized).
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * The wavefront to which the blocks belong.
+         */
+        @NotNull
+        private final Wavefront wavefront;
+        /**
+         * The index of the anti-diagonal (the sum of the indexes of the row and of the column of a block).
+         */
+        private final int antiDiagonal;
+        /**
+         * The index (included) of the first row of blocks of the range.
+         */
+        private final int fromRowOfBlocks;
+        /**
+         * The index (excluded) of the last row of blocks of the range.
+         */
+        private final int toRowOfBlocks;
+
+        /**
+         * Constructor.
+         *
+         * @param wavefront       The wavefront to which the blocks belong.
+         * @param antiDiagonal    The index of the anti-diagonal.
+         * @param fromRowOfBlocks The index (included) of the first row of blocks of the range.
+         * @param toRowOfBlocks   The index (excluded) of the last row of blocks of the range.
+         */
+        BlocksTask(@NotNull final Wavefront wavefront, final int antiDiagonal,
+                   final int fromRowOfBlocks, final int toRowOfBlocks) {
+            this.wavefront = wavefront;
+            this.antiDiagonal = antiDiagonal;
+            this.fromRowOfBlocks = fromRowOfBlocks;
+            this.toRowOfBlocks = toRowOfBlocks;
+        }
+
+        @Override
+        protected void compute() {
+            if (toRowOfBlocks - fromRowOfBlocks == 1) {
+                wavefront.computeBlock(fromRowOfBlocks, antiDiagonal - fromRowOfBlocks);
+                return;
+            }
+            final int middleRowOfBlocks = (fromRowOfBlocks + toRowOfBlocks) >>> 1;
+            invokeAll(new BlocksTask(wavefront, antiDiagonal, fromRowOfBlocks, middleRowOfBlocks),
+                    new BlocksTask(wavefront, antiDiagonal, middleRowOfBlocks, toRowOfBlocks));
+        }
+    }
+}
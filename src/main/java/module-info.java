@@ -4,7 +4,8 @@
 module edit_distance {
     requires org.jetbrains.annotations;
     requires org.apache.commons.lang3;
-    requires benchmark;
+    requires jdk.jfr;
+    requires jdk.httpserver;
 
     opens edit_distance;
     opens edit_distance.utils;
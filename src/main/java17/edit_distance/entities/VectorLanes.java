@@ -0,0 +1,82 @@
+package edit_distance.entities;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+import org.jetbrains.annotations.NotNull;
+
+import static edit_distance.entities.LaneParallelEditDistanceCalculator.LANES;
+import static edit_distance.entities.LaneParallelEditDistanceCalculator.NOT_APPLICABLE_PENALTY;
+
+/**
+ * Lanes whose rows are filled with the Vector API (module <code>jdk.incubator.vector</code>).
+ * <p/>
+ * The {@link LaneParallelEditDistanceCalculator#LANES LANES} lanes of a column are split in vectors of the preferred size of the platform (the whole
+ * column with 512-bit registers), and each vector walks the row from left to right keeping in registers the
+ * cell on the left and the cells on the diagonals, so each cell costs a load of the row above and a store.
+ * The comparisons of the letters are vector masks, which select the extra cost of the
+ * {@link EditOperation#REPLACE} and the penalty of the {@link EditOperation#TWIDDLE} when not applicable.
+ * <p/>
+ * This class is compiled only by a JDK 17 or later and it is loaded by reflection by
+ * {@link LaneParallelEditDistanceCalculator}, if the module is available at runtime.
+ */
+final class VectorLanes extends LaneParallelEditDistanceCalculator.Lanes {
+
+    /**
+     * The shape of the vectors: the preferred one, if its lanes split the ones of a column,
+     * otherwise the 128-bit one (4 lanes), supported by all the platforms with SIMD instructions.
+     */
+    private static final VectorSpecies<Integer> SPECIES =
+            LANES % IntVector.SPECIES_PREFERRED.length() == 0 ? IntVector.SPECIES_PREFERRED : IntVector.SPECIES_128;
+
+    /**
+     * @param costModel The costs of the {@link EditOperation}s (without substitution matrix).
+     */
+    VectorLanes(@NotNull final EditCostModel costModel) {
+        super(costModel);
+    }
+
+    @Override
+    void fillRow(final int i, final int maxM,
+                 final int[] currentRow, final int[] previousRow, final int[] twoRowsAbove) {
+        final int[] startingWords = this.startingWords;
+        final int[] targetWords = this.targetWords;
+        final IntVector copyCost = IntVector.broadcast(SPECIES, this.copyCost);
+        final IntVector extraCostOfReplace = IntVector.broadcast(SPECIES, this.extraCostOfReplace);
+        final IntVector twiddleCost = IntVector.broadcast(SPECIES, this.twiddleCost);
+        final IntVector notApplicablePenalty = IntVector.broadcast(SPECIES, NOT_APPLICABLE_PENALTY);
+        final int deleteCost = this.deleteCost;
+        final int insertCost = this.insertCost;
+        for (int lane = 0; lane < LANES; lane += SPECIES.length()) {
+            final IntVector letters = IntVector.fromArray(SPECIES, startingWords, i * LANES + lane);
+            final IntVector previousLetters = IntVector.fromArray(SPECIES, startingWords, (i - 1) * LANES + lane);
+            IntVector left = IntVector.broadcast(SPECIES, i * deleteCost);
+            left.intoArray(currentRow, LANES + lane);
+            IntVector diagonal = IntVector.fromArray(SPECIES, previousRow, LANES + lane);
+            IntVector diagonalOfTwoRowsAbove = IntVector.fromArray(SPECIES, twoRowsAbove, lane);
+            IntVector previousLettersAlongColumns = IntVector.fromArray(SPECIES, targetWords, lane);
+            // the target letters are one column before the cells
+            for (int j = 1; j <= maxM; j++) {
+                final int cell = (j + 1) * LANES + lane;
+                final IntVector lettersAlongColumns = IntVector.fromArray(SPECIES, targetWords, j * LANES + lane);
+                final IntVector above = IntVector.fromArray(SPECIES, previousRow, cell);
+                final VectorMask<Integer> isReplace = letters.compare(VectorOperators.NE, lettersAlongColumns);
+                final VectorMask<Integer> isTwiddleApplicable =
+                        letters.compare(VectorOperators.EQ, previousLettersAlongColumns)
+                                .and(previousLetters.compare(VectorOperators.EQ, lettersAlongColumns));
+                final IntVector twiddle = diagonalOfTwoRowsAbove.add(twiddleCost)
+                        .add(notApplicablePenalty, isTwiddleApplicable.not());
+                final IntVector cost = diagonal.add(copyCost).add(extraCostOfReplace, isReplace)
+                        .min(twiddle)
+                        .min(above.add(deleteCost))
+                        .min(left.add(insertCost));
+                cost.intoArray(currentRow, cell);
+                left = cost;
+                diagonal = above;
+                diagonalOfTwoRowsAbove = IntVector.fromArray(SPECIES, twoRowsAbove, cell - LANES);
+                previousLettersAlongColumns = lettersAlongColumns;
+            }
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package edit_distance;
+
+import edit_distance.entities.EditCostModel;
+import edit_distance.entities.EditDistanceCalculator;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BulkPairProcessorTest {
+
+    @Test
+    void appendTheEditDistancesToTheLinesInInputOrder() throws IOException {
+        final Random random = new Random(0);
+        final String ALPHABET = "abcàè";
+        final StringBuilder input = new StringBuilder();
+        final List<String> expectedLines = new ArrayList<>();
+        for (int p = 0; p < 500; p++) {
+            final StringBuilder startingWord = new StringBuilder();
+            final StringBuilder targetWord = new StringBuilder();
+            for (int length = random.nextInt(12); length > 0; length--) {
+                startingWord.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+            }
+            for (int length = random.nextInt(12); length > 0; length--) {
+                targetWord.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+            }
+            final String line = startingWord + "\t" + targetWord;
+            input.append(line).append(p % 7 == 0 ? "\r\n" : "\n");
+            if (p % 50 == 0) {
+                input.append('\n');     // empty lines are skipped
+            }
+            expectedLines.add(line + "\t" + EditDistanceCalculator.computeEditDistance(
+                    startingWord.toString(), targetWord.toString()));
+        }
+        input.setLength(input.length() - 1);    // last line not terminated
+
+        final Path inputFile = Files.createTempFile("pairs", ".tsv");
+        final Path outputFile = Files.createTempFile("distances", ".tsv");
+        try {
+            Files.write(inputFile, input.toString().getBytes(StandardCharsets.UTF_8));
+            // tiny regions and chunks, to cross their boundaries
+            for (int[] sizes : new int[][]{{64, 16}, {100, 100}, {BulkPairProcessor.BYTES_PER_MAPPED_REGION,
+                    BulkPairProcessor.BYTES_PER_CHUNK}}) {
+                final BulkPairProcessor.Report report =
+                        new BulkPairProcessor(EditCostModel.DEFAULT, '\t', 3, sizes[0], sizes[1])
+                                .process(inputFile, outputFile);
+                assertEquals(expectedLines, Files.readAllLines(outputFile, StandardCharsets.UTF_8));
+                assertEquals(expectedLines.size(), report.getNumberOfPairs());
+                assertEquals(Files.size(inputFile), report.getNumberOfBytes());
+                assertTrue(report.getPairsPerSecond() > 0);
+            }
+        } finally {
+            Files.deleteIfExists(inputFile);
+            Files.deleteIfExists(outputFile);
+        }
+    }
+
+    @Test
+    void rejectMalformedLinesAndInvalidArguments() throws IOException {
+        final Path inputFile = Files.createTempFile("pairs", ".csv");
+        final Path outputFile = Files.createTempFile("distances", ".csv");
+        try {
+            Files.write(inputFile, "a,b\nno separator\n".getBytes(StandardCharsets.UTF_8));
+            final BulkPairProcessor bulkPairProcessor = new BulkPairProcessor(EditCostModel.LEVENSHTEIN, ',', 1);
+            assertThrows(IllegalArgumentException.class, () -> bulkPairProcessor.process(inputFile, outputFile));
+
+            Files.write(inputFile, "a,b\nlonger than a region,b\n".getBytes(StandardCharsets.UTF_8));
+            assertThrows(IllegalArgumentException.class, () -> new BulkPairProcessor(
+                    EditCostModel.LEVENSHTEIN, ',', 1, 8, 4).process(inputFile, outputFile));
+        } finally {
+            Files.deleteIfExists(inputFile);
+            Files.deleteIfExists(outputFile);
+        }
+        assertThrows(IllegalArgumentException.class, () -> new BulkPairProcessor(EditCostModel.DEFAULT, '\n', 1));
+        assertThrows(IllegalArgumentException.class, () -> new BulkPairProcessor(EditCostModel.DEFAULT, ',', 0));
+    }
+}
@@ -0,0 +1,275 @@
+package edit_distance;
+
+import edit_distance.entities.EditCostModel;
+import edit_distance.entities.EditDistanceCalculator;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EditDistanceServerTest {
+
+    /**
+     * The status and the body of a response.
+     */
+    private static final class Response {
+        final int status;
+        final String body;
+
+        Response(final int status, final String body) {
+            this.status = status;
+            this.body = body;
+        }
+    }
+
+    @NotNull
+    private static EditDistanceServer startServer(@Nullable final List<String> dictionary) throws IOException {
+        final EditDistanceServer server = new EditDistanceServer(
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), EditCostModel.LEVENSHTEIN, dictionary, 2);
+        server.start();
+        return server;
+    }
+
+    @NotNull
+    private static String encode(@NotNull final String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    @NotNull
+    private static Response send(@NotNull final EditDistanceServer server, @NotNull final String method,
+                                 @NotNull final String pathAndQuery, @Nullable final String body) throws IOException {
+        final HttpURLConnection connection = (HttpURLConnection) new URL(
+                "http://" + InetAddress.getLoopbackAddress().getHostAddress() + ":" + server.getPort() + pathAndQuery)
+                .openConnection();
+        try {
+            connection.setRequestMethod(method);
+            if (body != null) {
+                connection.setDoOutput(true);
+                connection.setChunkedStreamingMode(64);     // the body is streamed in small chunks
+                try (OutputStream requestBody = connection.getOutputStream()) {
+                    requestBody.write(body.getBytes(StandardCharsets.UTF_8));
+                }
+            }
+            final int status = connection.getResponseCode();
+            final InputStream responseBody = status < 400 ? connection.getInputStream() : connection.getErrorStream();
+            try (responseBody) {
+                return new Response(status,
+                        responseBody == null ? "" : new String(responseBody.readAllBytes(), StandardCharsets.UTF_8));
+            }
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    @Test
+    void answerTheDistancesAndTheLookups() throws IOException {
+        try (EditDistanceServer server = startServer(List.of("kitten", "sitting", "mitten", "bitter"))) {
+            Response response = send(server, "GET", "/distance?from=kitten&to=sitting", null);
+            assertEquals(200, response.status);
+            assertEquals("3\n", response.body);
+            assertEquals("2\n", send(server, "GET",
+                    "/distance?from=" + encode("càsa") + "&to=" + encode("cosà"), null).body);
+            assertEquals("2\n", send(server, "GET", "/within?from=kitten&to=sitting&max=1", null).body);
+            assertEquals("kitten\t0\nmitten\t1\nbitter\t2\n",
+                    send(server, "GET", "/lookup?query=kitten&max=2", null).body);
+            assertEquals("kitten\t0\nmitten\t1\n", send(server, "GET", "/lookup?query=kitten&k=2", null).body);
+            // k greater than the number of words answers all of them
+            assertEquals("kitten\t0\nmitten\t1\nbitter\t2\nsitting\t3\n", send(server, "GET",
+                    "/lookup?query=kitten&k=" + EditDistanceServer.MAX_MATCHES, null).body);
+            assertEquals(200, send(server, "GET", "/metrics", null).status);
+        }
+    }
+
+    @Test
+    void rejectInvalidRequests() throws IOException {
+        final String longestWord = "a".repeat(EditDistanceServer.MAX_WORD_LENGTH);
+        final List<String> dictionary = new ArrayList<>();
+        for (int w = 0; w <= EditDistanceServer.MAX_MATCHES; w++) {
+            dictionary.add("w" + w);
+        }
+        try (EditDistanceServer server = startServer(dictionary)) {
+            // missing, malformed and out of range parameters
+            assertEquals(400, send(server, "GET", "/distance?from=kitten", null).status);
+            assertEquals(400, send(server, "GET", "/within?from=a&to=b&max=x", null).status);
+            assertEquals(400, send(server, "GET", "/within?from=a&to=b&max=-1", null).status);
+            assertEquals(400, send(server, "GET", "/within?from=a&to=b&max="
+                    + (EditDistanceServer.MAX_THRESHOLD + 1), null).status);
+            assertEquals(400, send(server, "GET", "/within?from=a&to=b&max=" + Integer.MAX_VALUE, null).status);
+            assertEquals(400, send(server, "GET", "/lookup?query=a&k=0", null).status);
+            final Response badRequest = send(server, "GET",
+                    "/lookup?query=a&k=" + (EditDistanceServer.MAX_MATCHES + 1), null);
+            assertEquals(400, badRequest.status);
+            assertEquals("The parameter 'k' must be between 1 and " + EditDistanceServer.MAX_MATCHES + ", but "
+                    + (EditDistanceServer.MAX_MATCHES + 1) + " found.\n", badRequest.body);
+            assertEquals(400, send(server, "GET", "/lookup?query=a&k=" + Integer.MAX_VALUE, null).status);
+            assertEquals(400, send(server, "GET", "/lookup?query=a&max=" + Integer.MAX_VALUE, null).status);
+            // too many words within the threshold
+            assertEquals(400, send(server, "GET", "/lookup?query=w&max=4", null).status);
+            assertEquals(EditDistanceServer.MAX_MATCHES, send(server, "GET",
+                    "/lookup?query=w&k=" + EditDistanceServer.MAX_MATCHES, null).body.split("\n").length);
+
+            // too long words
+            assertEquals(200, send(server, "GET", "/distance?from=" + longestWord + "&to=b", null).status);
+            assertEquals(400, send(server, "GET", "/distance?from=" + longestWord + "a&to=b", null).status);
+            assertEquals(400, send(server, "GET", "/within?from=a&to=" + longestWord + "a&max=1", null).status);
+            assertEquals(400, send(server, "GET", "/lookup?query=" + longestWord + "a&k=1", null).status);
+
+            // unknown paths and unsupported methods
+            assertEquals(404, send(server, "GET", "/distances", null).status);
+            assertEquals(404, send(server, "GET", "/", null).status);
+            assertEquals(404, send(server, "POST", "/lookup/words", "").status);
+            assertEquals(405, send(server, "POST", "/distance?from=a&to=b", "").status);
+            final Response methodNotAllowed = send(server, "DELETE", "/lookup?query=a&k=1", null);
+            assertEquals(405, methodNotAllowed.status);
+            assertEquals("The method must be GET, but DELETE found.\n", methodNotAllowed.body);
+            assertEquals(405, send(server, "GET", "/batch", null).status);
+
+            // malformed batches, rejected before any result is sent
+            assertEquals(400, send(server, "POST", "/batch", "a\tb\nno separator\n").status);
+            assertEquals(400, send(server, "POST", "/batch?format=xml", "a\tb\n").status);
+            assertEquals(400, send(server, "POST", "/batch", "a\t" + longestWord + longestWord).status);
+            assertEquals(200, send(server, "POST", "/batch", longestWord + "\t" + longestWord + "\r\n").status);
+        }
+        try (EditDistanceServer server = startServer(null)) {
+            assertEquals(404, send(server, "GET", "/lookup?query=kitten&max=2", null).status);
+        }
+    }
+
+    @Test
+    void streamTheResultsOfConcurrentBatchesInInputOrder() throws Exception {
+        final Random random = new Random(0);
+        final String ALPHABET = "abcàè";
+        final List<String> bodies = new ArrayList<>();
+        final List<String> expectedResponses = new ArrayList<>();
+        for (int b = 0; b < 4; b++) {
+            final StringBuilder body = new StringBuilder();
+            final StringBuilder expectedResponse = new StringBuilder();
+            // more pairs than the ones of all the tasks in flight, to wait for free slots
+            for (int p = 0; p < 5 * EditDistanceServer.PAIRS_PER_TASK + 7; p++) {
+                final StringBuilder startingWord = new StringBuilder();
+                final StringBuilder targetWord = new StringBuilder();
+                for (int length = random.nextInt(12); length > 0; length--) {
+                    startingWord.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+                }
+                for (int length = random.nextInt(12); length > 0; length--) {
+                    targetWord.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+                }
+                final String line = startingWord + "," + targetWord;
+                body.append(line).append(p % 7 == 0 ? "\r\n" : "\n");
+                expectedResponse.append(line).append(',').append(EditDistanceCalculator.computeEditDistance(
+                        startingWord.toString(), targetWord.toString(), EditCostModel.LEVENSHTEIN)).append('\n');
+            }
+            bodies.add(body.toString());
+            expectedResponses.add(expectedResponse.toString());
+        }
+
+        final ExecutorService clients = Executors.newFixedThreadPool(bodies.size());
+        try (EditDistanceServer server = startServer(null)) {
+            final List<Future<Response>> responses = new ArrayList<>();
+            for (String body : bodies) {
+                responses.add(clients.submit(() -> send(server, "POST", "/batch?format=csv", body)));
+            }
+            for (int b = 0; b < bodies.size(); b++) {
+                final Response response = responses.get(b).get();
+                assertEquals(200, response.status);
+                assertEquals(expectedResponses.get(b), response.body);
+            }
+
+            assertEquals("", send(server, "POST", "/batch", "").body);
+        } finally {
+            clients.shutdownNow();
+        }
+    }
+
+    @Test
+    void endTheStreamedBatchWithTheErrorOfAMalformedLine() throws IOException, InterruptedException {
+        final int numberOfPairs =
+                3 * EditDistanceServer.PAIRS_PER_TASK * EditDistanceServer.TASKS_IN_FLIGHT_PER_THREAD;
+        final StringBuilder pairs = new StringBuilder();
+        for (int p = 0; p < numberOfPairs; p++) {
+            pairs.append("a\tb\n");
+        }
+        try (EditDistanceServer server = startServer(null)) {
+            // a malformed line after the first results ends the streamed response with the error
+            Response response = send(server, "POST", "/batch", pairs + "no separator\nc\td\n");
+            assertEquals(200, response.status);
+            assertTrue(response.body.startsWith("a\tb\t1\n"));
+            assertTrue(response.body.endsWith("a\tb\t1\n" + EditDistanceServer.BATCH_ERROR_PREFIX
+                    + "\tThe line " + (numberOfPairs + 1) + " does not contain the separator.\n"));
+
+            // and so does a too long line, which is not buffered
+            response = send(server, "POST", "/batch",
+                    pairs + "\n" + "a".repeat(EditDistanceServer.MAX_LINE_LENGTH) + "\tb\n");
+            assertEquals(200, response.status);
+            assertTrue(response.body.endsWith("a\tb\t1\n" + EditDistanceServer.BATCH_ERROR_PREFIX
+                    + "\tThe line " + (numberOfPairs + 2) + " is longer than "
+                    + EditDistanceServer.MAX_LINE_LENGTH + " characters.\n"));
+
+            // the slots of the interrupted batches have been released
+            assertEquals("a\tb\t1\n", send(server, "POST", "/batch", "a\tb").body);
+            assertAllSlotsAreFree(server);
+        }
+    }
+
+    @Test
+    void holdTheSlotsOfTheTasksUntilTheirResultsAreWritten() throws Exception {
+        final int numberOfSlots = 2 * EditDistanceServer.TASKS_IN_FLIGHT_PER_THREAD;
+        final String pairs = "a\tb\n".repeat(2 * numberOfSlots * EditDistanceServer.PAIRS_PER_TASK);
+        try (EditDistanceServer server = startServer(null)) {
+            final HttpURLConnection connection = (HttpURLConnection) new URL("http://"
+                    + InetAddress.getLoopbackAddress().getHostAddress() + ":" + server.getPort() + "/batch")
+                    .openConnection();
+            try {
+                connection.setRequestMethod("POST");
+                connection.setDoOutput(true);
+                connection.setChunkedStreamingMode(64);
+                final OutputStream requestBody = connection.getOutputStream();
+                requestBody.write(pairs.getBytes(StandardCharsets.UTF_8));
+                requestBody.flush();
+                // the request is not over, so the results of its last tasks are computed but not written
+                for (int attempt = 0; attempt < 100 && server.getNumberOfFreeSlots() > 0; attempt++) {
+                    Thread.sleep(50);
+                }
+                assertEquals(0, server.getNumberOfFreeSlots());
+                requestBody.close();
+                assertEquals(pairs.replace("\n", "\t1\n"),
+                        new String(connection.getInputStream().readAllBytes(), StandardCharsets.UTF_8));
+            } finally {
+                connection.disconnect();
+            }
+            assertAllSlotsAreFree(server);
+        }
+    }
+
+    /**
+     * Waits for the slots of the completed batches to be released.
+     *
+     * @param server The server.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    private static void assertAllSlotsAreFree(@NotNull final EditDistanceServer server)
+            throws InterruptedException {
+        final int numberOfSlots = 2 * EditDistanceServer.TASKS_IN_FLIGHT_PER_THREAD;
+        for (int attempt = 0; attempt < 100 && server.getNumberOfFreeSlots() < numberOfSlots; attempt++) {
+            Thread.sleep(50);   // released after the end of the response is sent
+        }
+        assertEquals(numberOfSlots, server.getNumberOfFreeSlots());
+    }
+}
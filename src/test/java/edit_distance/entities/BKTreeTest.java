@@ -0,0 +1,86 @@
+package edit_distance.entities;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static edit_distance.entities.TestUtility.randomWord;
+import static org.junit.jupiter.api.Assertions.*;
+
+class BKTreeTest {
+
+    /**
+     * The letters of the random words.
+     */
+    private static final String ALPHABET = "abcde";
+
+    /**
+     * A metric with costs depending on the letters.
+     */
+    private static final EditCostModel WEIGHTED_METRIC = EditCostModel.LEVENSHTEIN
+            .withCost(EditOperation.REPLACE, 3)
+            .withCost(EditOperation.DELETE, 2)
+            .withCost(EditOperation.INSERT, 2)
+            .withReplaceCosts("ab", new int[][]{{0, 1}, {1, 0}});
+
+    @NotNull
+    private static List<DictionaryMatch> linearScan(
+            @NotNull final List<String> dictionary, @NotNull final String query, int maxDistance,
+            @NotNull final EditCostModel costModel) {
+        List<DictionaryMatch> matches = new ArrayList<>();
+        for (String word : dictionary) {
+            int editDistance = EditDistanceCalculator.computeEditDistance(query, word, costModel);
+            if (editDistance <= maxDistance && matches.stream().noneMatch(m -> m.getWord().equals(word))) {
+                matches.add(new DictionaryMatch(word, editDistance));
+            }
+        }
+        matches.sort(null);
+        return matches;
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 1, 2, 3, 5})
+    void findTheSameWordsOfALinearScan(int maxDistance) {
+        final Random random = new Random(maxDistance);
+        final List<String> dictionary = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            dictionary.add(randomWord(random, 1 + random.nextInt(8), ALPHABET));
+        }
+        for (EditCostModel costModel : List.of(EditCostModel.LEVENSHTEIN, WEIGHTED_METRIC)) {
+            final BKTree tree = new BKTree(dictionary, costModel);
+            for (int k = 0; k < 30; k++) {
+                String query = randomWord(random, random.nextInt(9), ALPHABET);
+                assertEquals(linearScan(dictionary, query, maxDistance, costModel), tree.search(query, maxDistance));
+            }
+        }
+    }
+
+    @Test
+    void addWordsIncrementally() {
+        final BKTree tree = new BKTree();
+        assertTrue(tree.search("kitten", 10).isEmpty());
+        assertTrue(tree.add("kitten"));
+        assertTrue(tree.add("sitting"));
+        assertTrue(tree.add("mitten"));
+        assertFalse(tree.add("kitten"));
+        assertEquals(3, tree.size());
+        assertTrue(tree.contains("mitten"));
+        assertFalse(tree.contains("bitten"));
+        assertEquals(
+                List.of(new DictionaryMatch("kitten", 1), new DictionaryMatch("mitten", 1)),
+                tree.search("bitten", 2));
+    }
+
+    @Test
+    void rejectCostModelsWhichAreNotMetrics() {
+        assertThrows(IllegalArgumentException.class, () -> new BKTree(EditCostModel.DEFAULT));
+        assertThrows(IllegalArgumentException.class, () -> new BKTree(EditCostModel.LEVENSHTEIN.withTwiddle(true)));
+        assertThrows(IllegalArgumentException.class, () -> new BKTree(EditCostModel.LEVENSHTEIN.withKill(true)));
+        assertThrows(IllegalArgumentException.class, () -> new BKTree().search("a", -1));
+    }
+}
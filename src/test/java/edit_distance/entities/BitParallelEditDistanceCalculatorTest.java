@@ -0,0 +1,61 @@
+package edit_distance.entities;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Random;
+
+import static edit_distance.entities.TestUtility.randomWord;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BitParallelEditDistanceCalculatorTest {
+
+    @Test
+    void bitParallelAlgorithmIsApplicableWithDefaultCosts() {
+        assertTrue(BitParallelEditDistanceCalculator.isApplicable());
+        assertEquals(EditDistanceAlgorithm.BIT_PARALLEL, EditDistanceAlgorithm.getFastestApplicable());
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "Foo,Bar",
+            ",",
+            "A,B",
+            ",B",
+            "A,",
+            "hello,hella",
+            "HOME,HOUSE",
+            "Intention,Execution",
+            "brt,bart",
+            "caar,car",
+            "abcd,badc",
+            "PLASMA,ALTRUISM"
+    })
+    void computeEditDistanceAsTheFullCalculator(String startingWord, String targetWord) {
+        startingWord = startingWord == null ? "" : startingWord;    // correction due to csv interpreter
+        targetWord = targetWord == null ? "" : targetWord;
+        assertEquals(
+                new EditDistanceCalculator(startingWord, targetWord).getEditDistance(),
+                BitParallelEditDistanceCalculator.computeEditDistance(startingWord, targetWord));
+        assertEquals(
+                new EditDistanceCalculator(targetWord, startingWord).getEditDistance(),
+                BitParallelEditDistanceCalculator.computeEditDistance(targetWord, startingWord));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {10, 63, 64, 65, 130, 300})
+    void computeEditDistanceAsTheFullCalculatorOnRandomWords(int maxLength) {
+        final Random random = new Random(maxLength);
+        for (int k = 0; k < 300; k++) {
+            String startingWord = randomWord(random, random.nextInt(maxLength + 1));
+            String targetWord = randomWord(random, random.nextInt(maxLength + 1));
+            assertEquals(
+                    new EditDistanceCalculator(startingWord, targetWord).getEditDistance(),
+                    EditDistanceAlgorithm.BIT_PARALLEL.computeEditDistance(startingWord, targetWord),
+                    startingWord + " -> " + targetWord);
+        }
+    }
+}
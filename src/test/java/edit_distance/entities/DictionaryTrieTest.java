@@ -0,0 +1,210 @@
+package edit_distance.entities;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.zip.CRC32C;
+
+import static edit_distance.entities.TestUtility.randomWord;
+import static org.junit.jupiter.api.Assertions.*;
+
+class DictionaryTrieTest {
+
+    @ParameterizedTest
+    @MethodSource("edit_distance.entities.TestUtility#costModels")
+    void findTheSameWordsOfALinearScan(@NotNull final EditCostModel costModel) {
+        final Random random = new Random(costModel.hashCode());
+        final Set<String> dictionary = new LinkedHashSet<>();
+        for (int i = 0; i < 400; i++) {
+            dictionary.add(randomWord(random, random.nextInt(9)));
+        }
+        final DictionaryTrie trie = new DictionaryTrie(dictionary, costModel);
+        assertEquals(dictionary.size(), trie.size());
+        for (int k = 0; k < 40; k++) {
+            String query = randomWord(random, random.nextInt(10));
+            int maxDistance = random.nextInt(5);
+            List<DictionaryMatch> expectedMatches = new ArrayList<>();
+            for (String word : dictionary) {
+                int editDistance = new EditDistanceCalculator(query, word, costModel).getEditDistance();
+                if (editDistance <= maxDistance) {
+                    expectedMatches.add(new DictionaryMatch(word, editDistance));
+                }
+            }
+            expectedMatches.sort(null);
+            assertEquals(expectedMatches, trie.search(query, maxDistance));
+        }
+    }
+
+    @Test
+    void addWordsIncrementally() {
+        final DictionaryTrie trie = new DictionaryTrie(EditCostModel.LEVENSHTEIN);
+        assertTrue(trie.search("car", 3).isEmpty());
+        assertTrue(trie.add("car"));
+        assertTrue(trie.add("cart"));
+        assertTrue(trie.add("care"));
+        assertTrue(trie.add(""));
+        assertFalse(trie.add("cart"));
+        assertEquals(4, trie.size());
+        assertTrue(trie.contains("car"));
+        assertTrue(trie.contains(""));
+        assertFalse(trie.contains("ca"));
+        assertFalse(trie.contains("cars"));
+        assertEquals(
+                List.of(new DictionaryMatch("car", 1), new DictionaryMatch("cart", 1)),
+                trie.search("cat", 1));
+        assertEquals(List.of(new DictionaryMatch("", 0)), trie.search("", 0));
+        assertThrows(IllegalArgumentException.class, () -> trie.search("car", -1));
+    }
+
+    @Test
+    void searchTheSavedTrieFromTheMappedFile() throws IOException {
+        final Random random = new Random(0);
+        final Set<String> dictionary = new LinkedHashSet<>();
+        for (int i = 0; i < 2000; i++) {
+            dictionary.add(randomWord(random, random.nextInt(12)));
+        }
+        final EditCostModel costModel =
+                EditCostModel.LEVENSHTEIN.withTwiddle(true).withKill(true).withCost(EditOperation.KILL, 2);
+        final DictionaryTrie trie = new DictionaryTrie(dictionary, costModel);
+        final Path file = Files.createTempFile("dictionary", ".trie");
+        final Path copy = Files.createTempFile("dictionary", ".trie");
+        try {
+            trie.save(file);
+            final DictionaryTrie loadedTrie = DictionaryTrie.load(file, costModel);
+            assertTrue(loadedTrie.isReadOnly());
+            assertFalse(trie.isReadOnly());
+            assertEquals(trie.size(), loadedTrie.size());
+            assertEquals(trie.size(), DictionaryTrie.load(file, costModel, true).size());
+            loadedTrie.save(copy);      // saved again from the mapped nodes
+            assertArrayEquals(Files.readAllBytes(file), Files.readAllBytes(copy));
+            for (String word : dictionary) {
+                assertTrue(loadedTrie.contains(word));
+            }
+            for (int k = 0; k < 40; k++) {
+                final String query = randomWord(random, random.nextInt(12));
+                assertFalse(dictionary.contains(query) ^ loadedTrie.contains(query));
+                assertEquals(trie.search(query, k % 4), loadedTrie.search(query, k % 4));
+            }
+            assertThrows(UnsupportedOperationException.class, () -> loadedTrie.add("abc"));
+            assertEquals(EditCostModel.DEFAULT, DictionaryTrie.load(file).getCostModel());
+
+            final DictionaryTrie emptyTrie = new DictionaryTrie();
+            emptyTrie.save(file);
+            assertEquals(0, DictionaryTrie.load(file, EditCostModel.DEFAULT, true).size());
+            assertTrue(DictionaryTrie.load(file).search("abc", 5).isEmpty());
+        } finally {
+            Files.deleteIfExists(file);
+            Files.deleteIfExists(copy);
+        }
+    }
+
+    @Test
+    void rejectFilesWhichAreNotSavedTries() throws IOException {
+        final Path file = Files.createTempFile("dictionary", ".trie");
+        try {
+            new DictionaryTrie(List.of("car", "cart")).save(file);
+            final byte[] bytes = Files.readAllBytes(file);
+            assertEquals(DictionaryTrie.HEADER_BYTES + 5 * 11, bytes.length);     // 5 nodes of 11 bytes
+
+            Files.write(file, Arrays.copyOf(bytes, bytes.length - 1));
+            assertThrows(IOException.class, () -> DictionaryTrie.load(file));
+            Files.write(file, Arrays.copyOf(bytes, 10));
+            assertThrows(IOException.class, () -> DictionaryTrie.load(file));
+
+            final byte[] otherVersion = bytes.clone();
+            otherVersion[Integer.BYTES] = DictionaryTrie.FORMAT_VERSION + 1;
+            Files.write(file, otherVersion);
+            assertThrows(IOException.class, () -> DictionaryTrie.load(file));
+
+            final byte[] corruptedHeader = bytes.clone();
+            corruptedHeader[2 * Integer.BYTES] ^= 1;    // the number of words
+            Files.write(file, corruptedHeader);
+            assertThrows(IOException.class, () -> DictionaryTrie.load(file));
+            // a header with the right checksum, but a longest word longer than the nodes
+            final ByteBuffer longWordsHeader = ByteBuffer.wrap(bytes.clone()).order(ByteOrder.LITTLE_ENDIAN);
+            longWordsHeader.putInt(4 * Integer.BYTES, Integer.MAX_VALUE);
+            Files.write(file, withChecksums(longWordsHeader.array()));
+            assertThrows(IOException.class, () -> DictionaryTrie.load(file));
+
+            Files.write(file, "car\ncart\n".getBytes(StandardCharsets.UTF_8));
+            assertThrows(IOException.class, () -> DictionaryTrie.load(file));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    void verifyTheNodesOfTheLoadedTries() throws IOException {
+        final Path file = Files.createTempFile("dictionary", ".trie");
+        try {
+            // the nodes of "car" and "cart": the root, c, a, r, t
+            new DictionaryTrie(List.of("car", "cart")).save(file);
+            final byte[] bytes = Files.readAllBytes(file);
+            final int firstChildren = DictionaryTrie.HEADER_BYTES;
+            final int nextSiblings = firstChildren + 5 * Integer.BYTES;
+            final int letters = nextSiblings + 5 * Integer.BYTES;
+            final int endsOfWords = letters + 5 * Character.BYTES;
+
+            final byte[] otherLetter = bytes.clone();
+            otherLetter[letters + 2 * Character.BYTES] = 'o';
+            Files.write(file, otherLetter);
+            assertTrue(DictionaryTrie.load(file).contains("cor"));     // the sections are not checked
+            assertThrows(IOException.class, () -> DictionaryTrie.load(file, EditCostModel.DEFAULT, true));
+
+            // the corrupted nodes have the right checksums
+            final ByteBuffer missingNode = ByteBuffer.wrap(bytes.clone()).order(ByteOrder.LITTLE_ENDIAN);
+            missingNode.putInt(firstChildren + 4 * Integer.BYTES, 5);
+            final ByteBuffer referencedRoot = ByteBuffer.wrap(bytes.clone()).order(ByteOrder.LITTLE_ENDIAN);
+            referencedRoot.putInt(firstChildren + 4 * Integer.BYTES, 0);
+            final ByteBuffer cycleOfSiblings = ByteBuffer.wrap(bytes.clone()).order(ByteOrder.LITTLE_ENDIAN);
+            cycleOfSiblings.putInt(nextSiblings + 2 * Integer.BYTES, 2);
+            final ByteBuffer otherDepth = ByteBuffer.wrap(bytes.clone()).order(ByteOrder.LITTLE_ENDIAN);
+            otherDepth.putInt(4 * Integer.BYTES, 3);
+            final ByteBuffer otherFlag = ByteBuffer.wrap(bytes.clone()).order(ByteOrder.LITTLE_ENDIAN);
+            otherFlag.put(endsOfWords + 3, (byte) 2);
+            final ByteBuffer otherSize = ByteBuffer.wrap(bytes.clone()).order(ByteOrder.LITTLE_ENDIAN);
+            otherSize.putInt(2 * Integer.BYTES, 3);
+            for (ByteBuffer corruptedNodes : List.of(
+                    missingNode, referencedRoot, cycleOfSiblings, otherDepth, otherFlag, otherSize)) {
+                Files.write(file, withChecksums(corruptedNodes.array()));
+                DictionaryTrie.load(file);      // the nodes are not verified
+                assertThrows(IOException.class, () -> DictionaryTrie.load(file, EditCostModel.DEFAULT, true));
+            }
+
+            Files.write(file, withChecksums(bytes.clone()));
+            assertTrue(DictionaryTrie.load(file, EditCostModel.DEFAULT, true).contains("cart"));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * @param bytes The bytes of a saved trie.
+     * @return the given bytes, with the checksums of the sections and of the header updated.
+     */
+    @NotNull
+    private static byte[] withChecksums(@NotNull final byte[] bytes) {
+        final ByteBuffer buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        final CRC32C checksum = new CRC32C();
+        checksum.update(bytes, DictionaryTrie.HEADER_BYTES, bytes.length - DictionaryTrie.HEADER_BYTES);
+        buffer.putInt(5 * Integer.BYTES, (int) checksum.getValue());
+        checksum.reset();
+        checksum.update(bytes, 0, DictionaryTrie.HEADER_CHECKSUM_POSITION);
+        buffer.putInt(DictionaryTrie.HEADER_CHECKSUM_POSITION, (int) checksum.getValue());
+        return bytes;
+    }
+}
@@ -0,0 +1,96 @@
+package edit_distance.entities;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static edit_distance.entities.TestUtility.randomWord;
+import static org.junit.jupiter.api.Assertions.*;
+
+class DistanceMatrixTest {
+
+    @NotNull
+    private static List<String> randomWords(@NotNull final Random random, int numberOfWords, int maxLength) {
+        List<String> words = new ArrayList<>(numberOfWords);
+        for (int i = 0; i < numberOfWords; i++) {
+            words.add(randomWord(random, random.nextInt(maxLength + 1)));
+        }
+        return words;
+    }
+
+    private static void assertAllPairs(
+            @NotNull final List<String> words, @NotNull final EditCostModel costModel,
+            @NotNull final DistanceMatrix distanceMatrix) {
+        assertEquals(words.size(), distanceMatrix.size());
+        for (int i = 0; i < words.size(); i++) {
+            for (int j = 0; j < words.size(); j++) {
+                assertEquals(EditDistanceCalculator.computeEditDistance(words.get(i), words.get(j), costModel),
+                        distanceMatrix.get(i, j));
+            }
+        }
+    }
+
+    @Test
+    void computeOnlyTheUpperTriangleForSymmetricCosts() {
+        final List<String> words = randomWords(new Random(0), 3 * DistanceMatrix.TILE_SIZE + 5, 12);
+        final DistanceMatrix distanceMatrix =
+                DistanceMatrix.compute(words, EditCostModel.LEVENSHTEIN, ForkJoinPool.commonPool());
+        assertTrue(distanceMatrix.isSymmetric());
+        assertEquals(Short.BYTES, distanceMatrix.getBytesPerValue());
+        assertAllPairs(words, EditCostModel.LEVENSHTEIN, distanceMatrix);
+    }
+
+    @Test
+    void computeTheWholeMatrixForAsymmetricCosts() {
+        final List<String> words = randomWords(new Random(1), DistanceMatrix.TILE_SIZE + 7, 12);
+        final DistanceMatrix distanceMatrix = DistanceMatrix.compute(words);
+        assertFalse(distanceMatrix.isSymmetric());
+        assertAllPairs(words, EditCostModel.DEFAULT, distanceMatrix);
+
+        final EditCostModel expensiveCosts = EditCostModel.LEVENSHTEIN.withCost(EditOperation.DELETE, 20_000);
+        final ForkJoinPool forkJoinPool = new ForkJoinPool(2);
+        try {
+            final DistanceMatrix distanceMatrixWithLargeValues =
+                    DistanceMatrix.compute(words, expensiveCosts, forkJoinPool);
+            assertEquals(Integer.BYTES, distanceMatrixWithLargeValues.getBytesPerValue());
+            assertAllPairs(words, expensiveCosts, distanceMatrixWithLargeValues);
+        } finally {
+            forkJoinPool.shutdown();
+        }
+        assertEquals(0, DistanceMatrix.compute(List.of()).size());
+        assertThrows(IndexOutOfBoundsException.class, () -> distanceMatrix.get(0, words.size()));
+    }
+
+    @Test
+    void saveTheMatrixInAMemoryMappedFile() throws IOException {
+        final List<String> words = randomWords(new Random(2), 2 * DistanceMatrix.TILE_SIZE + 1, 10);
+        final Path file = Files.createTempFile("distances", ".bin");
+        try {
+            final DistanceMatrix distanceMatrix = DistanceMatrix.computeToFile(
+                    words, EditCostModel.LEVENSHTEIN, file, ForkJoinPool.commonPool());
+            assertAllPairs(words, EditCostModel.LEVENSHTEIN, distanceMatrix);
+
+            // packed upper triangle of little-endian shorts
+            final int n = words.size();
+            final ByteBuffer content = ByteBuffer.wrap(Files.readAllBytes(file)).order(ByteOrder.LITTLE_ENDIAN);
+            assertEquals((long) n * (n + 1) / 2 * Short.BYTES, content.capacity());
+            int index = 0;
+            for (int i = 0; i < n; i++) {
+                for (int j = i; j < n; j++) {
+                    assertEquals(distanceMatrix.get(i, j), content.getShort(Short.BYTES * index++));
+                }
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package edit_distance.entities;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.List;
+import java.util.Random;
+
+import static edit_distance.entities.TestUtility.randomWord;
+import static org.junit.jupiter.api.Assertions.*;
+
+class EditCostModelTest {
+
+    /**
+     * The letters of the random words.
+     */
+    private static final String ALPHABET = "qwert";
+
+    /**
+     * Costs of replacing letters of the first row of a keyboard: adjacent keys cost 1, the others 2.
+     */
+    private static final EditCostModel KEYBOARD = EditCostModel.LEVENSHTEIN
+            .withCost(EditOperation.REPLACE, 2)
+            .withCost(EditOperation.DELETE, 2)
+            .withCost(EditOperation.INSERT, 2)
+            .withReplaceCosts("qwer", new int[][]{
+                    {0, 1, 2, 2},
+                    {1, 0, 1, 2},
+                    {2, 1, 0, 1},
+                    {2, 2, 1, 0}});
+
+    @NotNull
+    private static List<EditCostModel> costModels() {
+        return List.of(
+                EditCostModel.DEFAULT,
+                EditCostModel.LEVENSHTEIN,
+                EditCostModel.LEVENSHTEIN.withTwiddle(true),
+                EditCostModel.DEFAULT.withCost(EditOperation.REPLACE, 3).withCost(EditOperation.DELETE, 2)
+                        .withCost(EditOperation.TWIDDLE, 2).withCost(EditOperation.KILL, 5),
+                EditCostModel.LEVENSHTEIN.withCost(EditOperation.INSERT, 3)
+                        .withKill(true).withCost(EditOperation.KILL, 4),
+                KEYBOARD,
+                KEYBOARD.withTwiddle(true).withKill(true).withCost(EditOperation.KILL, 3));
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "kitten,sitting,3",
+            "abcd,badc,3",
+            "Intention,Execution,5",
+            ",abc,3",
+            "abc,,3"
+    })
+    void computeLevenshteinDistance(String startingWord, String targetWord, int expectedEditDistance) {
+        startingWord = startingWord == null ? "" : startingWord;    // correction due to csv interpreter
+        targetWord = targetWord == null ? "" : targetWord;
+        assertEquals(expectedEditDistance,
+                new EditDistanceCalculator(startingWord, targetWord, EditCostModel.LEVENSHTEIN).getEditDistance());
+        assertEquals(expectedEditDistance,
+                EditDistanceCalculator.computeEditDistance(startingWord, targetWord, EditCostModel.LEVENSHTEIN));
+    }
+
+    @Test
+    void disableOperationsWithoutRecompiling() {
+        final EditCostModel cheapTwiddle = EditCostModel.LEVENSHTEIN.withTwiddle(true);
+        assertEquals(2, EditDistanceCalculator.computeEditDistance("ab", "ba", EditCostModel.LEVENSHTEIN));
+        assertEquals(1, EditDistanceCalculator.computeEditDistance("ab", "ba", cheapTwiddle));
+        assertEquals(2, EditDistanceCalculator.computeEditDistance("ab", "ba", cheapTwiddle.withTwiddle(false)));
+
+        final EditCostModel cheapKill = EditCostModel.LEVENSHTEIN.withKill(true).withCost(EditOperation.KILL, 2);
+        assertEquals(6, EditDistanceCalculator.computeEditDistance("abcdefg", "a", EditCostModel.LEVENSHTEIN));
+        assertEquals(2, EditDistanceCalculator.computeEditDistance("abcdefg", "a", cheapKill));
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "qwer,wwer,1",  // adjacent keys
+            "qwer,ewer,2",  // distant keys
+            "qwer,xwer,2",  // letter not in the table
+            "qwer,wqer,2"
+    })
+    void useSubstitutionMatrix(String startingWord, String targetWord, int expectedEditDistance) {
+        var calculator = new EditDistanceCalculator(startingWord, targetWord, KEYBOARD);
+        assertEquals(expectedEditDistance, calculator.getEditDistance());
+        assertEquals(expectedEditDistance,
+                calculator.getSequenceOfOperationComputedToTransformStartingWordToTargetWord().stream()
+                        .mapToInt(AppliedEditOperation::getOperationCost).sum());
+        assertEquals(expectedEditDistance, new EditDistanceEngine(KEYBOARD).compute(startingWord, targetWord));
+    }
+
+    @ParameterizedTest
+    @MethodSource("costModels")
+    void specializedKernelsAgreeWithTheFullCalculator(@NotNull final EditCostModel costModel) {
+        final EditDistanceEngine engine = new EditDistanceEngine(costModel);
+        final Random random = new Random(costModel.hashCode());
+        for (int k = 0; k < 300; k++) {
+            String startingWord = randomWord(random, random.nextInt(k % 50 == 0 ? 100 : 12), ALPHABET);
+            String targetWord = randomWord(random, random.nextInt(k % 50 == 0 ? 100 : 12), ALPHABET);
+            int maxDistance = random.nextInt(10);
+            var calculator = new EditDistanceCalculator(startingWord, targetWord, costModel);
+            final int editDistance = calculator.getEditDistance();
+            assertEquals(editDistance, calculator.getEditScript().stream()
+                    .mapToInt(AppliedEditOperation::getOperationCost).sum());
+            assertEquals(editDistance, engine.compute(startingWord, targetWord));
+            assertEquals(editDistance, EditDistanceCalculator.computeEditDistance(startingWord, targetWord, costModel));
+            assertEquals(Math.min(editDistance, maxDistance + 1),
+                    engine.computeWithin(startingWord, targetWord, maxDistance));
+            assertEquals(editDistance,
+                    HirschbergEditDistanceCalculator.getSequenceOfOperationComputedToTransformStartingWordToTargetWord(
+                                    startingWord, targetWord, costModel).stream()
+                            .mapToInt(AppliedEditOperation::getOperationCost).sum());
+        }
+    }
+
+    @Test
+    void selectBitParallelAlgorithmOnlyForUnitaryCosts() {
+        assertEquals(EditDistanceAlgorithm.BIT_PARALLEL,
+                EditDistanceAlgorithm.getFastestApplicable(EditCostModel.LEVENSHTEIN));
+        assertEquals(EditDistanceAlgorithm.DYNAMIC_PROGRAMMING, EditDistanceAlgorithm.getFastestApplicable(KEYBOARD));
+        assertThrows(IllegalArgumentException.class,
+                () -> new EditDistanceEngine(KEYBOARD, EditDistanceAlgorithm.BIT_PARALLEL));
+        assertThrows(IllegalStateException.class,
+                () -> BitParallelEditDistanceCalculator.computeEditDistance("a", "b", KEYBOARD));
+    }
+
+    @Test
+    void classifyMetricModels() {
+        assertTrue(EditCostModel.LEVENSHTEIN.isMetric());
+        assertTrue(KEYBOARD.isMetric());
+        assertFalse(EditCostModel.LEVENSHTEIN.withTwiddle(true).isMetric());
+        assertTrue(EditCostModel.LEVENSHTEIN.withTwiddle(true).isSymmetric());
+        assertFalse(EditCostModel.DEFAULT.isSymmetric());
+        assertFalse(EditCostModel.LEVENSHTEIN.withCost(EditOperation.INSERT, 2).isSymmetric());
+        assertFalse(EditCostModel.LEVENSHTEIN.withCost(EditOperation.REPLACE, 0).isMetric());
+    }
+
+    @Test
+    void rejectInvalidCosts() {
+        assertThrows(IllegalArgumentException.class,
+                () -> EditCostModel.LEVENSHTEIN.withCost(EditOperation.DELETE, -1));
+        assertThrows(IllegalArgumentException.class,
+                () -> EditCostModel.LEVENSHTEIN.withReplaceCosts("ab", new int[][]{{0, 1}}));
+        assertThrows(IllegalArgumentException.class,
+                () -> EditCostModel.LEVENSHTEIN.withReplaceCosts("aa", new int[][]{{0, 1}, {1, 0}}));
+    }
+}
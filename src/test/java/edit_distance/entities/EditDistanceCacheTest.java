@@ -0,0 +1,111 @@
+package edit_distance.entities;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EditDistanceCacheTest {
+
+    @Test
+    void countHitsAndMisses() {
+        final EditDistanceCache cache = new EditDistanceCache(10);
+        assertEquals(EditDistanceCalculator.computeEditDistance("kitten", "sitting"),
+                cache.getEditDistance("kitten", "sitting"));
+        assertEquals(EditDistanceCalculator.computeEditDistance("kitten", "sitting"),
+                cache.getEditDistance("kitten", "sitting"));
+        assertEquals(EditDistanceCalculator.computeEditDistance("sitting", "kitten"),
+                cache.getEditDistance("sitting", "kitten"));    // ordered pairs
+        assertEquals(1, cache.getHitCount());
+        assertEquals(2, cache.getMissCount());
+        assertEquals(2, cache.size());
+        assertEquals(1 / 3.0, cache.getHitRate(), 1e-9);
+        cache.clear();
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void evictTheLeastRecentlyUsedPairs() {
+        final EditDistanceCache cache = new EditDistanceCache(1);
+        cache.getEditDistance("a", "b");
+        cache.getEditDistance("a", "c");
+        assertEquals(1, cache.size());
+        assertEquals(1, cache.getEvictionCount());
+        cache.getEditDistance("a", "c");
+        assertEquals(1, cache.getHitCount());
+
+        final EditDistanceCache largerCache = new EditDistanceCache(100);
+        for (int i = 0; i < 1000; i++) {
+            largerCache.getEditDistance("word", "word" + i);
+        }
+        assertTrue(largerCache.size() <= largerCache.getMaximumSize());
+        assertEquals(1000 - largerCache.size(), largerCache.getEvictionCount());
+    }
+
+    @Test
+    void canonicalizeSymmetricPairs() {
+        final EditDistanceCache cache = new EditDistanceCache(10, EditCostModel.LEVENSHTEIN, true, false);
+        assertEquals(3, cache.getEditDistance("kitten", "sitting"));
+        assertEquals(3, cache.getEditDistance("sitting", "kitten"));
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.size());
+
+        assertThrows(IllegalArgumentException.class,
+                () -> new EditDistanceCache(10, EditCostModel.DEFAULT, true, false));
+        assertThrows(IllegalArgumentException.class,
+                () -> new EditDistanceCache(10, EditCostModel.LEVENSHTEIN, true, true));
+        assertThrows(IllegalArgumentException.class, () -> new EditDistanceCache(0));
+    }
+
+    @Test
+    void retainEditScriptsOnlyIfRequired() {
+        final EditDistanceCache cache = new EditDistanceCache(10, EditCostModel.DEFAULT, false, true);
+        final EditScript editScript = cache.getEditScript("algorithm", "altruistic");
+        assertEquals(new EditDistanceCalculator("algorithm", "altruistic").getEditScript().toString(),
+                editScript.toString());
+        assertSame(editScript, cache.getEditScript("algorithm", "altruistic"));
+        assertEquals(EditDistanceCalculator.computeEditDistance("algorithm", "altruistic"),
+                cache.getEditDistance("algorithm", "altruistic"));
+        assertEquals(2, cache.getHitCount());
+
+        assertThrows(IllegalStateException.class, () -> new EditDistanceCache(10).getEditScript("a", "b"));
+    }
+
+    @Test
+    void computeTheSameEditDistancesFromManyThreads() throws Exception {
+        final Random random = new Random(0);
+        final List<String> words = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            words.add(Integer.toString(random.nextInt(10_000), 3));
+        }
+        final EditDistanceCache cache = new EditDistanceCache(500);
+        final ExecutorService executorService = Executors.newFixedThreadPool(4);
+        try {
+            final List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                final Random randomOfThread = new Random(t);
+                futures.add(executorService.submit(() -> {
+                    for (int k = 0; k < 2000; k++) {
+                        String startingWord = words.get(randomOfThread.nextInt(words.size()));
+                        String targetWord = words.get(randomOfThread.nextInt(words.size()));
+                        assertEquals(EditDistanceCalculator.computeEditDistance(startingWord, targetWord),
+                                cache.getEditDistance(startingWord, targetWord));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executorService.shutdown();
+        }
+        assertEquals(8000, cache.getHitCount() + cache.getMissCount());
+        assertTrue(cache.size() <= 500);
+    }
+}
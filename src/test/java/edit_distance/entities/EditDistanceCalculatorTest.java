@@ -6,13 +6,23 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Random;
 
+import static edit_distance.entities.TestUtility.randomWord;
 import static org.junit.jupiter.api.Assertions.*;
 
 class EditDistanceCalculatorTest {
 
+    /**
+     * The letters of the random words.
+     */
+    private static final String ALPHABET = "abc";
+
     @NotNull
     private static final String SAMPLE_WORD_1 = "SAMPLE_1";
     @NotNull
@@ -81,4 +91,120 @@ class EditDistanceCalculatorTest {
         targetWord = targetWord == null ? "" : targetWord;
         assertEquals(expectedEditDistance, new EditDistanceCalculator(startingWord, targetWord).getEditDistance());
     }
-}
\ No newline at end of file
+
+    @ParameterizedTest
+    @CsvSource({
+            "Foo,Bar",
+            ",",
+            "A,B",
+            ",B",
+            "A,",
+            "hello,hella",
+            "HOME,HOUSE",
+            "Intention,Execution",
+            "brt,bart",
+            "caar,car",
+            "abcd,badc",
+            "PLASMA,ALTRUISM"
+    })
+    void computeEditDistanceInLinearMemoryAsTheFullCalculator(String startingWord, String targetWord) {
+        startingWord = startingWord == null ? "" : startingWord;    // correction due to csv interpreter
+        targetWord = targetWord == null ? "" : targetWord;
+        assertEquals(
+                new EditDistanceCalculator(startingWord, targetWord).getEditDistance(),
+                EditDistanceCalculator.computeEditDistance(startingWord, targetWord));
+        assertEquals(
+                new EditDistanceCalculator(targetWord, startingWord).getEditDistance(),
+                EditDistanceCalculator.computeEditDistance(targetWord, startingWord));
+    }
+
+    @Test
+    void killTheStartingWordIfCheaperThanDeletingAllItsRemainingLetters() {
+        final String startingWord = "A" + "Z".repeat(2 * EditOperation.KILL.getCost());
+        final String targetWord = "A";
+        var calculator = new EditDistanceCalculator(startingWord, targetWord);
+        List<AppliedEditOperation> operations =
+                calculator.getSequenceOfOperationComputedToTransformStartingWordToTargetWord();
+        assertEquals(EditOperation.KILL.getCost(), calculator.getEditDistance());
+        assertEquals(calculator.getEditDistance(),
+                operations.stream().mapToInt(AppliedEditOperation::getOperationCost).sum());
+        assertEquals(calculator.getEditDistance(), EditDistanceCalculator.computeEditDistance(startingWord, targetWord));
+    }
+
+    @Test
+    void startFromTheEmptyWordsWithoutCostWhateverTheCostOfTheCopy() {
+        final EditCostModel costlyCopy = EditCostModel.LEVENSHTEIN.withCost(EditOperation.COPY, 1);
+        assertEquals(0, new EditDistanceCalculator("", "", costlyCopy).getEditDistance());
+        assertEquals(1, new EditDistanceCalculator("a", "a", costlyCopy).getEditDistance());
+        assertEquals(3, new EditDistanceCalculator("abc", "abc", costlyCopy).getEditDistance());
+        assertEquals(EditDistanceCalculator.computeEditDistance("kitten", "sitting", costlyCopy),
+                new EditDistanceCalculator("kitten", "sitting", costlyCopy).getEditDistance());
+    }
+
+    @ParameterizedTest
+    @CsvSource({                    // threshold,expected (threshold+1 if the distance exceeds the threshold)
+            "Foo,Bar,3,3",
+            "Foo,Bar,2,3",
+            ",,0,0",
+            ",B,0,1",
+            "A,,1,1",
+            "hello,hella,0,1",
+            "HOME,HOUSE,2,2",
+            "HOME,HOUSE,1,2",
+            "Intention,Execution,5,5",
+            "Intention,Execution,4,5",
+            "Intention,Execution,1,2",
+            "abcdefgh,abcdefghijklmno,3,4"
+    })
+    void computeEditDistanceWithinThreshold(String startingWord, String targetWord, int maxDistance, int expected) {
+        startingWord = startingWord == null ? "" : startingWord;    // correction due to csv interpreter
+        targetWord = targetWord == null ? "" : targetWord;
+        assertEquals(expected, EditDistanceCalculator.distanceWithin(startingWord, targetWord, maxDistance));
+    }
+
+    @Test
+    void computeEditDistanceWithinThresholdAsTheFullCalculatorOnRandomWords() {
+        final Random random = new Random(0);
+        for (int k = 0; k < 2000; k++) {
+            String startingWord = randomWord(random, random.nextInt(15), ALPHABET);
+            String targetWord = randomWord(random, random.nextInt(15), ALPHABET);
+            int maxDistance = random.nextInt(10);
+            int editDistance = new EditDistanceCalculator(startingWord, targetWord).getEditDistance();
+            assertEquals(
+                    editDistance <= maxDistance ? editDistance : maxDistance + 1,
+                    EditDistanceCalculator.distanceWithin(startingWord, targetWord, maxDistance));
+        }
+    }
+
+    @Test
+    void dontAllowNegativeThreshold() {
+        assertThrows(IllegalArgumentException.class,
+                () -> EditDistanceCalculator.distanceWithin(SAMPLE_WORD_1, SAMPLE_WORD_2, -1));
+    }
+
+    @Test
+    void saveTheMatricesOffHeapWithTheSameResults() throws IOException {
+        final Random random = new Random(1);
+        final EditCostModel killingCosts = EditCostModel.LEVENSHTEIN.withKill(true).withCost(EditOperation.KILL, 2);
+        final Path spillDirectory = Files.createTempDirectory("matrices");
+        try {
+            for (EditCostModel costModel : List.of(EditCostModel.DEFAULT, killingCosts)) {
+                for (int k = 0; k < 50; k++) {
+                    String startingWord = randomWord(random, random.nextInt(30), ALPHABET);
+                    String targetWord = randomWord(random, random.nextInt(30), ALPHABET);
+                    var onHeap = new EditDistanceCalculator(startingWord, targetWord, costModel);
+                    var offHeap = new EditDistanceCalculator(startingWord, targetWord, costModel, 0, spillDirectory);
+                    assertEquals(onHeap.getEditDistance(), offHeap.getEditDistance());
+                    assertArrayEquals(onHeap.getEditCostMatrix(), offHeap.getEditCostMatrix());
+                    assertArrayEquals(onHeap.getEditScript().toRunLengthEncoding(),
+                            offHeap.getEditScript().toRunLengthEncoding());
+                }
+            }
+            // the small matrices are saved in the heap also with a spill directory
+            assertEquals(3, new EditDistanceCalculator("kitten", "sitting", EditCostModel.LEVENSHTEIN,
+                    spillDirectory).getEditDistance());
+        } finally {
+            Files.delete(spillDirectory);   // empty, since the temporary files are deleted once mapped
+        }
+    }
+}
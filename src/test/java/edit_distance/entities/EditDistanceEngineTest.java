@@ -0,0 +1,252 @@
+package edit_distance.entities;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static edit_distance.entities.TestUtility.randomWord;
+import static org.junit.jupiter.api.Assertions.*;
+
+class EditDistanceEngineTest {
+
+    @ParameterizedTest
+    @EnumSource(EditDistanceAlgorithm.class)
+    void reuseTheWorkspaceForWordsOfDifferentLengths(EditDistanceAlgorithm algorithm) {
+        if (!algorithm.isApplicable()) {
+            return;
+        }
+        final EditDistanceEngine engine = new EditDistanceEngine(algorithm);
+        final Random random = new Random(0);
+        final int[] maxLengths = {5, 200, 3, 150, 0, 70, 10};   // the buffers grow and are reused with shorter words
+        for (int maxLength : maxLengths) {
+            for (int k = 0; k < 20; k++) {
+                String startingWord = randomWord(random, random.nextInt(maxLength + 1));
+                String targetWord = randomWord(random, random.nextInt(maxLength + 1));
+                assertEquals(
+                        new EditDistanceCalculator(startingWord, targetWord).getEditDistance(),
+                        engine.compute(startingWord, targetWord));
+            }
+        }
+    }
+
+    @Test
+    void computeWithinThresholdReusingTheWorkspace() {
+        final EditDistanceEngine engine = new EditDistanceEngine();
+        final Random random = new Random(1);
+        for (int k = 0; k < 200; k++) {
+            String startingWord = randomWord(random, random.nextInt(40));
+            String targetWord = randomWord(random, random.nextInt(40));
+            int maxDistance = random.nextInt(10);
+            int editDistance = new EditDistanceCalculator(startingWord, targetWord).getEditDistance();
+            assertEquals(
+                    editDistance <= maxDistance ? editDistance : maxDistance + 1,
+                    engine.computeWithin(startingWord, targetWord, maxDistance));
+        }
+    }
+
+    @NotNull
+    private static List<String> randomWords(@NotNull final Random random, int numberOfWords, int maxLength) {
+        List<String> words = new ArrayList<>(numberOfWords);
+        for (int i = 0; i < numberOfWords; i++) {
+            words.add(randomWord(random, random.nextInt(maxLength + 1)));
+        }
+        return words;
+    }
+
+    @ParameterizedTest
+    @EnumSource(EditDistanceAlgorithm.class)
+    void computeDistancesFromOneQueryToManyCandidates(EditDistanceAlgorithm algorithm) {
+        if (!algorithm.isApplicable()) {
+            return;
+        }
+        final EditDistanceEngine engine = new EditDistanceEngine(algorithm);
+        final Random random = new Random(2);
+        final int[] lengthsOfQueries = {0, 1, 7, 64, 65, 150};  // also queries longer than a machine word
+        for (int lengthOfQuery : lengthsOfQueries) {
+            String query = randomWord(random, lengthOfQuery);
+            List<String> candidates = randomWords(random, 50, 2 * lengthOfQuery + 3);
+            int[] editDistances = engine.computeAll(query, candidates);
+            assertEquals(candidates.size(), editDistances.length);
+            for (int i = 0; i < candidates.size(); i++) {
+                assertEquals(new EditDistanceCalculator(query, candidates.get(i)).getEditDistance(), editDistances[i]);
+            }
+        }
+    }
+
+    @Test
+    void computeDistancesFromOneQueryToManyCandidatesWithCustomCosts() {
+        final EditCostModel costModel = EditCostModel.LEVENSHTEIN
+                .withCost(EditOperation.INSERT, 2).withTwiddle(true).withKill(true).withCost(EditOperation.KILL, 3)
+                .withReplaceCosts("ab", new int[][]{{0, 2}, {2, 0}});
+        final Random random = new Random(3);
+        final String query = randomWord(random, 12);
+        final List<String> candidates = randomWords(random, 100, 20);
+        int[] editDistances = EditDistanceCalculator.distances(query, candidates, costModel);
+        for (int i = 0; i < candidates.size(); i++) {
+            assertEquals(new EditDistanceCalculator(query, candidates.get(i), costModel).getEditDistance(),
+                    editDistances[i]);
+        }
+    }
+
+    @Test
+    void computeDistancesFromOneQueryToManyCandidatesInParallel() {
+        final Random random = new Random(4);
+        final String query = randomWord(random, 20);
+        final List<String> candidates = randomWords(random, 5000, 30);
+        final int[] expectedEditDistances = new EditDistanceEngine().computeAll(query, candidates);
+        assertArrayEquals(expectedEditDistances, EditDistanceCalculator.distancesInParallel(query, candidates));
+        ForkJoinPool forkJoinPool = new ForkJoinPool(3);
+        try {
+            assertArrayEquals(expectedEditDistances, new EditDistanceEngine(EditDistanceAlgorithm.DYNAMIC_PROGRAMMING)
+                    .computeAllInParallel(query, candidates, forkJoinPool));
+        } finally {
+            forkJoinPool.shutdown();
+        }
+        assertEquals(0, EditDistanceCalculator.distancesInParallel(query, List.of()).length);
+    }
+
+    @NotNull
+    private static List<DictionaryMatch> nearestByFullSweep(@NotNull final String query,
+                                                            @NotNull final List<String> candidates, int k,
+                                                            @NotNull final EditCostModel costModel) {
+        final int[] editDistances = EditDistanceCalculator.distances(query, candidates, costModel);
+        return IntStream.range(0, candidates.size()).boxed()
+                .sorted(Comparator.<Integer>comparingInt(i -> editDistances[i]).thenComparingInt(i -> i))
+                .limit(k)
+                .map(i -> new DictionaryMatch(candidates.get(i), editDistances[i]))
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    void findTheNearestCandidatesWithTighteningBound() {
+        final Random random = new Random(5);
+        final EditCostModel customCosts = EditCostModel.LEVENSHTEIN.withTwiddle(true).withKill(true)
+                .withCost(EditOperation.KILL, 3).withCost(EditOperation.INSERT, 2);
+        for (EditCostModel costModel : List.of(EditCostModel.DEFAULT, EditCostModel.LEVENSHTEIN, customCosts)) {
+            final String query = randomWord(random, 10);
+            final List<String> candidates = randomWords(random, 3000, 20);
+            for (int k : new int[]{1, 5, 50, 4000}) {
+                final List<DictionaryMatch> expected = nearestByFullSweep(query, candidates, k, costModel);
+                assertEquals(expected, EditDistanceCalculator.nearest(query, candidates, k, costModel));
+                assertEquals(expected, EditDistanceCalculator.nearestInParallel(query, candidates, k, costModel));
+            }
+        }
+        final List<String> candidates = List.of("sitting", "kitten", "mitten", "kitten", "bitten");
+        assertEquals(List.of(new DictionaryMatch("kitten", 0), new DictionaryMatch("kitten", 0)),
+                new EditDistanceEngine().nearest("kitten", candidates, 2));
+        assertEquals(List.of(new DictionaryMatch("kitten", 0), new DictionaryMatch("kitten", 0),
+                new DictionaryMatch("mitten", 1)), new EditDistanceEngine().nearest("kitten", candidates, 3));
+        assertTrue(EditDistanceCalculator.nearest("kitten", List.of(), 5).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> EditDistanceCalculator.nearest("kitten", candidates, 0));
+        assertThrows(IllegalArgumentException.class,
+                () -> EditDistanceCalculator.nearestInParallel("kitten", candidates, -1));
+    }
+
+    @Test
+    void keepAllTheCandidatesIfKExceedsTheirNumber() {
+        final List<String> candidates = List.of("abd", "xyz");
+        final List<DictionaryMatch> expected = List.of(new DictionaryMatch("abd", 1), new DictionaryMatch("xyz", 3));
+        for (int k : new int[]{3, 100_000_000, Integer.MAX_VALUE}) {   // the heaps are not allocated with k entries
+            assertEquals(expected, EditDistanceCalculator.nearest("abc", candidates, k, EditCostModel.LEVENSHTEIN));
+            assertEquals(expected,
+                    EditDistanceCalculator.nearestInParallel("abc", candidates, k, EditCostModel.LEVENSHTEIN));
+        }
+        final Random random = new Random(7);
+        final String query = randomWord(random, 15);
+        final List<String> manyCandidates = randomWords(random, 20000, 25);
+        final ForkJoinPool forkJoinPool = new ForkJoinPool(3);
+        try {   // more than the candidates of a task, fewer than all of them
+            assertEquals(nearestByFullSweep(query, manyCandidates, 12000, EditCostModel.DEFAULT),
+                    new EditDistanceEngine().nearestInParallel(query, manyCandidates, 12000, forkJoinPool));
+            assertEquals(nearestByFullSweep(query, manyCandidates, 20000, EditCostModel.DEFAULT),
+                    new EditDistanceEngine().nearestInParallel(query, manyCandidates, Integer.MAX_VALUE, forkJoinPool));
+        } finally {
+            forkJoinPool.shutdown();
+        }
+    }
+
+    @Test
+    void shareTheBoundAmongTheThreadsOfThePool() {
+        final Random random = new Random(6);
+        final String query = randomWord(random, 15);
+        final List<String> candidates = randomWords(random, 20000, 25);
+        final ForkJoinPool forkJoinPool = new ForkJoinPool(3);
+        try {
+            assertEquals(nearestByFullSweep(query, candidates, 5, EditCostModel.DEFAULT),
+                    new EditDistanceEngine(EditDistanceAlgorithm.DYNAMIC_PROGRAMMING)
+                            .nearestInParallel(query, candidates, 5, forkJoinPool));
+        } finally {
+            forkJoinPool.shutdown();
+        }
+    }
+
+    @Test
+    void acceptCharSequences() {
+        final EditDistanceEngine engine = new EditDistanceEngine();
+        assertEquals(
+                new EditDistanceCalculator("Intention", "Execution").getEditDistance(),
+                engine.compute(new StringBuilder("Intention"), "Execution"));
+    }
+
+    @ParameterizedTest
+    @EnumSource(EditDistanceAlgorithm.class)
+    void computeSlicesOfBuffersWithoutStrings(EditDistanceAlgorithm algorithm) {
+        if (!algorithm.isApplicable()) {
+            return;
+        }
+        final EditDistanceEngine engine = new EditDistanceEngine(algorithm);
+        final String buffer = "..Intention...Execution..";
+        final int expected = new EditDistanceCalculator("Intention", "Execution").getEditDistance();
+        assertEquals(expected, engine.compute(new StringBuilder(buffer), 2, 9, buffer, 14, 9));
+        final byte[] bytes = buffer.getBytes(StandardCharsets.ISO_8859_1);
+        assertEquals(expected, engine.compute(bytes, 2, 9, bytes, 14, 9));
+        final int[] codePoints = buffer.codePoints().toArray();
+        assertEquals(expected, engine.compute(codePoints, 2, 9, codePoints, 14, 9));
+        assertEquals(1, engine.compute(new byte[]{'a', (byte) 0xE9}, 0, 2, new byte[]{'a', (byte) 0xE8}, 0, 2));
+
+        assertThrows(IndexOutOfBoundsException.class, () -> engine.compute(buffer, 20, 9, buffer, 0, 1));
+        assertThrows(IndexOutOfBoundsException.class, () -> engine.compute(bytes, 0, 1, bytes, -1, 1));
+        assertThrows(IllegalArgumentException.class,
+                () -> engine.compute(new int[]{-5}, 0, 1, codePoints, 0, 1));
+    }
+
+    @Test
+    void countSupplementaryCharactersAsOneLetterOnlyByCodePoints() {
+        final String grinningFace = new String(Character.toChars(0x1F600));
+        final String cryingFace = new String(Character.toChars(0x1F622));
+        final EditDistanceEngine engine = new EditDistanceEngine(EditCostModel.LEVENSHTEIN);
+        assertEquals(1, engine.compute("a" + grinningFace, "a" + cryingFace));     // same high surrogate
+        assertEquals(2, engine.compute("a" + grinningFace, "a"));
+        assertEquals(1, engine.computeByCodePoints("a" + grinningFace, "a" + cryingFace));
+        assertEquals(1, engine.computeByCodePoints("a" + grinningFace, "a"));
+        assertEquals(1, engine.computeByCodePoints(grinningFace + "b", "b"));
+        assertEquals(2, engine.computeByCodePoints("\uD83D", "ab"));   // an unpaired surrogate is a letter
+        assertEquals(EditDistanceCalculator.computeEditDistance("xy", "yx"),   // twiddle of two code points
+                EditDistanceCalculator.computeEditDistanceByCodePoints(
+                        grinningFace + cryingFace, cryingFace + grinningFace));
+        final int[] codePoints = (grinningFace + cryingFace).codePoints().toArray();
+        assertEquals(1, engine.compute(codePoints, 0, 1, codePoints, 1, 1));
+    }
+
+    @Test
+    void useOneInstancePerThread() throws InterruptedException {
+        final EditDistanceEngine instanceOfThisThread = EditDistanceEngine.getThreadLocalInstance();
+        assertSame(instanceOfThisThread, EditDistanceEngine.getThreadLocalInstance());
+        final EditDistanceEngine[] instanceOfOtherThread = new EditDistanceEngine[1];
+        Thread otherThread = new Thread(() -> instanceOfOtherThread[0] = EditDistanceEngine.getThreadLocalInstance());
+        otherThread.start();
+        otherThread.join();
+        assertNotNull(instanceOfOtherThread[0]);
+        assertNotSame(instanceOfThisThread, instanceOfOtherThread[0]);
+    }
+}
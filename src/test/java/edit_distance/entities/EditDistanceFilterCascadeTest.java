@@ -0,0 +1,113 @@
+package edit_distance.entities;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static edit_distance.entities.TestUtility.randomWord;
+import static org.junit.jupiter.api.Assertions.*;
+
+class EditDistanceFilterCascadeTest {
+
+    @NotNull
+    private static List<EditCostModel> costModels() {
+        return List.of(
+                EditCostModel.DEFAULT,
+                EditCostModel.LEVENSHTEIN,
+                EditCostModel.LEVENSHTEIN.withTwiddle(true),
+                EditCostModel.LEVENSHTEIN.withKill(true).withCost(EditOperation.KILL, 2),
+                EditCostModel.LEVENSHTEIN.withCost(EditOperation.INSERT, 2).withCost(EditOperation.DELETE, 3)
+                        .withTwiddle(true).withCost(EditOperation.TWIDDLE, 1).withKill(true)
+                        .withCost(EditOperation.KILL, 4),
+                EditCostModel.LEVENSHTEIN.withReplaceCosts("ab", new int[][]{{0, 1}, {1, 0}}),
+                EditCostModel.LEVENSHTEIN.withCost(EditOperation.COPY, 1).withCost(EditOperation.REPLACE, 2));
+    }
+
+    @Test
+    void giveTheSameResultsOfTheUnfilteredComputation() {
+        final Random random = new Random(0);
+        final String[] alphabets = {"ab", "abcd", "abcdefghijklmnop"};
+        for (EditCostModel costModel : costModels()) {
+            final List<EditDistanceFilterCascade> cascades = new ArrayList<>();
+            cascades.add(new EditDistanceFilterCascade(costModel));
+            for (int q = 1; q <= EditDistanceFilterCascade.MAX_Q; q++) {
+                cascades.add(new EditDistanceFilterCascade(costModel,
+                        List.of(EditDistanceFilterCascade.qGrams(costModel, q)), false));
+            }
+            for (int k = 0; k < 300; k++) {
+                final String alphabet = alphabets[random.nextInt(alphabets.length)];
+                final String startingWord = randomWord(random, random.nextInt(15), alphabet);
+                final String targetWord = random.nextBoolean()
+                        ? randomWord(random, random.nextInt(15), alphabet)
+                        : startingWord.substring(0, random.nextInt(startingWord.length() + 1))
+                        + randomWord(random, random.nextInt(3), alphabet)
+                        + startingWord.substring(random.nextInt(startingWord.length() + 1));
+                final int maxDistance = random.nextInt(8);
+                final int editDistance =
+                        new EditDistanceCalculator(startingWord, targetWord, costModel).getEditDistance();
+                final int expected = editDistance <= maxDistance ? editDistance : maxDistance + 1;
+                for (EditDistanceFilterCascade cascade : cascades) {
+                    assertEquals(expected, cascade.computeWithin(startingWord, targetWord, maxDistance),
+                            startingWord + " -> " + targetWord + " within " + maxDistance + " with " + costModel
+                                    + " and " + cascade.getStages());
+                }
+            }
+        }
+    }
+
+    @Test
+    void rejectDistantPairsBeforeTheDynamicProgramming() {
+        final EditDistanceFilterCascade cascade = new EditDistanceFilterCascade(EditCostModel.LEVENSHTEIN);
+        final List<String> candidates = List.of("kitten", "sitting", "mitten", "smitten", "kitchen",
+                "a", "abcdefghijklmnopqrstuvwxyz", "nettik", "kittens");
+        final int[] editDistances = cascade.computeAllWithin("kitten", candidates, 1);
+        assertArrayEquals(new int[]{0, 2, 1, 2, 2, 2, 2, 2, 1}, editDistances);
+
+        assertEquals(3, cascade.getStages().size());
+        assertEquals(candidates.size(), cascade.getEvaluatedCount(0));
+        assertEquals(2, cascade.getRejectedCount(0));                   // "a" and the alphabet
+        assertEquals(3, cascade.getRejectedCount(1));                   // "sitting", "smitten" and "kitchen"
+        assertEquals(1, cascade.getRejectedCount(2));                   // "nettik", as anagram
+        assertEquals(2.0 / candidates.size(), cascade.getRejectionRate(0));
+        assertEquals(candidates.size() - 6, cascade.getComputedCount());
+        assertTrue(cascade.getStrippedLetterCount() > 0);
+        assertTrue(cascade.toString().contains("length difference: 2/9 rejected"));
+
+        cascade.resetStatistics();
+        assertEquals(0, cascade.getEvaluatedCount(0));
+        assertEquals(0.0, cascade.getRejectionRate(2));
+        assertEquals(0, cascade.getComputedCount());
+    }
+
+    @Test
+    void growTheWorkspacesOfTheStages() {
+        final EditDistanceFilterCascade cascade = new EditDistanceFilterCascade(EditCostModel.LEVENSHTEIN);
+        final Random random = new Random(1);
+        for (int length : new int[]{3, 500, 10, 2000}) {
+            final String startingWord = randomWord(random, length, "abcdefgh");
+            final String targetWord = randomWord(random, length, "abcdefgh");
+            final int maxDistance = length / 2;
+            final int editDistance = EditDistanceCalculator.computeEditDistance(startingWord, targetWord,
+                    EditCostModel.LEVENSHTEIN);
+            assertEquals(Math.min(editDistance, maxDistance + 1),
+                    cascade.computeWithin(startingWord, targetWord, maxDistance));
+        }
+    }
+
+    @Test
+    void rejectInvalidArguments() {
+        final EditDistanceFilterCascade cascade = new EditDistanceFilterCascade(EditCostModel.DEFAULT);
+        assertThrows(IllegalArgumentException.class, () -> cascade.computeWithin("a", "b", -1));
+        assertThrows(IllegalArgumentException.class, () -> EditDistanceFilterCascade.qGrams(EditCostModel.DEFAULT, 0));
+        assertThrows(IllegalArgumentException.class,
+                () -> EditDistanceFilterCascade.qGrams(EditCostModel.DEFAULT, EditDistanceFilterCascade.MAX_Q + 1));
+        final EditCostModel paidCopy = EditCostModel.LEVENSHTEIN.withCost(EditOperation.COPY, 1);
+        assertFalse(EditDistanceFilterCascade.canStripCommonAffixes(paidCopy));
+        assertThrows(IllegalArgumentException.class,
+                () -> new EditDistanceFilterCascade(paidCopy, List.of(), true));
+        assertEquals(1, new EditDistanceFilterCascade(paidCopy, List.of(), false).computeWithin("a", "a", 3));
+    }
+}
@@ -0,0 +1,93 @@
+package edit_distance.entities;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EditDistanceMetricsTest {
+
+    @AfterEach
+    void disableAndResetTheCounters() {
+        EditDistanceMetrics.setEnabled(false);
+        EditDistanceMetrics.reset();
+    }
+
+    @Test
+    void countTheComputationsOfEachEngineOnlyWhileEnabled() {
+        EditDistanceMetrics.reset();
+        EditDistanceCalculator.computeEditDistance("kitten", "sitting");
+        assertEquals(0, EditDistanceMetrics.getComputationCount(EditDistanceMetrics.Engine.DYNAMIC_PROGRAMMING));
+
+        EditDistanceMetrics.setEnabled(true);
+        EditDistanceCalculator.computeEditDistance("kitten", "sitting");
+        new EditDistanceCalculator("kitten", "sitting");
+        assertEquals(4, EditDistanceCalculator.distanceWithin("abcdefgh", "hgfedcba", 3));
+        final EditDistanceCache cache = new EditDistanceCache(10);
+        cache.getEditDistance("kitten", "sitting");
+        cache.getEditDistance("kitten", "sitting");
+
+        // the miss of the cache is computed with the fastest algorithm
+        assertEquals(2, EditDistanceMetrics.getComputationCount(EditDistanceMetrics.Engine.DYNAMIC_PROGRAMMING)
+                + EditDistanceMetrics.getComputationCount(EditDistanceMetrics.Engine.BIT_PARALLEL));
+        assertEquals(2 * 6 * 7, EditDistanceMetrics.getFilledCellCount(EditDistanceMetrics.Engine.DYNAMIC_PROGRAMMING)
+                + EditDistanceMetrics.getFilledCellCount(EditDistanceMetrics.Engine.BIT_PARALLEL));
+        assertEquals(1, EditDistanceMetrics.getComputationCount(EditDistanceMetrics.Engine.FULL_MATRIX));
+        assertEquals(1, EditDistanceMetrics.getComputationCount(EditDistanceMetrics.Engine.BANDED));
+        assertTrue(EditDistanceMetrics.getFilledCellCount(EditDistanceMetrics.Engine.BANDED) < 8 * 8);
+        assertEquals(1, EditDistanceMetrics.getEarlyExitCount());
+        assertEquals(1, EditDistanceMetrics.getComputationCount(EditDistanceMetrics.Engine.CACHE));
+        assertEquals(1, Arrays.stream(EditDistanceMetrics.getDurationHistogram(
+                EditDistanceMetrics.Engine.FULL_MATRIX)).sum());
+
+        final String text = EditDistanceMetrics.getMetricsAsText();
+        assertTrue(text.contains("edit_distance_computations_total{engine=\"FULL_MATRIX\"} 1\n"));
+        assertTrue(text.contains("edit_distance_early_exits_total 1\n"));
+        assertTrue(text.contains("edit_distance_duration_nanoseconds_count{engine=\"CACHE\"} 1\n"));
+        assertTrue(text.contains("edit_distance_duration_nanoseconds_bucket{engine=\"BANDED\",le=\"+Inf\"} 1\n"));
+        assertFalse(text.contains("WAVEFRONT"));
+
+        EditDistanceMetrics.setEnabled(false);
+        new EditDistanceCalculator("kitten", "sitting");
+        assertEquals(1, EditDistanceMetrics.getComputationCount(EditDistanceMetrics.Engine.FULL_MATRIX));
+        EditDistanceMetrics.reset();
+        assertEquals(0, EditDistanceMetrics.getComputationCount(EditDistanceMetrics.Engine.CACHE));
+    }
+
+    @Test
+    void emitFlightRecorderEventsWhileRecording() throws IOException {
+        final Path recordingFile = Files.createTempFile("edit-distance", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(ComputationEvent.NAME);
+            recording.start();
+            EditDistanceCalculator.computeEditDistance("kitten", "sitting", EditCostModel.LEVENSHTEIN);
+            EditDistanceCalculator.distanceWithin("abcdefgh", "hgfedcba", 3);
+            recording.stop();
+            recording.dump(recordingFile);
+
+            final List<RecordedEvent> events = RecordingFile.readAllEvents(recordingFile).stream()
+                    .filter(event -> event.getEventType().getName().equals(ComputationEvent.NAME))
+                    .collect(Collectors.toList());
+            assertEquals(2, events.size());
+            assertEquals(EditDistanceMetrics.Engine.DYNAMIC_PROGRAMMING.name(), events.get(0).getString("engine"));
+            assertEquals(6, events.get(0).getInt("startingWordLength"));
+            assertEquals(7, events.get(0).getInt("targetWordLength"));
+            assertEquals(3, events.get(0).getInt("editDistance"));
+            assertFalse(events.get(0).getBoolean("cached"));
+            assertEquals(EditDistanceMetrics.Engine.BANDED.name(), events.get(1).getString("engine"));
+            assertTrue(events.get(1).getBoolean("earlyExit"));
+        } finally {
+            Files.deleteIfExists(recordingFile);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package edit_distance.entities;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EditMatricesTest {
+
+    @Test
+    void packTheOperationsAcrossTheBoundariesOfTheWords() throws IOException {
+        final Path spillDirectory = Files.createTempDirectory("matrices");
+        try {
+            for (long maxCellsOnHeap : new long[]{EditMatrices.MAX_CELLS_ON_HEAP, 0}) {
+                packTheOperations(
+                        new EditMatrices(7, 13, 1000, maxCellsOnHeap, spillDirectory), maxCellsOnHeap == 0);
+            }
+            // without a spill directory, the matrices are saved in the heap
+            packTheOperations(new EditMatrices(7, 13, 1000, 0, null), false);
+            try (Stream<Path> files = Files.list(spillDirectory)) {
+                assertEquals(0, files.count());     // the temporary files are deleted once mapped
+            }
+        } finally {
+            Files.deleteIfExists(spillDirectory);
+        }
+    }
+
+    private static void packTheOperations(@NotNull final EditMatrices editMatrices, final boolean offHeap) {
+        assertEquals(offHeap, editMatrices.isOffHeap());
+        final EditOperation[] operations = EditOperation.values();
+        for (int i = 0; i < 7; i++) {
+            for (int j = 0; j < 13; j++) {
+                assertEquals(EditOperation.COPY, editMatrices.getOperation(i, j));
+                editMatrices.setOperation(i, j, operations[(i * 13 + j) % operations.length]);
+                editMatrices.setCost(i, j, i * 100 + j);
+            }
+        }
+        editMatrices.setOperation(1, 8, EditOperation.KILL);    // overwrite, the 21st cell of the first word
+        editMatrices.setOperation(1, 8, EditOperation.REPLACE);
+        for (int i = 0; i < 7; i++) {
+            for (int j = 0; j < 13; j++) {
+                final EditOperation expectedOperation =
+                        i == 1 && j == 8 ? EditOperation.REPLACE : operations[(i * 13 + j) % operations.length];
+                assertEquals(expectedOperation, editMatrices.getOperation(i, j));
+                assertEquals(i * 100 + j, editMatrices.getCost(i, j));
+            }
+        }
+    }
+
+    @Test
+    void useTwoBytesPerCostIfTheyFitInShort() {
+        final EditMatrices shortCosts =
+                new EditMatrices(100, 100, Short.MAX_VALUE, EditMatrices.MAX_CELLS_ON_HEAP, null);
+        assertEquals(Short.BYTES, shortCosts.getBytesPerCost());
+        assertEquals(100 * 100 * Short.BYTES + (100 * 100 + 20) / 21 * Long.BYTES, shortCosts.getNumberOfBytes());
+        final EditMatrices intCosts =
+                new EditMatrices(100, 100, Short.MAX_VALUE + 1, EditMatrices.MAX_CELLS_ON_HEAP, null);
+        assertEquals(Integer.BYTES, intCosts.getBytesPerCost());
+        intCosts.setCost(99, 99, 1 << 20);
+        assertEquals(1 << 20, intCosts.getCost(99, 99));
+    }
+}
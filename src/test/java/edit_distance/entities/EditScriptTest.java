@@ -0,0 +1,87 @@
+package edit_distance.entities;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EditScriptTest {
+
+    @ParameterizedTest
+    @CsvSource({
+            "HOME,HOUSE,2=1I1X1=",
+            "hello,hella,4=1X",
+            "caar,car,1=1D2=",
+            "A,,1D",
+            ",B,1I",
+            ",,''"
+    })
+    void getCigarString(String startingWord, String targetWord, String expectedCigar) {
+        startingWord = startingWord == null ? "" : startingWord;    // correction due to csv interpreter
+        targetWord = targetWord == null ? "" : targetWord;
+        expectedCigar = expectedCigar == null ? "" : expectedCigar;
+        assertEquals(expectedCigar, new EditDistanceCalculator(startingWord, targetWord).getEditScript().toCigarString());
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "HOME,HOUSE",
+            "Intention,Execution",
+            "abcd,badc",
+            "PLASMA,ALTRUISM"
+    })
+    void iterateLazilyTheSameOperationsOfTheList(String startingWord, String targetWord) {
+        var calculator = new EditDistanceCalculator(startingWord, targetWord);
+        List<AppliedEditOperation> fromScript = new ArrayList<>();
+        calculator.getEditScript().forEach(fromScript::add);
+        assertEquals(
+                calculator.getSequenceOfOperationComputedToTransformStartingWordToTargetWord().toString(),
+                fromScript.toString());
+        assertEquals(fromScript.size(), calculator.getEditScript().stream().count());
+        assertEquals(fromScript.size() - 1, calculator.getEditScript().getNumberOfOperations());
+    }
+
+    @Test
+    void countOperationsWithoutMaterializingTheList() {
+        EditScript editScript = new EditDistanceCalculator("Intention", "Execution").getEditScript();
+        long total = 0;
+        for (EditOperation operation : EditOperation.values()) {
+            total += editScript.countOf(operation);
+        }
+        assertEquals(editScript.getNumberOfOperations(), total);
+        assertEquals(5, editScript.countOf(EditOperation.REPLACE) + editScript.countOf(EditOperation.INSERT)
+                + editScript.countOf(EditOperation.DELETE));
+    }
+
+    @Test
+    void getFirstDifference() {
+        AppliedEditOperation firstDifference =
+                new EditDistanceCalculator("hello", "hella").getEditScript().getFirstOperationDifferentFromCopy();
+        assertNotNull(firstDifference);
+        assertEquals(EditOperation.REPLACE, firstDifference.getEditOperation());
+        assertEquals(5, firstDifference.getPositionOfLetterInFirstWord());
+        assertNull(new EditDistanceCalculator("hello", "hello").getEditScript().getFirstOperationDifferentFromCopy());
+    }
+
+    @Test
+    void decodeRunLengthEncoding() {
+        long[] runs = new EditDistanceCalculator("aaab", "aaac").getEditScript().toRunLengthEncoding();
+        assertEquals(2, runs.length);
+        assertEquals(EditOperation.COPY, EditScript.getOperationOfRun(runs[0]));
+        assertEquals(3, EditScript.getLengthOfRun(runs[0]));
+        assertEquals(EditOperation.REPLACE, EditScript.getOperationOfRun(runs[1]));
+        assertEquals(1, EditScript.getLengthOfRun(runs[1]));
+    }
+
+    @Test
+    void dontOverflowTheStackWithLongWords() {
+        final String startingWord = "ab".repeat(50_000);
+        final String targetWord = "ba";
+        EditScript editScript = new EditDistanceCalculator(startingWord, targetWord).getEditScript();
+        assertTrue(editScript.getNumberOfOperations() > 0);
+    }
+}
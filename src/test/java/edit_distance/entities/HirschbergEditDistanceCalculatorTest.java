@@ -0,0 +1,120 @@
+package edit_distance.entities;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static edit_distance.entities.TestUtility.randomWord;
+import static org.junit.jupiter.api.Assertions.*;
+
+class HirschbergEditDistanceCalculatorTest {
+
+    /**
+     * Asserts that the given operations transform the starting word into the target word
+     * and that their overall cost is the edit distance.
+     */
+    private static void assertValidSequenceOfOperations(
+            @NotNull final String startingWord, @NotNull final String targetWord,
+            @NotNull final List<AppliedEditOperation> operations) {
+        assertEquals(
+                new EditDistanceCalculator(startingWord, targetWord).getEditDistance(),
+                operations.stream().mapToInt(AppliedEditOperation::getOperationCost).sum());
+        assertEquals(EditOperation.COPY, operations.get(0).getEditOperation());
+        int i = 0, j = 0;
+        for (AppliedEditOperation operation : operations.subList(1, operations.size())) {
+            final int nextI = operation.getPositionOfLetterInFirstWord();
+            final int nextJ = operation.getPositionOfLetterInSecondWord();
+            switch (operation.getEditOperation()) {
+                case COPY:
+                    assertEquals(startingWord.charAt(i), targetWord.charAt(j));
+                    assertTrue(nextI == i + 1 && nextJ == j + 1);
+                    break;
+                case REPLACE:
+                    assertNotEquals(startingWord.charAt(i), targetWord.charAt(j));
+                    assertTrue(nextI == i + 1 && nextJ == j + 1);
+                    break;
+                case TWIDDLE:
+                    assertEquals(startingWord.charAt(i), targetWord.charAt(j + 1));
+                    assertEquals(startingWord.charAt(i + 1), targetWord.charAt(j));
+                    assertTrue(nextI == i + 2 && nextJ == j + 2);
+                    break;
+                case DELETE:
+                    assertTrue(nextI == i + 1 && nextJ == j);
+                    break;
+                case INSERT:
+                    assertTrue(nextI == i && nextJ == j + 1);
+                    break;
+                default /*KILL*/:
+                    assertTrue(nextI == startingWord.length() && nextJ == j);
+                    break;
+            }
+            i = nextI;
+            j = nextJ;
+        }
+        assertEquals(startingWord.length(), i);
+        assertEquals(targetWord.length(), j);
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "Foo,Bar",
+            ",",
+            ",B",
+            "A,",
+            "HOME,HOUSE",
+            "Intention,Execution",
+            "abcd,badc",
+            "PLASMA,ALTRUISM"
+    })
+    void computeValidSequenceOfOperations(String startingWord, String targetWord) {
+        startingWord = startingWord == null ? "" : startingWord;    // correction due to csv interpreter
+        targetWord = targetWord == null ? "" : targetWord;
+        assertValidSequenceOfOperations(startingWord, targetWord,
+                HirschbergEditDistanceCalculator.getSequenceOfOperationComputedToTransformStartingWordToTargetWord(
+                        startingWord, targetWord));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {10, 100, 400})
+    void computeValidSequenceOfOperationsOnRandomWords(int maxLength) {
+        final Random random = new Random(maxLength);
+        for (int k = 0; k < 50; k++) {
+            String startingWord = randomWord(random, random.nextInt(maxLength + 1));
+            String targetWord = randomWord(random, random.nextInt(maxLength + 1));
+            assertValidSequenceOfOperations(startingWord, targetWord,
+                    HirschbergEditDistanceCalculator.getSequenceOfOperationComputedToTransformStartingWordToTargetWord(
+                            startingWord, targetWord));
+        }
+    }
+
+    @Test
+    void computeValidSequenceOfOperationsInParallel() {
+        final Random random = new Random(0);
+        final String startingWord = randomWord(random, 1500);
+        final String targetWord = randomWord(random, 1400);
+        final ForkJoinPool forkJoinPool = new ForkJoinPool(4);
+        try {
+            assertValidSequenceOfOperations(startingWord, targetWord,
+                    HirschbergEditDistanceCalculator.getSequenceOfOperationComputedToTransformStartingWordToTargetWord(
+                            startingWord, targetWord, forkJoinPool));
+        } finally {
+            forkJoinPool.shutdown();
+        }
+    }
+
+    @Test
+    void killTheStartingWordIfCheaperThanDeletingAllItsRemainingLetters() {
+        final String startingWord = "A" + "Z".repeat(2 * EditOperation.KILL.getCost());
+        List<AppliedEditOperation> operations =
+                HirschbergEditDistanceCalculator.getSequenceOfOperationComputedToTransformStartingWordToTargetWord(
+                        startingWord, "A");
+        assertValidSequenceOfOperations(startingWord, "A", operations);
+        assertEquals(EditOperation.KILL, operations.get(operations.size() - 1).getEditOperation());
+    }
+}
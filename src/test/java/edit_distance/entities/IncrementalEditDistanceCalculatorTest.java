@@ -0,0 +1,71 @@
+package edit_distance.entities;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static edit_distance.entities.TestUtility.randomWord;
+import static org.junit.jupiter.api.Assertions.*;
+
+class IncrementalEditDistanceCalculatorTest {
+
+    private static void assertSameDistancesOfCalculator(@NotNull final IncrementalEditDistanceCalculator calculator) {
+        final List<String> candidates = calculator.getCandidates();
+        final int[] editDistances = calculator.getEditDistances();
+        for (int c = 0; c < candidates.size(); c++) {
+            assertEquals(new EditDistanceCalculator(calculator.getQuery(), candidates.get(c), calculator.getCostModel())
+                    .getEditDistance(), editDistances[c]);
+        }
+    }
+
+    @Test
+    void followTheQueryWhileTypingAndDeleting() {
+        final Random random = new Random(0);
+        final List<EditCostModel> costModels = List.of(
+                EditCostModel.DEFAULT,
+                EditCostModel.LEVENSHTEIN,
+                EditCostModel.LEVENSHTEIN.withCost(EditOperation.INSERT, 2).withCost(EditOperation.COPY, 1)
+                        .withTwiddle(true).withCost(EditOperation.TWIDDLE, 1)
+                        .withKill(true).withCost(EditOperation.KILL, 2),
+                EditCostModel.LEVENSHTEIN.withReplaceCosts("ab", new int[][]{{0, 3}, {1, 0}}));
+        for (EditCostModel costModel : costModels) {
+            final List<String> candidates = new ArrayList<>();
+            for (int c = 0; c < 30; c++) {
+                candidates.add(randomWord(random, random.nextInt(25)));
+            }
+            final IncrementalEditDistanceCalculator calculator =
+                    new IncrementalEditDistanceCalculator(candidates, costModel);
+            assertSameDistancesOfCalculator(calculator);
+            for (int keystroke = 0; keystroke < 80; keystroke++) {   // the query grows beyond the initial capacity
+                if (calculator.getQuery().isEmpty() || random.nextInt(4) > 0) {
+                    calculator.append(randomWord(random, 1).charAt(0));
+                } else {
+                    calculator.removeLastLetter();
+                }
+                assertSameDistancesOfCalculator(calculator);
+            }
+        }
+    }
+
+    @Test
+    void appendWordsAndClearTheQuery() {
+        final IncrementalEditDistanceCalculator calculator =
+                new IncrementalEditDistanceCalculator(List.of("sitting", "kitten", ""), EditCostModel.LEVENSHTEIN);
+        assertArrayEquals(new int[]{7, 6, 0}, calculator.getEditDistances());
+        calculator.append("kitten");
+        assertEquals("kitten", calculator.getQuery());
+        assertArrayEquals(new int[]{3, 0, 6}, calculator.getEditDistances());
+        calculator.removeLastLetter();
+        assertEquals(1, calculator.getEditDistance(1));
+        calculator.clear();
+        assertEquals("", calculator.getQuery());
+        assertEquals(7, calculator.getEditDistance(0));
+
+        assertThrows(IllegalStateException.class, calculator::removeLastLetter);
+        assertThrows(IndexOutOfBoundsException.class, () -> calculator.getEditDistance(3));
+        assertThrows(UnsupportedOperationException.class, () -> calculator.getCandidates().add("mitten"));
+    }
+}
@@ -0,0 +1,90 @@
+package edit_distance.entities;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static edit_distance.entities.TestUtility.randomWord;
+import static org.junit.jupiter.api.Assertions.*;
+
+class LaneParallelEditDistanceCalculatorTest {
+
+    /**
+     * The letters of the random words.
+     */
+    private static final String ALPHABET = "abc";
+
+    /**
+     * Models covering the lanes and the scalar fallback.
+     */
+    @NotNull
+    private static List<EditCostModel> costModels() {
+        return List.of(
+                EditCostModel.DEFAULT,
+                EditCostModel.LEVENSHTEIN,
+                EditCostModel.LEVENSHTEIN.withTwiddle(true).withKill(true).withCost(EditOperation.KILL, 2),
+                EditCostModel.DEFAULT.withCost(EditOperation.REPLACE, 3).withCost(EditOperation.INSERT, 2)
+                        .withCost(EditOperation.TWIDDLE, 2).withCost(EditOperation.COPY, 1),
+                EditCostModel.LEVENSHTEIN.withCost(EditOperation.DELETE, 2).withTwiddle(true)
+                        .withReplaceCosts("ab", new int[][]{{0, 3}, {1, 0}}),
+                EditCostModel.LEVENSHTEIN.withCost(EditOperation.INSERT, Integer.MAX_VALUE / 8));
+    }
+
+    @ParameterizedTest
+    @MethodSource("costModels")
+    void computeTheSameEditDistancesOfTheScalarAlgorithm(@NotNull final EditCostModel costModel) {
+        final Random random = new Random(costModel.hashCode());
+        final List<String> startingWords = new ArrayList<>();
+        final List<String> targetWords = new ArrayList<>();
+        for (int p = 0; p < 5 * LaneParallelEditDistanceCalculator.LANES + 3; p++) {
+            // mostly short words, sometimes longer than the lanes allow
+            final int maxLength = random.nextInt(10) == 0 ? 80 : 20;
+            startingWords.add(randomWord(random, random.nextInt(maxLength), ALPHABET));
+            targetWords.add(randomWord(random, random.nextInt(maxLength), ALPHABET));
+        }
+        final int[] editDistances =
+                LaneParallelEditDistanceCalculator.computeAll(startingWords, targetWords, costModel, false);
+        for (int p = 0; p < startingWords.size(); p++) {
+            assertEquals(
+                    new EditDistanceCalculator(startingWords.get(p), targetWords.get(p), costModel).getEditDistance(),
+                    editDistances[p]);
+        }
+        if (LaneParallelEditDistanceCalculator.isVectorized()) {
+            assertArrayEquals(editDistances,
+                    LaneParallelEditDistanceCalculator.computeAll(startingWords, targetWords, costModel, true));
+        }
+    }
+
+    @Test
+    void useTheVectorApiOnlyIfItsModuleIsAvailable() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            assertFalse(LaneParallelEditDistanceCalculator.isVectorized());
+            assertThrows(IllegalStateException.class, () -> LaneParallelEditDistanceCalculator.computeAll(
+                    List.of("a"), List.of("b"), EditCostModel.DEFAULT, true));
+        } else if (Runtime.version().feature() >= 17) {  // the build compiles the kernel with a JDK 17 or later
+            assertTrue(LaneParallelEditDistanceCalculator.isVectorized());
+            assertArrayEquals(new int[]{EditDistanceCalculator.computeEditDistance("kitten", "sitting")},
+                    LaneParallelEditDistanceCalculator.computeAll(
+                            List.of("kitten"), List.of("sitting"), EditCostModel.DEFAULT, true));
+        }
+    }
+
+    @Test
+    void computeTheDefaultCostsAndRejectListsOfDifferentSizes() {
+        assertArrayEquals(new int[]{EditDistanceCalculator.computeEditDistance("kitten", "sitting"), 0},
+                LaneParallelEditDistanceCalculator.computeAll(List.of("kitten", ""), List.of("sitting", "")));
+        assertEquals(0, LaneParallelEditDistanceCalculator.computeAll(List.of(), List.of()).length);
+        assertThrows(IllegalArgumentException.class,
+                () -> LaneParallelEditDistanceCalculator.computeAll(List.of("a"), List.of()));
+        assertFalse(LaneParallelEditDistanceCalculator.isApplicable(EditCostModel.LEVENSHTEIN
+                .withCost(EditOperation.DELETE, 2).withReplaceCosts("ab", new int[][]{{0, 3}, {1, 0}})));
+        assertFalse(LaneParallelEditDistanceCalculator.isApplicable(
+                EditCostModel.LEVENSHTEIN.withCost(EditOperation.INSERT, Integer.MAX_VALUE / 8)));
+        assertTrue(LaneParallelEditDistanceCalculator.isApplicable(EditCostModel.DEFAULT));
+    }
+}
@@ -0,0 +1,84 @@
+package edit_distance.entities;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static edit_distance.entities.TestUtility.randomWord;
+import static org.junit.jupiter.api.Assertions.*;
+
+class SymmetricDeleteIndexTest {
+
+    /**
+     * The letters of the random words.
+     */
+    private static final String ALPHABET = "abcde";
+
+    /**
+     * Models whose operations cost at least 1 within the threshold.
+     */
+    @NotNull
+    private static List<EditCostModel> costModels() {
+        return List.of(
+                EditCostModel.DEFAULT,
+                EditCostModel.LEVENSHTEIN,
+                EditCostModel.LEVENSHTEIN.withTwiddle(true),
+                EditCostModel.LEVENSHTEIN.withCost(EditOperation.INSERT, 2)
+                        .withKill(true).withCost(EditOperation.KILL, 3)
+                        .withReplaceCosts("ab", new int[][]{{0, 2}, {1, 0}}));
+    }
+
+    @ParameterizedTest
+    @MethodSource("costModels")
+    void findTheSameWordsOfALinearScan(@NotNull final EditCostModel costModel) {
+        final Random random = new Random(costModel.hashCode());
+        final List<String> dictionary = new ArrayList<>();
+        for (int i = 0; i < 600; i++) {
+            dictionary.add(randomWord(random, random.nextInt(8), ALPHABET));
+        }
+        final SymmetricDeleteIndex index = new SymmetricDeleteIndex(dictionary, 2, costModel);
+        assertEquals(dictionary.size(), index.size());
+        for (int k = 0; k < 50; k++) {
+            String query = randomWord(random, random.nextInt(9), ALPHABET);
+            int maxDistance = random.nextInt(3);
+            List<DictionaryMatch> expectedMatches = new ArrayList<>();
+            dictionary.stream().distinct().forEach(word -> {
+                int editDistance = new EditDistanceCalculator(query, word, costModel).getEditDistance();
+                if (editDistance <= maxDistance) {
+                    expectedMatches.add(new DictionaryMatch(word, editDistance));
+                }
+            });
+            expectedMatches.sort(null);
+            assertEquals(expectedMatches, index.search(query, maxDistance));
+        }
+    }
+
+    @Test
+    void reportMemoryFootprintAndBuildTime() {
+        final SymmetricDeleteIndex index = new SymmetricDeleteIndex(List.of("ab", "ba", "ab"), 1);
+        assertEquals(3, index.size());
+        assertEquals(1, index.getMaxEditDistance());
+        assertEquals(4, index.getNumberOfDeletionVariants());  // "ab", "ba", "a", "b"
+        assertEquals(9, index.getNumberOfPostings());
+        assertTrue(index.getMemoryFootprintInBytes() > 0);
+        assertTrue(index.getBuildTimeInNanoseconds() >= 0);
+        assertEquals(List.of(new DictionaryMatch("ab", 0)), index.search("ab", 1));   // duplicates reported once
+    }
+
+    @Test
+    void rejectInvalidThresholdsAndCostModels() {
+        assertThrows(IllegalArgumentException.class, () -> new SymmetricDeleteIndex(List.of("a"), -1));
+        assertThrows(IllegalArgumentException.class,
+                () -> new SymmetricDeleteIndex(List.of("a"), 2, EditCostModel.LEVENSHTEIN.withKill(true)));
+        assertThrows(IllegalArgumentException.class,
+                () -> new SymmetricDeleteIndex(
+                        List.of("a"), 1, EditCostModel.LEVENSHTEIN.withCost(EditOperation.INSERT, 0)));
+        assertThrows(IllegalArgumentException.class,
+                () -> new SymmetricDeleteIndex(List.of("a"), 1).search("a", 2));
+    }
+}
@@ -0,0 +1,69 @@
+package edit_distance.entities;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Unmodifiable;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Helpers shared by the tests of the package.
+ */
+final class TestUtility {
+
+    /**
+     * The letters of the random words, unless other ones are given.
+     */
+    static final String ALPHABET = "abcd";
+
+    /**
+     * Models covering all the kernels.
+     */
+    @Unmodifiable
+    private static final List<EditCostModel> COST_MODELS = List.of(
+            EditCostModel.DEFAULT,
+            EditCostModel.LEVENSHTEIN,
+            EditCostModel.LEVENSHTEIN.withTwiddle(true).withKill(true).withCost(EditOperation.KILL, 2),
+            EditCostModel.DEFAULT.withCost(EditOperation.REPLACE, 3).withCost(EditOperation.INSERT, 2)
+                    .withCost(EditOperation.TWIDDLE, 2).withCost(EditOperation.KILL, 4),
+            EditCostModel.LEVENSHTEIN.withCost(EditOperation.DELETE, 2).withTwiddle(true)
+                    .withReplaceCosts("ab", new int[][]{{0, 3}, {1, 0}}));
+
+    private TestUtility() {
+    }
+
+    /**
+     * @return cost models covering all the kernels, to be used as
+     * <code>@MethodSource("edit_distance.entities.TestUtility#costModels")</code>.
+     */
+    @NotNull
+    @Unmodifiable
+    static List<EditCostModel> costModels() {
+        return COST_MODELS;
+    }
+
+    /**
+     * @param random The source of the letters.
+     * @param length The length of the word.
+     * @return a word with random letters of {@link #ALPHABET}.
+     */
+    @NotNull
+    static String randomWord(@NotNull final Random random, final int length) {
+        return randomWord(random, length, ALPHABET);
+    }
+
+    /**
+     * @param random   The source of the letters.
+     * @param length   The length of the word.
+     * @param alphabet The letters of the word.
+     * @return a word with random letters of the given alphabet.
+     */
+    @NotNull
+    static String randomWord(@NotNull final Random random, final int length, @NotNull final String alphabet) {
+        final StringBuilder word = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            word.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return word.toString();
+    }
+}
@@ -0,0 +1,56 @@
+package edit_distance.entities;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static edit_distance.entities.TestUtility.randomWord;
+import static org.junit.jupiter.api.Assertions.*;
+
+class WavefrontEditDistanceCalculatorTest {
+
+    /**
+     * The letters of the random words.
+     */
+    private static final String ALPHABET = "abc";
+
+    @ParameterizedTest
+    @ValueSource(ints = {2, 3, 7, 64})
+    void computeTheSameEditDistanceForAnySizeOfBlocks(int blockSize) {
+        final Random random = new Random(blockSize);
+        final ForkJoinPool forkJoinPool = new ForkJoinPool(3);
+        try {
+            for (EditCostModel costModel : TestUtility.costModels()) {
+                for (int k = 0; k < 60; k++) {
+                    String startingWord = randomWord(random, random.nextInt(30), ALPHABET);
+                    String targetWord = randomWord(random, random.nextInt(30), ALPHABET);
+                    assertEquals(
+                            new EditDistanceCalculator(startingWord, targetWord, costModel).getEditDistance(),
+                            WavefrontEditDistanceCalculator.computeEditDistance(
+                                    startingWord.chars().toArray(), targetWord.chars().toArray(),
+                                    costModel, forkJoinPool, blockSize));
+                }
+            }
+        } finally {
+            forkJoinPool.shutdown();
+        }
+    }
+
+    @Test
+    void computeTheEditDistanceOfLongWords() {
+        final Random random = new Random(0);
+        final String startingWord = randomWord(random, 3000, ALPHABET);
+        final String targetWord = randomWord(random, 2500, ALPHABET);
+        for (EditCostModel costModel : TestUtility.costModels()) {
+            assertEquals(EditDistanceCalculator.computeEditDistance(startingWord, targetWord, costModel),
+                    WavefrontEditDistanceCalculator.computeEditDistance(startingWord, targetWord, costModel));
+        }
+        assertEquals(EditDistanceCalculator.computeEditDistance(startingWord, targetWord),
+                new EditDistanceEngine(EditDistanceAlgorithm.WAVEFRONT).compute(startingWord, targetWord));
+        assertThrows(IllegalArgumentException.class, () -> WavefrontEditDistanceCalculator.computeEditDistance(
+                new int[]{'a'}, new int[]{'b'}, EditCostModel.DEFAULT, ForkJoinPool.commonPool(), 1));
+    }
+}